@@ -0,0 +1,36 @@
+package org.lrdm.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Startet JMH und schreibt die Ergebnisse standardmäßig als JSON nach {@code target/jmh-result.json},
+ * sodass Läufe verschiedener Commits maschinell verglichen werden können.
+ * Alle Argumente werden an JMH durchgereicht; eigene {@code -rf}/{@code -rff} überschreiben die Vorgabe.
+ * <p>
+ * Beispiel: {@code java -jar target/benchmarks.jar NetworkTimeStep -p mirrors=1000 -rff base.json}
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+public final class BenchmarkMain {
+
+    /** Standard-Ergebnisdatei. */
+    public static final String DEFAULT_RESULT_FILE = "target/jmh-result.json";
+
+    private BenchmarkMain() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        List<String> jmhArgs = new ArrayList<>(Arrays.asList(args));
+        if (!jmhArgs.contains("-rf")) {
+            jmhArgs.add("-rf");
+            jmhArgs.add("json");
+        }
+        if (!jmhArgs.contains("-rff")) {
+            jmhArgs.add("-rff");
+            jmhArgs.add(DEFAULT_RESULT_FILE);
+        }
+        org.openjdk.jmh.Main.main(jmhArgs.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,96 @@
+package org.lrdm.benchmarks;
+
+import org.lrdm.Network;
+import org.lrdm.effectors.Effector;
+import org.lrdm.topologies.strategies.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Properties;
+
+/**
+ * Gemeinsame Fixtures der Benchmarks: Simulationsparameter und Topologie-Strategien nach Namen.
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+public final class BenchmarkNetworks {
+
+    /** Namen aller Strategien, wie sie in {@code @Param} verwendet werden. */
+    public static final String[] STRATEGIES = {
+            "BalancedTree", "Tree", "DepthLimitTree", "Line", "Star", "FullyConnected", "NConnected", "Snowflake"
+    };
+
+    private BenchmarkNetworks() {
+    }
+
+    /**
+     * Lädt die Standard-Konfiguration ({@code sim.conf}) aus dem Simulator-Jar. Ausfälle werden deaktiviert,
+     * damit Messungen reproduzierbar bleiben.
+     *
+     * @return neue Properties-Instanz
+     */
+    public static Properties props() {
+        Properties props = new Properties();
+        try (InputStream in = BenchmarkNetworks.class.getResourceAsStream("/sim.conf")) {
+            if (in == null) {
+                throw new IllegalStateException("sim.conf nicht im Klassenpfad gefunden");
+            }
+            props.load(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        props.setProperty("fault_probability", "0.0");
+        return props;
+    }
+
+    /**
+     * @param name Name der Strategie aus {@link #STRATEGIES}
+     * @return neue Instanz der Strategie
+     */
+    public static TopologyStrategy strategy(String name) {
+        return switch (name) {
+            case "BalancedTree" -> new BalancedTreeTopologyStrategy();
+            case "Tree" -> new TreeTopologyStrategy();
+            case "DepthLimitTree" -> new DepthLimitTreeTopologyStrategy();
+            case "Line" -> new LineTopologyStrategy();
+            case "Star" -> new StarTopologyStrategy();
+            case "FullyConnected" -> new FullyConnectedTopology();
+            case "NConnected" -> new NConnectedTopology();
+            case "Snowflake" -> new SnowflakeTopologyStrategy();
+            default -> throw new IllegalArgumentException("Unbekannte Strategie: " + name);
+        };
+    }
+
+    /**
+     * Erstellt ein Netzwerk samt Effector und lässt es die angegebene Anzahl Schritte laufen.
+     *
+     * @param strategy Topologie-Strategie
+     * @param mirrors  Anzahl der Mirrors
+     * @param ticks    Anzahl der Aufwärmschritte
+     * @return das Netzwerk
+     */
+    public static Network network(TopologyStrategy strategy, int mirrors, int ticks) {
+        return network(strategy, mirrors, Integer.parseInt(props().getProperty("num_links_per_mirror")), ticks);
+    }
+
+    /**
+     * Erstellt ein Netzwerk mit vorgegebenem Link-Grad samt Effector und lässt es die angegebene Anzahl Schritte laufen.
+     *
+     * @param strategy Topologie-Strategie
+     * @param mirrors  Anzahl der Mirrors
+     * @param links    Anzahl der Ziel-Links pro Mirror
+     * @param ticks    Anzahl der Aufwärmschritte
+     * @return das Netzwerk
+     */
+    public static Network network(TopologyStrategy strategy, int mirrors, int links, int ticks) {
+        Properties props = props();
+        props.setProperty("num_links_per_mirror", Integer.toString(links));
+        Network network = new Network(strategy, mirrors, links, Integer.parseInt(props.getProperty("fileSize")), props);
+        network.setEffector(new Effector(network));
+        for (int t = 1; t <= ticks; t++) {
+            network.timeStep(t);
+        }
+        return network;
+    }
+}
@@ -0,0 +1,132 @@
+package org.lrdm.benchmarks;
+
+import java.util.List;
+
+/**
+ * Empirische Komplexitätsschätzung: passt {@code t = c * n^k} per kleinster Quadrate im log-log-Raum an
+ * Messpunkte an und vergleicht den Exponenten {@code k} mit einem Budget.
+ *
+ * @param exponent geschätzter Exponent {@code k}
+ * @param rSquared Bestimmtheitsmaß der Regression (1 = perfekt)
+ * @param points   Anzahl der verwendeten Messpunkte
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+public record ComplexityFit(double exponent, double rSquared, int points) {
+
+    /** Toleranz auf den Budget-Exponenten, da Messungen bei kleinen n durch Konstanten verzerrt sind. */
+    public static final double TOLERANCE = 0.15;
+
+    /**
+     * Komplexitätsklassen, gegen die gemessen wird.
+     */
+    public enum Budget {
+        N("n") {
+            @Override
+            public double apply(double n) {
+                return n;
+            }
+        },
+        N_LOG_N("nlogn") {
+            @Override
+            public double apply(double n) {
+                return n * Math.log(n);
+            }
+        },
+        N2("n2") {
+            @Override
+            public double apply(double n) {
+                return n * n;
+            }
+        },
+        N3("n3") {
+            @Override
+            public double apply(double n) {
+                return n * n * n;
+            }
+        };
+
+        private final String label;
+
+        Budget(String label) {
+            this.label = label;
+        }
+
+        /**
+         * @param n Problemgröße
+         * @return Wert der Klassenfunktion
+         */
+        public abstract double apply(double n);
+
+        /**
+         * Effektiver Exponent der Klasse im gemessenen Bereich; für {@code n log n} liegt er leicht über 1.
+         *
+         * @param sizes gemessene Problemgrößen
+         * @return Exponent, den eine Messung genau dieser Klasse ergäbe
+         */
+        public double exponentOver(List<Integer> sizes) {
+            double[] values = new double[sizes.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = apply(sizes.get(i));
+            }
+            return fit(sizes, values).exponent();
+        }
+
+        /**
+         * @param label Bezeichnung, z. B. {@code nlogn}
+         * @return die passende Klasse
+         */
+        public static Budget of(String label) {
+            for (Budget b : values()) {
+                if (b.label.equalsIgnoreCase(label)) return b;
+            }
+            throw new IllegalArgumentException("Unbekanntes Budget: " + label);
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
+    /**
+     * @param sizes  Problemgrößen (mindestens zwei verschiedene, alle positiv)
+     * @param values gemessene Werte, nicht positive Werte werden ignoriert
+     * @return die Anpassung; mit weniger als zwei gültigen Punkten ist der Exponent {@code NaN}
+     */
+    public static ComplexityFit fit(List<Integer> sizes, double[] values) {
+        int count = 0;
+        double sx = 0;
+        double sy = 0;
+        double sxx = 0;
+        double sxy = 0;
+        double syy = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (!(values[i] > 0) || sizes.get(i) <= 0) continue;
+            double x = Math.log(sizes.get(i));
+            double y = Math.log(values[i]);
+            count++;
+            sx += x;
+            sy += y;
+            sxx += x * x;
+            sxy += x * y;
+            syy += y * y;
+        }
+        double varX = count * sxx - sx * sx;
+        if (count < 2 || varX == 0) {
+            return new ComplexityFit(Double.NaN, Double.NaN, count);
+        }
+        double cov = count * sxy - sx * sy;
+        double varY = count * syy - sy * sy;
+        double r2 = varY == 0 ? 1 : cov * cov / (varX * varY);
+        return new ComplexityFit(cov / varX, r2, count);
+    }
+
+    /**
+     * @param budget erlaubte Komplexitätsklasse
+     * @param sizes  gemessene Problemgrößen
+     * @return true, wenn der Exponent das Budget inklusive {@link #TOLERANCE} überschreitet
+     */
+    public boolean exceeds(Budget budget, List<Integer> sizes) {
+        return !Double.isNaN(exponent) && exponent > budget.exponentOver(sizes) + TOLERANCE;
+    }
+}
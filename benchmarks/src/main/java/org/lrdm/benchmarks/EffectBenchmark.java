@@ -0,0 +1,56 @@
+package org.lrdm.benchmarks;
+
+import org.lrdm.Network;
+import org.lrdm.effectors.*;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+import org.lrdm.topologies.strategies.StarTopologyStrategy;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die Bewertung geplanter Aktionen über {@link Effect} (Deltas für aktive Links, Bandbreite,
+ * Time-to-Write und Latenz), wie sie Optimierer für jede Kandidatenaktion ausführen.
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EffectBenchmark {
+
+    @Param({"MirrorChange", "TargetLinkChange", "TopologyChange"})
+    public String action;
+
+    @Param({"100", "1000"})
+    public int mirrors;
+
+    private Effect effect;
+    private Properties props;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Network network = BenchmarkNetworks.network(new BalancedTreeTopologyStrategy(), mirrors, 30);
+        props = network.getProps();
+        Effector effector = network.getEffector();
+        Action a = switch (action) {
+            case "MirrorChange" -> effector.setMirrors(mirrors * 2, 100);
+            case "TargetLinkChange" -> effector.setTargetLinksPerMirror(3, 100);
+            default -> effector.setStrategy(new StarTopologyStrategy(), 100);
+        };
+        effect = new Effect(a);
+    }
+
+    @Benchmark
+    public void allDeltas(Blackhole bh) {
+        bh.consume(effect.getDeltaActiveLinks());
+        bh.consume(effect.getDeltaBandwidth(props));
+        bh.consume(effect.getDeltaTimeToWrite());
+        bh.consume(effect.getLatency());
+    }
+}
@@ -0,0 +1,41 @@
+package org.lrdm.benchmarks;
+
+import org.lrdm.Network;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst einen einzelnen {@link Network#timeStep(int)} im eingeschwungenen Zustand
+ * (alle Mirrors gestartet, keine ausstehenden Aktionen).
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NetworkTimeStepBenchmark {
+
+    @Param({"100", "1000", "10000", "100000"})
+    public int mirrors;
+
+    private Network network;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // genug Schritte, damit alle Mirrors und Links hochgefahren sind
+        tick = 60;
+        network = BenchmarkNetworks.network(new BalancedTreeTopologyStrategy(), mirrors, tick);
+    }
+
+    @Benchmark
+    public Network timeStep() {
+        network.timeStep(++tick);
+        return network;
+    }
+}
@@ -0,0 +1,263 @@
+package org.lrdm.benchmarks;
+
+import org.lrdm.Network;
+import org.lrdm.topologies.strategies.TopologyStrategy;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Skalierungskurven der Topologie-Strategien: Jede Strategie wird ohne Visualisierung bei geometrisch
+ * wachsender Mirror-Anzahl und Link-Grad simuliert. Gemessen werden pro Lauf
+ * <ul>
+ *     <li>{@code build} – Aufbau des Netzwerks ({@link TopologyStrategy#initNetwork}),</li>
+ *     <li>{@code tick} – mittlere Dauer eines {@link Network#timeStep(int)} im eingeschwungenen Zustand,</li>
+ *     <li>{@code resize} – Dauer des Zeitschritts, in dem die Mirror-Anzahl um 50 % erhöht wird,</li>
+ *     <li>{@code heap} – Spitzenbelegung des Heaps während des Laufs.</li>
+ * </ul>
+ * Anschließend wird je Operation der Exponent {@code k} von {@code n^k} geschätzt ({@link ComplexityFit}) und
+ * gegen ein Budget geprüft. Überschreitungen werden mit {@code OVER} markiert.
+ * <p>
+ * Aufruf: {@code java -cp target/benchmarks.jar org.lrdm.benchmarks.ScalabilityHarness [Optionen]}
+ * <pre>
+ *   --strategies=BalancedTree,Star    Strategien (Standard: alle)
+ *   --mirrors=25:400                  Mirror-Anzahlen, min:max verdoppelnd oder Liste (Standard: 25:400)
+ *   --links=2:8                       Link-Grade, min:max verdoppelnd oder Liste (Standard: 2:8)
+ *   --ticks=20                        gemessene Zeitschritte pro Lauf (Standard: 20)
+ *   --max-seconds=60                  größere n einer Reihe überspringen, sobald ein Lauf länger dauert
+ *   --budget=build:nlogn,Star.tick:n  Budgets je Operation, optional je Strategie (Klassen: n, nlogn, n2, n3)
+ *   --out=scaling.csv                 Messpunkte zusätzlich als CSV schreiben
+ *   --fail-on-overrun                 Exit-Code 1 bei Budget-Überschreitung
+ * </pre>
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+public final class ScalabilityHarness {
+
+    /** Gemessene Operationen. */
+    public enum Operation {BUILD, TICK, RESIZE, HEAP}
+
+    /** Logger des Simulators; als Feld gehalten, damit die gesenkte Stufe nicht mit dem Logger verworfen wird. */
+    private static final Logger SIMULATOR_LOG = Logger.getLogger("org.lrdm");
+
+    /**
+     * Standard-Budgets. Vollvermaschte Topologien haben quadratisch viele Links und bekommen {@code n2};
+     * der Heap bleibt ohne Budget, da die Spitzenbelegung stark vom GC abhängt.
+     */
+    private static final String DEFAULT_BUDGETS =
+            "build:nlogn,resize:nlogn,tick:n,FullyConnected.build:n2,FullyConnected.resize:n2,FullyConnected.tick:n2";
+
+    /** Schritte vor der Messung, damit alle Mirrors und Links aktiv sind. */
+    private static final int SETTLE_TICKS = 40;
+
+    /**
+     * Ein Messpunkt.
+     *
+     * @param strategy Strategie
+     * @param links    Link-Grad
+     * @param mirrors  Mirror-Anzahl
+     * @param values   Messwerte je {@link Operation} (Millisekunden bzw. MiB)
+     */
+    public record Sample(String strategy, int links, int mirrors, double[] values) {
+    }
+
+    private final List<String> strategies;
+    private final List<Integer> mirrorCounts;
+    private final List<Integer> linkDegrees;
+    private final int ticks;
+    private final double maxSeconds;
+    private final Map<String, ComplexityFit.Budget> budgets;
+
+    ScalabilityHarness(List<String> strategies, List<Integer> mirrorCounts, List<Integer> linkDegrees, int ticks,
+                       double maxSeconds, Map<String, ComplexityFit.Budget> budgets) {
+        this.strategies = strategies;
+        this.mirrorCounts = mirrorCounts;
+        this.linkDegrees = linkDegrees;
+        this.ticks = ticks;
+        this.maxSeconds = maxSeconds;
+        this.budgets = budgets;
+    }
+
+    public static void main(String[] args) throws IOException {
+        SIMULATOR_LOG.setLevel(Level.WARNING);
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) throw new IllegalArgumentException("Unbekanntes Argument: " + arg);
+            int eq = arg.indexOf('=');
+            options.put(eq < 0 ? arg.substring(2) : arg.substring(2, eq), eq < 0 ? "true" : arg.substring(eq + 1));
+        }
+        Map<String, ComplexityFit.Budget> budgets = parseBudgets(DEFAULT_BUDGETS);
+        budgets.putAll(parseBudgets(options.getOrDefault("budget", "")));
+        ScalabilityHarness harness = new ScalabilityHarness(
+                List.of(options.getOrDefault("strategies", String.join(",", BenchmarkNetworks.STRATEGIES)).split(",")),
+                parseSizes(options.getOrDefault("mirrors", "25:400")),
+                parseSizes(options.getOrDefault("links", "2:8")),
+                Integer.parseInt(options.getOrDefault("ticks", "20")),
+                Double.parseDouble(options.getOrDefault("max-seconds", "60")),
+                budgets);
+
+        List<Sample> samples = harness.run(System.out);
+        if (options.containsKey("out")) {
+            Files.write(Path.of(options.get("out")), toCsv(samples));
+        }
+        boolean overrun = harness.report(samples, System.out);
+        if (overrun && options.containsKey("fail-on-overrun")) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Führt alle Läufe aus; Zeilen werden während der Messung ausgegeben.
+     *
+     * @param out Ausgabe für den Fortschritt
+     * @return alle Messpunkte
+     */
+    List<Sample> run(PrintStream out) {
+        List<Sample> samples = new ArrayList<>();
+        out.printf("%-16s %5s %7s %12s %12s %12s %10s%n", "strategy", "links", "mirrors", "build_ms", "tick_ms",
+                "resize_ms", "heap_mib");
+        for (String strategy : strategies) {
+            for (int links : linkDegrees) {
+                // verworfener Lauf, damit die erste Messung nicht die JIT-Übersetzung enthält
+                measure(strategy, links, mirrorCounts.get(0));
+                for (int mirrors : mirrorCounts) {
+                    long start = System.nanoTime();
+                    Sample s = measure(strategy, links, mirrors);
+                    samples.add(s);
+                    double[] v = s.values();
+                    out.printf(Locale.ROOT, "%-16s %5d %7d %12.3f %12.3f %12.3f %10.1f%n", strategy, links, mirrors,
+                            v[0], v[1], v[2], v[3]);
+                    if ((System.nanoTime() - start) / 1e9 > maxSeconds) {
+                        out.printf("%-16s %5d  größere Mirror-Anzahlen übersprungen (> %.0f s)%n", strategy, links, maxSeconds);
+                        break;
+                    }
+                }
+            }
+        }
+        return samples;
+    }
+
+    private Sample measure(String strategy, int links, int mirrors) {
+        List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(p -> p.getType() == MemoryType.HEAP).toList();
+        System.gc();
+        long baseline = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            pool.resetPeakUsage();
+            baseline += pool.getUsage().getUsed();
+        }
+
+        long t0 = System.nanoTime();
+        Network network = BenchmarkNetworks.network(BenchmarkNetworks.strategy(strategy), mirrors, links, 0);
+        double build = (System.nanoTime() - t0) / 1e6;
+
+        int t = 1;
+        for (; t <= SETTLE_TICKS; t++) {
+            network.timeStep(t);
+        }
+        t0 = System.nanoTime();
+        for (int i = 0; i < ticks; i++, t++) {
+            network.timeStep(t);
+        }
+        double tick = (System.nanoTime() - t0) / 1e6 / Math.max(1, ticks);
+
+        network.getEffector().setMirrors(mirrors + mirrors / 2, t);
+        t0 = System.nanoTime();
+        network.timeStep(t);
+        double resize = (System.nanoTime() - t0) / 1e6;
+
+        long peak = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            peak += pool.getPeakUsage().getUsed();
+        }
+        double heap = Math.max(0, peak - baseline) / (1024.0 * 1024.0);
+        return new Sample(strategy, links, mirrors, new double[]{build, tick, resize, heap});
+    }
+
+    /**
+     * Gibt die geschätzten Exponenten je Strategie, Link-Grad und Operation aus.
+     *
+     * @param samples Messpunkte aus {@link #run(PrintStream)}
+     * @param out     Ausgabe
+     * @return true, wenn mindestens ein Budget überschritten wurde
+     */
+    boolean report(List<Sample> samples, PrintStream out) {
+        boolean overrun = false;
+        out.printf("%n%-16s %5s %-7s %9s %6s %7s %9s %s%n", "strategy", "links", "op", "exponent", "r2", "budget",
+                "budget_k", "status");
+        Map<String, List<Sample>> series = new LinkedHashMap<>();
+        for (Sample s : samples) {
+            series.computeIfAbsent(s.strategy() + "/" + s.links(), k -> new ArrayList<>()).add(s);
+        }
+        for (List<Sample> serie : series.values()) {
+            String strategy = serie.get(0).strategy();
+            List<Integer> sizes = serie.stream().map(Sample::mirrors).toList();
+            for (Operation op : Operation.values()) {
+                double[] values = serie.stream().mapToDouble(s -> s.values()[op.ordinal()]).toArray();
+                ComplexityFit fit = ComplexityFit.fit(sizes, values);
+                ComplexityFit.Budget budget = budgetFor(strategy, op);
+                boolean over = budget != null && fit.exceeds(budget, sizes);
+                overrun |= over;
+                out.printf(Locale.ROOT, "%-16s %5d %-7s %9.2f %6.2f %7s %9s %s%n", strategy, serie.get(0).links(),
+                        op.name().toLowerCase(Locale.ROOT), fit.exponent(), fit.rSquared(),
+                        budget != null ? budget : "-",
+                        budget != null ? String.format(Locale.ROOT, "%.2f", budget.exponentOver(sizes)) : "-",
+                        Double.isNaN(fit.exponent()) ? "n/a" : over ? "OVER" : "ok");
+            }
+        }
+        return overrun;
+    }
+
+    private ComplexityFit.Budget budgetFor(String strategy, Operation op) {
+        String key = op.name().toLowerCase(Locale.ROOT);
+        ComplexityFit.Budget specific = budgets.get(strategy + "." + key);
+        return specific != null ? specific : budgets.get(key);
+    }
+
+    static Map<String, ComplexityFit.Budget> parseBudgets(String spec) {
+        Map<String, ComplexityFit.Budget> result = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            if (entry.isBlank()) continue;
+            String[] kv = entry.split(":", 2);
+            if (kv.length != 2) throw new IllegalArgumentException("Budget erwartet op:klasse, war: " + entry);
+            result.put(kv[0].trim(), ComplexityFit.Budget.of(kv[1].trim()));
+        }
+        return result;
+    }
+
+    static List<Integer> parseSizes(String spec) {
+        List<Integer> sizes = new ArrayList<>();
+        if (spec.contains(":")) {
+            String[] range = spec.split(":", 2);
+            int max = Integer.parseInt(range[1]);
+            for (int n = Integer.parseInt(range[0]); n <= max; n *= 2) {
+                sizes.add(n);
+            }
+        } else {
+            for (String s : spec.split(",")) {
+                sizes.add(Integer.parseInt(s.trim()));
+            }
+        }
+        if (sizes.isEmpty() || sizes.get(0) <= 0) throw new IllegalArgumentException("Ungültige Größen: " + spec);
+        return sizes;
+    }
+
+    private static List<String> toCsv(List<Sample> samples) {
+        List<String> lines = new ArrayList<>();
+        lines.add("strategy,links,mirrors,build_ms,tick_ms,resize_ms,heap_mib");
+        for (Sample s : samples) {
+            double[] v = s.values();
+            lines.add(String.format(Locale.ROOT, "%s,%d,%d,%.3f,%.3f,%.3f,%.1f", s.strategy(), s.links(), s.mirrors(),
+                    v[0], v[1], v[2], v[3]));
+        }
+        return lines;
+    }
+}
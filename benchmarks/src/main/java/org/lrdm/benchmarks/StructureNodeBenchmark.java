@@ -0,0 +1,52 @@
+package org.lrdm.benchmarks;
+
+import org.lrdm.topologies.node.MirrorNode;
+import org.lrdm.topologies.node.StructureNode;
+import org.lrdm.topologies.strategies.BuildAsSubstructure;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst die Traversierungen {@link StructureNode#getAllNodesInStructure} und
+ * {@link StructureNode#getPathFromHeadMulti} vom Root einer geplanten Struktur aus.
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StructureNodeBenchmark {
+
+    @Param({"BalancedTree", "Line", "Star"})
+    public String strategy;
+
+    @Param({"100", "1000", "10000"})
+    public int mirrors;
+
+    private MirrorNode root;
+    private StructureNode.StructureType type;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        BuildAsSubstructure structure = (BuildAsSubstructure) BenchmarkNetworks.strategy(strategy);
+        BenchmarkNetworks.network(structure, mirrors, 0);
+        root = structure.getCurrentStructureRoot();
+        type = structure.getCurrentStructureType();
+    }
+
+    @Benchmark
+    public Set<StructureNode> allNodesInStructure() {
+        return root.getAllNodesInStructure(type, root);
+    }
+
+    @Benchmark
+    public List<List<StructureNode>> pathsFromHead() {
+        return root.getPathFromHeadMulti(type, root);
+    }
+}
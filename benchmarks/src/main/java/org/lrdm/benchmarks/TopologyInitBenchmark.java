@@ -0,0 +1,51 @@
+package org.lrdm.benchmarks;
+
+import org.lrdm.Link;
+import org.lrdm.Network;
+import org.lrdm.topologies.strategies.TopologyStrategy;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst den Aufbau ({@link TopologyStrategy#initNetwork}, über den {@link Network}-Konstruktor)
+ * und den Neuaufbau ({@link TopologyStrategy#restartNetwork}) für jede Strategie.
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TopologyInitBenchmark {
+
+    @Param({"BalancedTree", "Tree", "DepthLimitTree", "Line", "Star", "FullyConnected", "NConnected", "Snowflake"})
+    public String strategy;
+
+    @Param({"100", "1000"})
+    public int mirrors;
+
+    private Network network;
+    private TopologyStrategy restartStrategy;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        restartStrategy = BenchmarkNetworks.strategy(strategy);
+        tick = 30;
+        network = BenchmarkNetworks.network(restartStrategy, mirrors, tick);
+    }
+
+    @Benchmark
+    public Network initNetwork() {
+        return BenchmarkNetworks.network(BenchmarkNetworks.strategy(strategy), mirrors, 0);
+    }
+
+    @Benchmark
+    public Set<Link> restartNetwork() {
+        return restartStrategy.restartNetwork(network, network.getProps(), ++tick);
+    }
+}
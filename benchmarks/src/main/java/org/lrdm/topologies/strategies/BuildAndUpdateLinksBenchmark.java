@@ -0,0 +1,48 @@
+package org.lrdm.topologies.strategies;
+
+import org.lrdm.Link;
+import org.lrdm.Network;
+import org.lrdm.benchmarks.BenchmarkNetworks;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Misst den Link-Abgleich {@link BuildAsSubstructure#buildAndUpdateLinks} auf einer unveränderten Struktur,
+ * also die Kosten, die jeder Umbau mindestens trägt. Liegt im Paket der Strategien, da die Methode
+ * {@code protected} ist.
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BuildAndUpdateLinksBenchmark {
+
+    @Param({"BalancedTree", "Line", "Star", "FullyConnected"})
+    public String strategy;
+
+    @Param({"100", "1000"})
+    public int mirrors;
+
+    private Network network;
+    private BuildAsSubstructure structure;
+    private int tick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        structure = (BuildAsSubstructure) BenchmarkNetworks.strategy(strategy);
+        tick = 30;
+        network = BenchmarkNetworks.network(structure, mirrors, tick);
+    }
+
+    @Benchmark
+    public Set<Link> reconcileUnchanged() {
+        return structure.buildAndUpdateLinks(structure.getCurrentStructureRoot(), network.getProps(), ++tick,
+                structure.getCurrentStructureType());
+    }
+}
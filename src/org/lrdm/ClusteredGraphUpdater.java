@@ -0,0 +1,288 @@
+package org.lrdm;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+import java.util.*;
+
+/**Applies the changes reported by a {@link NetworkChangeTracker} to a GraphStream graph in which each substructure
+ * of the topology (see {@link org.lrdm.topologies.strategies.BuildAsSubstructure#getSubstructureIdsByMirror()}) is
+ * collapsed into one super-node, as used by {@link GraphVisualization} for large networks. A super-node is labeled
+ * with its number of mirrors and how many of them hold the data and is colored by the most frequent mirror state;
+ * all links between two super-nodes are bundled into one edge labeled with their number. Links inside a
+ * substructure are not drawn.
+ *
+ * Single substructures can be {@linkplain #expand(int) expanded} on demand, their mirrors are then drawn
+ * individually and bundled with the remaining super-nodes.
+ *
+ * @implNote Each change costs O(1). A new substructure assignment or expanding and collapsing rebuilds the graph
+ * from the recorded mirrors and links in O(mirrors + links).
+ */
+final class ClusteredGraphUpdater implements NetworkChangeTracker.Listener {
+    /** Substructure of mirrors that do not belong to any known substructure. */
+    static final int UNASSIGNED = -1;
+    static final String CLUSTER_PREFIX = "s";
+    static final String MIRROR_PREFIX = "m";
+
+    private static final Mirror.State[] STATES = Mirror.State.values();
+
+    private static final class LinkRecord {
+        final int source;
+        final int target;
+        Link.State state;
+        /** ID of the bundle edge drawing this link, null if the link is not drawn. */
+        String bundle;
+
+        LinkRecord(int source, int target, Link.State state) {
+            this.source = source;
+            this.target = target;
+            this.state = state;
+        }
+    }
+
+    /** Links drawn by one bundle edge. */
+    private static final class Bundle {
+        int links;
+        int active;
+    }
+
+    private final Graph graph;
+    private Map<Integer, Integer> substructures = Map.of();
+    private final Set<Integer> expanded = new HashSet<>();
+    private final Map<Integer, Mirror.State> mirrors = new HashMap<>();
+    private final Map<Integer, LinkRecord> links = new HashMap<>();
+    /** Mirrors per state of each substructure. */
+    private final Map<Integer, int[]> counts = new HashMap<>();
+    private final Map<String, Bundle> bundles = new HashMap<>();
+
+    ClusteredGraphUpdater(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**Assigns the mirrors to substructures and redraws the graph if the assignment changed.
+     *
+     * @param substructureIds substructure ID per mirror ID; mirrors not contained are {@link #UNASSIGNED}
+     */
+    void setSubstructures(Map<Integer, Integer> substructureIds) {
+        if (substructureIds.equals(substructures)) return;
+        substructures = substructureIds;
+        expanded.retainAll(substructureIds.values());
+        rebuild();
+    }
+
+    /**Draws the mirrors of a substructure individually.
+     *
+     * @param substructureId the substructure
+     */
+    void expand(int substructureId) {
+        if (expanded.add(substructureId)) rebuild();
+    }
+
+    /**Collapses an expanded substructure into its super-node again.
+     *
+     * @param substructureId the substructure
+     */
+    void collapse(int substructureId) {
+        if (expanded.remove(substructureId)) rebuild();
+    }
+
+    /**Expands the substructure of a clicked super-node or collapses the substructure of a clicked mirror.
+     *
+     * @param nodeId ID of the clicked graph node
+     */
+    void toggle(String nodeId) {
+        try {
+            if (nodeId.startsWith(CLUSTER_PREFIX)) {
+                expand(Integer.parseInt(nodeId.substring(CLUSTER_PREFIX.length())));
+            } else if (nodeId.startsWith(MIRROR_PREFIX)) {
+                collapse(substructureOf(Integer.parseInt(nodeId.substring(MIRROR_PREFIX.length()))));
+            }
+        } catch (NumberFormatException e) {
+            // not a node of this view
+        }
+    }
+
+    /**
+     * @return IDs of the substructures that currently contain mirrors
+     */
+    Set<Integer> getSubstructures() {
+        return Collections.unmodifiableSet(counts.keySet());
+    }
+
+    /**
+     * @param substructureId the substructure
+     * @return number of mirrors in the substructure
+     */
+    int getNumMirrors(int substructureId) {
+        int[] c = counts.get(substructureId);
+        return c == null ? 0 : Arrays.stream(c).sum();
+    }
+
+    static String clusterNodeId(int substructureId) {
+        return CLUSTER_PREFIX + substructureId;
+    }
+
+    static String mirrorNodeId(int mirrorId) {
+        return MIRROR_PREFIX + mirrorId;
+    }
+
+    private int substructureOf(int mirrorId) {
+        return substructures.getOrDefault(mirrorId, UNASSIGNED);
+    }
+
+    private String nodeIdOf(int mirrorId) {
+        int substructure = substructureOf(mirrorId);
+        return expanded.contains(substructure) ? mirrorNodeId(mirrorId) : clusterNodeId(substructure);
+    }
+
+    @Override
+    public void mirrorAdded(int id, Mirror.State state) {
+        mirrors.put(id, state);
+        int substructure = substructureOf(id);
+        counts.computeIfAbsent(substructure, k -> new int[STATES.length])[state.ordinal()]++;
+        if (expanded.contains(substructure)) {
+            Node n = node(mirrorNodeId(id));
+            n.setAttribute("ui.label", id);
+            n.setAttribute(GraphUpdater.UI_CLASS, GraphUpdater.uiClassOf(state));
+        }
+        refresh(substructure);
+    }
+
+    @Override
+    public void mirrorStateChanged(int id, Mirror.State state) {
+        Mirror.State before = mirrors.put(id, state);
+        if (before == null) {
+            mirrors.remove(id);
+            return;
+        }
+        int substructure = substructureOf(id);
+        int[] c = counts.get(substructure);
+        c[before.ordinal()]--;
+        c[state.ordinal()]++;
+        if (expanded.contains(substructure)) {
+            Node n = graph.getNode(mirrorNodeId(id));
+            if (n != null) n.setAttribute(GraphUpdater.UI_CLASS, GraphUpdater.uiClassOf(state));
+        }
+        refresh(substructure);
+    }
+
+    @Override
+    public void mirrorRemoved(int id) {
+        Mirror.State before = mirrors.remove(id);
+        if (before == null) return;
+        int substructure = substructureOf(id);
+        counts.get(substructure)[before.ordinal()]--;
+        if (expanded.contains(substructure) && graph.getNode(mirrorNodeId(id)) != null) {
+            graph.removeNode(mirrorNodeId(id));
+        }
+        refresh(substructure);
+    }
+
+    @Override
+    public void linkAdded(int id, int source, int target, Link.State state) {
+        LinkRecord l = new LinkRecord(source, target, state);
+        links.put(id, l);
+        draw(l);
+    }
+
+    @Override
+    public void linkStateChanged(int id, Link.State state) {
+        LinkRecord l = links.get(id);
+        if (l == null) return;
+        if (l.bundle != null) {
+            Bundle b = bundles.get(l.bundle);
+            b.active += (state == Link.State.ACTIVE ? 1 : 0) - (l.state == Link.State.ACTIVE ? 1 : 0);
+            l.state = state;
+            style(l.bundle, b);
+        } else {
+            l.state = state;
+        }
+    }
+
+    @Override
+    public void linkRemoved(int id) {
+        LinkRecord l = links.remove(id);
+        if (l == null || l.bundle == null) return;
+        Bundle b = bundles.get(l.bundle);
+        b.links--;
+        if (l.state == Link.State.ACTIVE) b.active--;
+        if (b.links == 0) {
+            bundles.remove(l.bundle);
+            if (graph.getEdge(l.bundle) != null) graph.removeEdge(l.bundle);
+        } else {
+            style(l.bundle, b);
+        }
+    }
+
+    private void draw(LinkRecord l) {
+        if (!mirrors.containsKey(l.source) || !mirrors.containsKey(l.target)) return;
+        String from = nodeIdOf(l.source);
+        String to = nodeIdOf(l.target);
+        if (from.equals(to)) return;
+        String bundleId = from.compareTo(to) < 0 ? from + "-" + to : to + "-" + from;
+        Bundle b = bundles.computeIfAbsent(bundleId, k -> new Bundle());
+        if (graph.getEdge(bundleId) == null) {
+            graph.addEdge(bundleId, node(from), node(to));
+        }
+        b.links++;
+        if (l.state == Link.State.ACTIVE) b.active++;
+        l.bundle = bundleId;
+        style(bundleId, b);
+    }
+
+    private void style(String bundleId, Bundle b) {
+        Edge e = graph.getEdge(bundleId);
+        if (e == null) return;
+        // a bundle counts as active if most of its links are
+        e.setAttribute(GraphUpdater.UI_CLASS, b.active * 2 >= b.links ? "active" : "inactive");
+        if (b.links > 1) {
+            e.setAttribute("ui.label", b.links);
+        } else {
+            e.removeAttribute("ui.label");
+        }
+    }
+
+    private Node node(String id) {
+        Node n = graph.getNode(id);
+        return n != null ? n : graph.addNode(id);
+    }
+
+    /** Updates or removes the super-node of a substructure. */
+    private void refresh(int substructure) {
+        int[] c = counts.get(substructure);
+        int total = c == null ? 0 : Arrays.stream(c).sum();
+        String id = clusterNodeId(substructure);
+        if (total == 0 || expanded.contains(substructure)) {
+            if (total == 0) counts.remove(substructure);
+            if (graph.getNode(id) != null) graph.removeNode(id);
+            return;
+        }
+        int dominant = 0;
+        for (int s = 1; s < c.length; s++) {
+            if (c[s] > c[dominant]) dominant = s;
+        }
+        Node n = node(id);
+        n.setAttribute(GraphUpdater.UI_CLASS, "cluster," + GraphUpdater.uiClassOf(STATES[dominant]));
+        n.setAttribute("ui.label", (substructure == UNASSIGNED ? "?" : "#" + substructure) + ": " + total
+                + " (" + c[Mirror.State.HASDATA.ordinal()] + " with data)");
+        n.setAttribute("ui.size", 10 + Math.sqrt(total));
+    }
+
+    /** Redraws the whole graph from the recorded mirrors and links. */
+    private void rebuild() {
+        List<String> nodes = graph.nodes().map(Node::getId).toList();
+        for (String id : nodes) {
+            graph.removeNode(id);
+        }
+        bundles.clear();
+        counts.clear();
+        Map<Integer, Mirror.State> knownMirrors = new HashMap<>(mirrors);
+        mirrors.clear();
+        knownMirrors.forEach(this::mirrorAdded);
+        for (LinkRecord l : links.values()) {
+            l.bundle = null;
+            draw(l);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package org.lrdm;
+
+import org.lrdm.topologies.strategies.BuildAsSubstructure;
+import org.lrdm.topologies.strategies.TopologyStrategy;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**Hands the state of the simulation over to a rendering thread, as used by {@link GraphVisualization}.
+ * The simulation thread {@linkplain #publish(Network, long) publishes} after each step; the rendering thread
+ * {@linkplain #await() takes} whatever accumulated since its previous frame. Ticks published in between are
+ * coalesced: the graph changes are merged by a {@link NetworkChangeBuffer}, the new chart points are appended.
+ *
+ * @apiNote {@link #publish(Network, long)} must be called on the thread that owns the network; it only reads the
+ * network, so rendering never holds up the simulation beyond this copy.
+ * @implNote Publishing costs one pass of the {@link NetworkChangeTracker} plus the metric points recorded since the
+ * previous publication; a frame swaps the buffers under the lock and does not copy the graph.
+ */
+final class FrameExchange {
+
+    /**State to render: graph changes and metric points since the previous frame.
+     *
+     * @param tick the latest published time step
+     * @param restart true if the metric history was reset, so the charts must be cleared before appending
+     * @param changes net graph changes
+     * @param ticks time steps of the new metric points
+     * @param bandwidth bandwidth per new point
+     * @param activeLinks active links per new point
+     * @param timeToWrite time to write per new point
+     * @param substructures substructure ID per mirror ID if the assignment may have changed, otherwise null
+     */
+    record Frame(long tick, boolean restart, NetworkChangeBuffer changes, int[] ticks, int[] bandwidth,
+                 int[] activeLinks, int[] timeToWrite, Map<Integer, Integer> substructures) {
+        /**
+         * @return number of new metric points
+         */
+        int points() {
+            return ticks.length;
+        }
+    }
+
+    private final NetworkChangeTracker tracker = new NetworkChangeTracker();
+    private final boolean withSubstructures;
+    private long seenMirrorSetChanges = -1;
+    private TopologyStrategy seenStrategy;
+    private Map<Integer, Integer> substructures;
+    private NetworkChangeBuffer changes = new NetworkChangeBuffer();
+    private int[] ticks = new int[16];
+    private int[] bandwidth = new int[16];
+    private int[] activeLinks = new int[16];
+    private int[] timeToWrite = new int[16];
+    private int points;
+    /** Last time step whose metrics were published, -1 if none. */
+    private int lastPointTick = -1;
+    private boolean restart;
+    private long tick;
+    private boolean dirty;
+    private long published;
+    private long frames;
+
+    /**Creates an exchange without substructure assignments.
+     */
+    FrameExchange() {
+        this(false);
+    }
+
+    /**
+     * @param withSubstructures true to pass the substructure of each mirror along whenever mirrors were added or
+     *                          removed or the topology strategy was replaced
+     */
+    FrameExchange(boolean withSubstructures) {
+        this.withSubstructures = withSubstructures;
+    }
+
+    /**Records the changes of the network and the metrics recorded since the previous call and wakes up the
+     * rendering thread.
+     *
+     * @param network the simulated network
+     * @param timeStep the current time step
+     */
+    synchronized void publish(Network network, long timeStep) {
+        tracker.poll(network, changes);
+        Map<Integer, Integer> bw = network.getBandwidthHistory();
+        Map<Integer, Integer> al = network.getActiveLinksHistory();
+        Map<Integer, Integer> ttw = network.getTtwHistory();
+        if (lastPointTick >= 0 && !bw.containsKey(lastPointTick)) {
+            // the history was rewound, e.g., by seeking back in a replay
+            restart = true;
+            points = 0;
+            lastPointTick = -1;
+        }
+        for (int t = lastPointTick + 1; bw.containsKey(t); t++) {
+            add(t, bw.get(t), al.getOrDefault(t, 0), ttw.getOrDefault(t, 0));
+            lastPointTick = t;
+        }
+        TopologyStrategy strategy = network.getTopologyStrategy();
+        if (withSubstructures && (tracker.getMirrorSetChanges() != seenMirrorSetChanges || strategy != seenStrategy)) {
+            substructures = strategy instanceof BuildAsSubstructure b ? b.getSubstructureIdsByMirror() : Map.of();
+            seenMirrorSetChanges = tracker.getMirrorSetChanges();
+            seenStrategy = strategy;
+        }
+        tick = timeStep;
+        dirty = true;
+        published++;
+        notifyAll();
+    }
+
+    private void add(int t, int b, int a, int w) {
+        if (points == ticks.length) {
+            int size = points * 2;
+            ticks = Arrays.copyOf(ticks, size);
+            bandwidth = Arrays.copyOf(bandwidth, size);
+            activeLinks = Arrays.copyOf(activeLinks, size);
+            timeToWrite = Arrays.copyOf(timeToWrite, size);
+        }
+        ticks[points] = t;
+        bandwidth[points] = b;
+        activeLinks[points] = a;
+        timeToWrite[points] = w;
+        points++;
+    }
+
+    /**Waits until something was published since the previous frame and takes it.
+     *
+     * @return everything published since the previous frame
+     * @throws InterruptedException if the rendering thread is interrupted while waiting
+     */
+    synchronized Frame await() throws InterruptedException {
+        while (!dirty) {
+            wait();
+        }
+        return take();
+    }
+
+    /**Waits at most the given time until something was published since the previous frame and takes it.
+     *
+     * @param timeoutMillis maximum time to wait in milliseconds
+     * @return everything published since the previous frame, or null if nothing was published in time
+     * @throws InterruptedException if the rendering thread is interrupted while waiting
+     */
+    synchronized Frame await(long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000;
+        long remaining = timeoutMillis;
+        while (!dirty && remaining > 0) {
+            wait(remaining);
+            remaining = (deadline - System.nanoTime()) / 1_000_000;
+        }
+        return poll();
+    }
+
+    /**
+     * @return everything published since the previous frame, or null if nothing was published
+     */
+    synchronized Frame poll() {
+        return dirty ? take() : null;
+    }
+
+    private Frame take() {
+        Frame frame = new Frame(tick, restart, changes, Arrays.copyOf(ticks, points),
+                Arrays.copyOf(bandwidth, points), Arrays.copyOf(activeLinks, points),
+                Arrays.copyOf(timeToWrite, points), substructures);
+        changes = new NetworkChangeBuffer();
+        substructures = null;
+        points = 0;
+        restart = false;
+        dirty = false;
+        frames++;
+        return frame;
+    }
+
+    /**
+     * @return number of publications so far
+     */
+    synchronized long getPublished() {
+        return published;
+    }
+
+    /**
+     * @return number of frames taken so far; less than {@link #getPublished()} when ticks were coalesced
+     */
+    synchronized long getFrames() {
+        return frames;
+    }
+}
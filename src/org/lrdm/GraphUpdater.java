@@ -0,0 +1,94 @@
+package org.lrdm;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**Applies the changes reported by a {@link NetworkChangeTracker} to a GraphStream graph, as used by
+ * {@link GraphVisualization}. Nodes and edges are looked up by mirror and link ID, so each change costs O(1);
+ * links between the same pair of mirrors share one edge.
+ *
+ * @implNote The tracker reports removed links before removed mirrors, so when a node is removed its edges are
+ * usually gone already; edges removed together with their node are detected by identity and skipped.
+ */
+final class GraphUpdater implements NetworkChangeTracker.Listener {
+    static final String UI_CLASS = "ui.class";
+
+    private final Graph graph;
+    private final Map<Integer, Node> nodes = new HashMap<>();
+    private final Map<Integer, Edge> edges = new HashMap<>();
+    /** Number of links drawn by each edge. */
+    private final Map<Edge, Integer> edgeLinks = new HashMap<>();
+
+    GraphUpdater(Graph graph) {
+        this.graph = graph;
+    }
+
+    static String uiClassOf(Mirror.State state) {
+        return switch (state) {
+            case HASDATA -> "hasdata";
+            case READY -> "running";
+            case STOPPING -> "stopping";
+            default -> "starting";
+        };
+    }
+
+    static String uiClassOf(Link.State state) {
+        return state == Link.State.ACTIVE ? "active" : "inactive";
+    }
+
+    @Override
+    public void mirrorAdded(int id, Mirror.State state) {
+        String nodeId = String.valueOf(id);
+        Node n = graph.getNode(nodeId);
+        if (n == null) n = graph.addNode(nodeId);
+        n.setAttribute("ui.label", id);
+        n.setAttribute(UI_CLASS, uiClassOf(state));
+        nodes.put(id, n);
+    }
+
+    @Override
+    public void mirrorStateChanged(int id, Mirror.State state) {
+        Node n = nodes.get(id);
+        if (n != null) n.setAttribute(UI_CLASS, uiClassOf(state));
+    }
+
+    @Override
+    public void mirrorRemoved(int id) {
+        Node n = nodes.remove(id);
+        if (n != null) graph.removeNode(n);
+    }
+
+    @Override
+    public void linkAdded(int id, int source, int target, Link.State state) {
+        Node from = nodes.get(source);
+        Node to = nodes.get(target);
+        if (from == null || to == null) return;
+        Edge e = from.getEdgeBetween(to);
+        if (e == null) {
+            e = graph.addEdge(Integer.toString(id), from, to);
+        }
+        edges.put(id, e);
+        edgeLinks.merge(e, 1, Integer::sum);
+        e.setAttribute(UI_CLASS, uiClassOf(state));
+    }
+
+    @Override
+    public void linkStateChanged(int id, Link.State state) {
+        Edge e = edges.get(id);
+        if (e != null && graph.getEdge(e.getId()) == e) e.setAttribute(UI_CLASS, uiClassOf(state));
+    }
+
+    @Override
+    public void linkRemoved(int id) {
+        Edge e = edges.remove(id);
+        if (e == null) return;
+        if (edgeLinks.merge(e, -1, Integer::sum) <= 0) {
+            edgeLinks.remove(e);
+            if (graph.getEdge(e.getId()) == e) graph.removeEdge(e);
+        }
+    }
+}
@@ -1,43 +1,76 @@
 package org.lrdm;
 
-import org.graphstream.graph.Edge;
 import org.graphstream.graph.Graph;
-import org.graphstream.graph.Node;
 import org.graphstream.graph.implementations.SingleGraph;
 import org.graphstream.ui.swing_viewer.DefaultView;
 import org.graphstream.ui.swing_viewer.SwingViewer;
 import org.graphstream.ui.view.View;
 import org.graphstream.ui.view.Viewer;
+import org.graphstream.ui.view.ViewerListener;
+import org.graphstream.ui.view.ViewerPipe;
 import org.knowm.xchart.QuickChart;
 import org.knowm.xchart.XChartPanel;
 import org.knowm.xchart.XYChart;
 import org.knowm.xchart.XYSeries;
 import org.knowm.xchart.style.markers.SeriesMarkers;
 import org.knowm.xchart.style.theme.MatlabTheme;
+import org.lrdm.util.MultiResolutionSeries;
 
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
 import java.io.*;
+import java.lang.reflect.InvocationTargetException;
 import java.util.*;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 
 /**Graphical visualisation of the simulator using the GraphStream library.
+ * <p>
+ * Rendering runs on its own thread: {@link #updateGraph(Network, long)} only publishes the changes of the step to a
+ * {@link FrameExchange} and returns. The rendering thread draws at most one frame every {@link #FRAME_MILLIS} ms
+ * with everything published since its previous frame, so ticks in between are coalesced and a fast simulation is
+ * never slowed down by drawing. Graph changes are applied on the rendering thread (the viewer runs the graph in
+ * another thread), chart and label updates on the Swing event dispatch thread. The charts append the new points to
+ * {@link MultiResolutionSeries} and draw at most {@link #MAX_CHART_POINTS} downsampled points per series, so the
+ * cost of a frame does not grow with the length of the run.
+ * <p>
+ * Large networks are drawn by substructure (see {@link Mode#SUBSTRUCTURES}): each ring or tree of the topology
+ * becomes one super-node with aggregated state counts, links between them are bundled. Clicking a super-node
+ * expands it into its mirrors, clicking one of these mirrors collapses it again.
  *
  * @author Sebastian Götz <sebastian.goetz1@tu-dresden.de>
  */
 public class GraphVisualization implements VisualizationStrategy {
-    private static final int WIDTH = Math.round(Toolkit.getDefaultToolkit().getScreenSize().width * 0.9f);
-    private static final int HEIGHT = Math.round(Toolkit.getDefaultToolkit().getScreenSize().height * 0.9f);
-    private static final String UI_CLASS = "ui.class";
+    /** How mirrors are drawn. */
+    public enum Mode {
+        /** One node per mirror and one edge per pair of linked mirrors. */
+        MIRRORS,
+        /** One super-node per substructure of the topology and one edge bundle per pair of linked substructures. */
+        SUBSTRUCTURES,
+        /** {@link #SUBSTRUCTURES} if the network has at least {@link #CLUSTER_THRESHOLD} mirrors when the
+         * visualization is initialized, {@link #MIRRORS} otherwise. */
+        AUTOMATIC
+    }
+
+    /** Number of mirrors from which {@link Mode#AUTOMATIC} draws substructures. */
+    public static final int CLUSTER_THRESHOLD = 500;
     private static final String BANDWIDTH = "% Bandwidth";
     private static final String ACTIVE_LINKS = "% Active Links";
     private static final String TTW = "% Time to Write";
     private static final String TIMESTEP = "Timestep";
+    private static final String TARGET_BANDWIDTH = "Target";
+    private static final String TARGET_ACTIVE_LINKS = "Target Active Links";
+    private static final String TARGET_TTW = "Target Time To Write";
+    private static final int BANDWIDTH_GOAL = 40;
+    private static final int ACTIVE_LINKS_GOAL = 35;
+    private static final int TTW_GOAL = 45;
+    /** Minimum time between two rendered frames. */
+    public static final int FRAME_MILLIS = TraceReplayPlayer.FRAME_MILLIS;
+    /** Maximum number of points drawn per chart series, regardless of the length of the run. */
+    public static final int MAX_CHART_POINTS = 1000;
     private Graph graph;
     private JLabel simTimeLabel;
     private XYChart bandwidthChart;
@@ -46,31 +79,93 @@ public class GraphVisualization implements VisualizationStrategy {
     private JPanel chartPanel;
     private JPanel linkChartPanel;
     private JPanel ttwChartPanel;
+    // chart data, only accessed on the event dispatch thread
+    private final MultiResolutionSeries bandwidthTS = new MultiResolutionSeries();
+    private final MultiResolutionSeries activeLinksTS = new MultiResolutionSeries();
+    private final MultiResolutionSeries ttwTS = new MultiResolutionSeries();
+    private final Mode mode;
+    private FrameExchange frames;
+    private NetworkChangeTracker.Listener graphUpdater;
+    private ClusteredGraphUpdater clusteredUpdater;
+    private ViewerPipe clicks;
+    private Thread renderer;
+
+    /**Creates a visualization that draws substructures for large networks.
+     */
+    public GraphVisualization() {
+        this(Mode.AUTOMATIC);
+    }
+
+    /**
+     * @param mode how mirrors are drawn
+     */
+    public GraphVisualization(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * @return false in a headless environment, which has no display for the window
+     */
+    @Override
+    public boolean isAvailable() {
+        return !GraphicsEnvironment.isHeadless();
+    }
 
     @Override
     public void init(Network network) {
+        System.setProperty("org.graphstream.ui", "swing");
+        boolean bySubstructure = mode == Mode.SUBSTRUCTURES
+                || (mode == Mode.AUTOMATIC && network.getNumMirrors() >= CLUSTER_THRESHOLD);
         graph = new SingleGraph("Runtime View");
         String css = loadGraphCSS();
         graph.setAttribute("ui.stylesheet", css);
-        Viewer viewer = new SwingViewer(graph, Viewer.ThreadingModel.GRAPH_IN_ANOTHER_THREAD);
-        View view = viewer.addDefaultView(false);
-        viewer.enableAutoLayout();
-        if(view instanceof DefaultView dv) {
-            createUI(dv);
+        if (bySubstructure) {
+            clusteredUpdater = new ClusteredGraphUpdater(graph);
+            graphUpdater = clusteredUpdater;
+        } else {
+            clusteredUpdater = null;
+            graphUpdater = new GraphUpdater(graph);
         }
-        for (Mirror m : network.getMirrors()) {
-            Node n = graph.addNode(String.valueOf(m.getID()));
-            n.setAttribute(UI_CLASS, "starting");
+        onEventDispatchThread(() -> {
+            Viewer viewer = new SwingViewer(graph, Viewer.ThreadingModel.GRAPH_IN_ANOTHER_THREAD);
+            View view = viewer.addDefaultView(false);
+            viewer.enableAutoLayout();
+            if (bySubstructure) {
+                clicks = viewer.newViewerPipe();
+                clicks.addViewerListener(new ClickListener());
+            }
+            if(view instanceof DefaultView dv) {
+                createUI(dv);
+            }
+        });
+        frames = new FrameExchange(bySubstructure);
+        frames.publish(network, 0);
+        if (renderer == null) {
+            renderer = new Thread(this::renderLoop, "graph-visualization");
+            renderer.setDaemon(true);
+            renderer.start();
+        }
+    }
+
+    private static void onEventDispatchThread(Runnable r) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            r.run();
+            return;
         }
-        for (Link l : network.getLinks()) {
-            String sid = String.valueOf(l.getSource().getID());
-            String tid = String.valueOf(l.getTarget().getID());
-            Edge e = graph.addEdge("s" + sid + "t" + tid, sid, tid);
-            e.setAttribute(UI_CLASS, "inactive");
+        try {
+            SwingUtilities.invokeAndWait(r);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("Could not create the visualization", e.getCause());
         }
     }
 
     private void createUI(DefaultView dv) {
+        // the screen is only queried once the window is created, so loading this class never initializes AWT
+        Dimension screen = Toolkit.getDefaultToolkit().getScreenSize();
+        int width = Math.round(screen.width * 0.9f);
+        int height = Math.round(screen.height * 0.9f);
         JFrame frame = new JFrame();
         JPanel panel = new JPanel();
 
@@ -95,14 +190,14 @@ public class GraphVisualization implements VisualizationStrategy {
         gc.gridwidth=1;
         gc.fill = GridBagConstraints.HORIZONTAL;
         gl.setConstraints(dv, gc);
-        dv.setMinimumSize(new Dimension(WIDTH,HEIGHT/2));
-        dv.setPreferredSize(new Dimension(WIDTH, HEIGHT/2));
+        dv.setMinimumSize(new Dimension(width,height/2));
+        dv.setPreferredSize(new Dimension(width, height/2));
         panel.add(dv);
 
         bandwidthChart = QuickChart.getChart("Bandwidth over Time",TIMESTEP,BANDWIDTH,BANDWIDTH, List.of(0), List.of(0));
         bandwidthChart.getStyler().setTheme(new MatlabTheme());
         bandwidthChart.getStyler().setLegendVisible(false);
-        XYSeries targetBW = bandwidthChart.addSeries("Target",List.of(0),List.of(0));
+        XYSeries targetBW = bandwidthChart.addSeries(TARGET_BANDWIDTH,List.of(0),List.of(0));
         targetBW.setMarker(SeriesMarkers.NONE);
 
         chartPanel = new XChartPanel<>(bandwidthChart);
@@ -111,14 +206,14 @@ public class GraphVisualization implements VisualizationStrategy {
         gc.gridy=2;
         gc.gridwidth=1;
         gl.setConstraints(chartPanel, gc);
-        chartPanel.setMinimumSize(new Dimension(WIDTH,HEIGHT/6));
-        chartPanel.setMaximumSize(new Dimension(WIDTH,HEIGHT/6));
+        chartPanel.setMinimumSize(new Dimension(width,height/6));
+        chartPanel.setMaximumSize(new Dimension(width,height/6));
         panel.add(chartPanel);
 
         activeLinksChart = QuickChart.getChart("Active Links", TIMESTEP, ACTIVE_LINKS, ACTIVE_LINKS, List.of(0), List.of(0));
         activeLinksChart.getStyler().setTheme(new MatlabTheme());
         activeLinksChart.getStyler().setLegendVisible(false);
-        XYSeries targetAL = activeLinksChart.addSeries("Target Active Links",List.of(0),List.of(0));
+        XYSeries targetAL = activeLinksChart.addSeries(TARGET_ACTIVE_LINKS,List.of(0),List.of(0));
         targetAL.setMarker(SeriesMarkers.NONE);
         linkChartPanel = new XChartPanel<>(activeLinksChart);
         gc = new GridBagConstraints();
@@ -126,14 +221,14 @@ public class GraphVisualization implements VisualizationStrategy {
         gc.gridy=3;
         gc.gridwidth=1;
         gl.setConstraints(linkChartPanel, gc);
-        linkChartPanel.setMinimumSize(new Dimension(WIDTH,HEIGHT/6));
-        linkChartPanel.setMaximumSize(new Dimension(WIDTH,HEIGHT/6));
+        linkChartPanel.setMinimumSize(new Dimension(width,height/6));
+        linkChartPanel.setMaximumSize(new Dimension(width,height/6));
         panel.add(linkChartPanel);
 
         timeToWriteChart = QuickChart.getChart("Time To Write", TIMESTEP, TTW, TTW, List.of(0), List.of(0));
         timeToWriteChart.getStyler().setTheme(new MatlabTheme());
         timeToWriteChart.getStyler().setLegendVisible(false);
-        XYSeries targetTTW = timeToWriteChart.addSeries("Target Time To Write",List.of(0),List.of(0));
+        XYSeries targetTTW = timeToWriteChart.addSeries(TARGET_TTW,List.of(0),List.of(0));
         targetTTW.setMarker(SeriesMarkers.NONE);
         ttwChartPanel = new XChartPanel<>(timeToWriteChart);
         gc = new GridBagConstraints();
@@ -141,20 +236,20 @@ public class GraphVisualization implements VisualizationStrategy {
         gc.gridy=4;
         gc.gridwidth=1;
         gl.setConstraints(ttwChartPanel, gc);
-        ttwChartPanel.setMinimumSize(new Dimension(WIDTH,HEIGHT/6));
-        ttwChartPanel.setMaximumSize(new Dimension(WIDTH,HEIGHT/6));
-        ttwChartPanel.setPreferredSize(new Dimension(WIDTH,HEIGHT/6));
+        ttwChartPanel.setMinimumSize(new Dimension(width,height/6));
+        ttwChartPanel.setMaximumSize(new Dimension(width,height/6));
+        ttwChartPanel.setPreferredSize(new Dimension(width,height/6));
         panel.add(ttwChartPanel);
 
         JScrollPane scrollPane = new JScrollPane(panel, ScrollPaneConstants.VERTICAL_SCROLLBAR_AS_NEEDED, ScrollPaneConstants.HORIZONTAL_SCROLLBAR_NEVER);
-        scrollPane.setMinimumSize(new Dimension(WIDTH, HEIGHT));
+        scrollPane.setMinimumSize(new Dimension(width, height));
         panel.setBackground(Color.WHITE);
 
         frame.add(scrollPane);
         frame.setTitle("Timed RDM Simulator");
 
         //frame.setResizable(false);
-        frame.setSize(WIDTH,HEIGHT);
+        frame.setSize(width,height);
         frame.setVisible(true);
         frame.setBackground(Color.WHITE);
 
@@ -166,117 +261,98 @@ public class GraphVisualization implements VisualizationStrategy {
         });
     }
 
+    /**Publishes the state after the given step to the rendering thread and returns immediately.
+     *
+     * @param network the simulated network
+     * @param timeStep the current time step
+     */
     @Override
     public void updateGraph(Network network, long timeStep) {
-        updateTimeStep(network, timeStep);
-        updateMirrors(network);
-        removeVanishedMirrors(network);
-        removeVanishedLinks(network);
-        updateLinks(network);
+        frames.publish(network, timeStep);
     }
 
-    private void updateTimeStep(Network network, long timeStep) {
-        simTimeLabel.setText("Simulation Time: "+timeStep);
+    private void renderLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                FrameExchange.Frame frame = frames.await(FRAME_MILLIS);
+                long start = System.nanoTime();
+                // clicks expand or collapse substructures, also while the simulation is paused
+                if (clicks != null) clicks.pump();
+                if (frame == null) continue;
+                if (clusteredUpdater != null && frame.substructures() != null) {
+                    clusteredUpdater.setSubstructures(frame.substructures());
+                }
+                frame.changes().drainTo(graphUpdater);
+                SwingUtilities.invokeLater(() -> updateTimeStep(frame));
+                long wait = FRAME_MILLIS - (System.nanoTime() - start) / 1_000_000;
+                if (wait > 0) Thread.sleep(wait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                Logger.getLogger(getClass().getName()).log(Level.WARNING, "Could not render frame", e);
+            }
+        }
+    }
 
-        List<Integer> timeSteps = new ArrayList<>(network.getBandwidthHistory().keySet());
-        List<Integer> bandwidthTS = new ArrayList<>(network.getBandwidthHistory().values());
-        List<Integer> bandwidthGoalTS = Collections.nCopies(network.getBandwidthHistory().size(),40);
-        List<Integer> activeLinksTS = new ArrayList<>(network.getActiveLinksHistory().values());
-        List<Integer> activeLinksGoalTS = Collections.nCopies(network.getActiveLinksHistory().size(),35);
-        List<Integer> ttwTS = new ArrayList<>(network.getTtwHistory().values());
-        List<Integer> ttwGoalTS = Collections.nCopies(network.getTtwHistory().size(), 45);
+    private void updateTimeStep(FrameExchange.Frame frame) {
+        simTimeLabel.setText("Simulation Time: "+frame.tick());
+        if (frame.restart()) {
+            bandwidthTS.clear();
+            activeLinksTS.clear();
+            ttwTS.clear();
+        }
+        for (int i = 0; i < frame.points(); i++) {
+            bandwidthTS.add(frame.ticks()[i], frame.bandwidth()[i]);
+            activeLinksTS.add(frame.ticks()[i], frame.activeLinks()[i]);
+            ttwTS.add(frame.ticks()[i], frame.timeToWrite()[i]);
+        }
+        if (bandwidthTS.isEmpty() || (frame.points() == 0 && !frame.restart())) return;
+        // target lines only need their end points
+        List<Integer> range = List.of(bandwidthTS.getFirstX(), bandwidthTS.getLastX());
 
-        bandwidthChart.updateXYSeries(BANDWIDTH, timeSteps, bandwidthTS, null);
-        bandwidthChart.updateXYSeries("Target", timeSteps, bandwidthGoalTS,null);
+        updateSeries(bandwidthChart, BANDWIDTH, bandwidthTS);
+        bandwidthChart.updateXYSeries(TARGET_BANDWIDTH, range, List.of(BANDWIDTH_GOAL, BANDWIDTH_GOAL), null);
         chartPanel.repaint();
 
-        activeLinksChart.updateXYSeries(ACTIVE_LINKS, timeSteps, activeLinksTS, null);
-        activeLinksChart.updateXYSeries("Target Active Links", timeSteps, activeLinksGoalTS,null);
+        updateSeries(activeLinksChart, ACTIVE_LINKS, activeLinksTS);
+        activeLinksChart.updateXYSeries(TARGET_ACTIVE_LINKS, range, List.of(ACTIVE_LINKS_GOAL, ACTIVE_LINKS_GOAL), null);
         linkChartPanel.repaint();
 
-        timeToWriteChart.updateXYSeries(TTW, timeSteps, ttwTS, null);
-        timeToWriteChart.updateXYSeries("Target Time To Write", timeSteps, ttwGoalTS,null);
+        updateSeries(timeToWriteChart, TTW, ttwTS);
+        timeToWriteChart.updateXYSeries(TARGET_TTW, range, List.of(TTW_GOAL, TTW_GOAL), null);
         ttwChartPanel.repaint();
     }
 
-    private void updateLinks(Network network) {
-        for (Link l : network.getLinks()) {
-            if (l.getState() != Link.State.CLOSED) {
-                //Filter links unidirectional
-                Optional<Edge> e = graph.edges().filter(
-                        (edge -> (edge.getSourceNode().getId().equals(Integer.toString(l.getSource().getID())) &&
-                        edge.getTargetNode().getId().equals(Integer.toString(l.getTarget().getID())))||
-                                (edge.getSourceNode().getId().equals(Integer.toString(l.getTarget().getID())) &&
-                                edge.getTargetNode().getId().equals(Integer.toString(l.getSource().getID())))
-                        )
-                ).findAny();
-
-                Edge edge = null;
-                if (e.isEmpty() && (
-                            l.getSource().getState() != Mirror.State.STOPPING
-                            && l.getSource().getState() != Mirror.State.STOPPED
-                            && l.getTarget().getState() != Mirror.State.STOPPING
-                            && l.getTarget().getState() != Mirror.State.STOPPED)) {
-                        edge = graph.addEdge(Integer.toString(l.getID()), Integer.toString(l.getSource().getID()), Integer.toString(l.getTarget().getID()));
-                }
-                if (e.isPresent()) {
-                    edge = e.get();
-                }
-                updateUIClassOfEdge(l, edge);
-            }
-        }
+    private static void updateSeries(XYChart chart, String name, MultiResolutionSeries series) {
+        double[][] points = series.downsample(MAX_CHART_POINTS);
+        chart.updateXYSeries(name, points[0], points[1], null);
     }
 
-    private static void updateUIClassOfEdge(Link l, Edge addedEdge) {
-        if (addedEdge != null) {
-            if (l.isActive()) {
-                addedEdge.setAttribute(UI_CLASS, "active");
-            } else {
-                addedEdge.setAttribute(UI_CLASS, "inactive");
-            }
+    /** Expands or collapses substructures on clicks; called on the rendering thread while pumping. */
+    private final class ClickListener implements ViewerListener {
+        @Override
+        public void buttonPushed(String id) {
+            clusteredUpdater.toggle(id);
         }
-    }
 
-    private void removeVanishedLinks(Network network) {
-        Set<Edge> edgesToRemove = graph.edges().filter(e -> {
-            boolean exists = false;
-            if(e != null) {
-                for (Link l : network.getLinks()) {
-                    if (e.getSourceNode().getId().equals(Integer.toString(l.getSource().getID())) &&
-                            e.getTargetNode().getId().equals(Integer.toString(l.getTarget().getID())))
-                        exists = true;
-                }
-            }
-            return !exists;
-        }).collect(Collectors.toSet());
-        edgesToRemove.forEach(e -> graph.removeEdge(e));
-    }
+        @Override
+        public void viewClosed(String viewName) {
+            // the window closes the application
+        }
 
-    private void removeVanishedMirrors(Network network) {
-        for (int i = 0; i < graph.getNodeCount(); i++) {
-                Node n = graph.getNode(i);
-                boolean exists = false;
-                for (Mirror m : network.getMirrors()) {
-                    if (m.getID() == Integer.parseInt(n.getId()))
-                        exists = true;
-                }
-                if (!exists)
-                    graph.removeNode(i);
-            }
-    }
+        @Override
+        public void buttonReleased(String id) {
+            // expanding happens on push
+        }
 
-    private void updateMirrors(Network network) {
-        for (Mirror m : network.getMirrors()) {
-            Node n = graph.getNode(String.valueOf(m.getID()));
-            if (n == null)
-                n = graph.addNode(String.valueOf(m.getID()));
-            n.setAttribute("ui.label", m.getID());
-            switch (m.getState()) {
-                case HASDATA -> n.setAttribute(UI_CLASS, "hasdata");
-                case READY -> n.setAttribute(UI_CLASS, "running");
-                case STOPPING -> n.setAttribute(UI_CLASS, "stopping");
-                default -> n.setAttribute(UI_CLASS,"starting");
-            }
+        @Override
+        public void mouseOver(String id) {
+            // no hover effects
+        }
+
+        @Override
+        public void mouseLeft(String id) {
+            // no hover effects
         }
     }
 
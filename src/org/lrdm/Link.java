@@ -1,5 +1,7 @@
 package org.lrdm;
 
+import org.lrdm.util.MetricsRegistry;
+
 import java.util.Objects;
 import java.util.Properties;
 import java.security.SecureRandom;
@@ -21,7 +23,11 @@ public class Link {
 	private int endsActiveTime = -1;
 	private final int activationTime;
 
-	private final SecureRandom rand = new SecureRandom();
+	/** Shared by all links; a generator per link would dominate the memory of large networks. */
+	private static final SecureRandom RANDOM = new SecureRandom();
+
+	/** Listeners of the network this link belongs to, notified by the lifecycle hooks. */
+	private SimulationEvents.TransitionListener transitions = SimulationEvents.TransitionListener.NONE;
 	
 	public Link(int id, Mirror source, Mirror target, int initTime, Properties props) {
 		this.source = source;
@@ -31,6 +37,7 @@ public class Link {
 		
 		source.addLink(this);
 		target.addLink(this);
+		MetricsRegistry.count(MetricsRegistry.LINKS_CREATED);
 		
 		state = State.INACTIVE;
 		
@@ -42,12 +49,65 @@ public class Link {
 		
 		int loAct = Math.min(minActivationTime, maxActivationTime);
 		int hiAct = Math.max(minActivationTime, maxActivationTime);
-		activationTime = (hiAct > loAct) ? rand.nextInt(loAct, hiAct) : loAct;
+		activationTime = (hiAct > loAct) ? RANDOM.nextInt(loAct, hiAct) : loAct;
 	}
 	
+	/**Restores a link from a checkpoint (see {@link SimulationCheckpoint}). Like the regular constructor,
+	 * the link registers itself at both mirrors; the randomized activation time is taken over as stored.
+	 *
+	 * @param id the link ID
+	 * @param source the source mirror
+	 * @param target the target mirror
+	 * @param state the link state
+	 * @param initTime simulation time when the link was created
+	 * @param minBandwidth minimal bandwidth
+	 * @param maxBandwidth maximal bandwidth
+	 * @param endsActiveTime simulation time when both mirrors were up or -1
+	 * @param activationTime time required to activate the link
+	 */
+	Link(int id, Mirror source, Mirror target, State state, int initTime, int minBandwidth, int maxBandwidth,
+		 int endsActiveTime, int activationTime) {
+		this.id = id;
+		this.source = source;
+		this.target = target;
+		this.state = state;
+		this.initTime = initTime;
+		this.minBandwidth = minBandwidth;
+		this.maxBandwidth = maxBandwidth;
+		this.endsActiveTime = endsActiveTime;
+		this.activationTime = activationTime;
+
+		source.addLink(this);
+		target.addLink(this);
+	}
+
 	public int getID() {
 		return id;
 	}
+
+	SimulationEvents.TransitionListener getTransitionListener() {
+		return transitions;
+	}
+
+	void setTransitionListener(SimulationEvents.TransitionListener transitions) {
+		this.transitions = transitions;
+	}
+
+	int getInitTime() {
+		return initTime;
+	}
+
+	int getMinBandwidth() {
+		return minBandwidth;
+	}
+
+	int getMaxBandwidth() {
+		return maxBandwidth;
+	}
+
+	int getEndsActiveTime() {
+		return endsActiveTime;
+	}
 	
 	public State getState() {
 		return state;
@@ -61,7 +121,7 @@ public class Link {
 		int lo = Math.min(minBandwidth, maxBandwidth);
 		int hi = Math.max(minBandwidth, maxBandwidth);
 		if (hi == lo) return lo;
-		return rand.nextInt(lo, hi);
+		return RANDOM.nextInt(lo, hi);
 	}
 
 	public boolean isActive() {
@@ -90,11 +150,23 @@ public class Link {
 	}
 	
 	public void shutdown() {
+		State previous = state;
 		state = State.CLOSED;
+		SimulationEvents.LinkStateTransition.emit(-1, this, previous);
+	}
+
+	/**Overrides the state without running the activation logic, e.g., when replaying a recorded trace.
+	 *
+	 * @param state the new state
+	 */
+	void setState(State state) {
+		this.state = state;
 	}
 
 	public void crash(int simTime) {
+		State previous = state;
 		this.state = State.INACTIVE;
+		SimulationEvents.LinkStateTransition.emit(simTime, this, previous);
 		this.initTime = simTime;
 		this.endsActiveTime = -1;
 	}
@@ -108,7 +180,9 @@ public class Link {
 				endsActiveTime = t;
 		}
 		if(endsActiveTime != -1 && t == endsActiveTime + activationTime) {
+			State previous = state;
 			state = State.ACTIVE;
+			SimulationEvents.LinkStateTransition.emit(t, this, previous);
 		}
 	}
 	
@@ -1,5 +1,7 @@
 package org.lrdm;
 
+import org.lrdm.util.MetricsRegistry;
+
 import java.security.SecureRandom;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -21,6 +23,7 @@ public class Mirror {
 	private final Set<Link> links;
 	
 	private int shutdownTime = -1;
+	private int crashTime = -1; // simulation time of the last crash
 
 	private int initTime; // simulation time when the mirror was started
 	private final int startupTime; // time required to start the container
@@ -32,6 +35,9 @@ public class Mirror {
 
 	private final Map<Integer, Integer> receivedDataPerTimestep;
 
+	/** Listeners of the network this mirror belongs to, notified by the lifecycle hooks. */
+	private SimulationEvents.TransitionListener transitions = SimulationEvents.TransitionListener.NONE;
+
 	public Mirror(int id, int initTime, Properties props) {
 		this.id = id;
 		this.initTime = initTime;
@@ -57,10 +63,52 @@ public class Mirror {
 		isRoot = false;
 	}
 
+	/**Restores a mirror from a checkpoint (see {@link SimulationCheckpoint}).
+	 * The randomized startup, ready and stop times are taken over as stored instead of being drawn again.
+	 *
+	 * @param id the mirror ID
+	 * @param state the lifecycle state
+	 * @param initTime simulation time when the mirror was started
+	 * @param startupTime time required to start the container
+	 * @param readyTime time required to get the data transferred
+	 * @param stopTime time required to stop the container
+	 * @param shutdownTime simulation time of the shutdown signal or -1
+	 * @param data the hosted data package or null
+	 */
+	Mirror(int id, State state, int initTime, int startupTime, int readyTime, int stopTime, int shutdownTime, DataPackage data) {
+		this.id = id;
+		this.state = state;
+		this.initTime = initTime;
+		this.startupTime = startupTime;
+		this.readyTime = readyTime;
+		this.stopTime = stopTime;
+		this.shutdownTime = shutdownTime;
+		this.data = data;
+		links = new HashSet<>();
+		receivedDataPerTimestep = new HashMap<>();
+		isRoot = false;
+	}
+
 	public State getState() {
 		return state;
 	}
 
+	/**Overrides the state without running the lifecycle, e.g., when replaying a recorded trace.
+	 *
+	 * @param state the new state
+	 */
+	void setState(State state) {
+		this.state = state;
+	}
+
+	SimulationEvents.TransitionListener getTransitionListener() {
+		return transitions;
+	}
+
+	void setTransitionListener(SimulationEvents.TransitionListener transitions) {
+		this.transitions = transitions;
+	}
+
 	public void setRoot(boolean isRoot) {
 		this.isRoot = isRoot;
 	}
@@ -83,9 +131,13 @@ public class Mirror {
 	}
 
 	public void crash(int simTime) {
+		State previous = state;
 		if(this.getData() != null) this.getData().reset();
 		this.state = State.STARTING;
 		this.initTime = simTime;
+		this.crashTime = simTime;
+		MetricsRegistry.count(MetricsRegistry.MIRRORS_CRASHED);
+		SimulationEvents.MirrorCrash.emit(simTime, this, previous);
 		for(Link l : links) {
 			l.crash(simTime);
 		}
@@ -155,6 +207,7 @@ public class Mirror {
 	 * @param currentSimTime (int) current simulation time
 	 */
 	public void timeStep(int currentSimTime) {
+		State previous = state;
 		if (state != State.STOPPING) {
 			if (data != null && data.isLoaded()) {
 				state = State.HASDATA;
@@ -170,6 +223,7 @@ public class Mirror {
 				state = State.STOPPED;
 			}
 		}
+		SimulationEvents.MirrorStateTransition.emit(currentSimTime, this, previous);
 		handleDataTransfer(currentSimTime);
 	}
 
@@ -210,7 +264,9 @@ public class Mirror {
 	 * @param simTime (int) simulation time when the mirror shall be shut down
 	 */
 	public void shutdown(int simTime) {
+		State previous = state;
 		state = State.STOPPING;
+		SimulationEvents.MirrorStateTransition.emit(simTime, this, previous);
 		shutdownTime = simTime;
 		links.forEach(Link::shutdown);
 	}
@@ -249,4 +305,38 @@ public class Mirror {
 	public Integer getReceivedPerTimestep(int timestep) {
 		return receivedDataPerTimestep.get(timestep);
 	}
+
+	/**
+	 * @return simulation time of the last {@link #crash(int)} or -1 if the mirror never crashed
+	 */
+	public int getLastCrashTime() {
+		return crashTime;
+	}
+
+	int getInitTime() {
+		return initTime;
+	}
+
+	int getStopTime() {
+		return stopTime;
+	}
+
+	int getShutdownTime() {
+		return shutdownTime;
+	}
+
+	int getMaxLinkActiveTime() {
+		return maxLinkActiveTime;
+	}
+
+	void setMaxLinkActiveTime(int maxLinkActiveTime) {
+		this.maxLinkActiveTime = maxLinkActiveTime;
+	}
+
+	/**
+	 * @return the live map of received data per timestep (simulation time to GB)
+	 */
+	Map<Integer, Integer> getReceivedDataPerTimestep() {
+		return receivedDataPerTimestep;
+	}
 }
@@ -16,6 +16,7 @@ public class MirrorCursor {
     private final Properties props;
     private final double faultProbability;
     private final SecureRandom random;
+    private SimulationEvents.TransitionListener transitions = SimulationEvents.TransitionListener.NONE;
 
     public MirrorCursor(int numMirrors, int fileSize, Properties props){
         numTargetMirrors = numMirrors;
@@ -36,6 +37,37 @@ public class MirrorCursor {
         }
     }
 
+    /**Restores a cursor from a checkpoint (see {@link SimulationCheckpoint}) without creating any mirrors.
+     *
+     * @param props the simulation properties
+     * @param mirrors the restored mirrors sorted by ID
+     * @param numTargetMirrors the targeted number of mirrors
+     * @param mirrorIterator the iterator position
+     */
+    MirrorCursor(Properties props, List<Mirror> mirrors, int numTargetMirrors, int mirrorIterator) {
+        this.numTargetMirrors = numTargetMirrors;
+        this.mirrors = mirrors;
+        this.mirrorIterator = mirrorIterator;
+        this.faultProbability = Double.parseDouble(props.getProperty("fault_probability"));
+        this.random = new SecureRandom();
+        this.props = props;
+    }
+
+    /**Connects the lifecycle hooks of all current and future mirrors to the listeners of the owning network.
+     *
+     * @param transitions the listeners of the network
+     */
+    void setTransitionListener(SimulationEvents.TransitionListener transitions) {
+        this.transitions = transitions;
+        for (Mirror m : mirrors) {
+            m.setTransitionListener(transitions);
+        }
+    }
+
+    int getMirrorIterator() {
+        return mirrorIterator;
+    }
+
     /**Returns aks Mirrors of the net.
      *
      * @return List of all {@link Mirror}s
@@ -117,6 +149,9 @@ public class MirrorCursor {
             }
         }
         mirrors.removeAll(stoppedMirrors);
+        for (Mirror m : stoppedMirrors) {
+            transitions.mirrorRemoved(simTime, m);
+        }
     }
 
     public int getNumTargetMirrors() {
@@ -162,6 +197,10 @@ public class MirrorCursor {
         // zur internen Liste hinzufügen und stabil sortieren
         this.mirrors.addAll(created);
         this.mirrors.sort(Comparator.comparingInt(Mirror::getID));
+        for (Mirror mirror : created) {
+            mirror.setTransitionListener(transitions);
+            transitions.mirrorAdded(simTime, mirror);
+        }
 
         return created;
     }
@@ -1,8 +1,15 @@
 package org.lrdm;
 
+import org.lrdm.effectors.AdaptationBatch;
 import org.lrdm.effectors.Effector;
+import org.lrdm.effectors.RollingTopologyChange;
 import org.lrdm.probes.Probe;
+import org.lrdm.topologies.strategies.BuildAsSubstructure;
+import org.lrdm.topologies.strategies.MigrationPlanner;
+import org.lrdm.topologies.strategies.MigrationStage;
 import org.lrdm.topologies.strategies.TopologyStrategy;
+import org.lrdm.util.IDGenerator;
+import org.lrdm.util.MetricsRegistry;
 
 import java.util.*;
 import java.util.logging.Level;
@@ -20,6 +27,7 @@ public class Network {
 	private final MirrorCursor mirrorCursor;
 	private final Set<Link> links;
 	private final List<Probe> probes;
+	private final SimulationEvents.Transitions transitions = new SimulationEvents.Transitions();
 	private Effector effector;
 	private int numTargetLinksPerMirror;
 	private TopologyStrategy strategy;
@@ -47,11 +55,19 @@ public class Network {
 		numTargetLinksPerMirror = numLinks;
 		this.props = props;
 		mirrorCursor = new MirrorCursor(numMirrors,fileSize,props);
+		mirrorCursor.setTransitionListener(transitions);
 		probes = new ArrayList<>();
 		this.strategy = strategy;
 
 		// create the links - default strategy: spanning tree
-		links = strategy.initNetwork(this, props);
+		SimulationEvents.TopologyRebuild event = new SimulationEvents.TopologyRebuild();
+		event.begin(null);
+		long start = MetricsRegistry.start();
+		// known before the strategy runs, so that links opened via openLink() are registered right away
+		links = new HashSet<>();
+		links.addAll(strategy.initNetwork(this, props));
+		MetricsRegistry.stop(start, MetricsRegistry.STRATEGY_PREFIX, strategy, MetricsRegistry.OP_BUILD);
+		event.commit(this, strategy.getClass().getSimpleName(), "build", 0);
 		log = Logger.getLogger(this.getClass().getName());
 
 		bandwidthHistory = new HashMap<>();
@@ -59,6 +75,36 @@ public class Network {
 		ttwHistory = new HashMap<>();
     }
 
+	/**Restores a network from a checkpoint (see {@link SimulationCheckpoint}). Does not call
+	 * {@link TopologyStrategy#initNetwork(Network, Properties)}; mirrors and links are taken over as given.
+	 *
+	 * @param strategy the TopologyStrategy in use
+	 * @param mirrorCursor the restored mirrors
+	 * @param links the restored links
+	 * @param numLinks the number of links each mirror should have
+	 * @param currentTimeStep the last simulated timestep
+	 * @param props the properties of the simulation
+	 */
+	Network(TopologyStrategy strategy, MirrorCursor mirrorCursor, Set<Link> links, int numLinks, int currentTimeStep, Properties props) {
+		this.numTargetLinksPerMirror = numLinks;
+		this.props = props;
+		this.mirrorCursor = mirrorCursor;
+		this.links = links;
+		this.probes = new ArrayList<>();
+		this.strategy = strategy;
+		this.currentTimeStep = currentTimeStep;
+		mirrorCursor.setTransitionListener(transitions);
+		for (Link l : links) {
+			l.setTransitionListener(transitions);
+		}
+		transitions.setTick(currentTimeStep);
+		log = Logger.getLogger(this.getClass().getName());
+
+		bandwidthHistory = new HashMap<>();
+		activeLinkHistory = new HashMap<>();
+		ttwHistory = new HashMap<>();
+	}
+
 	public int getCurrentTimeStep() {
 		return currentTimeStep;
 	}
@@ -75,6 +121,32 @@ public class Network {
 		probes.add(p);
 	}
 
+	/**Registers a listener for the lifecycle changes of the mirrors and links of this network from now on.
+	 * Mirrors and links that already exist are not reported; take them from {@link #getMirrors()} and
+	 * {@link #getLinks()}.
+	 *
+	 * @param listener {@link SimulationEvents.TransitionListener} notified on the simulation thread
+	 */
+	public void addTransitionListener(SimulationEvents.TransitionListener listener) {
+		transitions.add(listener);
+	}
+
+	/**
+	 * @return the listeners of this network, for views that change mirrors and links without the lifecycle
+	 * hooks, such as {@link TraceReplay}
+	 */
+	SimulationEvents.TransitionListener getTransitionListener() {
+		return transitions;
+	}
+
+	/**Stops notifying a listener registered with {@link #addTransitionListener(SimulationEvents.TransitionListener)}.
+	 *
+	 * @param listener the listener to remove
+	 */
+	public void removeTransitionListener(SimulationEvents.TransitionListener listener) {
+		transitions.remove(listener);
+	}
+
 	/**Set the effector implementation to be used.
 	 *
 	 * @param e the {@link Effector} to be used
@@ -83,6 +155,13 @@ public class Network {
 		this.effector = e;
 	}
 
+	/**
+	 * @return the {@link Effector} used by this network or null if none was set
+	 */
+	public Effector getEffector() {
+		return effector;
+	}
+
 	/**Returns aks Mirrors of the net.
 	 *
 	 * @return List of all {@link Mirror}s
@@ -107,6 +186,22 @@ public class Network {
 		return links;
 	}
 
+	/**Opens a new link between two mirrors and registers it with the net, so that it is cleaned up together
+	 * with its mirrors on shutdown or crash.
+	 *
+	 * @param source   {@link Mirror} the link starts from
+	 * @param target   {@link Mirror} the link leads to
+	 * @param timeStep (int) current simulation time, start of the link's activation
+	 * @return the new {@link Link}, already known to both mirrors and to {@link #getLinks()}
+	 */
+	public Link openLink(Mirror source, Mirror target, int timeStep) {
+		Link link = new Link(IDGenerator.getInstance().getNextID(), source, target, timeStep, props);
+		links.add(link);
+		link.setTransitionListener(transitions);
+		transitions.linkAdded(timeStep, link);
+		return link;
+	}
+
 	/**
 	 * Set a new target number of mirrors. Will initiate the startup or shutdown of
 	 * mirrors if there are too many or too few.
@@ -117,14 +212,17 @@ public class Network {
 		log.log(Level.INFO, "setNumMirrors({0},{1})",  new Object[] {newMirrors, simTime});
 		int upMirrors = mirrorCursor.getNumUsableMirrors();
 		if (newMirrors > upMirrors) { // create new mirrors
-			strategy.handleAddNewMirrors(this, newMirrors - upMirrors, props, simTime);
+			runStrategyOperation(MetricsRegistry.OP_ADD, simTime,
+					() -> strategy.handleAddNewMirrors(this, newMirrors - upMirrors, props, simTime));
 		} else if (newMirrors < upMirrors) { // send shutdown signal to mirrors being too much
-			strategy.handleRemoveMirrors(this, upMirrors - newMirrors, props, simTime);
+			runStrategyOperation(MetricsRegistry.OP_REMOVE, simTime,
+					() -> strategy.handleRemoveMirrors(this, upMirrors - newMirrors, props, simTime));
 		}
 		mirrorCursor.setNumTargetMirrors(newMirrors);
 	}
 
-	/**Set the topology strategy to use. This will call {@link TopologyStrategy#restartNetwork(Network, Properties, int)} to reestablish the links between the mirrors accordingly.
+	/**Set the topology strategy to use. This will call {@link TopologyStrategy#migrateNetwork(Network, Properties, int)} to reestablish the links between the mirrors accordingly.
+	 * Running mirrors are reused, only the link delta between the old and the new topology is opened and closed.
 	 *
 	 * @param strategy the concrete strategy to use for the topology
 	 * @param timeStep the timestep at which this change shall take effect
@@ -134,16 +232,16 @@ public class Network {
 		if(timeStep == 0)
 			this.strategy = strategy;
 		else {
-			// when switching strategy, we need to check the MirrorNode Structure/the StructureNodes of the Strategy
-			// to reset all underlying Mirrors and Links indirectly. Substructures need to be handled recursively
+			// when switching strategy, the running mirrors are mapped into the MirrorNode structure of the new strategy;
+			// links present in both plans are kept, only the difference is opened and closed
 
 			this.strategy = strategy;
-			this.strategy.restartNetwork(this, props, timeStep);
+			migrate(timeStep);
 		}
 	}
 
 	/**Set the number of expected links per mirror, i.e., how many links a single mirror should have.
-	 * This will call {@link TopologyStrategy#restartNetwork(Network, Properties, int)} to establish the required links.
+	 * This will call {@link TopologyStrategy#migrateNetwork(Network, Properties, int)} to establish the required links.
 	 *
 	 * @param numTargetLinksPerMirror expected number of links per mirror
 	 * @param timeStep simulation time at which this change shall take effect
@@ -152,10 +250,125 @@ public class Network {
 		log.log(Level.INFO,"setNumTargetedLinksPerMirror({0},{1})", new Object[] { numTargetLinksPerMirror,timeStep});
 		this.numTargetLinksPerMirror = numTargetLinksPerMirror;
         if(timeStep > 0) {
-			strategy.restartNetwork(this, props, timeStep);
+			migrate(timeStep);
 		}
 	}
 
+	/**Rebuilds the links for the current strategy and target links per mirror via
+	 * {@link TopologyStrategy#migrateNetwork(Network, Properties, int)}.
+	 *
+	 * @param timeStep the timestep at which the rebuild takes effect
+	 */
+	private void migrate(int timeStep) {
+		runStrategyOperation(MetricsRegistry.OP_REBUILD, timeStep, () -> strategy.migrateNetwork(this, props, timeStep));
+	}
+
+	/**Runs an operation of the topology strategy, recording its duration in the {@link MetricsRegistry} and as
+	 * {@link SimulationEvents.TopologyRebuild} event.
+	 *
+	 * @param operation one of the {@code OP_} constants of {@link MetricsRegistry}
+	 * @param timeStep the timestep of the operation
+	 * @param body the operation
+	 */
+	private void runStrategyOperation(String operation, int timeStep, Runnable body) {
+		SimulationEvents.TopologyRebuild event = new SimulationEvents.TopologyRebuild();
+		event.begin(links);
+		long start = MetricsRegistry.start();
+		body.run();
+		MetricsRegistry.stop(start, MetricsRegistry.STRATEGY_PREFIX, strategy, operation);
+		event.commit(this, strategy.getClass().getSimpleName(), operation.substring(1), timeStep);
+	}
+
+	/**Applies all adaptations scheduled for one tick as a single transaction.
+	 * The planned topology and links per mirror are set first; afterwards the network is rebuilt at
+	 * most once, no matter how many actions were scheduled for the tick. A mirror count change in a
+	 * batch that requires a rebuild only creates or shuts down mirrors beforehand, so that the single
+	 * rebuild and link reconciliation already plan the new mirror set. Without a rebuild it is applied
+	 * incrementally via {@link #setNumMirrors(int, int)}.
+	 * A {@link RollingTopologyChange} is split by the {@link MigrationPlanner} into churn-bounded stages;
+	 * only the first one is applied at {@code timeStep}, the others are queued on the {@link Effector}.
+	 * A later topology or link target change cancels the stages that are still queued.
+	 * A mirror count change in the same batch is then applied before planning, still on the old topology,
+	 * so that the stages also cover the added mirrors instead of being replaced by a full rebuild.
+	 *
+	 * @param batch the coalesced target state of all actions due at {@code timeStep}
+	 * @param timeStep the timestep at which the batch shall take effect
+	 */
+	public void applyAdaptationBatch(AdaptationBatch batch, int timeStep) {
+		if (batch == null || batch.isEmpty()) return;
+		log.log(Level.INFO, "applyAdaptationBatch({0},{1})", new Object[] {batch, timeStep});
+		if (batch.requiresRebuild()) {
+			// a new topology or link target supersedes an unfinished rolling migration; its remaining stages
+			// would open and close links of the abandoned plan
+			if (effector != null) effector.cancelMigrationStages();
+		} else {
+			// stages of a rolling migration started earlier come first, they continue the previous plan
+			batch.getMigrationStages().forEach(stage -> applyMigrationStage(stage, timeStep));
+		}
+		if (!batch.requiresRebuild() || timeStep == 0) {
+			// no rebuild necessary (or allowed at init time): plain setters keep their incremental behavior
+			if (batch.hasTopologyChange()) this.strategy = batch.getNewTopology();
+			if (batch.hasTargetLinkChange()) this.numTargetLinksPerMirror = batch.getNewLinksPerMirror();
+			if (batch.hasMirrorChange()) setNumMirrors(batch.getNewMirrors(), timeStep);
+			return;
+		}
+		if (batch.isRolling() && batch.getNewTopology() instanceof BuildAsSubstructure target) {
+			// the mirror delta goes first, still on the old topology: the plan then covers the new mirror set,
+			// and no full reconciliation on the target topology undoes the staging afterwards
+			if (batch.hasMirrorChange()) setNumMirrors(batch.getNewMirrors(), timeStep);
+			this.strategy = target;
+			if (batch.hasTargetLinkChange()) this.numTargetLinksPerMirror = batch.getNewLinksPerMirror();
+			// churn-bounded: first stage now, the remaining ones on the following ticks
+			RollingTopologyChange rolling = batch.getRollingChange();
+			List<MigrationStage> stages = MigrationPlanner.plan(this, target,
+					rolling.getMaxOpensPerStage(), rolling.getMaxClosesPerStage());
+			for (int i = 0; i < stages.size(); i++) {
+				if (i == 0 || effector == null) applyMigrationStage(stages.get(i), timeStep);
+				else effector.scheduleMigrationStage(stages.get(i), timeStep + i);
+			}
+			return;
+		}
+		if (batch.hasTopologyChange()) this.strategy = batch.getNewTopology();
+		if (batch.hasTargetLinkChange()) this.numTargetLinksPerMirror = batch.getNewLinksPerMirror();
+		if (batch.hasMirrorChange()) resizeMirrorSet(batch.getNewMirrors(), timeStep);
+		// one structural rebuild + one link reconciliation for the new topology, link target and mirror set
+		migrate(timeStep);
+	}
+
+	/**Applies a stage of a rolling migration. Closes whose replacement is not active yet are queued again
+	 * for the next tick; without an {@link Effector} to queue them, all closes are applied at once.
+	 *
+	 * @param stage the stage
+	 * @param timeStep the timestep of the stage
+	 */
+	private void applyMigrationStage(MigrationStage stage, int timeStep) {
+		if (effector == null) {
+			stage.apply(this, timeStep);
+			return;
+		}
+		MigrationStage deferred = stage.applyWhenReplaced(this, timeStep);
+		if (!deferred.isEmpty()) effector.scheduleMigrationStage(deferred, timeStep + 1);
+	}
+
+	/**Creates or shuts down mirrors until the given number is usable, without changing the structure or
+	 * the links of the others; the next rebuild plans the new mirror set. As in
+	 * {@link TopologyStrategy#handleRemoveMirrors(Network, int, Properties, int)}, the mirrors with the highest
+	 * IDs are removed first.
+	 *
+	 * @param newMirrors the number of usable mirrors afterwards
+	 * @param timeStep the timestep of the change
+	 */
+	private void resizeMirrorSet(int newMirrors, int timeStep) {
+		List<Mirror> usable = mirrorCursor.getNonStopMirrors();
+		if (newMirrors > usable.size()) {
+			mirrorCursor.createMirrors(newMirrors - usable.size(), timeStep);
+		}
+		for (int i = usable.size() - 1; i >= Math.max(0, newMirrors); i--) {
+			usable.get(i).shutdown(timeStep);
+		}
+		mirrorCursor.setNumTargetMirrors(newMirrors);
+	}
+
 	/**
 	 * @return the currently used {@link TopologyStrategy}
 	 */
@@ -275,20 +488,40 @@ public class Network {
 	 * @param simTime (int) current simulation time for logging purposes
 	 */
 	public void timeStep(int simTime) {
+		SimulationEvents.Tick tickEvent = new SimulationEvents.Tick();
+		tickEvent.begin();
+		transitions.setTick(simTime);
+		long start = MetricsRegistry.start();
 		handleMirrors(simTime);
+		MetricsRegistry.stop(start, MetricsRegistry.TICK_HANDLE_MIRRORS);
 
+		start = MetricsRegistry.start();
 		handleLinks(simTime);
+		MetricsRegistry.stop(start, MetricsRegistry.TICK_HANDLE_LINKS);
 
 		//run timeStep on effector
+		start = MetricsRegistry.start();
 		effector.timeStep(simTime);
+		MetricsRegistry.stop(start, MetricsRegistry.TICK_EFFECTOR);
 
 		//update probes
+		long probesStart = MetricsRegistry.start();
 		for (Probe probe : probes) {
+			start = MetricsRegistry.start();
 			probe.update(simTime);
+			MetricsRegistry.stop(start, MetricsRegistry.PROBE_PREFIX, probe, "");
 		}
+		MetricsRegistry.stop(probesStart, MetricsRegistry.TICK_PROBES);
 
+		start = MetricsRegistry.start();
 		collectMetrics(simTime);
+		MetricsRegistry.stop(start, MetricsRegistry.TICK_COLLECT_METRICS);
 		currentTimeStep = simTime;
+
+		for (Probe probe : probes) {
+			probe.metricsCollected(simTime);
+		}
+		tickEvent.commit(this, simTime);
 	}
 
 	/**Inspect the network for mirrors in the STOPPED state to remove them from the network.
@@ -321,8 +554,10 @@ public class Network {
 		for(Link l : closedLinks) {
 			l.getSource().removeLink(l);
 			l.getTarget().removeLink(l);
+			links.remove(l);
+			transitions.linkRemoved(simTime, l);
 		}
-		closedLinks.forEach(links::remove);
+		MetricsRegistry.count(MetricsRegistry.LINKS_CLOSED, closedLinks.size());
 	}
 
 	/**Collect metrics of the simulation. Currently, bandwidth and number of active links are collected.
@@ -0,0 +1,116 @@
+package org.lrdm;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**Collects the changes of any number of {@link NetworkChangeTracker} polls and replays their net effect, so a
+ * consumer that falls behind applies one change per mirror and link instead of every intermediate one: a mirror
+ * added and removed in between is never reported, a state that changed several times is reported once.
+ *
+ * @implNote Changes are kept in ID-keyed insertion-ordered maps; {@link #drainTo(NetworkChangeTracker.Listener)}
+ * keeps the order of the tracker (removals first). Not thread-safe; {@link FrameExchange} guards it.
+ */
+final class NetworkChangeBuffer implements NetworkChangeTracker.Listener {
+
+    /** Net change of one mirror or link; neither flag set means only the state changed. */
+    private static final class Change<S> {
+        boolean removed;
+        boolean added;
+        int source;
+        int target;
+        S state;
+    }
+
+    private final Map<Integer, Change<Mirror.State>> mirrors = new LinkedHashMap<>();
+    private final Map<Integer, Change<Link.State>> links = new LinkedHashMap<>();
+
+    @Override
+    public void mirrorAdded(int id, Mirror.State state) {
+        added(mirrors, id, state);
+    }
+
+    @Override
+    public void mirrorStateChanged(int id, Mirror.State state) {
+        mirrors.computeIfAbsent(id, k -> new Change<>()).state = state;
+    }
+
+    @Override
+    public void mirrorRemoved(int id) {
+        removed(mirrors, id);
+    }
+
+    @Override
+    public void linkAdded(int id, int source, int target, Link.State state) {
+        Change<Link.State> c = added(links, id, state);
+        c.source = source;
+        c.target = target;
+    }
+
+    @Override
+    public void linkStateChanged(int id, Link.State state) {
+        links.computeIfAbsent(id, k -> new Change<>()).state = state;
+    }
+
+    @Override
+    public void linkRemoved(int id) {
+        removed(links, id);
+    }
+
+    private static <S> Change<S> added(Map<Integer, Change<S>> changes, int id, S state) {
+        // a removal still pending stays, so the consumer drops the old entry before adding the new one
+        Change<S> c = changes.computeIfAbsent(id, k -> new Change<>());
+        c.added = true;
+        c.state = state;
+        return c;
+    }
+
+    private static <S> void removed(Map<Integer, Change<S>> changes, int id) {
+        Change<S> c = changes.get(id);
+        if (c != null && c.added && !c.removed) {
+            changes.remove(id);
+        } else {
+            if (c == null) changes.put(id, c = new Change<>());
+            c.removed = true;
+            c.added = false;
+        }
+    }
+
+    /**
+     * @return true if no change is pending
+     */
+    boolean isEmpty() {
+        return mirrors.isEmpty() && links.isEmpty();
+    }
+
+    /**
+     * @return number of pending mirror and link changes
+     */
+    int size() {
+        return mirrors.size() + links.size();
+    }
+
+    /**Reports the net changes to the listener and clears the buffer.
+     *
+     * @param listener receives the changes
+     */
+    void drainTo(NetworkChangeTracker.Listener listener) {
+        for (Map.Entry<Integer, Change<Link.State>> e : links.entrySet()) {
+            if (e.getValue().removed) listener.linkRemoved(e.getKey());
+        }
+        for (Map.Entry<Integer, Change<Mirror.State>> e : mirrors.entrySet()) {
+            if (e.getValue().removed) listener.mirrorRemoved(e.getKey());
+        }
+        for (Map.Entry<Integer, Change<Mirror.State>> e : mirrors.entrySet()) {
+            Change<Mirror.State> c = e.getValue();
+            if (c.added) listener.mirrorAdded(e.getKey(), c.state);
+            else if (!c.removed) listener.mirrorStateChanged(e.getKey(), c.state);
+        }
+        for (Map.Entry<Integer, Change<Link.State>> e : links.entrySet()) {
+            Change<Link.State> c = e.getValue();
+            if (c.added) listener.linkAdded(e.getKey(), c.source, c.target, c.state);
+            else if (!c.removed) listener.linkStateChanged(e.getKey(), c.state);
+        }
+        mirrors.clear();
+        links.clear();
+    }
+}
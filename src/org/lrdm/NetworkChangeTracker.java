@@ -0,0 +1,214 @@
+package org.lrdm;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * # Network change feed
+ *
+ * Turns the state of a {@link Network} into a feed of changes since the previous {@link #poll(Network, Listener)}:
+ * mirrors and links that were added or removed and those whose state changed. Consumers such as
+ * {@link GraphVisualization} apply only these changes instead of rescanning and re-matching the whole graph.
+ *
+ * A link counts as removed once it is {@link Link.State#CLOSED} or no longer part of the network, whichever
+ * comes first; it is never reported again afterwards.
+ *
+ * Changes carry only IDs and states, not the live objects, so they can be handed to another thread, e.g., through a
+ * {@link NetworkChangeBuffer} that coalesces the changes of several polls.
+ *
+ * @apiNote Not thread-safe; poll from the thread that runs the network, since the changes are collected by its
+ * lifecycle hooks.
+ * @implNote The tracker registers a {@link SimulationEvents.TransitionListener} at the network on the first poll and
+ * remembers which mirrors and links a hook touched. A poll reports only their net change against the states
+ * reported before, so its cost depends on the number of changes, not on the size of the network. Only the first
+ * poll and the one after {@link #reset()} walk the whole network.
+ */
+public final class NetworkChangeTracker {
+
+    /** Receives the changes of one poll: removals first, then additions and state changes. */
+    public interface Listener {
+        /**
+         * @param id ID of a mirror that is new to the feed
+         * @param state its state
+         */
+        void mirrorAdded(int id, Mirror.State state);
+
+        /**
+         * @param id ID of a known mirror whose state changed
+         * @param state its new state
+         */
+        void mirrorStateChanged(int id, Mirror.State state);
+
+        /** @param id ID of a mirror that left the network */
+        void mirrorRemoved(int id);
+
+        /**
+         * @param id ID of a link that is new to the feed
+         * @param source ID of its source mirror
+         * @param target ID of its target mirror
+         * @param state its state
+         */
+        void linkAdded(int id, int source, int target, Link.State state);
+
+        /**
+         * @param id ID of a known link whose state changed
+         * @param state its new state
+         */
+        void linkStateChanged(int id, Link.State state);
+
+        /** @param id ID of a link that was closed or left the network */
+        void linkRemoved(int id);
+    }
+
+    /** Mirrors and links touched by a lifecycle hook since the previous poll; the poll reports their net change. */
+    private final Map<Integer, Mirror> touchedMirrors = new LinkedHashMap<>();
+    private final Map<Integer, Link> touchedLinks = new LinkedHashMap<>();
+    private final Set<Integer> leftMirrors = new HashSet<>();
+    private final Set<Integer> leftLinks = new HashSet<>();
+    /** States as last reported to the listener. */
+    private final Map<Integer, Mirror.State> mirrorStates = new HashMap<>();
+    private final Map<Integer, Link.State> linkStates = new HashMap<>();
+    private final SimulationEvents.TransitionListener hooks = new SimulationEvents.TransitionListener() {
+        @Override
+        public void mirrorAdded(int simTime, Mirror m) {
+            leftMirrors.remove(m.getID());
+            touchedMirrors.put(m.getID(), m);
+        }
+
+        @Override
+        public void mirrorStateChanged(int simTime, Mirror m, Mirror.State previous) {
+            touchedMirrors.put(m.getID(), m);
+        }
+
+        @Override
+        public void mirrorRemoved(int simTime, Mirror m) {
+            leftMirrors.add(m.getID());
+            touchedMirrors.put(m.getID(), m);
+        }
+
+        @Override
+        public void linkAdded(int simTime, Link l) {
+            leftLinks.remove(l.getID());
+            touchedLinks.put(l.getID(), l);
+        }
+
+        @Override
+        public void linkStateChanged(int simTime, Link l, Link.State previous) {
+            touchedLinks.put(l.getID(), l);
+        }
+
+        @Override
+        public void linkRemoved(int simTime, Link l) {
+            leftLinks.add(l.getID());
+            touchedLinks.put(l.getID(), l);
+        }
+    };
+    private Network network;
+    private boolean snapshot = true;
+    private long mirrorSetChanges;
+
+    /**Reports all changes since the previous poll; the first poll reports every mirror and open link as added.
+     * Polling another network than before reports the known mirrors and links as removed and the new network as
+     * added.
+     *
+     * @param network the observed network
+     * @param listener receives the changes
+     * @return number of reported changes
+     */
+    public int poll(Network network, Listener listener) {
+        int changes = 0;
+        if (network != this.network) {
+            if (this.network != null) {
+                this.network.removeTransitionListener(hooks);
+            }
+            changes += forgetAll(listener);
+            this.network = network;
+            network.addTransitionListener(hooks);
+            snapshot = true;
+        }
+        if (snapshot) {
+            snapshot = false;
+            touchedMirrors.clear();
+            touchedLinks.clear();
+            leftMirrors.clear();
+            leftLinks.clear();
+            for (Mirror m : network.getMirrors()) touchedMirrors.put(m.getID(), m);
+            for (Link l : network.getLinks()) touchedLinks.put(l.getID(), l);
+        }
+
+        for (Link l : touchedLinks.values()) {
+            if (!isOpen(l) && linkStates.remove(l.getID()) != null) {
+                listener.linkRemoved(l.getID());
+                changes++;
+            }
+        }
+        for (Mirror m : touchedMirrors.values()) {
+            if (leftMirrors.contains(m.getID()) && mirrorStates.remove(m.getID()) != null) {
+                listener.mirrorRemoved(m.getID());
+                changes++;
+                mirrorSetChanges++;
+            }
+        }
+        for (Mirror m : touchedMirrors.values()) {
+            if (leftMirrors.contains(m.getID())) continue;
+            Mirror.State before = mirrorStates.put(m.getID(), m.getState());
+            if (before == null) {
+                listener.mirrorAdded(m.getID(), m.getState());
+                changes++;
+                mirrorSetChanges++;
+            } else if (before != m.getState()) {
+                listener.mirrorStateChanged(m.getID(), m.getState());
+                changes++;
+            }
+        }
+        for (Link l : touchedLinks.values()) {
+            if (!isOpen(l)) continue;
+            Link.State before = linkStates.put(l.getID(), l.getState());
+            if (before == null) {
+                listener.linkAdded(l.getID(), l.getSource().getID(), l.getTarget().getID(), l.getState());
+                changes++;
+            } else if (before != l.getState()) {
+                listener.linkStateChanged(l.getID(), l.getState());
+                changes++;
+            }
+        }
+
+        touchedMirrors.clear();
+        touchedLinks.clear();
+        leftMirrors.clear();
+        leftLinks.clear();
+        return changes;
+    }
+
+    private boolean isOpen(Link l) {
+        return l.getState() != Link.State.CLOSED && !leftLinks.contains(l.getID());
+    }
+
+    private int forgetAll(Listener listener) {
+        int changes = linkStates.size() + mirrorStates.size();
+        for (Integer id : linkStates.keySet()) listener.linkRemoved(id);
+        for (Integer id : mirrorStates.keySet()) listener.mirrorRemoved(id);
+        mirrorSetChanges += mirrorStates.size();
+        linkStates.clear();
+        mirrorStates.clear();
+        return changes;
+    }
+
+    /**
+     * @return number of mirrors reported as added or removed so far; unchanged as long as the set of mirrors is
+     */
+    public long getMirrorSetChanges() {
+        return mirrorSetChanges;
+    }
+
+    /**Forgets all known mirrors and links, so the next poll reports the whole network as added.
+     */
+    public void reset() {
+        mirrorStates.clear();
+        linkStates.clear();
+        snapshot = true;
+    }
+}
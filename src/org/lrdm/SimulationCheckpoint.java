@@ -0,0 +1,705 @@
+package org.lrdm;
+
+import org.lrdm.effectors.*;
+import org.lrdm.topologies.node.StructureNode.StructureType;
+import org.lrdm.topologies.strategies.BuildAsSubstructure;
+import org.lrdm.topologies.strategies.MigrationStage;
+import org.lrdm.topologies.strategies.TopologyPlan;
+import org.lrdm.topologies.strategies.TopologyStrategy;
+import org.lrdm.util.IDGenerator;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * # Simulation checkpoints
+ *
+ * Writes the complete state of a {@link Network} into a compact binary file and restores it from there,
+ * so that long simulations can be resumed or branched (e.g., to compare several effector plans from
+ * the same starting point) without replaying all earlier timesteps.
+ *
+ * A checkpoint contains
+ * <ul>
+ *     <li>the simulation properties and the current timestep,</li>
+ *     <li>all mirrors including their lifecycle state, timing parameters and {@link DataPackage},</li>
+ *     <li>all links including their state and timing parameters,</li>
+ *     <li>the bandwidth, active link and time-to-write histories,</li>
+ *     <li>the topology strategy with its {@link TopologyStrategy#getConfiguration() configuration} and, if available,
+ *     its {@link TopologyPlan} (StructureNode hierarchy),</li>
+ *     <li>all pending {@link Action}s of the {@link Effector}, including the configuration of the strategies
+ *     they switch to, and</li>
+ *     <li>the state of the {@link IDGenerator}.</li>
+ * </ul>
+ *
+ * Writing goes through a direct {@link ByteBuffer} that is drained into a {@link FileChannel} whenever it
+ * runs full; reading maps the whole file into memory, so that restoring a network with 100k mirrors is
+ * dominated by object allocation rather than I/O.
+ *
+ * Strategies are recreated by their no-argument constructor plus {@link TopologyStrategy#applyConfiguration(List)}.
+ * Saving fails for strategies that cannot be recreated that way, instead of silently restoring a default one.
+ * Strategies without an exportable plan (e.g. {@code SnowflakeTopologyStrategy}) plan their structure again over
+ * the restored mirrors.
+ *
+ * @apiNote Probes are not part of a checkpoint and have to be registered again at the restored network.
+ * @implNote The mirrors and links draw their randomized timings from a {@link java.security.SecureRandom},
+ * whose internal state cannot be captured. Instead, the drawn values (startup, ready and stop time of mirrors,
+ * activation time of links) are persisted, so the restored network behaves exactly like the original one
+ * until new mirrors or links are created.
+ */
+public final class SimulationCheckpoint {
+    /** File magic ("LRDM"). */
+    static final int MAGIC = 0x4C52444D;
+    /** Version of the binary format. */
+    static final int VERSION = 2;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private static final byte ACTION_MIRROR = 1;
+    private static final byte ACTION_TARGET_LINK = 2;
+    private static final byte ACTION_TOPOLOGY = 3;
+    private static final byte ACTION_ROLLING_TOPOLOGY = 4;
+    private static final byte ACTION_MIGRATION_STAGE = 5;
+
+    private static final byte VALUE_INT = 1;
+    private static final byte VALUE_BOOLEAN = 2;
+    private static final byte VALUE_DOUBLE = 3;
+    private static final byte VALUE_LONG = 4;
+    private static final byte VALUE_STRING = 5;
+    private static final byte VALUE_ENUM = 6;
+
+    private static final StructureType[] TYPES = StructureType.values();
+
+    private SimulationCheckpoint() {
+    }
+
+    /**Writes the state of the given network to the given file, replacing it if it exists.
+     *
+     * @param n the network to persist
+     * @param file the checkpoint file
+     * @throws IOException if the file cannot be written or the state contains an unsupported action or a strategy
+     * that cannot be recreated from its configuration
+     */
+    public static void save(Network n, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Output out = new Output(channel);
+            out.putInt(MAGIC);
+            out.putInt(VERSION);
+
+            Properties props = n.getProps();
+            Set<String> keys = new TreeSet<>(props.stringPropertyNames());
+            out.putInt(keys.size());
+            for (String key : keys) {
+                out.putString(key);
+                out.putString(props.getProperty(key));
+            }
+
+            MirrorCursor cursor = n.getMirrorCursor();
+            out.putInt(n.getCurrentTimeStep());
+            out.putInt(n.getNumTargetLinksPerMirror());
+            out.putInt(cursor.getNumTargetMirrors());
+            out.putInt(cursor.getMirrorIterator());
+            out.putInt(IDGenerator.getInstance().peekNextID());
+
+            writeMirrors(out, cursor.getMirrors());
+            writeLinks(out, n.getLinks());
+            writeHistory(out, n.getBandwidthHistory());
+            writeHistory(out, n.getActiveLinksHistory());
+            writeHistory(out, n.getTtwHistory());
+            writeStrategy(out, n.getTopologyStrategy());
+            writeActions(out, n.getEffector());
+            out.flush();
+        }
+    }
+
+    /**Restores a network from the given file, creating its strategy (and strategies of pending
+     * topology changes) via their no-argument constructors and the persisted configuration.
+     *
+     * @param file the checkpoint file
+     * @return the restored network with a restored {@link Effector}
+     * @throws IOException if the file cannot be read or is not a valid checkpoint
+     */
+    public static Network restore(Path file) throws IOException {
+        return restore(file, null);
+    }
+
+    /**Restores a network from the given file using the given strategy instance. The persisted configuration is
+     * applied to it, so the instance only has to be of the persisted type.
+     *
+     * @param file the checkpoint file
+     * @param strategy the strategy to use, must be of the persisted type; null to create it reflectively
+     * @return the restored network with a restored {@link Effector}
+     * @throws IOException if the file cannot be read, is not a valid checkpoint or the strategy type does not match
+     */
+    public static Network restore(Path file, TopologyStrategy strategy) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return read(in, strategy);
+        } catch (RuntimeException e) {
+            // out-of-range ordinals, counts and references surface as unchecked exceptions while decoding
+            throw new IOException("Corrupt checkpoint " + file, e);
+        }
+    }
+
+    private static Network read(ByteBuffer in, TopologyStrategy strategy) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Not a simulation checkpoint");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported checkpoint version " + version);
+        }
+
+        Properties props = new Properties();
+        int numProps = getCount(in);
+        for (int i = 0; i < numProps; i++) {
+            props.setProperty(getString(in), getString(in));
+        }
+
+        int currentTimeStep = in.getInt();
+        int linksPerMirror = in.getInt();
+        int numTargetMirrors = in.getInt();
+        int mirrorIterator = in.getInt();
+        int nextID = in.getInt();
+
+        List<Mirror> mirrors = readMirrors(in);
+        MirrorIndex mirrorsById = new MirrorIndex(mirrors);
+        int[] maxLinkActiveTimes = new int[mirrors.size()];
+        for (int i = 0; i < maxLinkActiveTimes.length; i++) maxLinkActiveTimes[i] = mirrors.get(i).getMaxLinkActiveTime();
+        Set<Link> links = readLinks(in, mirrorsById);
+        // registering the links raises the maximum again, keep the persisted value
+        for (int i = 0; i < maxLinkActiveTimes.length; i++) mirrors.get(i).setMaxLinkActiveTime(maxLinkActiveTimes[i]);
+
+        Map<Integer, Integer> bandwidth = new HashMap<>();
+        Map<Integer, Integer> activeLinks = new HashMap<>();
+        Map<Integer, Integer> ttw = new HashMap<>();
+        readHistory(in, bandwidth);
+        readHistory(in, activeLinks);
+        readHistory(in, ttw);
+
+        strategy = readStrategy(in, strategy);
+
+        MirrorCursor cursor = new MirrorCursor(props, mirrors, numTargetMirrors, mirrorIterator);
+        Network n = new Network(strategy, cursor, links, linksPerMirror, currentTimeStep, props);
+        n.getBandwidthHistory().putAll(bandwidth);
+        n.getActiveLinksHistory().putAll(activeLinks);
+        n.getTtwHistory().putAll(ttw);
+
+        readPlan(in, n, strategy, mirrorsById);
+
+        Effector effector = new Effector(n);
+        n.setEffector(effector);
+        readActions(in, n, effector, mirrorsById);
+
+        IDGenerator.getInstance().advanceTo(nextID);
+        return n;
+    }
+
+    // ===== MIRRORS & LINKS =====
+
+    private static void writeMirrors(Output out, List<Mirror> mirrors) throws IOException {
+        out.putInt(mirrors.size());
+        for (Mirror m : mirrors) {
+            out.ensure(48);
+            out.buffer.putInt(m.getID());
+            out.buffer.put((byte) m.getState().ordinal());
+            out.buffer.put((byte) (m.isRoot() ? 1 : 0));
+            out.buffer.putInt(m.getInitTime());
+            out.buffer.putInt(m.getStartupTime());
+            out.buffer.putInt(m.getReadyTime());
+            out.buffer.putInt(m.getStopTime());
+            out.buffer.putInt(m.getShutdownTime());
+            out.buffer.putInt(m.getMaxLinkActiveTime());
+            DataPackage data = m.getData();
+            out.buffer.put((byte) (data != null ? 1 : 0));
+            if (data != null) {
+                out.buffer.putInt(data.getFileSize());
+                out.buffer.putInt(data.getReceived());
+            }
+            writeHistory(out, m.getReceivedDataPerTimestep());
+        }
+    }
+
+    private static List<Mirror> readMirrors(ByteBuffer in) throws IOException {
+        Mirror.State[] states = Mirror.State.values();
+        int count = getCount(in);
+        List<Mirror> mirrors = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int id = in.getInt();
+            Mirror.State state = states[in.get()];
+            boolean root = in.get() != 0;
+            int initTime = in.getInt();
+            int startupTime = in.getInt();
+            int readyTime = in.getInt();
+            int stopTime = in.getInt();
+            int shutdownTime = in.getInt();
+            int maxLinkActiveTime = in.getInt();
+            DataPackage data = null;
+            if (in.get() != 0) {
+                data = new DataPackage(in.getInt());
+                data.increaseReceived(in.getInt());
+            }
+            Mirror m = new Mirror(id, state, initTime, startupTime, readyTime, stopTime, shutdownTime, data);
+            m.setRoot(root);
+            m.setMaxLinkActiveTime(maxLinkActiveTime);
+            readHistory(in, m.getReceivedDataPerTimestep());
+            mirrors.add(m);
+        }
+        return mirrors;
+    }
+
+    private static void writeLinks(Output out, Set<Link> links) throws IOException {
+        out.putInt(links.size());
+        for (Link l : links) {
+            out.ensure(33);
+            out.buffer.putInt(l.getID());
+            out.buffer.putInt(l.getSource().getID());
+            out.buffer.putInt(l.getTarget().getID());
+            out.buffer.put((byte) l.getState().ordinal());
+            out.buffer.putInt(l.getInitTime());
+            out.buffer.putInt(l.getMinBandwidth());
+            out.buffer.putInt(l.getMaxBandwidth());
+            out.buffer.putInt(l.getEndsActiveTime());
+            out.buffer.putInt(l.getActivationTime());
+        }
+    }
+
+    private static Set<Link> readLinks(ByteBuffer in, MirrorIndex mirrorsById) throws IOException {
+        Link.State[] states = Link.State.values();
+        int count = getCount(in);
+        Set<Link> links = new HashSet<>(Math.max(16, count * 2));
+        for (int i = 0; i < count; i++) {
+            int id = in.getInt();
+            Mirror source = mirror(mirrorsById, in.getInt());
+            Mirror target = mirror(mirrorsById, in.getInt());
+            Link.State state = states[in.get()];
+            Link l = new Link(id, source, target, state, in.getInt(), in.getInt(), in.getInt(), in.getInt(), in.getInt());
+            links.add(l);
+        }
+        return links;
+    }
+
+    private static Mirror mirror(MirrorIndex mirrorsById, int id) throws IOException {
+        Mirror m = mirrorsById.get(id);
+        if (m == null) {
+            throw new IOException("Checkpoint references unknown mirror " + id);
+        }
+        return m;
+    }
+
+    /**Mirrors by ID as sorted arrays. Every link and plan node looks up mirrors, so a binary search without
+     * boxing the IDs is noticeably cheaper for large networks than a {@link HashMap}.
+     */
+    private static final class MirrorIndex {
+        private final int[] ids;
+        private final Mirror[] mirrors;
+
+        private MirrorIndex(List<Mirror> mirrorList) {
+            mirrors = mirrorList.toArray(new Mirror[0]);
+            Arrays.sort(mirrors, Comparator.comparingInt(Mirror::getID));
+            ids = new int[mirrors.length];
+            for (int i = 0; i < mirrors.length; i++) ids[i] = mirrors[i].getID();
+        }
+
+        private Mirror get(int id) {
+            int i = Arrays.binarySearch(ids, id);
+            return i >= 0 ? mirrors[i] : null;
+        }
+    }
+
+    // ===== HISTORIES =====
+
+    private static void writeHistory(Output out, Map<Integer, Integer> history) throws IOException {
+        out.putInt(history.size());
+        for (Map.Entry<Integer, Integer> e : history.entrySet()) {
+            out.ensure(8);
+            out.buffer.putInt(e.getKey());
+            out.buffer.putInt(e.getValue());
+        }
+    }
+
+    private static void readHistory(ByteBuffer in, Map<Integer, Integer> history) throws IOException {
+        int count = getCount(in);
+        for (int i = 0; i < count; i++) {
+            history.put(in.getInt(), in.getInt());
+        }
+    }
+
+    // ===== STRATEGY & PLAN =====
+
+    private static void writeStrategy(Output out, TopologyStrategy strategy) throws IOException {
+        writeStrategyType(out, strategy);
+        TopologyPlan plan = strategy instanceof BuildAsSubstructure bas ? bas.exportPlan() : null;
+        if (plan == null) {
+            out.putInt(-1);
+            return;
+        }
+        List<Mirror> order = ((BuildAsSubstructure) strategy).getPlanMirrorOrder();
+        out.putInt(plan.size());
+        for (int i = 0; i < plan.size(); i++) {
+            int[] children = plan.children(i);
+            out.ensure(24 + children.length * 8);
+            out.buffer.putInt(order.get(i).getID());
+            out.buffer.putInt(plan.parent(i));
+            out.buffer.putInt(plan.maxChildren(i));
+            out.buffer.putInt(typeMask(plan.nodeTypes().get(i)));
+            out.buffer.putInt(typeMask(plan.headTypes().get(i)));
+            out.buffer.putInt(children.length);
+            for (int c = 0; c < children.length; c++) {
+                out.buffer.putInt(children[c]);
+                out.buffer.putInt(typeMask(plan.edgeTypes().get(i).get(c)));
+            }
+            for (int c = 0; c < children.length; c++) {
+                Map<StructureType, Integer> heads = plan.edgeHeads().get(i).get(c);
+                out.putInt(heads.size());
+                for (Map.Entry<StructureType, Integer> e : heads.entrySet()) {
+                    out.ensure(8);
+                    out.buffer.putInt(e.getKey().ordinal());
+                    out.buffer.putInt(e.getValue());
+                }
+            }
+        }
+    }
+
+    private static void readPlan(ByteBuffer in, Network n, TopologyStrategy strategy, MirrorIndex mirrorsById)
+            throws IOException {
+        int size = in.getInt();
+        if (size == -1) {
+            if (strategy instanceof BuildAsSubstructure bas) {
+                bas.importPlan(n, null, List.of());
+            }
+            return;
+        }
+        if (size < 0 || size > in.remaining()) {
+            throw new IOException("Invalid plan size " + size);
+        }
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Set<StructureType>[] decodedTypes = new Set[1 << TYPES.length];
+        List<Mirror> order = new ArrayList<>(size);
+        int[] parent = new int[size];
+        int[] maxChildren = new int[size];
+        int[][] children = new int[size][];
+        List<List<Set<StructureType>>> edgeTypes = new ArrayList<>(size);
+        List<List<Map<StructureType, Integer>>> edgeHeads = new ArrayList<>(size);
+        List<Set<StructureType>> nodeTypes = new ArrayList<>(size);
+        List<Set<StructureType>> headTypes = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            order.add(mirror(mirrorsById, in.getInt()));
+            parent[i] = in.getInt();
+            maxChildren[i] = in.getInt();
+            nodeTypes.add(typeSet(in.getInt(), decodedTypes));
+            headTypes.add(typeSet(in.getInt(), decodedTypes));
+            int numChildren = getCount(in);
+            children[i] = new int[numChildren];
+            List<Set<StructureType>> nodeEdgeTypes = new ArrayList<>(numChildren);
+            for (int c = 0; c < numChildren; c++) {
+                children[i][c] = in.getInt();
+                nodeEdgeTypes.add(typeSet(in.getInt(), decodedTypes));
+            }
+            List<Map<StructureType, Integer>> nodeEdgeHeads = new ArrayList<>(numChildren);
+            for (int c = 0; c < numChildren; c++) {
+                int numHeads = getCount(in);
+                if (numHeads == 1) {
+                    // the common case: one head per edge, stored without an intermediate map
+                    nodeEdgeHeads.add(Map.of(TYPES[in.getInt()], in.getInt()));
+                    continue;
+                }
+                Map<StructureType, Integer> heads = new EnumMap<>(StructureType.class);
+                for (int h = 0; h < numHeads; h++) {
+                    heads.put(TYPES[in.getInt()], in.getInt());
+                }
+                nodeEdgeHeads.add(Map.copyOf(heads));
+            }
+            edgeTypes.add(nodeEdgeTypes);
+            edgeHeads.add(nodeEdgeHeads);
+        }
+        TopologyPlan plan = new TopologyPlan(parent, children, edgeTypes, edgeHeads, nodeTypes, headTypes, maxChildren);
+        if (strategy instanceof BuildAsSubstructure bas) {
+            bas.importPlan(n, plan, order);
+        }
+    }
+
+    private static int typeMask(Set<StructureType> types) {
+        int mask = 0;
+        for (StructureType t : types) mask |= 1 << t.ordinal();
+        return mask;
+    }
+
+    /**Decodes a type mask. Plans of large networks repeat few masks, so each one is decoded only once per
+     * restore into an immutable set that all nodes and edges share.
+     */
+    private static Set<StructureType> typeSet(int mask, Set<StructureType>[] decoded) {
+        Set<StructureType> types = decoded[mask];
+        if (types == null) {
+            Set<StructureType> decodedTypes = EnumSet.noneOf(StructureType.class);
+            for (StructureType t : TYPES) {
+                if ((mask & (1 << t.ordinal())) != 0) decodedTypes.add(t);
+            }
+            types = Set.copyOf(decodedTypes);
+            decoded[mask] = types;
+        }
+        return types;
+    }
+
+    /**Writes type and configuration of a strategy after checking that a strategy created from them is configured
+     * like the given one.
+     */
+    private static void writeStrategyType(Output out, TopologyStrategy strategy) throws IOException {
+        String type = strategy.getClass().getName();
+        List<Object> configuration = strategy.getConfiguration();
+        if (configuration == null) {
+            throw new IOException("Cannot persist strategy " + type + ": its configuration cannot be exported");
+        }
+        TopologyStrategy copy = instantiate(type);
+        configure(copy, configuration);
+        if (!configuration.equals(copy.getConfiguration())) {
+            throw new IOException("Cannot persist strategy " + type + ": configuration " + configuration
+                    + " is restored as " + copy.getConfiguration());
+        }
+        out.putString(type);
+        out.putInt(configuration.size());
+        for (Object value : configuration) {
+            writeValue(out, value);
+        }
+    }
+
+    private static TopologyStrategy readStrategy(ByteBuffer in, TopologyStrategy strategy) throws IOException {
+        String type = getString(in);
+        if (strategy == null) {
+            strategy = instantiate(type);
+        } else if (!strategy.getClass().getName().equals(type)) {
+            throw new IOException("Checkpoint expects strategy " + type + " but got " + strategy.getClass().getName());
+        }
+        int count = getCount(in);
+        List<Object> configuration = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            configuration.add(readValue(in));
+        }
+        configure(strategy, configuration);
+        return strategy;
+    }
+
+    private static void configure(TopologyStrategy strategy, List<Object> configuration) throws IOException {
+        try {
+            strategy.applyConfiguration(configuration);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Cannot configure strategy " + strategy.getClass().getName(), e);
+        }
+    }
+
+    private static void writeValue(Output out, Object value) throws IOException {
+        if (value instanceof Integer i) {
+            out.putByte(VALUE_INT);
+            out.putInt(i);
+        } else if (value instanceof Boolean b) {
+            out.putByte(VALUE_BOOLEAN);
+            out.putByte((byte) (b ? 1 : 0));
+        } else if (value instanceof Double d) {
+            out.putByte(VALUE_DOUBLE);
+            out.putLong(Double.doubleToLongBits(d));
+        } else if (value instanceof Long l) {
+            out.putByte(VALUE_LONG);
+            out.putLong(l);
+        } else if (value instanceof String str) {
+            out.putByte(VALUE_STRING);
+            out.putString(str);
+        } else if (value instanceof Enum<?> e) {
+            out.putByte(VALUE_ENUM);
+            out.putString(e.getDeclaringClass().getName());
+            out.putString(e.name());
+        } else {
+            throw new IOException("Cannot persist configuration value " + value);
+        }
+    }
+
+    private static Object readValue(ByteBuffer in) throws IOException {
+        byte type = in.get();
+        return switch (type) {
+            case VALUE_INT -> in.getInt();
+            case VALUE_BOOLEAN -> in.get() != 0;
+            case VALUE_DOUBLE -> Double.longBitsToDouble(in.getLong());
+            case VALUE_LONG -> in.getLong();
+            case VALUE_STRING -> getString(in);
+            case VALUE_ENUM -> enumValue(getString(in), getString(in));
+            default -> throw new IOException("Unknown configuration value type " + type);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object enumValue(String type, String name) throws IOException {
+        try {
+            Class<?> enumType = Class.forName(type);
+            if (!enumType.isEnum()) throw new IOException("Not an enum type: " + type);
+            return Enum.valueOf((Class) enumType, name);
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Unknown enum type " + type, e);
+        }
+    }
+
+    private static TopologyStrategy instantiate(String type) throws IOException {
+        try {
+            return (TopologyStrategy) Class.forName(type).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException e) {
+            throw new IOException("Cannot create topology strategy " + type, e);
+        }
+    }
+
+    // ===== EFFECTOR =====
+
+    private static void writeActions(Output out, Effector effector) throws IOException {
+        List<Action> actions = effector != null ? effector.getPendingActions() : List.of();
+        out.putInt(actions.size());
+        for (Action a : actions) {
+            if (a instanceof MirrorChange mc) {
+                putActionHeader(out, ACTION_MIRROR, a);
+                out.putInt(mc.getNewMirrors());
+            } else if (a instanceof TargetLinkChange tlc) {
+                putActionHeader(out, ACTION_TARGET_LINK, a);
+                out.putInt(tlc.getNewLinksPerMirror());
+            } else if (a instanceof RollingTopologyChange rtc) {
+                putActionHeader(out, ACTION_ROLLING_TOPOLOGY, a);
+                writeStrategyType(out, rtc.getNewTopology());
+                out.putInt(rtc.getMaxOpensPerStage());
+                out.putInt(rtc.getMaxClosesPerStage());
+            } else if (a instanceof TopologyChange tc) {
+                putActionHeader(out, ACTION_TOPOLOGY, a);
+                writeStrategyType(out, tc.getNewTopology());
+            } else if (a instanceof MigrationStageChange msc) {
+                putActionHeader(out, ACTION_MIGRATION_STAGE, a);
+                MigrationStage stage = msc.getStage();
+                out.putInt(stage.index());
+                out.putInt(stage.opens().size());
+                for (MigrationStage.Opening o : stage.opens()) {
+                    out.putInt(o.source().getID());
+                    out.putInt(o.target().getID());
+                }
+                out.putInt(stage.closes().size());
+                for (Link l : stage.closes()) {
+                    out.putInt(l.getID());
+                }
+            } else {
+                throw new IOException("Cannot persist action of type " + a.getClass().getName());
+            }
+        }
+    }
+
+    private static void putActionHeader(Output out, byte type, Action a) throws IOException {
+        out.ensure(9);
+        out.buffer.put(type);
+        out.buffer.putInt(a.getId());
+        out.buffer.putInt(a.getTime());
+    }
+
+    private static void readActions(ByteBuffer in, Network n, Effector effector, MirrorIndex mirrorsById)
+            throws IOException {
+        Map<Integer, Link> linksById = new HashMap<>();
+        int count = getCount(in);
+        for (int i = 0; i < count; i++) {
+            byte type = in.get();
+            int id = in.getInt();
+            int time = in.getInt();
+            Action a = switch (type) {
+                case ACTION_MIRROR -> new MirrorChange(n, id, time, in.getInt());
+                case ACTION_TARGET_LINK -> new TargetLinkChange(n, id, time, in.getInt());
+                case ACTION_TOPOLOGY -> new TopologyChange(n, readStrategy(in, null), id, time);
+                case ACTION_ROLLING_TOPOLOGY ->
+                        new RollingTopologyChange(n, readStrategy(in, null), id, time, in.getInt(), in.getInt());
+                case ACTION_MIGRATION_STAGE -> {
+                    int index = in.getInt();
+                    int numOpens = getCount(in);
+                    List<MigrationStage.Opening> opens = new ArrayList<>(numOpens);
+                    for (int o = 0; o < numOpens; o++) {
+                        opens.add(new MigrationStage.Opening(mirror(mirrorsById, in.getInt()), mirror(mirrorsById, in.getInt())));
+                    }
+                    int numCloses = getCount(in);
+                    if (linksById.isEmpty()) {
+                        // only pending migration stages refer to links by ID
+                        n.getLinks().forEach(l -> linksById.put(l.getID(), l));
+                    }
+                    List<Link> closes = new ArrayList<>(numCloses);
+                    for (int c = 0; c < numCloses; c++) {
+                        Link l = linksById.get(in.getInt());
+                        if (l != null) closes.add(l);
+                    }
+                    yield new MigrationStageChange(n, id, time, new MigrationStage(index, opens, closes));
+                }
+                default -> throw new IOException("Unknown action type " + type);
+            };
+            effector.schedule(a);
+        }
+    }
+
+    // ===== BUFFERED I/O =====
+
+    /**Reads the number of following entries. Every entry takes at least one byte, so a larger number can only
+     * come from a corrupt file and would otherwise allocate accordingly large collections.
+     */
+    private static int getCount(ByteBuffer in) throws IOException {
+        int count = in.getInt();
+        if (count < 0 || count > in.remaining()) {
+            throw new IOException("Invalid entry count " + count + " at position " + (in.position() - 4));
+        }
+        return count;
+    }
+
+    private static String getString(ByteBuffer in) throws IOException {
+        byte[] bytes = new byte[getCount(in)];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**Direct buffer in front of a {@link FileChannel}, drained whenever the next record would not fit.
+     */
+    private static final class Output {
+        private final FileChannel channel;
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+
+        private Output(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() >= bytes) return;
+            flush();
+            if (buffer.capacity() < bytes) {
+                buffer = ByteBuffer.allocateDirect(bytes);
+            }
+        }
+
+        private void putInt(int value) throws IOException {
+            ensure(4);
+            buffer.putInt(value);
+        }
+
+        private void putByte(byte value) throws IOException {
+            ensure(1);
+            buffer.put(value);
+        }
+
+        private void putLong(long value) throws IOException {
+            ensure(8);
+            buffer.putLong(value);
+        }
+
+        private void putString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            ensure(4 + bytes.length);
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package org.lrdm;
+
+import org.lrdm.effectors.Action;
+import org.lrdm.effectors.Effector;
+import org.lrdm.topologies.strategies.TopologyStrategy;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * # SimulationControl
+ * <p>
+ * Inspects and steers a running simulation from JConsole or VisualVM, see {@link SimulationControlMBean} for the
+ * attributes and operations. {@link TimedRDMSim} creates one, which then also paces the run, and registers it with
+ * the platform MBean server only if the property {@code jmx=true} is set, since publishing the attributes costs a
+ * pass over mirrors and links after every step.
+ *
+ * <p>The simulation thread calls {@link #beforeStep(int)} and {@link #afterStep(int)} around each step:
+ * <pre>{@code
+ * control.beforeStep(t);   // waits while paused, paces, hands submitted operations to the effector
+ * network.timeStep(t);
+ * control.afterStep(t);    // publishes the attributes
+ * }</pre>
+ *
+ * @apiNote Operations can be invoked from any thread. They are queued and scheduled at the {@link Effector} by the
+ * simulation thread before its next step, so the effector is never changed concurrently. An operation for a time
+ * step that has already started is applied at the next step.
+ * @implNote Operations are handed over through a lock-free {@link ConcurrentLinkedQueue}; the attributes are read
+ * from an immutable state published through an {@link AtomicReference} after each step, so reading them never
+ * touches the network. Only pausing uses a monitor, which the simulation thread waits on between steps.
+ */
+public class SimulationControl implements SimulationControlMBean, AutoCloseable {
+    static final String DOMAIN = "org.lrdm";
+    private static final String STRATEGY_PACKAGE = "org.lrdm.topologies.strategies.";
+    /** Number of steps over which the tick rate is averaged. */
+    private static final int RATE_WINDOW = 32;
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    /** Attributes published by the simulation thread. */
+    private record State(int tick, double tickRate, int readyMirrors, int activeLinks, String strategy,
+                         String[] pendingActions) {
+    }
+
+    /** Operation submitted by a management client; schedules an action at the given time step. */
+    private record Submission(int tick, Scheduler scheduler) {
+    }
+
+    @FunctionalInterface
+    private interface Scheduler {
+        Action schedule(Effector effector, int tick);
+    }
+
+    private final Network network;
+    private final Queue<Submission> submissions = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicReference<State> state;
+    private final Object pauseLock = new Object();
+    private volatile boolean paused;
+    private volatile long stepDelayMillis;
+    private ObjectName name;
+
+    // only accessed on the simulation thread
+    private final long[] stepNanos = new long[RATE_WINDOW];
+    private long steps;
+    private long lastStepStart;
+
+    /**
+     * @param network the simulated network with its effector
+     * @param stepDelayMillis initial minimum time between two steps in milliseconds, 0 for full speed
+     */
+    public SimulationControl(Network network, long stepDelayMillis) {
+        this.network = network;
+        setStepDelayMillis(stepDelayMillis);
+        state = new AtomicReference<>(new State(-1, 0, network.getNumReadyMirrors(), network.getNumActiveLinks(),
+                strategyName(network.getTopologyStrategy()), new String[0]));
+    }
+
+    /**Registers this control with the platform MBean server.
+     *
+     * @return the name it is registered under
+     * @throws JMException if the registration fails
+     */
+    public ObjectName register() throws JMException {
+        ObjectName objectName = new ObjectName(DOMAIN + ":type=SimulationControl,name=simulation-"
+                + INSTANCES.incrementAndGet());
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+        name = objectName;
+        return objectName;
+    }
+
+    /**
+     * @return the name this control is registered under, null if it is not registered
+     */
+    public ObjectName getObjectName() {
+        return name;
+    }
+
+    /**Unregisters this control if it is registered and resumes a paused simulation.
+     */
+    @Override
+    public void close() {
+        resume();
+        if (name == null) return;
+        try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+        } catch (JMException e) {
+            // already unregistered
+        }
+        name = null;
+    }
+
+    /**Called by the simulation thread before a step. Waits while paused and until the step delay has passed since
+     * the previous step, then schedules the submitted operations at the effector.
+     *
+     * @param timeStep the time step about to be simulated
+     */
+    public void beforeStep(int timeStep) {
+        try {
+            synchronized (pauseLock) {
+                while (paused) {
+                    pauseLock.wait();
+                }
+            }
+            long delay = stepDelayMillis;
+            if (delay > 0 && steps > 0) {
+                TimeUnit.NANOSECONDS.sleep(lastStepStart + TimeUnit.MILLISECONDS.toNanos(delay) - System.nanoTime());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lastStepStart = System.nanoTime();
+        applySubmissions(timeStep);
+    }
+
+    /**Schedules all submitted operations at the effector of the network.
+     *
+     * @param timeStep the earliest time step the operations may be applied at
+     */
+    void applySubmissions(int timeStep) {
+        Effector effector = network.getEffector();
+        Submission s;
+        while ((s = submissions.poll()) != null) {
+            queued.decrementAndGet();
+            s.scheduler().schedule(effector, Math.max(s.tick(), timeStep));
+        }
+    }
+
+    /**Called by the simulation thread after a step to publish the attributes.
+     *
+     * @param timeStep the completed time step
+     */
+    public void afterStep(int timeStep) {
+        long now = System.nanoTime();
+        stepNanos[(int) (steps % RATE_WINDOW)] = now;
+        steps++;
+        double rate = 0;
+        if (steps > 1) {
+            int window = (int) Math.min(steps, RATE_WINDOW);
+            long oldest = stepNanos[(int) ((steps - window) % RATE_WINDOW)];
+            rate = now > oldest ? (window - 1) * 1e9 / (now - oldest) : 0;
+        }
+        List<Action> pending = network.getEffector() == null ? List.of() : network.getEffector().getPendingActions();
+        state.set(new State(timeStep, rate, network.getNumReadyMirrors(), network.getNumActiveLinks(),
+                strategyName(network.getTopologyStrategy()),
+                pending.stream().map(Action::toString).toArray(String[]::new)));
+    }
+
+    private static String strategyName(TopologyStrategy strategy) {
+        return strategy == null ? "" : strategy.getClass().getSimpleName();
+    }
+
+    private void submit(int tick, Scheduler scheduler) {
+        queued.incrementAndGet();
+        submissions.add(new Submission(tick, scheduler));
+    }
+
+    @Override
+    public int getTick() {
+        return state.get().tick();
+    }
+
+    @Override
+    public double getTickRate() {
+        return state.get().tickRate();
+    }
+
+    @Override
+    public int getNumReadyMirrors() {
+        return state.get().readyMirrors();
+    }
+
+    @Override
+    public int getNumActiveLinks() {
+        return state.get().activeLinks();
+    }
+
+    @Override
+    public String getTopologyStrategy() {
+        return state.get().strategy();
+    }
+
+    @Override
+    public String[] getPendingActions() {
+        return state.get().pendingActions().clone();
+    }
+
+    @Override
+    public int getQueuedSubmissions() {
+        return queued.get();
+    }
+
+    @Override
+    public boolean isPaused() {
+        return paused;
+    }
+
+    @Override
+    public long getStepDelayMillis() {
+        return stepDelayMillis;
+    }
+
+    @Override
+    public void setStepDelayMillis(long stepDelayMillis) {
+        if (stepDelayMillis < 0) {
+            throw new IllegalArgumentException("The step delay must not be negative: " + stepDelayMillis);
+        }
+        this.stepDelayMillis = stepDelayMillis;
+    }
+
+    @Override
+    public void scheduleMirrors(int mirrors, int tick) {
+        requireNonNegative(mirrors, "number of mirrors");
+        submit(tick, (effector, t) -> effector.setMirrors(mirrors, t));
+    }
+
+    @Override
+    public void scheduleStrategy(String strategy, int tick) {
+        // resolved on the calling thread so that unknown names are reported to the client
+        TopologyStrategy instance = newStrategy(strategy);
+        submit(tick, (effector, t) -> effector.setStrategy(instance, t));
+    }
+
+    @Override
+    public void scheduleTargetLinksPerMirror(int linksPerMirror, int tick) {
+        requireNonNegative(linksPerMirror, "number of links per mirror");
+        submit(tick, (effector, t) -> effector.setTargetLinksPerMirror(linksPerMirror, t));
+    }
+
+    private static void requireNonNegative(int value, String what) {
+        if (value < 0) throw new IllegalArgumentException("The " + what + " must not be negative: " + value);
+    }
+
+    /**Creates a topology strategy by its class name.
+     *
+     * @param strategy fully qualified or simple name of a class in {@code org.lrdm.topologies.strategies}
+     * @return a new instance created by the no-argument constructor
+     * @throws IllegalArgumentException if the class does not exist, is not a topology strategy or cannot be
+     * instantiated
+     */
+    static TopologyStrategy newStrategy(String strategy) {
+        if (strategy == null || strategy.isBlank()) {
+            throw new IllegalArgumentException("No topology strategy given.");
+        }
+        String className = strategy.trim();
+        if (className.indexOf('.') < 0) className = STRATEGY_PACKAGE + className;
+        try {
+            Class<?> type = Class.forName(className);
+            if (!TopologyStrategy.class.isAssignableFrom(type)) {
+                throw new IllegalArgumentException(className + " is not a topology strategy.");
+            }
+            return (TopologyStrategy) type.getConstructor().newInstance();
+        } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException("Unknown topology strategy: " + strategy);
+        } catch (ReflectiveOperationException e) {
+            Throwable cause = e instanceof InvocationTargetException ite ? ite.getCause() : e;
+            throw new IllegalArgumentException("Cannot create topology strategy " + className + ": " + cause);
+        }
+    }
+
+    @Override
+    public void pause() {
+        paused = true;
+    }
+
+    @Override
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+}
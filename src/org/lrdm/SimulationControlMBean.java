@@ -0,0 +1,87 @@
+package org.lrdm;
+
+/**Management interface of a running simulation, registered by {@link SimulationControl} with the platform
+ * MBean server and shown by JConsole or VisualVM.
+ */
+public interface SimulationControlMBean {
+    /**
+     * @return the last completed time step, -1 before the first step
+     */
+    int getTick();
+
+    /**
+     * @return completed time steps per second, averaged over the last steps
+     */
+    double getTickRate();
+
+    /**
+     * @return number of mirrors holding the data after the last step
+     */
+    int getNumReadyMirrors();
+
+    /**
+     * @return number of active links after the last step
+     */
+    int getNumActiveLinks();
+
+    /**
+     * @return simple class name of the current topology strategy
+     */
+    String getTopologyStrategy();
+
+    /**
+     * @return the actions scheduled at the {@link org.lrdm.effectors.Effector} after the last step
+     */
+    String[] getPendingActions();
+
+    /**
+     * @return number of submitted operations not yet handed to the effector
+     */
+    int getQueuedSubmissions();
+
+    /**
+     * @return true if the simulation is paused before its next step
+     */
+    boolean isPaused();
+
+    /**
+     * @return minimum time between two steps in milliseconds
+     */
+    long getStepDelayMillis();
+
+    /**Adjusts the pacing of the simulation.
+     *
+     * @param stepDelayMillis minimum time between two steps in milliseconds, 0 for full speed
+     */
+    void setStepDelayMillis(long stepDelayMillis);
+
+    /**Schedules a change of the number of mirrors.
+     *
+     * @param mirrors the desired number of mirrors
+     * @param tick the time step at which to apply the change; a past time step means the next one
+     */
+    void scheduleMirrors(int mirrors, int tick);
+
+    /**Schedules a switch of the topology strategy.
+     *
+     * @param strategy class name of the strategy, the package may be omitted for the strategies of
+     *                 {@code org.lrdm.topologies.strategies}
+     * @param tick the time step at which to apply the change; a past time step means the next one
+     */
+    void scheduleStrategy(String strategy, int tick);
+
+    /**Schedules a change of the number of targeted links per mirror.
+     *
+     * @param linksPerMirror the desired number of links per mirror
+     * @param tick the time step at which to apply the change; a past time step means the next one
+     */
+    void scheduleTargetLinksPerMirror(int linksPerMirror, int tick);
+
+    /**Pauses the simulation before its next step.
+     */
+    void pause();
+
+    /**Resumes a paused simulation.
+     */
+    void resume();
+}
@@ -0,0 +1,424 @@
+package org.lrdm;
+
+import jdk.jfr.*;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * # JDK Flight Recorder events
+ *
+ * Domain events of the simulator for the JDK Flight Recorder, so that hotspots in a recording can be correlated with
+ * simulation activity. All events belong to the category {@code LRDMSim}:
+ * <ul>
+ *     <li>{@link Tick} – one {@link Network#timeStep(int)},</li>
+ *     <li>{@link TopologyRebuild} – a build, rebuild, add or remove operation of the topology strategy,</li>
+ *     <li>{@link ActionApplication} – the application of the actions scheduled on the
+ *     {@link org.lrdm.effectors.Effector} for one tick,</li>
+ *     <li>{@link MirrorCrash} – a mirror crash,</li>
+ *     <li>{@link MirrorStateTransition} and {@link LinkStateTransition} – lifecycle state changes.</li>
+ * </ul>
+ * The state transitions are frequent and therefore disabled by default; enable them in the recording settings, e.g.,
+ * with the {@code lrdm.jfc} shipped in the resources:
+ * <pre>{@code java -XX:StartFlightRecording:settings=default,settings=resources/lrdm.jfc,filename=run.jfr ...}</pre>
+ *
+ * <p>Besides the recording, the lifecycle hooks feed the {@link TransitionListener}s registered at the {@link Network}
+ * the mirror or link belongs to, see {@link Network#addTransitionListener(TransitionListener)}.
+ *
+ * @apiNote Event names are {@code org.lrdm.<Type>}; thresholds of the duration events can be set in the settings.
+ * @implNote Call sites create an event and check {@link Event#isEnabled()} or {@link Event#shouldCommit()} before
+ * computing any field. While no recording is running, these checks fold to constants and the events are
+ * eliminated by escape analysis.
+ */
+public final class SimulationEvents {
+    private static final String CATEGORY = "LRDMSim";
+
+    private SimulationEvents() {
+    }
+
+    /**
+     * Receives the lifecycle changes of the mirrors and links of one {@link Network} as they happen, on the
+     * simulation thread. Ticks are those of the step in progress.
+     */
+    public interface TransitionListener {
+        /** Listener that ignores all changes. */
+        TransitionListener NONE = new TransitionListener() {
+        };
+
+        /**
+         * @param simTime the tick
+         * @param m a mirror that joined the network
+         */
+        default void mirrorAdded(int simTime, Mirror m) {
+        }
+
+        /**
+         * @param simTime the tick
+         * @param m a mirror that changed its state
+         * @param previous the state before
+         */
+        default void mirrorStateChanged(int simTime, Mirror m, Mirror.State previous) {
+        }
+
+        /**Called instead of {@link #mirrorStateChanged(int, Mirror, Mirror.State)} when the change is a crash;
+         * delegates to it by default.
+         *
+         * @param simTime the tick
+         * @param m the crashed mirror
+         * @param previous the state before the crash
+         */
+        default void mirrorCrashed(int simTime, Mirror m, Mirror.State previous) {
+            mirrorStateChanged(simTime, m, previous);
+        }
+
+        /**
+         * @param simTime the tick
+         * @param m a stopped mirror that left the network
+         */
+        default void mirrorRemoved(int simTime, Mirror m) {
+        }
+
+        /**
+         * @param simTime the tick
+         * @param l a link that was opened
+         */
+        default void linkAdded(int simTime, Link l) {
+        }
+
+        /**
+         * @param simTime the tick
+         * @param l a link that changed its state
+         * @param previous the state before
+         */
+        default void linkStateChanged(int simTime, Link l, Link.State previous) {
+        }
+
+        /**
+         * @param simTime the tick
+         * @param l a link that left the network, closed or not
+         */
+        default void linkRemoved(int simTime, Link l) {
+        }
+    }
+
+    /**
+     * The listeners of one network. Mirrors and links hold a reference to it, so the hooks reach only the listeners
+     * of their own network. Hooks without a known tick are stamped with the tick in progress.
+     */
+    static final class Transitions implements TransitionListener {
+        private final List<TransitionListener> listeners = new CopyOnWriteArrayList<>();
+        private int tick;
+
+        void add(TransitionListener listener) {
+            listeners.add(listener);
+        }
+
+        void remove(TransitionListener listener) {
+            listeners.remove(listener);
+        }
+
+        void setTick(int tick) {
+            this.tick = tick;
+        }
+
+        int tick(int simTime) {
+            return simTime < 0 ? tick : simTime;
+        }
+
+        @Override
+        public void mirrorAdded(int simTime, Mirror m) {
+            for (TransitionListener l : listeners) l.mirrorAdded(tick(simTime), m);
+        }
+
+        @Override
+        public void mirrorStateChanged(int simTime, Mirror m, Mirror.State previous) {
+            for (TransitionListener l : listeners) l.mirrorStateChanged(tick(simTime), m, previous);
+        }
+
+        @Override
+        public void mirrorCrashed(int simTime, Mirror m, Mirror.State previous) {
+            for (TransitionListener l : listeners) l.mirrorCrashed(tick(simTime), m, previous);
+        }
+
+        @Override
+        public void mirrorRemoved(int simTime, Mirror m) {
+            for (TransitionListener l : listeners) l.mirrorRemoved(tick(simTime), m);
+        }
+
+        @Override
+        public void linkAdded(int simTime, Link l) {
+            for (TransitionListener t : listeners) t.linkAdded(tick(simTime), l);
+        }
+
+        @Override
+        public void linkStateChanged(int simTime, Link l, Link.State previous) {
+            for (TransitionListener t : listeners) t.linkStateChanged(tick(simTime), l, previous);
+        }
+
+        @Override
+        public void linkRemoved(int simTime, Link l) {
+            for (TransitionListener t : listeners) t.linkRemoved(tick(simTime), l);
+        }
+    }
+
+    /**Resolves an unknown tick the way the listeners see it, so recorded events carry the same tick.
+     *
+     * @param listener the listener of a mirror or link
+     * @param simTime the tick, -1 if unknown
+     * @return the tick in progress of the listener's network for an unknown tick, else {@code simTime}
+     */
+    private static int tick(TransitionListener listener, int simTime) {
+        return listener instanceof Transitions t ? t.tick(simTime) : simTime;
+    }
+
+    /** Duration of one simulation tick. */
+    @Name("org.lrdm.Tick")
+    @Label("Simulation Tick")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class Tick extends Event {
+        @Label("Tick")
+        int tick;
+        @Label("Mirrors")
+        int mirrors;
+        @Label("Links")
+        int links;
+
+        /**Ends the event and commits it if it passes the threshold.
+         *
+         * @param network the simulated network
+         * @param simTime the tick
+         */
+        public void commit(Network network, int simTime) {
+            end();
+            if (shouldCommit()) {
+                tick = simTime;
+                mirrors = network.getNumMirrors();
+                links = network.getLinks().size();
+                commit();
+            }
+        }
+    }
+
+    /** Structural change of the network by its topology strategy. */
+    @Name("org.lrdm.TopologyRebuild")
+    @Label("Topology Rebuild")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class TopologyRebuild extends Event {
+        @Label("Strategy")
+        String strategy;
+        @Label("Operation")
+        @Description("build, rebuild, add or remove")
+        String operation;
+        @Label("Tick")
+        int tick;
+        @Label("Node Count")
+        @Description("Number of mirrors after the operation")
+        int nodeCount;
+        @Label("Links Added")
+        int linksAdded;
+        @Label("Links Removed")
+        int linksRemoved;
+
+        private transient Set<Link> before;
+
+        /**Remembers the open links before the operation, only if the event is enabled, and begins timing.
+         *
+         * @param links the links of the network before the operation, may be null
+         */
+        public void begin(Collection<Link> links) {
+            if (isEnabled()) {
+                before = openLinks(links);
+            }
+            begin();
+        }
+
+        /**Ends the event and commits it with the link delta if it passes the threshold.
+         *
+         * @param network the network after the operation
+         * @param strategyName the simple name of the strategy
+         * @param operationName the operation
+         * @param simTime the tick
+         */
+        public void commit(Network network, String strategyName, String operationName, int simTime) {
+            end();
+            if (before != null && shouldCommit()) {
+                Set<Link> after = openLinks(network.getLinks());
+                Set<Link> kept = new HashSet<>(after);
+                kept.retainAll(before);
+                strategy = strategyName;
+                operation = operationName;
+                tick = simTime;
+                nodeCount = network.getNumMirrors();
+                linksAdded = after.size() - kept.size();
+                linksRemoved = before.size() - kept.size();
+                commit();
+            }
+        }
+
+        private static Set<Link> openLinks(Collection<Link> links) {
+            Set<Link> open = Collections.newSetFromMap(new IdentityHashMap<>());
+            if (links != null) {
+                for (Link l : links) {
+                    if (l.getState() != Link.State.CLOSED) open.add(l);
+                }
+            }
+            return open;
+        }
+    }
+
+    /** Application of the actions scheduled for one tick. */
+    @Name("org.lrdm.ActionApplication")
+    @Label("Effector Action Application")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class ActionApplication extends Event {
+        @Label("Tick")
+        int tick;
+        @Label("Actions")
+        int actions;
+        @Label("Batch")
+        String batch;
+
+        /**Ends the event and commits it if it passes the threshold.
+         *
+         * @param simTime the tick
+         * @param numActions the number of applied actions
+         * @param description a description of the applied batch
+         */
+        public void commit(int simTime, int numActions, Object description) {
+            end();
+            if (shouldCommit()) {
+                tick = simTime;
+                actions = numActions;
+                batch = String.valueOf(description);
+                commit();
+            }
+        }
+    }
+
+    /** A mirror crashed and restarts. */
+    @Name("org.lrdm.MirrorCrash")
+    @Label("Mirror Crash")
+    @Category(CATEGORY)
+    @StackTrace(false)
+    public static final class MirrorCrash extends Event {
+        @Label("Tick")
+        int tick;
+        @Label("Mirror")
+        int mirror;
+        @Label("Previous State")
+        String from;
+        @Label("Affected Links")
+        int links;
+
+        /**Notifies the listeners and commits a crash, together with its {@link MirrorStateTransition}, if enabled.
+         *
+         * @param simTime the tick
+         * @param m the crashed mirror
+         * @param previous the state before the crash
+         */
+        public static void emit(int simTime, Mirror m, Mirror.State previous) {
+            m.getTransitionListener().mirrorCrashed(simTime, m, previous);
+            simTime = tick(m.getTransitionListener(), simTime);
+            MirrorStateTransition.record(simTime, m, previous);
+            MirrorCrash event = new MirrorCrash();
+            if (event.shouldCommit()) {
+                event.tick = simTime;
+                event.mirror = m.getID();
+                event.from = previous.name();
+                event.links = m.getLinks().size();
+                event.commit();
+            }
+        }
+    }
+
+    /** A mirror changed its lifecycle state. */
+    @Name("org.lrdm.MirrorStateTransition")
+    @Label("Mirror State Transition")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class MirrorStateTransition extends Event {
+        @Label("Tick")
+        int tick;
+        @Label("Mirror")
+        int mirror;
+        @Label("From")
+        String from;
+        @Label("To")
+        String to;
+
+        /**Notifies the listeners and commits a transition if enabled, both only if the state actually changed.
+         *
+         * @param simTime the tick, -1 if unknown
+         * @param m the mirror
+         * @param previous the state before
+         */
+        public static void emit(int simTime, Mirror m, Mirror.State previous) {
+            if (previous == m.getState()) return;
+            m.getTransitionListener().mirrorStateChanged(simTime, m, previous);
+            record(tick(m.getTransitionListener(), simTime), m, previous);
+        }
+
+        private static void record(int simTime, Mirror m, Mirror.State previous) {
+            if (previous == m.getState()) return;
+            MirrorStateTransition event = new MirrorStateTransition();
+            if (event.shouldCommit()) {
+                event.tick = simTime;
+                event.mirror = m.getID();
+                event.from = previous.name();
+                event.to = m.getState().name();
+                event.commit();
+            }
+        }
+    }
+
+    /** A link changed its lifecycle state. */
+    @Name("org.lrdm.LinkStateTransition")
+    @Label("Link State Transition")
+    @Category(CATEGORY)
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class LinkStateTransition extends Event {
+        @Label("Tick")
+        int tick;
+        @Label("Link")
+        int link;
+        @Label("Source")
+        int source;
+        @Label("Target")
+        int target;
+        @Label("From")
+        String from;
+        @Label("To")
+        String to;
+
+        /**Notifies the listeners and commits a transition if enabled, both only if the state actually changed.
+         *
+         * @param simTime the tick, -1 if unknown
+         * @param l the link
+         * @param previous the state before
+         */
+        public static void emit(int simTime, Link l, Link.State previous) {
+            if (previous == l.getState()) return;
+            l.getTransitionListener().linkStateChanged(simTime, l, previous);
+            LinkStateTransition event = new LinkStateTransition();
+            if (event.shouldCommit()) {
+                event.tick = tick(l.getTransitionListener(), simTime);
+                event.link = l.getID();
+                event.source = l.getSource().getID();
+                event.target = l.getTarget().getID();
+                event.from = previous.name();
+                event.to = l.getState().name();
+                event.commit();
+            }
+        }
+    }
+}
@@ -2,15 +2,21 @@ package org.lrdm;
 
 import org.lrdm.effectors.Effector;
 import org.lrdm.probes.LinkProbe;
+import org.lrdm.probes.MetricsEndpoint;
 import org.lrdm.probes.MirrorProbe;
 import org.lrdm.probes.Probe;
+import org.lrdm.probes.SnapshotLogger;
+import org.lrdm.probes.SnapshotPublisher;
 import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
 import org.lrdm.topologies.strategies.TopologyStrategy;
+import org.lrdm.util.MetricsRegistry;
 
+import javax.management.JMException;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Flow;
 import java.util.logging.Logger;
 
 /**
@@ -21,12 +27,17 @@ import java.util.logging.Logger;
  */
 public class TimedRDMSim {
 	private static final String DEFAULT_CONFIG_NAME = "sim.conf";
+	/** Pacing of visualized runs: four steps per second. */
+	private static final int STEP_DELAY_MILLIS = 250;
 	private final Logger log;
 	private int lastTimeStep;
 	private Network network;
 	private final Properties props;
 	private Effector effector;
 	private List<Probe> probes;
+	private SnapshotPublisher snapshots;
+	private MetricsEndpoint metricsEndpoint;
+	private SimulationControl control;
 	private VisualizationStrategy visualizationStrategy;
 
 	private int simTime;
@@ -42,10 +53,12 @@ public class TimedRDMSim {
 		conf = initConfigFile(conf);
 		props = new Properties();
 		try(FileReader fr = new FileReader(conf)) {
-			System.setProperty("org.graphstream.ui", "swing");
 			props.load(fr);
 			probes = new ArrayList<>();
 			debug = Boolean.parseBoolean(props.getProperty("debug"));
+			if (Boolean.parseBoolean(props.getProperty("metrics"))) {
+				MetricsRegistry.setEnabled(true);
+			}
 			// simulation time
 			simTime = Integer.parseInt(props.getProperty("sim_time"));
 		} catch (FileNotFoundException fnfe) {
@@ -89,8 +102,14 @@ public class TimedRDMSim {
 		if(strategy == null) {
 			strategy = new BalancedTreeTopologyStrategy();
 		}
-		if(!headless)
-			visualizationStrategy = new GraphVisualization();
+		if(!headless) {
+			// the visualization is looked up only now, so headless runs never load the UI libraries
+			visualizationStrategy = VisualizationStrategy.load().orElse(null);
+			if(visualizationStrategy == null) {
+				log.info("No visualization available (no display or UI libraries missing), running headless.");
+				headless = true;
+			}
+		}
 
 		// create network of mirrors
 		network = new Network(strategy, numMirrors, numLinksPerMirror, fileSize, props);
@@ -104,6 +123,39 @@ public class TimedRDMSim {
 		network.registerProbe(mprobe);
 		network.registerProbe(lprobe);
 		network.setEffector(effector);
+		String metricsPort = props.getProperty("metrics_port");
+		boolean serveMetrics = metricsPort != null && !metricsPort.isBlank();
+		if (debug || serveMetrics) {
+			// debug output and live metrics are derived from snapshots on subscriber threads, not on the
+			// simulation thread; blocking in debug mode, so that every tick is logged
+			snapshots = debug
+					? new SnapshotPublisher(network, SnapshotPublisher.Overflow.BLOCK, Flow.defaultBufferSize())
+					: new SnapshotPublisher(network);
+			network.registerProbe(snapshots);
+		}
+		if (debug) {
+			snapshots.subscribe(new SnapshotLogger());
+		}
+		if (serveMetrics) {
+			// live metrics for dashboards on localhost, including the phase timings
+			MetricsRegistry.setEnabled(true);
+			try {
+				metricsEndpoint = new MetricsEndpoint(snapshots, Integer.parseInt(metricsPort.trim()));
+				log.info(() -> "Serving metrics on http://localhost:" + metricsEndpoint.getPort() + "/metrics");
+			} catch (IOException e) {
+				log.warning("Could not start the metrics endpoint on port " + metricsPort + ": " + e.getMessage());
+			}
+		}
+
+		if (Boolean.parseBoolean(props.getProperty("jmx"))) {
+			// only a registered control is worth publishing its attributes after every step
+			control = new SimulationControl(network, headless ? 0 : STEP_DELAY_MILLIS);
+			try {
+				log.info("Registered " + control.register() + " for JConsole and VisualVM");
+			} catch (JMException e) {
+				log.warning("Could not register the simulation control: " + e.getMessage());
+			}
+		}
 
 		if(!headless)
 			visualizationStrategy.init(network);
@@ -151,40 +203,72 @@ public class TimedRDMSim {
 		return effector;
 	}
 
+	/**Get the control to inspect and steer the running simulation, e.g., from another thread.
+	 *
+	 * @return the {@link SimulationControl}, null before {@link #initialize(TopologyStrategy)} or unless the
+	 * property {@code jmx=true} is set
+	 */
+	public SimulationControl getControl() {
+		return control;
+	}
+
 	/**
-	 * Starts the simulation. Uses <i>sim_time</i> from properties. Calls print on
-	 * all probes and timeStep on the effector.
+	 * Starts the simulation. Uses <i>sim_time</i> from properties. In debug mode, the state of each step is logged
+	 * asynchronously by a {@link SnapshotLogger}. If instrumentation is enabled (see {@link MetricsRegistry}),
+	 * the recorded timings and counters are logged at the end of the run.
 	 */
 	public void run() {
 		lastTimeStep = -1;
 		for (int t = 0; t < simTime; t++) {
-			if (debug)
-				for (Probe p : probes)
-					p.print(t);
 			if(network == null)
 			{
 				log.warning("You need to call initialize(..) first!");
 			}
 			runStep(t);
 		}
+		if (metricsEndpoint != null) {
+			metricsEndpoint.close();
+		}
+		if (control != null) {
+			control.close();
+		}
+		if (snapshots != null) {
+			snapshots.close();
+		}
+		if (MetricsRegistry.isEnabled()) {
+			StringBuilder dump = new StringBuilder();
+			MetricsRegistry.getInstance().dump(dump);
+			log.info(dump::toString);
+		}
 	}
 
 	/**
-	 * Run a single time step.
+	 * Run a single time step. The visualization, if any, only receives the state of the step here and renders it on
+	 * its own thread (see {@link GraphVisualization}). Steps are paced to four per second only while visualized;
+	 * headless runs proceed at full speed. With {@code jmx=true}, pausing, pacing and operations submitted to the
+	 * {@link SimulationControl} are handled by the control before the step.
 	 * 
 	 * @param timeStep the current time step
 	 */
 	public void runStep(int timeStep) {
-		try {
-			Thread.sleep(250);
-		} catch (InterruptedException e) {
-			Thread.currentThread().interrupt();
-		}
-		if(!headless)
+		if(!headless) {
+			if (control == null) {
+				try {
+					Thread.sleep(STEP_DELAY_MILLIS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
 			visualizationStrategy.updateGraph(network, timeStep);
+		}
 		if (timeStep != lastTimeStep + 1) {
 			log.warning(
 					"Warning: you have to execute this method for each timestep in sequence. No action was taken!");
+		} else if (control != null) {
+			control.beforeStep(timeStep);
+			network.timeStep(timeStep);
+			lastTimeStep++;
+			control.afterStep(timeStep);
 		} else {
 			network.timeStep(timeStep);
 			lastTimeStep++;
@@ -0,0 +1,245 @@
+package org.lrdm;
+
+import org.lrdm.probes.EventTrace;
+import org.lrdm.probes.EventTraceReader;
+import org.lrdm.probes.MetricsExportProbe;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * # Trace replay
+ *
+ * Reconstructs the mirrors and links of a recorded run from an event trace (see
+ * {@link org.lrdm.probes.EventTraceProbe}) and, optionally, the metric histories from a metrics export
+ * (see {@link MetricsExportProbe}), without running any simulation logic. The reconstructed state is exposed
+ * as a {@link Network} view, so that any {@link VisualizationStrategy} can render it; see
+ * {@link TraceReplayPlayer} for timed playback.
+ *
+ * The view only carries what the trace records: mirror and link states and the link endpoints. Timing
+ * parameters, data packages and the topology strategy are not available. Changes of the view are reported to the
+ * {@link SimulationEvents.TransitionListener}s of the view like those of a live network.
+ *
+ * @apiNote Not thread-safe. {@link TraceReplayPlayer} confines all calls to its playback thread.
+ * @implNote Seeking forward applies the events of the skipped ticks; seeking backward rebuilds the state from
+ * the start of the trace. Both scan the memory-mapped trace and skip blocks outside the tick range.
+ */
+public class TraceReplay implements AutoCloseable {
+    private static final Mirror.State[] MIRROR_STATES = Mirror.State.values();
+    private static final Link.State[] LINK_STATES = Link.State.values();
+
+    private final EventTraceReader trace;
+    private final Network network;
+    private final List<Mirror> mirrors = new ArrayList<>();
+    private final Set<Link> links = new HashSet<>();
+    private final Map<Integer, Mirror> mirrorsById = new HashMap<>();
+    private final Map<Integer, Link> linksById = new HashMap<>();
+    private final SimulationEvents.TransitionListener transitions;
+
+    /** Recorded metrics, one row per tick in ascending order: tick, bandwidth, active links, ttw. */
+    private final int[][] metrics;
+    private int tick;
+
+    /**Opens a trace for replay.
+     *
+     * @param trace the event trace
+     * @param metrics a CSV or binary metrics export of the same run, null to replay without charts
+     * @throws IOException if one of the files cannot be read
+     */
+    public TraceReplay(Path trace, Path metrics) throws IOException {
+        this.trace = EventTraceReader.open(trace);
+        this.metrics = metrics != null ? readMetrics(metrics) : new int[0][];
+        Properties props = new Properties();
+        props.setProperty("fault_probability", "0");
+        network = new Network(null, new MirrorCursor(props, mirrors, 0, 0), links, 0, 0, props);
+        transitions = network.getTransitionListener();
+        tick = getFirstTick() - 1;
+    }
+
+    /**
+     * @return the view of the replayed state; updated in place by {@link #seek(int)}
+     */
+    public Network getNetwork() {
+        return network;
+    }
+
+    /**
+     * @return the last tick applied to the view
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * @return the first tick of the recording
+     */
+    public int getFirstTick() {
+        int first = trace.getFirstTick();
+        return metrics.length > 0 ? Math.min(first, metrics[0][0]) : first;
+    }
+
+    /**
+     * @return the last tick of the recording
+     */
+    public int getLastTick() {
+        int last = trace.getLastTick();
+        return metrics.length > 0 ? Math.max(last, metrics[metrics.length - 1][0]) : last;
+    }
+
+    /**Moves the view to the state at the end of the given tick.
+     *
+     * @param target the tick to show, clamped to the recording
+     */
+    public void seek(int target) {
+        target = Math.max(getFirstTick() - 1, Math.min(getLastTick(), target));
+        if (target < tick) {
+            reset();
+        }
+        if (target == tick) return;
+        trace.scan(EventTrace.Filter.all().between(tick + 1, target), this::apply);
+        for (int i = firstMetricAfter(tick); i < metrics.length && metrics[i][0] <= target; i++) {
+            network.getBandwidthHistory().put(metrics[i][0], metrics[i][1]);
+            network.getActiveLinksHistory().put(metrics[i][0], metrics[i][2]);
+            network.getTtwHistory().put(metrics[i][0], metrics[i][3]);
+        }
+        tick = target;
+    }
+
+    /**Advances the view by one tick.
+     *
+     * @return false if the end of the recording was already reached
+     */
+    public boolean step() {
+        if (tick >= getLastTick()) return false;
+        seek(tick + 1);
+        return true;
+    }
+
+    private void reset() {
+        for (Link l : links) transitions.linkRemoved(tick, l);
+        for (Mirror m : mirrors) transitions.mirrorRemoved(tick, m);
+        mirrors.clear();
+        links.clear();
+        mirrorsById.clear();
+        linksById.clear();
+        network.getBandwidthHistory().clear();
+        network.getActiveLinksHistory().clear();
+        network.getTtwHistory().clear();
+        tick = getFirstTick() - 1;
+    }
+
+    private void apply(int t, EventTrace.Kind kind, int id, int from, int to, int source, int target) {
+        if (kind == EventTrace.Kind.LINK_STATE) {
+            applyLink(t, id, LINK_STATES[to], source, target);
+        } else {
+            applyMirror(t, id, MIRROR_STATES[to]);
+        }
+    }
+
+    private void applyMirror(int t, int id, Mirror.State state) {
+        Mirror m = mirrorsById.get(id);
+        if (state == Mirror.State.STOPPED) {
+            if (m != null) {
+                mirrors.remove(m);
+                mirrorsById.remove(id);
+                for (Link l : List.copyOf(m.getLinks())) removeLink(t, l);
+                transitions.mirrorRemoved(t, m);
+            }
+            return;
+        }
+        if (m == null) {
+            m = new Mirror(id, state, 0, 0, 0, 0, -1, null);
+            int pos = Collections.binarySearch(mirrors, m, Comparator.comparingInt(Mirror::getID));
+            mirrors.add(pos < 0 ? -pos - 1 : pos, m);
+            mirrorsById.put(id, m);
+            transitions.mirrorAdded(t, m);
+        } else if (m.getState() != state) {
+            Mirror.State previous = m.getState();
+            m.setState(state);
+            transitions.mirrorStateChanged(t, m, previous);
+        }
+    }
+
+    private void applyLink(int t, int id, Link.State state, int sourceId, int targetId) {
+        Link l = linksById.get(id);
+        if (state == Link.State.CLOSED) {
+            if (l != null) removeLink(t, l);
+            return;
+        }
+        if (l != null) {
+            if (l.getState() != state) {
+                Link.State previous = l.getState();
+                l.setState(state);
+                transitions.linkStateChanged(t, l, previous);
+            }
+            return;
+        }
+        Mirror source = mirrorsById.get(sourceId);
+        Mirror target = mirrorsById.get(targetId);
+        if (source == null || target == null) return;
+        l = new Link(id, source, target, state, 0, 0, 0, -1, 0);
+        links.add(l);
+        linksById.put(id, l);
+        transitions.linkAdded(t, l);
+    }
+
+    private void removeLink(int t, Link l) {
+        links.remove(l);
+        linksById.remove(l.getID());
+        l.getSource().removeLink(l);
+        l.getTarget().removeLink(l);
+        transitions.linkRemoved(t, l);
+    }
+
+    private int firstMetricAfter(int t) {
+        int lo = 0;
+        int hi = metrics.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (metrics[mid][0] <= t) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private static int[][] readMetrics(Path file) throws IOException {
+        List<int[]> rows = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (data.remaining() >= 12 && data.getInt(0) == MetricsExportProbe.BINARY_MAGIC) {
+                data.position(8);
+                int columns = data.getInt();
+                while (data.remaining() >= columns * Integer.BYTES) {
+                    int[] record = new int[columns];
+                    for (int i = 0; i < columns; i++) record[i] = data.getInt();
+                    rows.add(Arrays.copyOf(record, 4));
+                }
+                return rows.toArray(new int[0][]);
+            }
+        }
+        List<String> lines = Files.readAllLines(file, StandardCharsets.US_ASCII);
+        for (String line : lines.subList(Math.min(1, lines.size()), lines.size())) {
+            if (line.isBlank()) continue;
+            String[] values = line.split(",", 5);
+            int[] row = new int[4];
+            try {
+                for (int i = 0; i < 4; i++) row[i] = Integer.parseInt(values[i].trim());
+            } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+                throw new IOException("Not a metrics export: " + file, e);
+            }
+            rows.add(row);
+        }
+        return rows.toArray(new int[0][]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        trace.close();
+    }
+}
@@ -0,0 +1,188 @@
+package org.lrdm;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * # Trace playback
+ *
+ * Plays a {@link TraceReplay} into a {@link VisualizationStrategy} on its own thread. The player renders at
+ * most one frame every {@link #FRAME_MILLIS} ms and advances the replay by as many ticks as the configured
+ * speed demands in between, so fast-forwarding skips rendering intermediate ticks instead of slowing down.
+ *
+ * Control methods ({@link #play()}, {@link #pause()}, {@link #setSpeed(double)}, {@link #seek(int)}) may be
+ * called from any thread, e.g., a UI slider used for scrubbing. Seek requests are coalesced: only the latest
+ * pending request is applied on the next frame.
+ *
+ * @apiNote The default speed of {@link #LIVE_SPEED} ticks per second matches the pacing of
+ * {@link TimedRDMSim#runStep(int)}.
+ */
+public class TraceReplayPlayer implements AutoCloseable {
+    /** Minimum time between two rendered frames. */
+    public static final int FRAME_MILLIS = 40;
+    /** Ticks per second of a live run. */
+    public static final double LIVE_SPEED = 4;
+
+    private static final int NO_SEEK = Integer.MIN_VALUE;
+
+    private final TraceReplay replay;
+    private final VisualizationStrategy visualization;
+    private final Thread thread;
+    private final Object lock = new Object();
+    private final AtomicInteger seekRequest = new AtomicInteger(NO_SEEK);
+
+    private volatile double speed = LIVE_SPEED;
+    private volatile boolean playing;
+    private volatile boolean running = true;
+    private volatile int renderedTick;
+    private volatile IntConsumer frameListener = t -> { };
+
+    /**Creates a paused player; call {@link #start()} to initialize the visualization.
+     *
+     * @param replay the replay to play
+     * @param visualization the visualization to drive
+     */
+    public TraceReplayPlayer(TraceReplay replay, VisualizationStrategy visualization) {
+        this.replay = replay;
+        this.visualization = visualization;
+        this.renderedTick = replay.getTick();
+        thread = new Thread(this::loop, "trace-replay");
+        thread.setDaemon(true);
+    }
+
+    /**Starts the playback thread, which initializes the visualization and waits for {@link #play()} or {@link #seek(int)}.
+     */
+    public void start() {
+        thread.start();
+    }
+
+    /**Starts or resumes playback at the current speed.
+     */
+    public void play() {
+        playing = true;
+        wakeUp();
+    }
+
+    /**Pauses playback after the current frame.
+     */
+    public void pause() {
+        playing = false;
+    }
+
+    /**
+     * @param ticksPerSecond the playback speed, e.g., {@link #LIVE_SPEED} or 1000 to fast-forward
+     */
+    public void setSpeed(double ticksPerSecond) {
+        if (!(ticksPerSecond > 0)) {
+            throw new IllegalArgumentException("speed must be positive: " + ticksPerSecond);
+        }
+        speed = ticksPerSecond;
+    }
+
+    /**Jumps to the given tick and renders it, regardless of whether the player is playing.
+     *
+     * @param tick the tick to show
+     */
+    public void seek(int tick) {
+        seekRequest.set(tick);
+        wakeUp();
+    }
+
+    /**
+     * @param listener called on the playback thread with the tick of each rendered frame
+     */
+    public void setFrameListener(IntConsumer listener) {
+        frameListener = listener != null ? listener : t -> { };
+    }
+
+    /**
+     * @return true while playing
+     */
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    /**
+     * @return the tick of the last rendered frame
+     */
+    public int getRenderedTick() {
+        return renderedTick;
+    }
+
+    private void wakeUp() {
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    private void loop() {
+        visualization.init(replay.getNetwork());
+        double pendingTicks = 0;
+        long last = System.nanoTime();
+        while (running) {
+            int seek = seekRequest.getAndSet(NO_SEEK);
+            if (seek != NO_SEEK) {
+                replay.seek(seek);
+                render();
+                pendingTicks = 0;
+                // playback continues from the sought tick, not from the time spent before the seek
+                last = System.nanoTime();
+            } else if (playing) {
+                long now = System.nanoTime();
+                pendingTicks += speed * (now - last) / 1e9;
+                last = now;
+                int ticks = (int) pendingTicks;
+                if (ticks > 0) {
+                    pendingTicks -= ticks;
+                    replay.seek(replay.getTick() + ticks);
+                    render();
+                }
+                if (replay.getTick() >= replay.getLastTick()) {
+                    playing = false;
+                }
+            } else {
+                pendingTicks = 0;
+            }
+            boolean paused = !playing;
+            synchronized (lock) {
+                try {
+                    if (running && seekRequest.get() == NO_SEEK) {
+                        lock.wait(playing ? FRAME_MILLIS : 0);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (paused) {
+                // the time spent paused does not count towards the next frame
+                last = System.nanoTime();
+            }
+        }
+    }
+
+    private void render() {
+        try {
+            visualization.updateGraph(replay.getNetwork(), replay.getTick());
+        } catch (RuntimeException e) {
+            Logger.getLogger(getClass().getName()).log(Level.WARNING, "Could not render replayed tick " + replay.getTick(), e);
+        }
+        renderedTick = replay.getTick();
+        frameListener.accept(renderedTick);
+    }
+
+    /**Stops the playback thread and waits for it to finish. The replay itself is not closed.
+     */
+    @Override
+    public void close() {
+        running = false;
+        wakeUp();
+        try {
+            thread.join(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
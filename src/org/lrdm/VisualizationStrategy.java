@@ -1,11 +1,43 @@
 package org.lrdm;
 
+import java.util.Optional;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
 /**Interface for visualization strategies for the simulator.
  * Implementations need to provide details on how to initialize the visualization and how to update it.
+ * <p>
+ * Implementations are registered as service providers in {@code META-INF/services/org.lrdm.VisualizationStrategy}
+ * and loaded by {@link #load()} only when a run is not headless, so headless runs never load the UI libraries.
  *
  * @author Sebastian Götz <sebastian.goetz1@tu-dresden.de>
  */
 public interface VisualizationStrategy {
     void init(Network network);
     void updateGraph(Network network, long timeStep);
+
+    /**
+     * @return true if the visualization can be shown in the current environment
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /**Loads the first registered visualization that is available in the current environment.
+     *
+     * @return the visualization, or empty if none is registered, its libraries are missing from the class path or
+     * it is not available, e.g., because there is no display
+     */
+    static Optional<VisualizationStrategy> load() {
+        try {
+            for (VisualizationStrategy visualization : ServiceLoader.load(VisualizationStrategy.class)) {
+                if (visualization.isAvailable()) return Optional.of(visualization);
+            }
+        } catch (ServiceConfigurationError | LinkageError e) {
+            Logger.getLogger(VisualizationStrategy.class.getName()).log(Level.FINE, "Visualization not loadable", e);
+        }
+        return Optional.empty();
+    }
 }
@@ -0,0 +1,199 @@
+package org.lrdm.effectors;
+
+import org.lrdm.Network;
+import org.lrdm.topologies.strategies.MigrationStage;
+import org.lrdm.topologies.strategies.TopologyStrategy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * # AdaptationBatch
+ * <p>
+ * Coalesced target state of all {@link Action}s that are due at the same simulation tick.
+ * The {@link Effector} folds every due action into one batch (in scheduling order), so that
+ * the {@link Network} can apply the combined adaptation with a single structural rebuild and
+ * a single link reconciliation instead of one rebuild per action.
+ *
+ * <p>Merge semantics per adaptation type:
+ * <ul>
+ *   <li>{@link TopologyChange}: the last scheduled strategy for the tick wins,</li>
+ *   <li>{@link MirrorChange}: the last scheduled mirror count for the tick wins,</li>
+ *   <li>{@link TargetLinkChange}: the last scheduled links-per-mirror value for the tick wins,</li>
+ *   <li>{@link MigrationStageChange}: all stages are kept and applied in scheduling order.</li>
+ * </ul>
+ * If the winning topology change is a {@link RollingTopologyChange}, the batch is marked as rolling.
+ * All merged actions stay accessible via {@link #getActions()} for logging and inspection.
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ * @since 1.0
+ * @see Effector#timeStep(int)
+ * @see Network#applyAdaptationBatch(AdaptationBatch, int)
+ */
+public final class AdaptationBatch {
+
+    /** Simulation time (tick) this batch belongs to. */
+    private final int time;
+
+    /** All actions folded into this batch, in scheduling order. */
+    private final List<Action> actions = new ArrayList<>();
+
+    /** Planned topology or {@code null} if the topology stays unchanged. */
+    private TopologyStrategy newTopology;
+
+    /** Stage bounds of the winning {@link RollingTopologyChange} or {@code null} for an immediate switch. */
+    private RollingTopologyChange rolling;
+
+    /** Pending stages of rolling migrations started earlier, in scheduling order. */
+    private final List<MigrationStage> migrationStages = new ArrayList<>();
+
+    /** Planned total number of mirrors or {@code -1} if the mirror count stays unchanged. */
+    private int newMirrors = -1;
+
+    /** Planned links per mirror or {@code -1} if the links per mirror stay unchanged. */
+    private int newLinksPerMirror = -1;
+
+    /**
+     * Creates an empty batch for the given tick.
+     *
+     * @param time simulation time (tick) the merged actions are applied at
+     */
+    public AdaptationBatch(int time) {
+        this.time = time;
+    }
+
+    /**
+     * Folds an action into the planned target state.
+     *
+     * @param a the action to merge; actions of unknown type are recorded but do not change the plan
+     * @return this batch for chaining
+     */
+    public AdaptationBatch merge(Action a) {
+        actions.add(a);
+        if (a instanceof TopologyChange tc) {
+            newTopology = tc.getNewTopology();
+            rolling = tc instanceof RollingTopologyChange rtc ? rtc : null;
+        } else if (a instanceof MigrationStageChange msc) {
+            migrationStages.add(msc.getStage());
+        } else if (a instanceof MirrorChange mc) {
+            newMirrors = mc.getNewMirrors();
+        } else if (a instanceof TargetLinkChange tlc) {
+            newLinksPerMirror = tlc.getNewLinksPerMirror();
+        }
+        return this;
+    }
+
+    /**
+     * @return simulation time (tick) of this batch
+     */
+    public int getTime() {
+        return time;
+    }
+
+    /**
+     * @return unmodifiable view of all merged actions in scheduling order
+     */
+    public List<Action> getActions() {
+        return Collections.unmodifiableList(actions);
+    }
+
+    /**
+     * @return {@code true} if no action was merged into this batch
+     */
+    public boolean isEmpty() {
+        return actions.isEmpty();
+    }
+
+    /**
+     * @return {@code true} if the batch switches the topology strategy
+     */
+    public boolean hasTopologyChange() {
+        return newTopology != null;
+    }
+
+    /**
+     * @return {@code true} if the batch changes the total number of mirrors
+     */
+    public boolean hasMirrorChange() {
+        return newMirrors >= 0;
+    }
+
+    /**
+     * @return {@code true} if the batch changes the targeted links per mirror
+     */
+    public boolean hasTargetLinkChange() {
+        return newLinksPerMirror >= 0;
+    }
+
+    /**
+     * @return {@code true} if the topology change of this batch shall be migrated in stages
+     */
+    public boolean isRolling() {
+        return rolling != null;
+    }
+
+    /**
+     * @return the winning rolling topology change (carrying the stage bounds) or {@code null}
+     */
+    public RollingTopologyChange getRollingChange() {
+        return rolling;
+    }
+
+    /**
+     * @return {@code true} if stages of an ongoing rolling migration are due in this batch
+     */
+    public boolean hasMigrationStages() {
+        return !migrationStages.isEmpty();
+    }
+
+    /**
+     * @return unmodifiable view of the due migration stages in scheduling order
+     */
+    public List<MigrationStage> getMigrationStages() {
+        return Collections.unmodifiableList(migrationStages);
+    }
+
+    /**
+     * A batch requires a structural rebuild whenever the topology or the links per mirror change.
+     * Pure mirror count changes are handled incrementally by the current strategy.
+     *
+     * @return {@code true} if applying this batch needs one structural rebuild
+     */
+    public boolean requiresRebuild() {
+        return hasTopologyChange() || hasTargetLinkChange();
+    }
+
+    /**
+     * @return the planned topology strategy or {@code null} if unchanged
+     */
+    public TopologyStrategy getNewTopology() {
+        return newTopology;
+    }
+
+    /**
+     * @return the planned total number of mirrors or {@code -1} if unchanged
+     */
+    public int getNewMirrors() {
+        return newMirrors;
+    }
+
+    /**
+     * @return the planned links per mirror or {@code -1} if unchanged
+     */
+    public int getNewLinksPerMirror() {
+        return newLinksPerMirror;
+    }
+
+    @Override
+    public String toString() {
+        return "AdaptationBatch{time=" + time
+                + ", newTopology=" + (newTopology != null ? newTopology.getClass().getSimpleName() : null)
+                + ", newMirrors=" + newMirrors
+                + ", newLinksPerMirror=" + newLinksPerMirror
+                + ", rolling=" + isRolling()
+                + ", stages=" + migrationStages.size()
+                + ", actions=" + actions.size()
+                + "}";
+    }
+}
@@ -1,11 +1,12 @@
 package org.lrdm.effectors;
 
 import org.lrdm.Network;
+import org.lrdm.SimulationEvents;
+import org.lrdm.topologies.strategies.MigrationStage;
 import org.lrdm.topologies.strategies.TopologyStrategy;
 import org.lrdm.util.IDGenerator;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  * # Effector
@@ -20,9 +21,11 @@ import java.util.Map;
  *   <li>adjust the targeted links per mirror ({@link #setTargetLinksPerMirror(int, int)}).</li>
  * </ul>
  *
- * Actions are keyed by the simulation time (tick) at which they should be applied.
- * On each time step, {@link #timeStep(int)} applies any pending changes for that tick
- * by delegating to the underlying {@link Network}.
+ * Actions are kept in a time-ordered queue keyed by the simulation time (tick) at which
+ * they should be applied; several actions may share the same tick. On each time step,
+ * {@link #timeStep(int)} merges all actions due at that tick into one {@link AdaptationBatch}
+ * and hands it to the underlying {@link Network}, which performs a single structural
+ * rebuild and link reconciliation for the whole batch.
  *
  * <p><b>Usage</b></p>
  * <pre>{@code
@@ -42,8 +45,9 @@ import java.util.Map;
  * }
  * }</pre>
  *
- * @apiNote If multiple actions of the same type are scheduled for the same tick,
- *          the most recently scheduled one is retained in the internal map (by key overwrite).
+ * @apiNote If multiple actions of the same type are scheduled for the same tick, all of them
+ *          stay queued (and can be removed individually); when the tick is reached the most
+ *          recently scheduled value of each type determines the planned target state.
  *
  * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
  * @author Sebastian Götz <sebastian.goetz1@tu-dresden.de>
@@ -59,14 +63,8 @@ public class Effector {
     /** The target network to which scheduled actions will be applied. */
     private final Network n;
 
-    /** Map of scheduled mirror-count changes keyed by simulation time (sim_time → action). */
-    private final Map<Integer, MirrorChange> setMirrorChanges;
-
-    /** Map of scheduled topology switches keyed by simulation time (sim_time → action). */
-    private final Map<Integer, TopologyChange> setStrategyChanges;
-
-    /** Map of scheduled target-links-per-mirror changes keyed by simulation time (sim_time → action). */
-    private final Map<Integer, TargetLinkChange> setTargetedLinkChanges;
+    /** Time-ordered queue of scheduled actions (sim_time → actions in scheduling order). */
+    private final NavigableMap<Integer, List<Action>> scheduledActions;
 
     /**
      * Creates a new effector bound to a specific {@link Network}.
@@ -75,9 +73,17 @@ public class Effector {
      */
     public Effector(Network n) {
         this.n = n;
-        setMirrorChanges = new HashMap<>();
-        setStrategyChanges = new HashMap<>();
-        setTargetedLinkChanges = new HashMap<>();
+        scheduledActions = new TreeMap<>();
+    }
+
+    /**
+     * Appends an action to the queue slot of its scheduled tick.
+     *
+     * @param a the action to enqueue
+     * @apiNote Public so that already constructed actions (e.g., restored from a checkpoint) keep their ids.
+     */
+    public void schedule(Action a) {
+        scheduledActions.computeIfAbsent(a.getTime(), k -> new ArrayList<>()).add(a);
     }
 
     /**
@@ -86,12 +92,12 @@ public class Effector {
      * @param m the desired number of mirrors
      * @param t the simulation time (tick) when the change should be applied
      * @return a newly created {@link Action} (specifically a {@link MirrorChange}) representing this adaptation
-     * @implNote If an action of the same type was already scheduled for {@code t},
-     *           it will be replaced by this call (map overwrite).
+     * @implNote If an action of the same type was already scheduled for {@code t}, both stay
+     *           queued; the one scheduled last determines the mirror count applied at {@code t}.
      */
     public Action setMirrors(int m, int t) {
         MirrorChange a = new MirrorChange(n, IDGenerator.getInstance().getNextID(), t, m);
-        setMirrorChanges.put(t, a);
+        schedule(a);
         return a;
     }
 
@@ -101,27 +107,92 @@ public class Effector {
      * @param strategy the {@link TopologyStrategy} to switch to
      * @param t        the simulation time (tick) when the switch should occur
      * @return a newly created {@link TopologyChange} action representing this adaptation
-     * @implNote If a topology change was already scheduled for {@code t},
-     *           it will be replaced by this call (map overwrite).
+     * @implNote If a topology change was already scheduled for {@code t}, both stay
+     *           queued; the one scheduled last determines the strategy applied at {@code t}.
      */
     public TopologyChange setStrategy(TopologyStrategy strategy, int t) {
         TopologyChange change = new TopologyChange(n, strategy, IDGenerator.getInstance().getNextID(), t);
-        setStrategyChanges.put(t, change);
+        schedule(change);
+        return change;
+    }
+
+    /**
+     * Schedules a rolling, churn-bounded topology migration starting at simulation time {@code t}.
+     * The link delta is split into stages that are applied on successive ticks.
+     *
+     * @param strategy          the {@link TopologyStrategy} to migrate to
+     * @param t                 the simulation time (tick) when the migration starts
+     * @param maxOpensPerStage  maximum number of links opened per tick; {@code <= 0} for the bandwidth-derived default
+     * @param maxClosesPerStage maximum number of links closed per tick; {@code <= 0} for the bandwidth-derived default
+     * @return a newly created {@link RollingTopologyChange} action representing this adaptation
+     * @implNote Competes with {@link #setStrategy(TopologyStrategy, int)} for the same tick; the one
+     *           scheduled last determines the strategy and whether it is migrated in stages.
+     */
+    public RollingTopologyChange setStrategyRolling(TopologyStrategy strategy, int t, int maxOpensPerStage, int maxClosesPerStage) {
+        RollingTopologyChange change = new RollingTopologyChange(n, strategy, IDGenerator.getInstance().getNextID(), t,
+                maxOpensPerStage, maxClosesPerStage);
+        schedule(change);
         return change;
     }
 
+    /**
+     * Schedules a rolling topology migration whose stage size keeps the migration under the
+     * bandwidth target of {@link org.lrdm.topologies.strategies.MigrationPlanner#DEFAULT_BANDWIDTH_SHARE}.
+     *
+     * @param strategy the {@link TopologyStrategy} to migrate to
+     * @param t        the simulation time (tick) when the migration starts
+     * @return a newly created {@link RollingTopologyChange} action representing this adaptation
+     */
+    public RollingTopologyChange setStrategyRolling(TopologyStrategy strategy, int t) {
+        return setStrategyRolling(strategy, t, 0, 0);
+    }
+
+    /**
+     * Queues a further stage of a rolling migration. Called by the {@link Network} when it starts a
+     * {@link RollingTopologyChange}.
+     *
+     * @param stage the stage to apply
+     * @param t     the simulation time (tick) when the stage should be applied
+     * @return the queued {@link MigrationStageChange}
+     */
+    public MigrationStageChange scheduleMigrationStage(MigrationStage stage, int t) {
+        MigrationStageChange change = new MigrationStageChange(n, IDGenerator.getInstance().getNextID(), t, stage);
+        schedule(change);
+        return change;
+    }
+
+    /**
+     * Removes all pending {@link MigrationStageChange}s. Called by the {@link Network} when a new topology
+     * or link target supersedes the rolling migration they belong to.
+     *
+     * @return the number of removed stages
+     */
+    public int cancelMigrationStages() {
+        int removed = 0;
+        for (Iterator<List<Action>> slots = scheduledActions.values().iterator(); slots.hasNext(); ) {
+            List<Action> slot = slots.next();
+            int before = slot.size();
+            slot.removeIf(MigrationStageChange.class::isInstance);
+            removed += before - slot.size();
+            if (slot.isEmpty()) {
+                slots.remove();
+            }
+        }
+        return removed;
+    }
+
     /**
      * Schedules a change to the number of targeted links per mirror at simulation time {@code t}.
      *
      * @param numTargetedLinks the new target links per mirror
      * @param t                the simulation time (tick) when the change should be applied
      * @return a newly created {@link TargetLinkChange} action representing this adaptation
-     * @implNote If a target-link change was already scheduled for {@code t},
-     *           it will be replaced by this call (map overwrite).
+     * @implNote If a target-link change was already scheduled for {@code t}, both stay
+     *           queued; the one scheduled last determines the value applied at {@code t}.
      */
     public TargetLinkChange setTargetLinksPerMirror(int numTargetedLinks, int t) {
         TargetLinkChange tlc = new TargetLinkChange(n, IDGenerator.getInstance().getNextID(), t, numTargetedLinks);
-        setTargetedLinkChanges.put(t, tlc);
+        schedule(tlc);
         return tlc;
     }
 
@@ -129,39 +200,77 @@ public class Effector {
      * Removes a previously scheduled {@link Action} from the queue if it is still pending.
      *
      * @param a the action to remove
-     * @implNote Removal is keyed by the action's scheduled time; if an action for the same time
-     *           was subsequently overwritten by another action of the same type, this call
-     *           will remove only if the map still holds the same instance {@code a}.
+     * @implNote Removal is by identity within the slot of the action's scheduled time;
+     *           other actions scheduled for the same tick are not affected.
      */
     public void removeAction(Action a) {
-        if (a instanceof MirrorChange) {
-            setMirrorChanges.remove(a.getTime(), a);
-        } else if (a instanceof TopologyChange) {
-            setStrategyChanges.remove(a.getTime(), a);
-        } else if (a instanceof TargetLinkChange) {
-            setTargetedLinkChanges.remove(a.getTime(), a);
+        List<Action> slot = scheduledActions.get(a.getTime());
+        if (slot == null) {
+            return;
+        }
+        slot.removeIf(scheduled -> scheduled == a);
+        if (slot.isEmpty()) {
+            scheduledActions.remove(a.getTime());
+        }
+    }
+
+    /**
+     * Returns all pending actions in time order (and scheduling order within a tick).
+     *
+     * @return unmodifiable snapshot of the pending actions
+     */
+    public List<Action> getPendingActions() {
+        List<Action> pending = new ArrayList<>();
+        scheduledActions.values().forEach(pending::addAll);
+        return Collections.unmodifiableList(pending);
+    }
+
+    /**
+     * Returns the actions scheduled for a specific tick in scheduling order.
+     *
+     * @param t simulation time (tick)
+     * @return unmodifiable snapshot of the actions due at {@code t}; empty if none
+     */
+    public List<Action> getActionsAt(int t) {
+        return List.copyOf(scheduledActions.getOrDefault(t, List.of()));
+    }
+
+    /**
+     * Merges all actions due at tick {@code t} into a single planned target state.
+     * Does not remove the actions from the queue.
+     *
+     * @param t simulation time (tick)
+     * @return the coalesced {@link AdaptationBatch}; empty if nothing is scheduled for {@code t}
+     */
+    public AdaptationBatch planBatch(int t) {
+        AdaptationBatch batch = new AdaptationBatch(t);
+        for (Action a : scheduledActions.getOrDefault(t, List.of())) {
+            batch.merge(a);
         }
+        return batch;
     }
 
     /**
-     * Applies any scheduled adaptations for the given simulation time tick by delegating to the {@link Network}.
+     * Applies all scheduled adaptations for the given simulation time tick by delegating to the {@link Network}.
      *
-     * <p>The application order is: topology change → mirror count change → target links per mirror.
-     * This mirrors the existing implementation and ensures deterministic behavior.</p>
+     * <p>All actions due at {@code t} are merged into one {@link AdaptationBatch} and applied
+     * transactionally via {@link Network#applyAdaptationBatch(AdaptationBatch, int)}: the topology,
+     * the links per mirror and the mirror count of the batch lead to at most one structural rebuild
+     * and one link reconciliation. Actions scheduled for ticks up to and including {@code t} are
+     * dequeued afterwards, so the queue does not grow with the run length.</p>
      *
      * @param t current simulation time (tick)
      * @implNote This method is side-effecting and should be called exactly once per simulation tick
      *           before/after the network step, depending on your simulation semantics.
      */
     public void timeStep(int t) {
-        if (setStrategyChanges.get(t) != null) {
-            n.setTopologyStrategy(setStrategyChanges.get(t).getNewTopology(), t);
-        }
-        if (setMirrorChanges.get(t) != null) {
-            n.setNumMirrors(setMirrorChanges.get(t).getNewMirrors(), t);
-        }
-        if (setTargetedLinkChanges.get(t) != null) {
-            n.setNumTargetedLinksPerMirror(setTargetedLinkChanges.get(t).getNewLinksPerMirror(), t);
+        AdaptationBatch batch = planBatch(t);
+        scheduledActions.headMap(t, true).clear();
+        if (!batch.isEmpty()) {
+            SimulationEvents.ActionApplication event = new SimulationEvents.ActionApplication();
+            event.begin();
+            n.applyAdaptationBatch(batch, t);
+            event.commit(t, batch.getActions().size(), batch);
         }
     }
 }
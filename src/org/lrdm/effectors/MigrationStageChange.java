@@ -0,0 +1,54 @@
+package org.lrdm.effectors;
+
+import org.lrdm.Network;
+import org.lrdm.topologies.strategies.MigrationStage;
+
+/**
+ * # MigrationStageChange
+ * <p>
+ * {@link Action} that executes one further {@link MigrationStage} of a rolling migration started
+ * by a {@link RollingTopologyChange}. Instances are queued by the {@link Network} on its
+ * {@link Effector}, one tick apart, and are not meant to be created by optimizers.
+ *
+ * @apiNote Several stages due at the same tick are all applied, in scheduling order.
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ * @since 1.0
+ * @see Effector#scheduleMigrationStage(MigrationStage, int)
+ * @see RollingTopologyChange
+ */
+public class MigrationStageChange extends Action {
+
+    /** The stage to apply when the action executes. */
+    private final MigrationStage stage;
+
+    /**
+     * Creates a new stage action.
+     *
+     * @param n     the target {@link Network}; must not be {@code null}
+     * @param id    unique action identifier (e.g., from {@link org.lrdm.util.IDGenerator})
+     * @param time  simulation time (tick) when the stage shall be applied
+     * @param stage the planned link openings and closures
+     */
+    public MigrationStageChange(Network n, int id, int time, MigrationStage stage) {
+        super(n, id, time);
+        this.stage = stage;
+    }
+
+    /**
+     * @return the stage to apply
+     */
+    public MigrationStage getStage() {
+        return stage;
+    }
+
+    @Override
+    public String toString() {
+        return "MigrationStageChange{id=" + getId()
+                + ", time=" + getTime()
+                + ", stage=" + stage.index()
+                + ", opens=" + stage.opens().size()
+                + ", closes=" + stage.closes().size()
+                + "}";
+    }
+}
@@ -15,7 +15,7 @@ import org.lrdm.Network;
  * the action is queued, allowing optimizers to compare alternatives.</p>
  *
  * @apiNote If multiple mirror changes are scheduled for the same time {@code t},
- * the effector keeps only the last one (replacement semantics).
+ * the effector merges them into one {@link AdaptationBatch} in which the last one wins.
  *
  * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
  * @author Sebastian Götz <sebastian.goetz1@tu-dresden.de>
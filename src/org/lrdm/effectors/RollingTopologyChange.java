@@ -0,0 +1,77 @@
+package org.lrdm.effectors;
+
+import org.lrdm.Network;
+import org.lrdm.topologies.strategies.MigrationPlanner;
+import org.lrdm.topologies.strategies.TopologyStrategy;
+
+/**
+ * # RollingTopologyChange
+ * <p>
+ * A {@link TopologyChange} that is not applied in one step but as a rolling, churn-bounded
+ * migration. When the action executes, {@link MigrationPlanner} splits the link delta between the
+ * current and the new topology into stages; the first stage is applied immediately, every further
+ * stage one tick later via a {@link MigrationStageChange} queued on the {@link Effector}.
+ *
+ * <p>Each stage opens at most {@link #getMaxOpensPerStage()} and closes at most
+ * {@link #getMaxClosesPerStage()} links, and the root mirror stays reachable from every usable
+ * mirror throughout the migration. A bound {@code <= 0} selects the bandwidth-derived default of
+ * {@link MigrationPlanner#DEFAULT_BANDWIDTH_SHARE}.</p>
+ *
+ * @apiNote A rolling change of the current strategy together with a {@link TargetLinkChange} for
+ * the same tick migrates a links-per-mirror change in stages as well.
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ * @since 1.0
+ * @see Effector#setStrategyRolling(TopologyStrategy, int, int, int)
+ * @see MigrationPlanner
+ */
+public class RollingTopologyChange extends TopologyChange {
+
+    /** Upper bound of links opened per stage ({@code <= 0}: bandwidth-derived default). */
+    private final int maxOpensPerStage;
+
+    /** Upper bound of links closed per stage ({@code <= 0}: bandwidth-derived default). */
+    private final int maxClosesPerStage;
+
+    /**
+     * Creates a new rolling topology-switch action.
+     *
+     * @param n                 the target {@link Network}; must not be {@code null}
+     * @param strategy          the {@link TopologyStrategy} to migrate to
+     * @param id                unique action identifier (e.g., from {@link org.lrdm.util.IDGenerator})
+     * @param time              simulation time (tick) when the migration starts
+     * @param maxOpensPerStage  maximum number of links opened per stage
+     * @param maxClosesPerStage maximum number of links closed per stage
+     */
+    public RollingTopologyChange(Network n, TopologyStrategy strategy, int id, int time,
+                                 int maxOpensPerStage, int maxClosesPerStage) {
+        super(n, strategy, id, time);
+        this.maxOpensPerStage = maxOpensPerStage;
+        this.maxClosesPerStage = maxClosesPerStage;
+    }
+
+    /**
+     * @return maximum number of links opened per stage ({@code <= 0}: bandwidth-derived default)
+     */
+    public int getMaxOpensPerStage() {
+        return maxOpensPerStage;
+    }
+
+    /**
+     * @return maximum number of links closed per stage ({@code <= 0}: bandwidth-derived default)
+     */
+    public int getMaxClosesPerStage() {
+        return maxClosesPerStage;
+    }
+
+    @Override
+    public String toString() {
+        return "RollingTopologyChange{id=" + getId()
+                + ", time=" + getTime()
+                + ", newTopology=" + getNewTopology()
+                + ", maxOpensPerStage=" + maxOpensPerStage
+                + ", maxClosesPerStage=" + maxClosesPerStage
+                + ", effect=" + getEffect()
+                + "}";
+    }
+}
@@ -15,7 +15,7 @@ import org.lrdm.Network;
  * so that planners/optimizers can compare trade-offs before execution.</p>
  *
  * @apiNote If multiple target link changes are scheduled for the same tick {@code t},
- * the effector will keep only the latest one.
+ * the effector merges them into one {@link AdaptationBatch} in which the latest one wins.
  *
  * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
  * @author Sebastian Götz <sebastian.goetz1@tu-dresden.de>
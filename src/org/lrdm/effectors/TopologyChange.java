@@ -17,7 +17,7 @@ import org.lrdm.topologies.strategies.TopologyStrategy;
  * optimizers can compare alternatives ahead of execution.</p>
  *
  * @apiNote If multiple topology changes are scheduled for the same tick {@code t},
- * the effector uses replacement semantics and keeps only the last one.
+ * the effector merges them into one {@link AdaptationBatch} in which the last one wins.
  *
  * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
  * @author Sebastian Götz <sebastian.goetz1@tu-dresden.de>
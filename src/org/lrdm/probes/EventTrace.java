@@ -0,0 +1,149 @@
+package org.lrdm.probes;
+
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+
+/**
+ * # EventTrace
+ * <p>
+ * Shared definitions of the columnar lifecycle event trace written by {@link EventTraceProbe} and read by
+ * {@link EventTraceReader}.
+ *
+ * <p>Each event consists of seven int columns:
+ * <ol>
+ *   <li>{@code tick} – simulation time of the event,</li>
+ *   <li>{@code kind} – ordinal of {@link Kind},</li>
+ *   <li>{@code id} – ID of the mirror or link,</li>
+ *   <li>{@code from} – ordinal of the previous state or {@link #NO_STATE} for a newly seen entity,</li>
+ *   <li>{@code to} – ordinal of the new state,</li>
+ *   <li>{@code source} – ID of the source mirror of a link, 0 for mirror events, and</li>
+ *   <li>{@code target} – ID of the target mirror of a link, 0 for mirror events.</li>
+ * </ol>
+ *
+ * <p>File layout (big-endian ints): a header of {@link #MAGIC}, {@link #VERSION} and the number of columns,
+ * followed by append-only blocks. A block starts with {@code count, minTick, maxTick} and then stores each
+ * column contiguously ({@code count} ints per column), so scans touch only the columns they filter on and
+ * time-range queries skip whole blocks.
+ *
+ * @since 1.0
+ */
+public final class EventTrace {
+
+    /** File magic ("LRDT"). */
+    public static final int MAGIC = 0x4C524454;
+    /** Version of the trace format. */
+    public static final int VERSION = 1;
+    /** Number of int columns per event. */
+    public static final int COLUMNS = 7;
+    /** Number of ints in a block header. */
+    public static final int BLOCK_HEADER = 3;
+    /** Value of the {@code from} column for entities seen for the first time. */
+    public static final int NO_STATE = -1;
+
+    /** Kind of a traced event. */
+    public enum Kind {
+        /** A {@link Mirror} changed its {@link Mirror.State}. */
+        MIRROR_STATE,
+        /** A {@link Mirror} crashed; {@code to} is the state after the crash. */
+        MIRROR_CRASH,
+        /** A {@link Link} changed its {@link Link.State}. */
+        LINK_STATE;
+
+        int bit() {
+            return 1 << ordinal();
+        }
+    }
+
+    /** Callback for the events of a scan. */
+    @FunctionalInterface
+    public interface Visitor {
+        /**
+         * @param tick simulation time of the event
+         * @param kind kind of the event
+         * @param id ID of the mirror or link
+         * @param from ordinal of the previous state or {@link #NO_STATE}
+         * @param to ordinal of the new state
+         * @param source ID of the source mirror of a link, 0 for mirror events
+         * @param target ID of the target mirror of a link, 0 for mirror events
+         */
+        void visit(int tick, Kind kind, int id, int from, int to, int source, int target);
+    }
+
+    /**
+     * Selects events of a trace. All conditions are combined with AND; narrowing methods return new filters.
+     *
+     * @param kinds bitmask of accepted {@link Kind}s
+     * @param id accepted mirror or link ID, -1 for any
+     * @param state accepted ordinal of the new state, -1 for any
+     * @param fromTick first accepted tick
+     * @param toTick last accepted tick
+     */
+    public record Filter(int kinds, int id, int state, int fromTick, int toTick) {
+
+        private static final int ALL_KINDS = (1 << Kind.values().length) - 1;
+        private static final int MIRROR_KINDS = Kind.MIRROR_STATE.bit() | Kind.MIRROR_CRASH.bit();
+
+        /**
+         * @return filter accepting every event
+         */
+        public static Filter all() {
+            return new Filter(ALL_KINDS, -1, -1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        }
+
+        /**
+         * @param kind the accepted kind
+         * @return filter restricted to one kind
+         */
+        public Filter kind(Kind kind) {
+            return new Filter(kinds & kind.bit(), id, state, fromTick, toTick);
+        }
+
+        /**
+         * @param mirrorId the mirror ID
+         * @return filter restricted to the state changes and crashes of one mirror
+         */
+        public Filter mirror(int mirrorId) {
+            return new Filter(kinds & MIRROR_KINDS, mirrorId, state, fromTick, toTick);
+        }
+
+        /**
+         * @param linkId the link ID
+         * @return filter restricted to the transitions of one link
+         */
+        public Filter link(int linkId) {
+            return new Filter(kinds & Kind.LINK_STATE.bit(), linkId, state, fromTick, toTick);
+        }
+
+        /**
+         * @param s the mirror state
+         * @return filter restricted to mirror events entering the given state
+         */
+        public Filter state(Mirror.State s) {
+            return new Filter(kinds & MIRROR_KINDS, id, s.ordinal(), fromTick, toTick);
+        }
+
+        /**
+         * @param s the link state
+         * @return filter restricted to link events entering the given state
+         */
+        public Filter state(Link.State s) {
+            return new Filter(kinds & Kind.LINK_STATE.bit(), id, s.ordinal(), fromTick, toTick);
+        }
+
+        /**
+         * @param from first accepted tick
+         * @param to last accepted tick
+         * @return filter restricted to the given (inclusive) tick range
+         */
+        public Filter between(int from, int to) {
+            return new Filter(kinds, id, state, Math.max(fromTick, from), Math.min(toTick, to));
+        }
+
+        boolean acceptsBlock(int minTick, int maxTick) {
+            return kinds != 0 && maxTick >= fromTick && minTick <= toTick;
+        }
+    }
+
+    private EventTrace() {
+    }
+}
@@ -0,0 +1,233 @@
+package org.lrdm.probes;
+
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.Network;
+import org.lrdm.SimulationEvents;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * # EventTraceProbe
+ * <p>
+ * Records every lifecycle change of the mirrors and links of a {@link Network} into an append-only,
+ * columnar trace file (see {@link EventTrace} for the format and {@link EventTraceReader} for queries).
+ *
+ * <p>The probe listens to the lifecycle hooks of the network (see {@link SimulationEvents.TransitionListener}) and
+ * emits, as the changes happen,
+ * <ul>
+ *   <li>a {@link EventTrace.Kind#MIRROR_STATE} event for each mirror that appeared or changed its state,</li>
+ *   <li>a {@link EventTrace.Kind#MIRROR_CRASH} event for each crash and</li>
+ *   <li>a {@link EventTrace.Kind#LINK_STATE} event for each link that appeared or changed its state; links
+ *   removed from the network without having been closed are recorded as closed.</li>
+ * </ul>
+ * Mirrors and links that exist when the probe is created are recorded as appearing at the current timestep.
+ * The cost per step is proportional to the number of changes, not to the size of the network.
+ *
+ * <p>Events are collected column-wise in int arrays and written as one block whenever
+ * {@link #DEFAULT_BLOCK_SIZE} events are buffered, so the memory footprint does not grow with the trace.
+ *
+ * <p><b>Thread-safety:</b> Use it from the simulation thread that owns the {@link Network} instance.
+ *
+ * @since 1.0
+ */
+public class EventTraceProbe extends Probe implements AutoCloseable {
+
+    /** Default number of events per block. */
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final FileChannel channel;
+    private final int[][] columns;
+    private final ByteBuffer buffer;
+    private int count;
+    private int minTick = Integer.MAX_VALUE;
+    private int maxTick = Integer.MIN_VALUE;
+    private long numEvents;
+    private boolean closed;
+
+    private final SimulationEvents.TransitionListener listener = new SimulationEvents.TransitionListener() {
+        @Override
+        public void mirrorAdded(int simTime, Mirror m) {
+            appendMirror(simTime, EventTrace.Kind.MIRROR_STATE, m, EventTrace.NO_STATE);
+        }
+
+        @Override
+        public void mirrorStateChanged(int simTime, Mirror m, Mirror.State previous) {
+            appendMirror(simTime, EventTrace.Kind.MIRROR_STATE, m, previous.ordinal());
+        }
+
+        @Override
+        public void mirrorCrashed(int simTime, Mirror m, Mirror.State previous) {
+            appendMirror(simTime, EventTrace.Kind.MIRROR_CRASH, m, previous.ordinal());
+        }
+
+        @Override
+        public void linkAdded(int simTime, Link l) {
+            appendLink(simTime, l, EventTrace.NO_STATE, l.getState().ordinal());
+        }
+
+        @Override
+        public void linkStateChanged(int simTime, Link l, Link.State previous) {
+            appendLink(simTime, l, previous.ordinal(), l.getState().ordinal());
+        }
+
+        @Override
+        public void linkRemoved(int simTime, Link l) {
+            // links dropped together with a stopped mirror disappear without being shut down
+            if (l.getState() != Link.State.CLOSED) {
+                appendLink(simTime, l, l.getState().ordinal(), Link.State.CLOSED.ordinal());
+            }
+        }
+    };
+
+    /**
+     * Creates the trace file (replacing an existing one).
+     *
+     * @param n the network to observe; must not be {@code null}
+     * @param file the trace file
+     * @throws IOException if the file cannot be opened
+     */
+    public EventTraceProbe(Network n, Path file) throws IOException {
+        this(n, file, DEFAULT_BLOCK_SIZE);
+    }
+
+    /**
+     * Creates the trace file (replacing an existing one).
+     *
+     * @param n the network to observe; must not be {@code null}
+     * @param file the trace file
+     * @param blockSize number of events per block, at least 1
+     * @throws IOException if the file cannot be opened
+     */
+    public EventTraceProbe(Network n, Path file, int blockSize) throws IOException {
+        super(n);
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("blockSize must be positive: " + blockSize);
+        }
+        columns = new int[EventTrace.COLUMNS][blockSize];
+        buffer = ByteBuffer.allocateDirect((EventTrace.BLOCK_HEADER + EventTrace.COLUMNS * blockSize) * Integer.BYTES);
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer.putInt(EventTrace.MAGIC).putInt(EventTrace.VERSION).putInt(EventTrace.COLUMNS).flip();
+        write();
+
+        int simTime = n.getCurrentTimeStep();
+        for (Mirror m : n.getMirrors()) {
+            listener.mirrorAdded(simTime, m);
+        }
+        for (Link l : n.getLinks()) {
+            listener.linkAdded(simTime, l);
+        }
+        n.addTransitionListener(listener);
+    }
+
+    /**
+     * Nothing to do before the network collected its metrics.
+     *
+     * @param simTime current simulation timestep
+     */
+    @Override
+    public void update(int simTime) {
+        // events are recorded by the lifecycle hooks as they happen
+    }
+
+    /**
+     * Logs the number of recorded events.
+     *
+     * @param simTime simulation timestep to annotate in the output
+     */
+    @Override
+    public void print(int simTime) {
+        Logger.getLogger(this.getClass().getName()).log(Level.INFO,
+                "[{0}] [Trace] Events: {1}", new Object[]{simTime, numEvents});
+    }
+
+    /**
+     * Nothing to do, events are recorded by the lifecycle hooks as they happen.
+     *
+     * @param simTime current simulation timestep
+     */
+    @Override
+    public void metricsCollected(int simTime) {
+        // see listener
+    }
+
+    private void appendMirror(int tick, EventTrace.Kind kind, Mirror m, int from) {
+        append(tick, kind, m.getID(), from, m.getState().ordinal(), 0, 0);
+    }
+
+    private void appendLink(int tick, Link l, int from, int to) {
+        append(tick, EventTrace.Kind.LINK_STATE, l.getID(), from, to, l.getSource().getID(), l.getTarget().getID());
+    }
+
+    private void append(int tick, EventTrace.Kind kind, int id, int from, int to, int source, int target) {
+        columns[0][count] = tick;
+        columns[1][count] = kind.ordinal();
+        columns[2][count] = id;
+        columns[3][count] = from;
+        columns[4][count] = to;
+        columns[5][count] = source;
+        columns[6][count] = target;
+        count++;
+        numEvents++;
+        minTick = Math.min(minTick, tick);
+        maxTick = Math.max(maxTick, tick);
+        if (count == columns[0].length) {
+            try {
+                flushBlock();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void flushBlock() throws IOException {
+        if (count == 0) return;
+        buffer.clear();
+        buffer.putInt(count).putInt(minTick).putInt(maxTick);
+        for (int[] column : columns) {
+            buffer.asIntBuffer().put(column, 0, count);
+            buffer.position(buffer.position() + count * Integer.BYTES);
+        }
+        buffer.flip();
+        write();
+        count = 0;
+        minTick = Integer.MAX_VALUE;
+        maxTick = Integer.MIN_VALUE;
+    }
+
+    private void write() throws IOException {
+        while (buffer.hasRemaining()) channel.write(buffer);
+    }
+
+    /**
+     * @return number of events recorded so far
+     */
+    public long getNumEvents() {
+        return numEvents;
+    }
+
+    /**
+     * Stops recording, writes the pending events as a final block and closes the file.
+     *
+     * @throws IOException if the file cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        n.removeTransitionListener(listener);
+        try {
+            flushBlock();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package org.lrdm.probes;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * # EventTraceReader
+ * <p>
+ * Queries a trace written by {@link EventTraceProbe}. The file is memory-mapped once; block headers are
+ * indexed on open, so a scan only touches the blocks whose tick range overlaps the {@link EventTrace.Filter}
+ * and, within a block, reads the filter columns before decoding the remaining ones.
+ *
+ * <p>Example:
+ * <pre>{@code
+ * try (EventTraceReader reader = EventTraceReader.open(path)) {
+ *     long crashes = reader.count(EventTrace.Filter.all().kind(EventTrace.Kind.MIRROR_CRASH).between(100, 200));
+ *     reader.scan(EventTrace.Filter.all().mirror(42), (tick, kind, id, from, to, source, target) -> ...);
+ * }
+ * }</pre>
+ *
+ * @apiNote Traces are limited to 2 GiB (about 100 million events), the size of a single mapping.
+ * @since 1.0
+ */
+public final class EventTraceReader implements AutoCloseable {
+
+    private static final int INT = Integer.BYTES;
+    private static final EventTrace.Kind[] KINDS = EventTrace.Kind.values();
+
+    private final FileChannel channel;
+    private final MappedByteBuffer data;
+    /** Byte offsets of the blocks. */
+    private final int[] blockOffsets;
+    private final long numEvents;
+    private final int firstTick;
+    private final int lastTick;
+
+    private EventTraceReader(FileChannel channel, MappedByteBuffer data, int[] blockOffsets, long numEvents) {
+        this.channel = channel;
+        this.data = data;
+        this.blockOffsets = blockOffsets;
+        this.numEvents = numEvents;
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (int block : blockOffsets) {
+            first = Math.min(first, data.getInt(block + INT));
+            last = Math.max(last, data.getInt(block + 2 * INT));
+        }
+        this.firstTick = blockOffsets.length > 0 ? first : 0;
+        this.lastTick = blockOffsets.length > 0 ? last : 0;
+    }
+
+    /**
+     * Maps the given trace and indexes its blocks.
+     *
+     * @param file the trace file
+     * @return the reader
+     * @throws IOException if the file cannot be read or is not a valid trace
+     */
+    public static EventTraceReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Trace exceeds 2 GiB: " + file);
+            }
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (size < 3L * INT || data.getInt(0) != EventTrace.MAGIC) {
+                throw new IOException("Not an event trace: " + file);
+            }
+            if (data.getInt(INT) != EventTrace.VERSION || data.getInt(2 * INT) != EventTrace.COLUMNS) {
+                throw new IOException("Unsupported event trace version " + data.getInt(INT));
+            }
+            List<Integer> offsets = new ArrayList<>();
+            long events = 0;
+            int pos = 3 * INT;
+            while (pos + EventTrace.BLOCK_HEADER * INT <= size) {
+                int count = data.getInt(pos);
+                long end = pos + (long) (EventTrace.BLOCK_HEADER + EventTrace.COLUMNS * count) * INT;
+                if (count <= 0 || end > size) {
+                    throw new IOException("Truncated event trace block at " + pos);
+                }
+                offsets.add(pos);
+                events += count;
+                pos = (int) end;
+            }
+            return new EventTraceReader(channel, data, offsets.stream().mapToInt(Integer::intValue).toArray(), events);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return total number of events in the trace
+     */
+    public long getNumEvents() {
+        return numEvents;
+    }
+
+    /**
+     * @return tick of the earliest event, 0 for an empty trace
+     */
+    public int getFirstTick() {
+        return firstTick;
+    }
+
+    /**
+     * @return tick of the latest event, 0 for an empty trace
+     */
+    public int getLastTick() {
+        return lastTick;
+    }
+
+    /**
+     * @return number of blocks in the trace
+     */
+    public int getNumBlocks() {
+        return blockOffsets.length;
+    }
+
+    /**
+     * Visits all events accepted by the filter in file order (ascending ticks).
+     *
+     * @param filter the events to visit
+     * @param visitor callback for each accepted event
+     * @return number of visited events
+     */
+    public long scan(EventTrace.Filter filter, EventTrace.Visitor visitor) {
+        long visited = 0;
+        for (int block : blockOffsets) {
+            if (!filter.acceptsBlock(data.getInt(block + INT), data.getInt(block + 2 * INT))) continue;
+            int count = data.getInt(block);
+            int tickCol = block + EventTrace.BLOCK_HEADER * INT;
+            int kindCol = tickCol + count * INT;
+            int idCol = kindCol + count * INT;
+            int fromCol = idCol + count * INT;
+            int toCol = fromCol + count * INT;
+            int sourceCol = toCol + count * INT;
+            int targetCol = sourceCol + count * INT;
+            for (int i = 0, off = 0; i < count; i++, off += INT) {
+                int tick = data.getInt(tickCol + off);
+                if (tick < filter.fromTick() || tick > filter.toTick()) continue;
+                int kind = data.getInt(kindCol + off);
+                if ((filter.kinds() & (1 << kind)) == 0) continue;
+                int id = data.getInt(idCol + off);
+                if (filter.id() != -1 && id != filter.id()) continue;
+                int to = data.getInt(toCol + off);
+                if (filter.state() != -1 && to != filter.state()) continue;
+                if (visitor != null) {
+                    visitor.visit(tick, KINDS[kind], id, data.getInt(fromCol + off), to,
+                            data.getInt(sourceCol + off), data.getInt(targetCol + off));
+                }
+                visited++;
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * @param filter the events to count
+     * @return number of events accepted by the filter
+     */
+    public long count(EventTrace.Filter filter) {
+        return scan(filter, null);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,361 @@
+package org.lrdm.probes;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.util.Histogram;
+import org.lrdm.util.MetricsRegistry;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * # MetricsEndpoint
+ * <p>
+ * Embedded HTTP endpoint on the loopback interface for watching a run from a dashboard instead of the Swing GUI.
+ * Built on the JDK {@link HttpServer}, it serves
+ * <ul>
+ *     <li>{@code GET /metrics} – the latest state in the Prometheus text exposition format: tick, tick rate,
+ *     mirror and link counts per state, the bandwidth, active links and time-to-write metrics, and, if
+ *     {@link MetricsRegistry} is enabled, the phase timings as summaries and the counters,</li>
+ *     <li>{@code GET /metrics.json} – the same as a JSON object, including the metric histories of the last
+ *     {@link #HISTORY} ticks.</li>
+ * </ul>
+ * Both answer {@code 503} until the first snapshot was received.
+ *
+ * <p>The endpoint is a subscriber of a {@link SnapshotPublisher}, so the simulation thread only captures the
+ * {@link NetworkSnapshot}; the histories and the tick rate are maintained on the subscriber thread.
+ *
+ * <p>Example:
+ * <pre>{@code
+ * try (SnapshotPublisher publisher = new SnapshotPublisher(network);
+ *      MetricsEndpoint endpoint = new MetricsEndpoint(publisher, 9464)) {
+ *     network.registerProbe(publisher);
+ *     ... run the simulation, scrape http://localhost:9464/metrics ...
+ * }
+ * }</pre>
+ *
+ * @apiNote Bound to the loopback address only; port 0 picks a free port, see {@link #getPort()}. Ticks the publisher
+ * drops for a lagging endpoint are missing from the histories; the tick rate accounts for them.
+ * @implNote The subscriber thread publishes each snapshot together with copies of the histories through an
+ * {@link AtomicReference}. Requests are served on a separate thread from the latest published state and never take
+ * a lock the tick loop could wait for.
+ * @since 1.0
+ */
+public class MetricsEndpoint implements Flow.Subscriber<NetworkSnapshot>, AutoCloseable {
+    /** Number of ticks kept in the histories of the JSON snapshot. */
+    public static final int HISTORY = 600;
+    static final String PROMETHEUS_CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    static final String JSON_CONTENT_TYPE = "application/json; charset=utf-8";
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99};
+    /** Number of ticks over which the tick rate is averaged. */
+    private static final int RATE_WINDOW = 32;
+
+    /** State published by the simulation thread. */
+    private record Published(NetworkSnapshot snapshot, double tickRate, int[] ticks, int[] bandwidth,
+                             int[] activeLinks, int[] timeToWrite) {
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicReference<Published> latest = new AtomicReference<>();
+    private volatile Flow.Subscription subscription;
+    private volatile boolean closed;
+
+    // only accessed on the subscriber thread
+    private final int[] ticks = new int[HISTORY];
+    private final int[] bandwidth = new int[HISTORY];
+    private final int[] activeLinks = new int[HISTORY];
+    private final int[] timeToWrite = new int[HISTORY];
+    private final long[] tickNanos = new long[RATE_WINDOW];
+    private final int[] rateTicks = new int[RATE_WINDOW];
+    private long recorded;
+
+    /**
+     * Binds the endpoint to the loopback address and subscribes it to the snapshots of a publisher.
+     *
+     * @param publisher the publisher of the observed network
+     * @param port the port, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public MetricsEndpoint(SnapshotPublisher publisher, int port) throws IOException {
+        this(port);
+        publisher.subscribe(this);
+    }
+
+    /**
+     * Binds the endpoint to the loopback address and starts serving; subscribe it to a {@link SnapshotPublisher}
+     * to receive the snapshots.
+     *
+     * @param port the port, 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public MetricsEndpoint(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "metrics-endpoint");
+            t.setDaemon(true);
+            return t;
+        });
+        server.setExecutor(executor);
+        server.createContext("/metrics", this::handle);
+        server.start();
+    }
+
+    /**
+     * @return the port the endpoint is bound to
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * @return the tick of the latest snapshot served, -1 before the first one
+     */
+    public int getPublishedTick() {
+        Published state = latest.get();
+        return state != null ? state.snapshot().getTick() : -1;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        if (closed) {
+            subscription.cancel();
+        } else {
+            subscription.request(Long.MAX_VALUE);
+        }
+    }
+
+    /**
+     * Adds the snapshot to the histories and publishes it for the requests.
+     *
+     * @param snapshot the snapshot of a completed step
+     */
+    @Override
+    public void onNext(NetworkSnapshot snapshot) {
+        int slot = (int) (recorded % HISTORY);
+        ticks[slot] = snapshot.getTick();
+        bandwidth[slot] = snapshot.getBandwidth();
+        activeLinks[slot] = snapshot.getActiveLinksPercent();
+        timeToWrite[slot] = snapshot.getTimeToWrite();
+        long now = System.nanoTime();
+        tickNanos[(int) (recorded % RATE_WINDOW)] = now;
+        rateTicks[(int) (recorded % RATE_WINDOW)] = snapshot.getTick();
+        recorded++;
+
+        double rate = 0;
+        if (recorded > 1) {
+            int span = (int) Math.min(recorded, RATE_WINDOW) - 1;
+            int oldestSlot = (int) ((recorded - 1 - span) % RATE_WINDOW);
+            long oldest = tickNanos[oldestSlot];
+            // ticks dropped by the publisher still count as simulated
+            int simulated = snapshot.getTick() - rateTicks[oldestSlot];
+            rate = now > oldest ? simulated * 1e9 / (now - oldest) : 0;
+        }
+        latest.set(new Published(snapshot, rate, history(ticks), history(bandwidth), history(activeLinks),
+                history(timeToWrite)));
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        Logger.getLogger(getClass().getName()).log(Level.WARNING, "Snapshot stream failed", throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        // the last state stays available until the endpoint is closed
+    }
+
+    /** Copies a ring buffer in chronological order. */
+    private int[] history(int[] ring) {
+        int size = (int) Math.min(recorded, HISTORY);
+        int[] ordered = new int[size];
+        int start = (int) ((recorded - size) % HISTORY);
+        int firstPart = Math.min(size, HISTORY - start);
+        System.arraycopy(ring, start, ordered, 0, firstPart);
+        System.arraycopy(ring, 0, ordered, firstPart, size - firstPart);
+        return ordered;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.getResponseHeaders().set("Allow", "GET");
+                respond(exchange, 405, "text/plain; charset=utf-8", "Method not allowed\n");
+                return;
+            }
+            String path = exchange.getRequestURI().getPath();
+            Published state = latest.get();
+            if (!path.equals("/metrics") && !path.equals("/metrics.json")) {
+                respond(exchange, 404, "text/plain; charset=utf-8", "Not found\n");
+            } else if (state == null) {
+                respond(exchange, 503, "text/plain; charset=utf-8", "No time step completed yet\n");
+            } else if (path.equals("/metrics")) {
+                respond(exchange, 200, PROMETHEUS_CONTENT_TYPE, prometheus(state));
+            } else {
+                respond(exchange, 200, JSON_CONTENT_TYPE, json(state));
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body)
+            throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String prometheus(Published state) {
+        NetworkSnapshot s = state.snapshot();
+        StringBuilder sb = new StringBuilder(4096);
+        gauge(sb, "lrdm_tick", "Last completed time step", s.getTick());
+        gauge(sb, "lrdm_tick_rate", "Time steps per second", state.tickRate());
+        sb.append("# HELP lrdm_mirrors Mirrors per state\n# TYPE lrdm_mirrors gauge\n");
+        for (Mirror.State st : Mirror.State.values()) {
+            sb.append("lrdm_mirrors{state=\"").append(st.name().toLowerCase(Locale.ROOT)).append("\"} ")
+                    .append(s.getNumMirrors(st)).append('\n');
+        }
+        sb.append("# HELP lrdm_links Links per state\n# TYPE lrdm_links gauge\n");
+        for (Link.State st : Link.State.values()) {
+            sb.append("lrdm_links{state=\"").append(st.name().toLowerCase(Locale.ROOT)).append("\"} ")
+                    .append(s.getNumLinks(st)).append('\n');
+        }
+        gauge(sb, "lrdm_ready_mirrors", "Ready mirrors", s.getNumReadyMirrors());
+        gauge(sb, "lrdm_target_mirrors", "Targeted number of mirrors", s.getNumTargetMirrors());
+        gauge(sb, "lrdm_target_links", "Targeted number of links", s.getNumTargetLinks());
+        gauge(sb, "lrdm_bandwidth", "Bandwidth metric", s.getBandwidth());
+        gauge(sb, "lrdm_active_links_percent", "Active links metric in percent", s.getActiveLinksPercent());
+        gauge(sb, "lrdm_time_to_write", "Time to write metric", s.getTimeToWrite());
+
+        Map<String, Histogram> timers = MetricsRegistry.getInstance().getHistograms();
+        if (!timers.isEmpty()) {
+            sb.append("# HELP lrdm_timer_seconds Phase and operation timings\n# TYPE lrdm_timer_seconds summary\n");
+            for (Map.Entry<String, Histogram> e : timers.entrySet()) {
+                Histogram h = e.getValue();
+                String name = escape(e.getKey());
+                for (double q : QUANTILES) {
+                    sb.append("lrdm_timer_seconds{name=\"").append(name).append("\",quantile=\"").append(q)
+                            .append("\"} ").append(seconds(h.getPercentile(q))).append('\n');
+                }
+                sb.append("lrdm_timer_seconds_sum{name=\"").append(name).append("\"} ")
+                        .append(seconds(h.getTotalNanos())).append('\n');
+                sb.append("lrdm_timer_seconds_count{name=\"").append(name).append("\"} ")
+                        .append(h.getCount()).append('\n');
+            }
+        }
+        Map<String, Long> counters = MetricsRegistry.getInstance().getCounters();
+        if (!counters.isEmpty()) {
+            sb.append("# HELP lrdm_events_total Counted simulation events\n# TYPE lrdm_events_total counter\n");
+            counters.forEach((name, value) -> sb.append("lrdm_events_total{name=\"").append(escape(name))
+                    .append("\"} ").append(value).append('\n'));
+        }
+        return sb.toString();
+    }
+
+    private static void gauge(StringBuilder sb, String name, String help, double value) {
+        sb.append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(" gauge\n")
+                .append(name).append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            sb.append((long) value);
+        } else {
+            sb.append(value);
+        }
+        sb.append('\n');
+    }
+
+    private static String seconds(long nanos) {
+        return Double.toString(nanos / 1e9);
+    }
+
+    /** Escapes a Prometheus label value or a JSON string. */
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+
+    private static String json(Published state) {
+        NetworkSnapshot s = state.snapshot();
+        StringBuilder sb = new StringBuilder(16 * 1024);
+        sb.append("{\"tick\":").append(s.getTick())
+                .append(",\"tickRate\":").append(state.tickRate())
+                .append(",\"strategy\":\"").append(escape(s.getStrategy())).append('"')
+                .append(",\"mirrors\":{");
+        Mirror.State[] mirrorStates = Mirror.State.values();
+        for (int i = 0; i < mirrorStates.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(mirrorStates[i].name().toLowerCase(Locale.ROOT)).append("\":")
+                    .append(s.getNumMirrors(mirrorStates[i]));
+        }
+        sb.append("},\"links\":{");
+        Link.State[] linkStates = Link.State.values();
+        for (int i = 0; i < linkStates.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(linkStates[i].name().toLowerCase(Locale.ROOT)).append("\":")
+                    .append(s.getNumLinks(linkStates[i]));
+        }
+        sb.append("},\"readyMirrors\":").append(s.getNumReadyMirrors())
+                .append(",\"targetMirrors\":").append(s.getNumTargetMirrors())
+                .append(",\"targetLinks\":").append(s.getNumTargetLinks())
+                .append(",\"bandwidth\":").append(s.getBandwidth())
+                .append(",\"activeLinksPercent\":").append(s.getActiveLinksPercent())
+                .append(",\"timeToWrite\":").append(s.getTimeToWrite())
+                .append(",\"history\":{\"ticks\":").append(Arrays.toString(state.ticks()))
+                .append(",\"bandwidth\":").append(Arrays.toString(state.bandwidth()))
+                .append(",\"activeLinksPercent\":").append(Arrays.toString(state.activeLinks()))
+                .append(",\"timeToWrite\":").append(Arrays.toString(state.timeToWrite()))
+                .append("},\"timers\":{");
+        boolean first = true;
+        for (Map.Entry<String, Histogram> e : MetricsRegistry.getInstance().getHistograms().entrySet()) {
+            Histogram h = e.getValue();
+            if (!first) sb.append(',');
+            first = false;
+            sb.append('"').append(escape(e.getKey())).append("\":{\"count\":").append(h.getCount())
+                    .append(",\"totalNanos\":").append(h.getTotalNanos())
+                    .append(",\"p50Nanos\":").append(h.getPercentile(0.5))
+                    .append(",\"p99Nanos\":").append(h.getPercentile(0.99))
+                    .append(",\"maxNanos\":").append(h.getMax()).append('}');
+        }
+        sb.append("},\"counters\":{");
+        first = true;
+        for (Map.Entry<String, Long> e : MetricsRegistry.getInstance().getCounters().entrySet()) {
+            if (!first) sb.append(',');
+            first = false;
+            sb.append('"').append(escape(e.getKey())).append("\":").append(e.getValue());
+        }
+        return sb.append("}}").toString();
+    }
+
+    /**
+     * Cancels the subscription and stops serving immediately.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        Flow.Subscription s = subscription;
+        if (s != null) {
+            s.cancel();
+        }
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
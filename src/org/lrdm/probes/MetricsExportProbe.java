@@ -0,0 +1,344 @@
+package org.lrdm.probes;
+
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.Network;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * # MetricsExportProbe
+ * <p>
+ * Streams the metrics of every simulation step to a file while the simulation runs. Each record holds
+ * <ul>
+ *   <li>the timestep,</li>
+ *   <li>the bandwidth, active links and time-to-write metrics recorded by the {@link Network},</li>
+ *   <li>the number of mirrors per {@link Mirror.State} and</li>
+ *   <li>the number of links per {@link Link.State}.</li>
+ * </ul>
+ *
+ * <p>Records are encoded either as CSV ({@link Format#CSV}, one line per step with a header line) or as
+ * big-endian binary ({@link Format#BINARY}): a header of {@link #BINARY_MAGIC}, the format version and the
+ * number of columns, followed by one fixed-width record of {@link #COLUMNS}{@code .length} ints per step.
+ *
+ * <p>The simulation thread encodes into a small pool of direct {@link ByteBuffer}s. A full buffer is handed to
+ * a background writer thread, which drains it into a {@link FileChannel} and returns it, so memory stays flat
+ * regardless of the length of a run.
+ *
+ * <p><b>Thread-safety:</b> {@link #metricsCollected(int)} must be called from the simulation thread only.
+ *
+ * @apiNote No record is dropped while the disk keeps up: if the writer has not yet returned a buffer, the pool
+ * grows up to {@link #MAX_BUFFERS} buffers, and only beyond that the simulation thread waits for the writer.
+ * If writing fails, the writer stops, the next {@link #metricsCollected(int)} throws the failure as an
+ * {@link UncheckedIOException} and all records that did not reach the file are counted in
+ * {@link #getDroppedRecords()}; {@link #close()} throws the failure again.
+ * @since 1.0
+ */
+public class MetricsExportProbe extends Probe implements AutoCloseable {
+
+    /** Output encodings. */
+    public enum Format { CSV, BINARY }
+
+    /** Magic number at the start of binary exports ("LRDX"). */
+    public static final int BINARY_MAGIC = 0x4C524458;
+    /** Version of the binary format. */
+    public static final int BINARY_VERSION = 1;
+    /** Default capacity of each buffer in bytes. */
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 16;
+    /** Maximum number of buffers in the pool before the simulation thread waits for the writer. */
+    public static final int MAX_BUFFERS = 8;
+
+    /** Column names in record order. */
+    public static final String[] COLUMNS = columns();
+
+    private static final int MAX_CSV_RECORD = COLUMNS.length * 12;
+
+    private final Format format;
+    private final WritableByteChannel channel;
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> free = new LinkedBlockingQueue<>();
+    private final BlockingQueue<Chunk> filled = new LinkedBlockingQueue<>();
+    private final Thread writer;
+    private final AtomicLong writtenRecords = new AtomicLong();
+    private final AtomicLong droppedRecords = new AtomicLong();
+    private final int[] record = new int[COLUMNS.length];
+    private final StringBuilder line = new StringBuilder(MAX_CSV_RECORD);
+
+    /** Buffer currently filled by the simulation thread, null if none was available. */
+    private ByteBuffer current;
+    private int recordsInCurrent;
+    private int buffers;
+    private volatile IOException failure;
+    private boolean failureReported;
+    private boolean closed;
+
+    /** A filled buffer and the number of records it holds; a {@code null} buffer ends the export. */
+    private record Chunk(ByteBuffer buffer, int records) {}
+
+    /**
+     * Creates the export file (replacing an existing one) and starts the writer thread.
+     *
+     * @param n the network to observe; must not be {@code null}
+     * @param file the export file
+     * @param format the encoding of the records
+     * @throws IOException if the file cannot be opened
+     */
+    public MetricsExportProbe(Network n, Path file, Format format) throws IOException {
+        this(n, file, format, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Creates the export file (replacing an existing one) and starts the writer thread.
+     *
+     * @param n the network to observe; must not be {@code null}
+     * @param file the export file
+     * @param format the encoding of the records
+     * @param bufferSize capacity of each buffer in bytes, at least one record
+     * @throws IOException if the file cannot be opened
+     */
+    public MetricsExportProbe(Network n, Path file, Format format, int bufferSize) throws IOException {
+        this(n, FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), format, bufferSize, "metrics-export-" + file.getFileName());
+    }
+
+    /**
+     * Exports into an already opened channel, which is closed together with the probe.
+     *
+     * @param n the network to observe; must not be {@code null}
+     * @param channel the channel receiving the export
+     * @param format the encoding of the records
+     * @param bufferSize capacity of each buffer in bytes, at least one record
+     * @param threadName name of the writer thread
+     */
+    MetricsExportProbe(Network n, WritableByteChannel channel, Format format, int bufferSize, String threadName) {
+        super(n);
+        if (bufferSize < MAX_CSV_RECORD) {
+            throw new IllegalArgumentException("bufferSize must hold at least one record: " + bufferSize);
+        }
+        this.format = format;
+        this.channel = channel;
+        this.bufferSize = bufferSize;
+        current = nextBuffer();
+        writeHeader();
+
+        writer = new Thread(this::drain, threadName);
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    private static String[] columns() {
+        Mirror.State[] mirrorStates = Mirror.State.values();
+        Link.State[] linkStates = Link.State.values();
+        String[] columns = new String[4 + mirrorStates.length + linkStates.length];
+        columns[0] = "timestep";
+        columns[1] = "bandwidth";
+        columns[2] = "active_links";
+        columns[3] = "ttw";
+        for (Mirror.State s : mirrorStates) columns[4 + s.ordinal()] = "mirrors_" + s.name().toLowerCase();
+        for (Link.State s : linkStates) columns[4 + mirrorStates.length + s.ordinal()] = "links_" + s.name().toLowerCase();
+        return columns;
+    }
+
+    private void writeHeader() {
+        if (format == Format.BINARY) {
+            current.putInt(BINARY_MAGIC);
+            current.putInt(BINARY_VERSION);
+            current.putInt(COLUMNS.length);
+        } else {
+            current.put((String.join(",", COLUMNS) + "\n").getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Nothing to do before the network collected its metrics.
+     *
+     * @param simTime current simulation timestep
+     */
+    @Override
+    public void update(int simTime) {
+        // records are taken in metricsCollected, once the histories contain simTime
+    }
+
+    /**
+     * Logs the number of exported and dropped records.
+     *
+     * @param simTime simulation timestep to annotate in the output
+     */
+    @Override
+    public void print(int simTime) {
+        Logger.getLogger(this.getClass().getName()).log(Level.INFO,
+                "[{0}] [Export] Written/Dropped: {1} | {2}",
+                new Object[]{simTime, writtenRecords.get(), droppedRecords.get()});
+    }
+
+    /**
+     * Encodes the metrics of {@code simTime} into the current buffer and hands it to the writer once it is full.
+     *
+     * @param simTime current simulation timestep
+     * @throws UncheckedIOException once, on the first call after the writer failed
+     */
+    @Override
+    public void metricsCollected(int simTime) {
+        if (closed) return;
+        if (current == null) {
+            current = nextBuffer();
+        }
+        if (failure != null || current == null) {
+            droppedRecords.incrementAndGet();
+            if (failure != null && !failureReported) {
+                failureReported = true;
+                throw new UncheckedIOException("Metrics export failed", failure);
+            }
+            return;
+        }
+        sample(simTime);
+        encode();
+        recordsInCurrent++;
+        if (current.remaining() < MAX_CSV_RECORD) {
+            handOff();
+        }
+    }
+
+    private void sample(int simTime) {
+        record[0] = simTime;
+        record[1] = n.getBandwidthHistory().getOrDefault(simTime, 0);
+        record[2] = n.getActiveLinksHistory().getOrDefault(simTime, 0);
+        record[3] = n.getTtwHistory().getOrDefault(simTime, 0);
+        int linkOffset = 4 + Mirror.State.values().length;
+        for (int i = 4; i < record.length; i++) record[i] = 0;
+        for (Mirror m : n.getMirrors()) record[4 + m.getState().ordinal()]++;
+        for (Link l : n.getLinks()) record[linkOffset + l.getState().ordinal()]++;
+    }
+
+    private void encode() {
+        if (format == Format.BINARY) {
+            for (int value : record) current.putInt(value);
+            return;
+        }
+        line.setLength(0);
+        for (int i = 0; i < record.length; i++) {
+            if (i > 0) line.append(',');
+            line.append(record[i]);
+        }
+        line.append('\n');
+        for (int i = 0; i < line.length(); i++) current.put((byte) line.charAt(i));
+    }
+
+    /**
+     * Takes a returned buffer, grows the pool while it is below {@link #MAX_BUFFERS} and otherwise waits for the
+     * writer to return one.
+     *
+     * @return an empty buffer, or {@code null} if the writer failed
+     */
+    private ByteBuffer nextBuffer() {
+        ByteBuffer buffer = free.poll();
+        if (buffer != null) return buffer;
+        if (buffers < MAX_BUFFERS) {
+            buffers++;
+            return ByteBuffer.allocateDirect(bufferSize);
+        }
+        try {
+            // the writer only stops on a failure, so waiting in slices cannot hang
+            while (failure == null) {
+                buffer = free.poll(10, TimeUnit.MILLISECONDS);
+                if (buffer != null) return buffer;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    private void handOff() {
+        current.flip();
+        filled.add(new Chunk(current, recordsInCurrent));
+        recordsInCurrent = 0;
+        current = null;
+    }
+
+    private void drain() {
+        try {
+            while (true) {
+                Chunk chunk = filled.take();
+                if (chunk.buffer() == null) return;
+                ByteBuffer buffer = chunk.buffer();
+                try {
+                    while (buffer.hasRemaining()) channel.write(buffer);
+                } catch (IOException e) {
+                    droppedRecords.addAndGet(chunk.records());
+                    failure = e;
+                    return;
+                }
+                writtenRecords.addAndGet(chunk.records());
+                buffer.clear();
+                free.add(buffer);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return number of records the writer thread has written to the file
+     */
+    public long getWrittenRecords() {
+        return writtenRecords.get();
+    }
+
+    /**
+     * @return number of records that did not reach the file because writing failed
+     */
+    public long getDroppedRecords() {
+        return droppedRecords.get();
+    }
+
+    /**
+     * @return the format of the export
+     */
+    public Format getFormat() {
+        return format;
+    }
+
+    /**
+     * Hands the remaining records to the writer, waits until everything is on disk and closes the file.
+     *
+     * @throws IOException if writing failed at any point during the export
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        if (current != null && current.position() > 0) {
+            handOff();
+        }
+        filled.add(new Chunk(null, 0));
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while finishing the metrics export", e);
+        } finally {
+            channel.close();
+        }
+        // chunks left behind by a failed writer never reached the file
+        for (Chunk chunk : filled) {
+            droppedRecords.addAndGet(chunk.records());
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
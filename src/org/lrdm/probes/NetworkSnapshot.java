@@ -0,0 +1,184 @@
+package org.lrdm.probes;
+
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.Network;
+
+/**
+ * # NetworkSnapshot
+ * <p>
+ * Immutable, compact summary of a {@link Network} at the end of one time step, as published by
+ * {@link SnapshotPublisher}. It holds only counts and the recorded metrics, so it can be handed to other threads
+ * without referencing the live mirrors and links.
+ *
+ * @since 1.0
+ */
+public final class NetworkSnapshot {
+    private static final Mirror.State[] MIRROR_STATES = Mirror.State.values();
+    private static final Link.State[] LINK_STATES = Link.State.values();
+
+    private final int tick;
+    private final String strategy;
+    private final int numTargetMirrors;
+    private final int numReadyMirrors;
+    private final int numTargetLinks;
+    private final int numTargetLinksPerMirror;
+    private final int bandwidth;
+    private final int activeLinksPercent;
+    private final int timeToWrite;
+    private final int[] mirrorsPerState;
+    private final int[] linksPerState;
+
+    private NetworkSnapshot(int tick, String strategy, int numTargetMirrors, int numReadyMirrors, int numTargetLinks,
+                            int numTargetLinksPerMirror, int bandwidth, int activeLinksPercent, int timeToWrite,
+                            int[] mirrorsPerState, int[] linksPerState) {
+        this.tick = tick;
+        this.strategy = strategy;
+        this.numTargetMirrors = numTargetMirrors;
+        this.numReadyMirrors = numReadyMirrors;
+        this.numTargetLinks = numTargetLinks;
+        this.numTargetLinksPerMirror = numTargetLinksPerMirror;
+        this.bandwidth = bandwidth;
+        this.activeLinksPercent = activeLinksPercent;
+        this.timeToWrite = timeToWrite;
+        this.mirrorsPerState = mirrorsPerState;
+        this.linksPerState = linksPerState;
+    }
+
+    /**
+     * Captures the current state of the network. Must be called on the simulation thread.
+     *
+     * @param n the network
+     * @param simTime the time step just completed
+     * @return the snapshot
+     */
+    public static NetworkSnapshot of(Network n, int simTime) {
+        int[] mirrors = new int[MIRROR_STATES.length];
+        for (Mirror m : n.getMirrors()) {
+            mirrors[m.getState().ordinal()]++;
+        }
+        int[] links = new int[LINK_STATES.length];
+        for (Link l : n.getLinks()) {
+            links[l.getState().ordinal()]++;
+        }
+        return new NetworkSnapshot(simTime,
+                n.getTopologyStrategy() != null ? n.getTopologyStrategy().getClass().getSimpleName() : "",
+                n.getNumTargetMirrors(), n.getNumReadyMirrors(),
+                n.getTopologyStrategy() != null ? n.getNumTargetLinks() : 0, n.getNumTargetLinksPerMirror(),
+                n.getBandwidthHistory().getOrDefault(simTime, 0),
+                n.getActiveLinksHistory().getOrDefault(simTime, 0),
+                n.getTtwHistory().getOrDefault(simTime, 0),
+                mirrors, links);
+    }
+
+    /**
+     * @return the time step this snapshot was taken at
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * @return simple class name of the topology strategy, empty if none is set
+     */
+    public String getStrategy() {
+        return strategy;
+    }
+
+    /**
+     * @return number of mirrors regardless of their state
+     */
+    public int getNumMirrors() {
+        int sum = 0;
+        for (int c : mirrorsPerState) sum += c;
+        return sum;
+    }
+
+    /**
+     * @param state the mirror state
+     * @return number of mirrors in the given state
+     */
+    public int getNumMirrors(Mirror.State state) {
+        return mirrorsPerState[state.ordinal()];
+    }
+
+    /**
+     * @return targeted number of ready mirrors
+     */
+    public int getNumTargetMirrors() {
+        return numTargetMirrors;
+    }
+
+    /**
+     * @return number of ready mirrors as counted by {@link Network#getNumReadyMirrors()}
+     */
+    public int getNumReadyMirrors() {
+        return numReadyMirrors;
+    }
+
+    /**
+     * @return number of links regardless of their state
+     */
+    public int getNumLinks() {
+        int sum = 0;
+        for (int c : linksPerState) sum += c;
+        return sum;
+    }
+
+    /**
+     * @param state the link state
+     * @return number of links in the given state
+     */
+    public int getNumLinks(Link.State state) {
+        return linksPerState[state.ordinal()];
+    }
+
+    /**
+     * @return number of active links
+     */
+    public int getNumActiveLinks() {
+        return getNumLinks(Link.State.ACTIVE);
+    }
+
+    /**
+     * @return number of links the topology aims for
+     */
+    public int getNumTargetLinks() {
+        return numTargetLinks;
+    }
+
+    /**
+     * @return number of links each mirror should have
+     */
+    public int getNumTargetLinksPerMirror() {
+        return numTargetLinksPerMirror;
+    }
+
+    /**
+     * @return bandwidth metric recorded for this time step
+     */
+    public int getBandwidth() {
+        return bandwidth;
+    }
+
+    /**
+     * @return active links metric (percent) recorded for this time step
+     */
+    public int getActiveLinksPercent() {
+        return activeLinksPercent;
+    }
+
+    /**
+     * @return time-to-write metric recorded for this time step
+     */
+    public int getTimeToWrite() {
+        return timeToWrite;
+    }
+
+    @Override
+    public String toString() {
+        return "NetworkSnapshot[tick=" + tick + ", strategy=" + strategy + ", mirrors=" + getNumMirrors()
+                + ", ready=" + numReadyMirrors + ", links=" + getNumLinks() + ", active=" + getNumActiveLinks()
+                + ", bandwidth=" + bandwidth + ", activeLinks=" + activeLinksPercent + ", ttw=" + timeToWrite + "]";
+    }
+}
@@ -47,4 +47,13 @@ public abstract class Probe {
      * @param simTime current simulation time step
      */
     public abstract void print(int simTime);
+
+    /**
+     * Called at the end of each simulation time step, after the {@link Network} has recorded its
+     * metrics for {@code simTime}. Probes exporting the metric histories hook in here; the default does nothing.
+     *
+     * @param simTime current simulation time step
+     */
+    public void metricsCollected(int simTime) {
+    }
 }
@@ -0,0 +1,78 @@
+package org.lrdm.probes;
+
+import java.text.NumberFormat;
+import java.util.Locale;
+import java.util.concurrent.Flow;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * # SnapshotLogger
+ * <p>
+ * Subscriber of a {@link SnapshotPublisher} that logs the mirror and link lines known from
+ * {@link MirrorProbe#print(int)} and {@link LinkProbe#print(int)} on the subscriber thread instead of the
+ * simulation thread. Requests one snapshot at a time, so a slow log handler applies backpressure instead of
+ * queuing up snapshots. Ticks the publisher skipped for this logger (see {@link SnapshotPublisher.Overflow#DROP})
+ * are logged as a gap, so a missing line is never mistaken for a tick without output.
+ *
+ * @implNote The number formats are created once and reused; the publisher serializes the calls of one subscriber.
+ * @since 1.0
+ */
+public class SnapshotLogger implements Flow.Subscriber<NetworkSnapshot> {
+    private final Logger log = Logger.getLogger(getClass().getName());
+    private final NumberFormat ratio = NumberFormat.getInstance();
+    private final NumberFormat percent = NumberFormat.getPercentInstance(Locale.ROOT);
+    private Flow.Subscription subscription;
+    private int lastTick = -1;
+    private volatile long skippedTicks;
+
+    public SnapshotLogger() {
+        percent.setMinimumFractionDigits(1);
+        percent.setMaximumFractionDigits(1);
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(NetworkSnapshot s) {
+        if (lastTick >= 0 && s.getTick() > lastTick + 1) {
+            int skipped = s.getTick() - lastTick - 1;
+            skippedTicks += skipped;
+            log.log(Level.WARNING, "[{0}] [Snapshot] Skipped {1} tick(s) since tick {2}, {3} in total",
+                    new Object[]{s.getTick(), skipped, lastTick, skippedTicks});
+        }
+        lastTick = s.getTick();
+        if (log.isLoggable(Level.INFO)) {
+            double mirrorRatio = (double) s.getNumReadyMirrors() / s.getNumTargetMirrors();
+            log.log(Level.INFO, "[{0}] [Mirror] All/Ready/Target/Ratio: {1} | {2} | {3} | {4}",
+                    new Object[]{s.getTick(), s.getNumMirrors(), s.getNumReadyMirrors(), s.getNumTargetMirrors(),
+                            ratio.format(mirrorRatio)});
+            double linkRatio = s.getNumTargetLinks() > 0 ? s.getNumActiveLinks() / (double) s.getNumTargetLinks() : 0.0;
+            log.log(Level.INFO, "[{0}] [Link] All/Active/Target/Ratio: {1} | {2} | {3} | {4}",
+                    new Object[]{s.getTick(), s.getNumLinks(), s.getNumActiveLinks(), s.getNumTargetLinks(),
+                            percent.format(linkRatio)});
+        }
+        subscription.request(1);
+    }
+
+    /**
+     * @return number of ticks that were not delivered to this logger so far
+     */
+    public long getSkippedTicks() {
+        return skippedTicks;
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        log.log(Level.WARNING, "Snapshot stream failed", throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        // nothing to flush
+    }
+}
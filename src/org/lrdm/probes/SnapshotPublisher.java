@@ -0,0 +1,160 @@
+package org.lrdm.probes;
+
+import org.lrdm.Network;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * # SnapshotPublisher
+ * <p>
+ * Publishes an immutable {@link NetworkSnapshot} at the end of every simulation step through a
+ * {@link Flow.Publisher}. Subscribers (probes, loggers, exporters) consume the snapshots on threads of the
+ * publisher's executor, so observation does not run on the simulation thread. Each subscriber has its own bounded
+ * buffer and receives only as many snapshots as it {@linkplain Flow.Subscription#request(long) requested}.
+ *
+ * <p>Example:
+ * <pre>{@code
+ * try (SnapshotPublisher publisher = new SnapshotPublisher(network)) {
+ *     network.registerProbe(publisher);
+ *     publisher.subscribe(new SnapshotLogger());
+ *     publisher.consume(s -> chart.add(s.getTick(), s.getBandwidth()));
+ *     ... run the simulation ...
+ * }
+ * }</pre>
+ *
+ * @apiNote With {@link Overflow#DROP} (the default) the simulation thread never waits: a snapshot that does not fit
+ * into the buffer of a lagging subscriber is skipped for that subscriber and counted in
+ * {@link #getDroppedSnapshots()}. Use {@link Overflow#BLOCK} for consumers that must see every tick, e.g.,
+ * exporters; the simulation then slows down to the pace of the slowest subscriber once its buffer is full.
+ * @implNote Based on {@link SubmissionPublisher}; capturing a snapshot is a single pass over mirrors and links.
+ * @since 1.0
+ */
+public class SnapshotPublisher extends Probe implements Flow.Publisher<NetworkSnapshot>, AutoCloseable {
+
+    /** Behavior when the buffer of a subscriber is full. */
+    public enum Overflow { DROP, BLOCK }
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final Overflow overflow;
+    private final ExecutorService executor;
+    private final SubmissionPublisher<NetworkSnapshot> publisher;
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * Creates a publisher that drops snapshots for lagging subscribers, with {@link Flow#defaultBufferSize()}
+     * snapshots buffered per subscriber.
+     *
+     * @param n the network to observe
+     */
+    public SnapshotPublisher(Network n) {
+        this(n, Overflow.DROP, Flow.defaultBufferSize());
+    }
+
+    /**
+     * @param n the network to observe
+     * @param overflow behavior when a subscriber's buffer is full
+     * @param bufferSize snapshots buffered per subscriber (rounded up to a power of two)
+     */
+    public SnapshotPublisher(Network n, Overflow overflow, int bufferSize) {
+        super(n);
+        this.overflow = overflow;
+        this.executor = Executors.newCachedThreadPool(r -> {
+            Thread t = new Thread(r, "snapshot-subscriber-" + THREAD_COUNTER.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.publisher = new SubmissionPublisher<>(executor, bufferSize);
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super NetworkSnapshot> subscriber) {
+        publisher.subscribe(subscriber);
+    }
+
+    /**
+     * Subscribes a consumer that requests snapshots one by one.
+     *
+     * @param consumer called for every received snapshot on a subscriber thread
+     * @return completed when the publisher is closed and all snapshots were consumed
+     */
+    public CompletableFuture<Void> consume(Consumer<? super NetworkSnapshot> consumer) {
+        return publisher.consume(consumer);
+    }
+
+    /**
+     * Does nothing; snapshots are taken after the metrics of a step are collected.
+     *
+     * @param simTime current simulation time step
+     */
+    @Override
+    public void update(int simTime) {
+        // snapshots are published in metricsCollected
+    }
+
+    /**
+     * Does nothing; subscribe a {@link SnapshotLogger} to print snapshots off the simulation thread.
+     *
+     * @param simTime current simulation time step
+     */
+    @Override
+    public void print(int simTime) {
+        // printing is done by subscribers
+    }
+
+    /**
+     * Captures and publishes the snapshot of the completed step, if there is any subscriber.
+     *
+     * @param simTime current simulation time step
+     */
+    @Override
+    public void metricsCollected(int simTime) {
+        if (!publisher.hasSubscribers() || publisher.isClosed()) return;
+        NetworkSnapshot snapshot = NetworkSnapshot.of(n, simTime);
+        if (overflow == Overflow.BLOCK) {
+            publisher.submit(snapshot);
+        } else {
+            publisher.offer(snapshot, (subscriber, s) -> {
+                dropped.increment();
+                return false;
+            });
+        }
+    }
+
+    /**
+     * @return number of subscribers
+     */
+    public int getNumberOfSubscribers() {
+        return publisher.getNumberOfSubscribers();
+    }
+
+    /**
+     * @return number of snapshots skipped for lagging subscribers (counted per subscriber)
+     */
+    public long getDroppedSnapshots() {
+        return dropped.sum();
+    }
+
+    /**
+     * Completes all subscriptions after the buffered snapshots were delivered and stops the subscriber threads.
+     * Waits up to one second for subscribers to finish.
+     */
+    @Override
+    public void close() {
+        publisher.close();
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
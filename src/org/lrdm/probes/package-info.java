@@ -1,5 +1,7 @@
 /**
  * Package containing the probes offered by the framework to observe its execution.
- * Currently offers {@link org.lrdm.probes.MirrorProbe} and {@link org.lrdm.probes.LinkProbe}.
+ * Currently offers {@link org.lrdm.probes.MirrorProbe} and {@link org.lrdm.probes.LinkProbe},
+ * as well as {@link org.lrdm.probes.MetricsExportProbe} for streaming the metrics of a run to disk and
+ * {@link org.lrdm.probes.SnapshotPublisher} for observing immutable per-step snapshots on other threads.
  */
-package org.lrdm.probes;
\ No newline at end of file
+package org.lrdm.probes;
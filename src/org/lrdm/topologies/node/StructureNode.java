@@ -64,6 +64,9 @@ public class StructureNode {
     /** Upper bound for direct children (across all types). */
     private int maxChildren = Integer.MAX_VALUE;
 
+    /** Observers notified when a child edge of or to this node is inserted or dropped; {@code null} if none. */
+    private List<ChildEdgeObserver> edgeObservers;
+
     // --------------------------------------------------------------------------------------------
     // Types
     // --------------------------------------------------------------------------------------------
@@ -178,6 +181,24 @@ public class StructureNode {
         }
     }
 
+    /**
+     * Observes the existence of child edges, independent of their types and head-ids. Registered on a node, it is
+     * notified about edges from and to that node; an observer registered on both endpoints is notified once.
+     */
+    public interface ChildEdgeObserver {
+        /**
+         * @param parent node the edge starts at
+         * @param child  node the edge ends at
+         */
+        void childEdgeAdded(StructureNode parent, StructureNode child);
+
+        /**
+         * @param parent node the edge started at
+         * @param child  node the edge ended at
+         */
+        void childEdgeRemoved(StructureNode parent, StructureNode child);
+    }
+
     // --------------------------------------------------------------------------------------------
     // Construction
     // --------------------------------------------------------------------------------------------
@@ -520,6 +541,7 @@ public class StructureNode {
         } else if (children.size() < maxChildren) {
             children.add(new ChildRecord(child, finalTypeIds, finalHeadIds));
             child.setParent(this);
+            fireChildEdge(child, true);
         }
     }
 
@@ -562,6 +584,7 @@ public class StructureNode {
             if (child.getParent() == this) {
                 child.setParent(null);
             }
+            fireChildEdge(existingRecord.child(), false);
         } else {
             children.remove(existingRecord);
             children.add(new ChildRecord(child, remainingTypes, remainingHeadIds));
@@ -575,10 +598,71 @@ public class StructureNode {
      */
     public void removeChild(StructureNode child) {
         if (child != null) {
-            children.removeIf(record -> record.child().getId() == child.getId());
+            ChildRecord existingRecord = findChildRecordById(child.getId());
+            if (existingRecord != null) {
+                children.remove(existingRecord);
+            }
             if (child.getParent() == this) {
                 child.setParent(null);
             }
+            if (existingRecord != null) {
+                fireChildEdge(existingRecord.child(), false);
+            }
+        }
+    }
+
+    // --------------------------------------------------------------------------------------------
+    // Edge observers
+    // --------------------------------------------------------------------------------------------
+
+    /**
+     * Registers an observer for the child edges from and to this node.
+     *
+     * @param observer observer (ignored if {@code null} or already registered)
+     */
+    public void addChildEdgeObserver(ChildEdgeObserver observer) {
+        if (observer == null) return;
+        if (edgeObservers == null) {
+            edgeObservers = new ArrayList<>(2);
+        } else if (edgeObservers.contains(observer)) {
+            return;
+        }
+        edgeObservers.add(observer);
+    }
+
+    /**
+     * @param observer observer to unregister (nullable)
+     */
+    public void removeChildEdgeObserver(ChildEdgeObserver observer) {
+        if (edgeObservers != null && edgeObservers.remove(observer) && edgeObservers.isEmpty()) {
+            edgeObservers = null;
+        }
+    }
+
+    /**
+     * Notifies the observers of both endpoints about an inserted or dropped edge, each observer once.
+     */
+    private void fireChildEdge(StructureNode child, boolean added) {
+        if (edgeObservers == null && child.edgeObservers == null) return;
+        if (edgeObservers != null) {
+            for (ChildEdgeObserver observer : edgeObservers) {
+                notifyChildEdge(observer, child, added);
+            }
+        }
+        if (child.edgeObservers != null) {
+            for (ChildEdgeObserver observer : child.edgeObservers) {
+                if (edgeObservers == null || !edgeObservers.contains(observer)) {
+                    notifyChildEdge(observer, child, added);
+                }
+            }
+        }
+    }
+
+    private void notifyChildEdge(ChildEdgeObserver observer, StructureNode child, boolean added) {
+        if (added) {
+            observer.childEdgeAdded(this, child);
+        } else {
+            observer.childEdgeRemoved(this, child);
         }
     }
 
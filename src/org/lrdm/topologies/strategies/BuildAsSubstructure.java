@@ -6,9 +6,12 @@ import org.lrdm.Network;
 import org.lrdm.effectors.Action;
 import org.lrdm.topologies.node.MirrorNode;
 import org.lrdm.topologies.node.StructureNode;
+import org.lrdm.topologies.validators.TopologyInvariants;
 import org.lrdm.util.IDGenerator;
+import org.lrdm.util.MetricsRegistry;
 
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -45,6 +48,25 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
     // ===== OBSERVER PATTERN (PRIVATE) =====
     private final List<StructureChangeObserver> observers = new ArrayList<>();
 
+    // ===== STRUKTUR-INVARIANTEN (PRIVATE) =====
+    /**
+     * Volle Validierung nach jedem Link-Abgleich statt der inkrementellen Invarianten; zur Fehlersuche über die
+     * System-Property {@code lrdm.validation.full=true} oder {@link #setFullValidation(boolean)} einschaltbar.
+     */
+    private static volatile boolean fullValidation = Boolean.getBoolean("lrdm.validation.full");
+    /** Inkrementell gepflegte Invarianten der eigenen Struktur-Knoten. */
+    private final TopologyInvariants invariants = new TopologyInvariants();
+
+    // ===== PLAN-CACHE (PRIVATE) =====
+    private final TopologyPlanCache planCache = new TopologyPlanCache();
+
+    // ===== MIRROR-QUELLE (PRIVATE) =====
+    /** Vorab zugeteilte Mirrors für einen parallelen Aufbau; {@code null} = Mirror-Cursor des Netzwerks. */
+    private Iterator<Mirror> assignedMirrors;
+    /** Vorab reservierter ID-Block für die Knoten der zugeteilten Mirrors: nächste freie ID und Ende. */
+    private int nextReservedId;
+    private int reservedIdEnd;
+
     // ===== KONSTRUKTOR =====
 
     public BuildAsSubstructure() {
@@ -152,6 +174,37 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
         return Map.copyOf(nodeToSubstructure);
     }
 
+    /**
+     * Ordnet jeder Mirror-ID die ID der innersten Substruktur zu, die den Mirror verwaltet, z.B. den Ring
+     * oder einen externen Baum einer Schneeflocke. Grundlage für aggregierte Darstellungen großer Netzwerke.
+     * <p>
+     * REKURSIV: Knoten, die sowohl im Host als auch in einer Substruktur geführt werden, zählen zur Substruktur.
+     *
+     * @return Neue Map von Mirror-ID auf Substruktur-ID
+     */
+    public final Map<Integer, Integer> getSubstructureIdsByMirror() {
+        Map<Integer, Integer> substructureIds = new HashMap<>();
+        collectSubstructureIds(substructureIds, new HashSet<>());
+        return substructureIds;
+    }
+
+    private void collectSubstructureIds(Map<Integer, Integer> substructureIds, Set<BuildAsSubstructure> visited) {
+        if (!visited.add(this)) {
+            return; // Zirkuläre Referenz oder bereits besucht
+        }
+        for (MirrorNode node : structureNodes) {
+            if (node.getMirror() != null) {
+                substructureIds.put(node.getMirror().getID(), substructureId);
+            }
+        }
+        // Substrukturen nach dem Host, damit sie dessen Zuordnung überschreiben
+        for (BuildAsSubstructure substructure : nodeToSubstructure.values()) {
+            if (substructure != this) {
+                substructure.collectSubstructureIds(substructureIds, visited);
+            }
+        }
+    }
+
     /**
      * Findet die Substruktur, zu der ein bestimmter MirrorNode gehört.
      * PROTECTED - ermöglicht Subklassen die Identifikation von Substrukturen.
@@ -324,6 +377,7 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
         int usableMirrorCount = network.getMirrorCursor().getNumUsableMirrors();
         MirrorNode root = buildStructure(usableMirrorCount);
         if (root != null) {
+            rememberPlan();
             return buildAndUpdateLinks(root, props, 0, getCurrentStructureType());
         }
 
@@ -394,6 +448,7 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
                 .filter(Mirror::isUsableForNetwork).count());
         MirrorNode root = buildStructure(usableMirrorCount);
         if (root != null) {
+            rememberPlan();
             return buildAndUpdateLinks(root, props, simTime, getCurrentStructureType());
         }
 
@@ -412,6 +467,55 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
         return links;
     }
 
+    /**
+     * Migriert das laufende Netzwerk ohne Neustart in diese Topologie.
+     * Alle nutzbaren Mirrors werden (in ID-Reihenfolge, Root zuerst) in die neue MirrorNode-Struktur
+     * abgebildet; {@link #buildAndUpdateLinks} behält Links, die in beiden Plänen existieren,
+     * und öffnet bzw. schließt nur die Differenz. Mirrors und deren Daten bleiben erhalten.
+     *
+     * @param n       Das Netzwerk
+     * @param props   Simulation Properties
+     * @param simTime Aktuelle Simulationszeit
+     * @return geöffnete und geschlossene Links (Link-Delta)
+     */
+    @Override
+    public Set<Link> migrateNetwork(Network n, Properties props, int simTime) {
+        // Beim Init gibt es nichts zu übernehmen
+        if (simTime <= 0 || n.getLinks() == null) {
+            return restartNetwork(n, props, simTime);
+        }
+
+        MirrorNode root = planStructureInPlace(n);
+        if (root == null) {
+            return restartNetwork(n, props, simTime);
+        }
+        return buildAndUpdateLinks(root, props, simTime, getCurrentStructureType());
+    }
+
+    /**
+     * Plant die MirrorNode-Struktur dieser Topologie über allen nutzbaren Mirrors des Netzwerks,
+     * ohne Links oder Mirror-Zustände zu verändern.
+     *
+     * @param n Das Netzwerk
+     * @return Root der geplanten Struktur oder {@code null}, falls keine Mirrors nutzbar sind
+     */
+    protected MirrorNode planStructureInPlace(Network n) {
+        initializeInternalState(n);
+        resetInternalStateStructureOnly();
+        n.getMirrorCursor().resetMirrorCursor();
+
+        List<Mirror> usable = n.getMirrorCursor().getNonStopMirrors();
+        TopologyPlan cached = lookupPlan(usable.size());
+        if (cached != null) {
+            return restorePlan(cached, usable);
+        }
+        MirrorNode root = buildStructure(usable.size());
+        if (root != null) {
+            rememberPlan();
+        }
+        return root;
+    }
+
     /**
      * Fügt neue Mirrors zum Netzwerk hinzu und integriert sie in die bestehende Struktur.
      * Verwendet die strukturspezifische addNodes-Logik.
@@ -428,6 +532,16 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
 
         initializeInternalState(n);
 
+        // Bekannte Zielgröße: gespeicherten Plan auf bestehende + neue Mirrors abbilden, ohne neu zu planen
+        Set<Mirror> planned = getPlannedMirrors();
+        TopologyPlan cached = getCurrentStructureRoot() != null ? lookupPlan(planned.size() + newMirrors) : null;
+        if (cached != null) {
+            planned.addAll(n.getMirrorCursor().createMirrors(newMirrors, simTime));
+            MirrorNode root = restorePlan(cached, new ArrayList<>(planned));
+            n.getLinks().addAll(buildAndUpdateLinks(root, props, simTime, getCurrentStructureType()));
+            return;
+        }
+
         // Verwende das offizielle Interface von TopologyStrategy
         Set<Mirror> creatingMirrors = n.getMirrorCursor().createMirrors(newMirrors, simTime);
 
@@ -435,6 +549,7 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
         int actuallyAdded = addNodesToStructure(creatingMirrors);
 
         if (actuallyAdded > 0 && getCurrentStructureRoot() != null) {
+            rememberPlan();
             // Baue nur die neuen Links auf
             n.getLinks().addAll(buildAndUpdateLinks(getCurrentStructureRoot(), props, simTime, getCurrentStructureType()));
         }
@@ -450,6 +565,18 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
     @Override
     public abstract int getNumTargetLinks(Network n);
 
+    /**
+     * Gibt die erwartete Anzahl Links dieser Struktur für eine gegebene Knotenanzahl zurück, unabhängig von der
+     * Mirror-Anzahl des Netzwerks. Zusammengesetzte Strukturen summieren darüber die Links ihrer Substrukturen.
+     * Standard ist ein Baum mit (n-1) Links; dichtere Strukturen überschreiben die Methode.
+     *
+     * @param nodeCount Anzahl der Knoten der Struktur
+     * @return Erwartete Anzahl Links
+     */
+    protected int getNumTargetLinks(int nodeCount) {
+        return Math.max(0, nodeCount - 1);
+    }
+
     /**
      * Gibt die vorhergesagte Anzahl von Links zurück, falls die Action ausgeführt wird.
      * Muss von Subklassen implementiert werden.
@@ -588,10 +715,23 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
     protected final void addToStructureNodes(MirrorNode node) {
         if (node != null) {
             structureNodes.add(node);
+            trackInvariants(node);
             nodeToSubstructure.put(node, this);
         }
     }
 
+    /**
+     * Nimmt Knoten einer bereits eingegliederten Substruktur in diese Struktur auf, die die Substruktur an Ort und
+     * Stelle ergänzt hat, ohne sie aus- und wieder einzugliedern. Typen und Heads dieser Struktur muss die
+     * Substruktur dabei selbst übernommen haben.
+     *
+     * @param nodes Die neuen Knoten der Substruktur
+     */
+    protected final void adoptStructureNodes(Collection<MirrorNode> nodes) {
+        structureNodes.addAll(nodes);
+        nodes.forEach(this::trackInvariants);
+    }
+
     /*
      * Verschmilzt die root Node einer unterzuordnenden Struktur mit einer gewünschten host node
      * Setzt für eingehende zu verbindende Struktur/deren nodes zusätzlich den Typeintrag dieser Struktur
@@ -603,12 +743,15 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
         MirrorNode externRoot = buildExtern.getCurrentStructureRoot();
 
         boolean setFirstStructure = false;
+        // Mitgliedschaft ohne Kopie aller Knoten prüfen, sonst wird das Eingliedern vieler Strukturen quadratisch
+        boolean hostKnown = containsStructureNode(hostSubstructureNode, new HashSet<>());
         // Ist unsere Struktur Topologie noch leer gehen wir in der ersten Verbindung eine Identität mit der ersten fremden Struktur ein
-        if(!getAllStructureNodes().contains(hostSubstructureNode) && getAllStructureNodes().isEmpty()){
+        if(!hostKnown && !hasStructureNodes(new HashSet<>())){
             setCurrentStructureRoot(externRoot);
             setFirstStructure = true;
+            hostKnown = containsStructureNode(hostSubstructureNode, new HashSet<>());
         }
-        if(!getAllStructureNodes().contains(hostSubstructureNode)){
+        if(!hostKnown){
             throw new IllegalArgumentException("Host Substructure Node is not part of the current network structure!");
         }
 
@@ -652,6 +795,32 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
         nodeToSubstructure.put(externRoot,buildExtern);
         // add all external nodes also to this structure
         structureNodes.addAll(externStructureAllNodes);
+        externStructureAllNodes.forEach(this::trackInvariants);
+    }
+
+    /**
+     * Prüft rekursiv, ob ein Knoten zu dieser Struktur oder einer ihrer Substrukturen gehört,
+     * ohne wie {@link #getAllStructureNodes()} alle Knoten zu kopieren.
+     */
+    private boolean containsStructureNode(MirrorNode node, Set<BuildAsSubstructure> visited) {
+        if (!visited.add(this)) return false;
+        if (structureNodes.contains(node)) return true;
+        for (BuildAsSubstructure substructure : nodeToSubstructure.values()) {
+            if (substructure != this && substructure.containsStructureNode(node, visited)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Prüft rekursiv, ob diese Struktur oder eine ihrer Substrukturen Knoten enthält.
+     */
+    private boolean hasStructureNodes(Set<BuildAsSubstructure> visited) {
+        if (!visited.add(this)) return false;
+        if (!structureNodes.isEmpty()) return true;
+        for (BuildAsSubstructure substructure : nodeToSubstructure.values()) {
+            if (substructure != this && substructure.hasStructureNodes(visited)) return true;
+        }
+        return false;
     }
 
     private Set<MirrorNode> getMirrorNodes(BuildAsSubstructure buildExtern, MirrorNode externRoot) {
@@ -757,10 +926,63 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
     protected final void removeFromStructureNodes(MirrorNode node) {
         if (node != null) {
             structureNodes.remove(node);
+            invariants.removeNode(node);
             nodeToSubstructure.remove(node);
         }
     }
 
+    // ===== STRUKTUR-INVARIANTEN =====
+
+    private void trackInvariants(MirrorNode node) {
+        if (isTrackingInvariants()) {
+            invariants.addNode(node);
+        }
+    }
+
+    /**
+     * Gibt an, ob diese Strategie die Invarianten ihrer Struktur-Knoten inkrementell verfolgt. Strukturen, die
+     * sich nur aus Substrukturen zusammensetzen, können darauf verzichten und deren Invarianten befragen.
+     *
+     * @return true (Standard), wenn Knoten und Kanten in {@link #getInvariants()} verfolgt werden
+     */
+    protected boolean isTrackingInvariants() {
+        return true;
+    }
+
+    /**
+     * @return Die inkrementell gepflegten Invarianten der eigenen Struktur-Knoten
+     */
+    protected final TopologyInvariants getInvariants() {
+        return invariants;
+    }
+
+    /**
+     * Prüft die Struktur anhand der inkrementell gepflegten {@link TopologyInvariants} in O(1), ohne sie zu
+     * traversieren. Subklassen formulieren darüber die Form ihrer Topologie; der Standard fällt auf die volle
+     * Validierung {@link #validateTopology()} zurück.
+     *
+     * @return true, wenn die Invarianten der Topologie erfüllt sind
+     */
+    protected boolean checkStructureInvariants() {
+        return validateTopology();
+    }
+
+    /**
+     * @return true, wenn nach jedem Link-Abgleich voll validiert wird
+     */
+    public static boolean isFullValidation() {
+        return fullValidation;
+    }
+
+    /**
+     * Schaltet die volle Validierung nach jedem Link-Abgleich ein oder aus, etwa für Debug-Läufe.
+     *
+     * @param enable true für {@link #validateTopology()}, false für die inkrementellen Invarianten
+     */
+    public static void setFullValidation(boolean enable) {
+        fullValidation = enable;
+    }
+
 
     /**
      * **AUSFÜHRUNGSEBENE**: Entfernt Mirrors aus dem Netzwerk mit moderner 3-Phasen-Architektur.
@@ -785,6 +1007,16 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
 
         initializeInternalState(n);
 
+        // Bekannte Zielgröße: gespeicherten Plan auf die verbleibenden Mirrors abbilden (höchste IDs entfallen)
+        Set<Mirror> planned = getPlannedMirrors();
+        int remaining = planned.size() - removeMirrors;
+        TopologyPlan cached = remaining > 0 ? lookupPlan(remaining) : null;
+        if (cached != null) {
+            MirrorNode root = restorePlan(cached, new ArrayList<>(planned));
+            n.getLinks().addAll(buildAndUpdateLinks(root, props, simTime, getCurrentStructureType()));
+            return;
+        }
+
         // 1.3. Structure Nodes auf Planungsebene entkoppeln (removeNodesFromStructure)
         Set<MirrorNode> removePlanningMirrorNodes = removeNodesFromStructure(removeMirrors);
 
@@ -798,6 +1030,7 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
 
         // 3.5. Root-Update falls Root-Mirror heruntergefahren wurde
         updateRootAfterMirrorShutdown(shutdownMirrors);
+        rememberPlan();
     }
 
     /**
@@ -903,6 +1136,264 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
         observers.remove(observer);
     }
 
+    // ===== PLAN-CACHE =====
+
+    /**
+     * @return Cache der bereits berechneten Pläne dieser Strategie
+     */
+    public final TopologyPlanCache getPlanCache() {
+        return planCache;
+    }
+
+    /**
+     * Gibt an, ob Pläne dieser Strategie gecacht werden dürfen.
+     * Strategien mit Substrukturen oder zustandsabhängiger Planung überschreiben dies.
+     *
+     * @return {@code true}, wenn der Plan allein vom Cache-Schlüssel abhängt
+     */
+    protected boolean isPlanCacheable() {
+        return true;
+    }
+
+    /**
+     * Planungsrelevante Parameter dieser Strategie für den Cache-Schlüssel.
+     * Subklassen mit Konfiguration müssen diese hier aufführen.
+     *
+     * @return Liste der Parameter, Standard: keine
+     */
+    protected List<Object> getPlanParameters() {
+        return List.of();
+    }
+
+    /**
+     * Standardmäßig besteht die Konfiguration aus den {@link #getPlanParameters() Planungsparametern}.
+     * Subklassen mit Parametern übernehmen sie in {@link #applyConfiguration(List)}.
+     */
+    @Override
+    public List<Object> getConfiguration() {
+        return getPlanParameters();
+    }
+
+    /**
+     * Liest einen Wert einer Konfiguration aus {@link #getConfiguration()}.
+     *
+     * @param configuration die Konfiguration
+     * @param size          erwartete Anzahl Werte
+     * @param index         Index des Werts
+     * @param type          erwarteter Typ des Werts
+     * @return der Wert
+     * @throws IllegalArgumentException wenn Anzahl oder Typ nicht passen
+     */
+    protected final <T> T configurationValue(List<Object> configuration, int size, int index, Class<T> type) {
+        if (configuration.size() != size || !type.isInstance(configuration.get(index))) {
+            throw new IllegalArgumentException("Ungültige Konfiguration für " + getClass().getSimpleName() + ": " + configuration);
+        }
+        return type.cast(configuration.get(index));
+    }
+
+    /**
+     * Sucht einen gespeicherten Plan für die angegebene Knotenanzahl.
+     *
+     * @param nodeCount Anzahl der Knoten
+     * @return gespeicherter Plan oder {@code null}
+     */
+    protected final TopologyPlan lookupPlan(int nodeCount) {
+        if (!isPlanCacheable() || network == null || hasForeignSubstructures()) {
+            return null;
+        }
+        return planCache.get(planKey(nodeCount));
+    }
+
+    /**
+     * Speichert die aktuelle Struktur als Plan für ihre Knotenanzahl.
+     */
+    protected final void rememberPlan() {
+        if (!isPlanCacheable() || network == null || hasForeignSubstructures()) {
+            return;
+        }
+        TopologyPlan plan = capturePlan();
+        if (plan != null) {
+            planCache.put(planKey(plan.size()), plan);
+        }
+    }
+
+    private boolean hasForeignSubstructures() {
+        return nodeToSubstructure.values().stream().anyMatch(substructure -> substructure != this);
+    }
+
+    private TopologyPlanCache.Key planKey(int nodeCount) {
+        return new TopologyPlanCache.Key(getClass(), getPlanParameters(), nodeCount, network.getNumTargetLinksPerMirror());
+    }
+
+    /**
+     * @return nutzbare Mirrors der aktuellen Struktur, Root-Mirror zuerst, danach aufsteigend nach ID
+     */
+    private Set<Mirror> getPlannedMirrors() {
+        Mirror rootMirror = currentStructureRoot != null ? currentStructureRoot.getMirror() : null;
+        Set<Mirror> mirrors = new LinkedHashSet<>();
+        if (rootMirror != null && rootMirror.isUsableForNetwork()) mirrors.add(rootMirror);
+        structureNodes.stream()
+                .map(MirrorNode::getMirror)
+                .filter(Objects::nonNull)
+                .filter(Mirror::isUsableForNetwork)
+                .sorted(Comparator.comparingInt(Mirror::getID))
+                .forEach(mirrors::add);
+        return mirrors;
+    }
+
+    /**
+     * Exportiert den aktuellen Plan samt Mirror-Zuordnung, z. B. für einen Checkpoint.
+     *
+     * @return Plan oder {@code null}, wenn die Struktur (etwa wegen Substrukturen) nicht abbildbar ist
+     */
+    public final TopologyPlan exportPlan() {
+        return hasForeignSubstructures() ? null : capturePlan();
+    }
+
+    /**
+     * @return Mirrors in der Reihenfolge der Plan-Indizes von {@link #exportPlan()}
+     */
+    public final List<Mirror> getPlanMirrorOrder() {
+        List<Mirror> order = new ArrayList<>();
+        if (currentStructureRoot == null) return order;
+        order.add(currentStructureRoot.getMirror());
+        structureNodes.stream()
+                .filter(node -> node != currentStructureRoot)
+                .map(MirrorNode::getMirror)
+                .sorted(Comparator.comparingInt(Mirror::getID))
+                .forEach(order::add);
+        return order;
+    }
+
+    /**
+     * Stellt die Struktur eines wiederhergestellten Netzwerks ohne Änderung an Links oder Mirrors her.
+     * Ohne Plan wird über den nutzbaren Mirrors neu geplant.
+     *
+     * @param n       Das wiederhergestellte Netzwerk
+     * @param plan    exportierter Plan oder {@code null}
+     * @param mirrors Mirrors in Plan-Reihenfolge (ignoriert, falls {@code plan == null})
+     */
+    public final void importPlan(Network n, TopologyPlan plan, List<Mirror> mirrors) {
+        initializeInternalState(n);
+        if (plan != null) {
+            restorePlan(plan, mirrors);
+        } else {
+            planStructureInPlace(n);
+        }
+    }
+
+    /**
+     * Überführt die aktuelle Struktur in ihre abstrakte Index-Form.
+     * Index 0 ist der Root, alle weiteren Knoten folgen aufsteigend nach Mirror-ID.
+     *
+     * @return der Plan oder {@code null}, falls die Struktur nicht vollständig abbildbar ist
+     */
+    protected final TopologyPlan capturePlan() {
+        if (currentStructureRoot == null || !structureNodes.contains(currentStructureRoot)) {
+            return null;
+        }
+        List<MirrorNode> nodes = new ArrayList<>();
+        nodes.add(currentStructureRoot);
+        for (MirrorNode node : structureNodes) {
+            if (node.getMirror() == null) return null;
+            if (node != currentStructureRoot) nodes.add(node);
+        }
+        nodes.subList(1, nodes.size()).sort(Comparator.comparingInt(node -> node.getMirror().getID()));
+
+        Map<StructureNode, Integer> index = new IdentityHashMap<>();
+        Map<Integer, Integer> indexById = new HashMap<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            index.put(nodes.get(i), i);
+            indexById.put(nodes.get(i).getId(), i);
+        }
+
+        int size = nodes.size();
+        int[] parent = new int[size];
+        int[][] children = new int[size][];
+        int[] maxChildren = new int[size];
+        List<List<Set<StructureNode.StructureType>>> edgeTypes = new ArrayList<>(size);
+        List<List<Map<StructureNode.StructureType, Integer>>> edgeHeads = new ArrayList<>(size);
+        List<Set<StructureNode.StructureType>> nodeTypes = new ArrayList<>(size);
+        List<Set<StructureNode.StructureType>> headTypes = new ArrayList<>(size);
+
+        for (int i = 0; i < size; i++) {
+            MirrorNode node = nodes.get(i);
+            Integer p = node.getParent() != null ? index.get(node.getParent()) : null;
+            parent[i] = p != null ? p : -1;
+            maxChildren[i] = node.getMaxChildren();
+            nodeTypes.add(Set.copyOf(node.getNodeTypes()));
+            Set<StructureNode.StructureType> heads = EnumSet.noneOf(StructureNode.StructureType.class);
+            for (StructureNode.StructureType type : StructureNode.StructureType.values()) {
+                if (node.isHead(type)) heads.add(type);
+            }
+            headTypes.add(heads);
+
+            List<StructureNode> childNodes = node.getChildren().stream()
+                    .sorted(Comparator.comparingInt(index::get))
+                    .toList();
+            children[i] = new int[childNodes.size()];
+            List<Set<StructureNode.StructureType>> types = new ArrayList<>();
+            List<Map<StructureNode.StructureType, Integer>> headsOfEdges = new ArrayList<>();
+            for (int c = 0; c < childNodes.size(); c++) {
+                StructureNode child = childNodes.get(c);
+                Integer childIndex = index.get(child);
+                StructureNode.ChildRecord rec = node.findChildRecordById(child.getId());
+                if (childIndex == null || rec == null) return null;
+                children[i][c] = childIndex;
+                types.add(Set.copyOf(rec.typeIds()));
+                Map<StructureNode.StructureType, Integer> headIndices = new EnumMap<>(StructureNode.StructureType.class);
+                for (Map.Entry<StructureNode.StructureType, Integer> head : rec.headIds().entrySet()) {
+                    Integer headIndex = indexById.get(head.getValue());
+                    if (headIndex == null) return null;
+                    headIndices.put(head.getKey(), headIndex);
+                }
+                headsOfEdges.add(headIndices);
+            }
+            edgeTypes.add(types);
+            edgeHeads.add(headsOfEdges);
+        }
+        return new TopologyPlan(parent, children, edgeTypes, edgeHeads, nodeTypes, headTypes, maxChildren);
+    }
+
+    /**
+     * Bildet einen gespeicherten Plan ohne erneute Planung auf konkrete Mirrors ab.
+     * Der i-te Mirror übernimmt den i-ten Knoten des Plans; überzählige Mirrors bleiben ungeplant.
+     *
+     * @param plan    der abzubildende Plan
+     * @param mirrors Mirrors in Plan-Reihenfolge (Root zuerst), mindestens {@link TopologyPlan#size()} viele
+     * @return Root der wiederhergestellten Struktur
+     */
+    protected final MirrorNode restorePlan(TopologyPlan plan, List<Mirror> mirrors) {
+        resetInternalStateStructureOnly();
+        int size = plan.size();
+        MirrorNode[] nodes = new MirrorNode[size];
+        for (int i = 0; i < size; i++) {
+            MirrorNode node = createMirrorNodeForMirror(mirrors.get(i));
+            node.setMirror(mirrors.get(i));
+            node.setNodeTypes(plan.nodeTypes().get(i));
+            node.setMaxChildren(plan.maxChildren(i));
+            for (StructureNode.StructureType type : plan.headTypes().get(i)) {
+                node.setHead(type, true);
+            }
+            nodes[i] = node;
+            addToStructureNodes(node);
+        }
+        for (int i = 0; i < size; i++) {
+            List<Map<StructureNode.StructureType, Integer>> edgeHeads = plan.edgeHeads().get(i);
+            List<Set<StructureNode.StructureType>> edgeTypes = plan.edgeTypes().get(i);
+            for (int c = 0; c < plan.childCount(i); c++) {
+                Map<StructureNode.StructureType, Integer> headIds = new EnumMap<>(StructureNode.StructureType.class);
+                edgeHeads.get(c).forEach((type, headIndex) -> headIds.put(type, nodes[headIndex].getId()));
+                nodes[i].addChild(nodes[plan.child(i, c)], edgeTypes.get(c), headIds);
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            nodes[i].setParent(plan.parent(i) >= 0 ? nodes[plan.parent(i)] : null);
+        }
+        setCurrentStructureRoot(nodes[0]);
+        return nodes[0];
+    }
+
     /**
      * Initialisiert den internen Zustand für ein Netzwerk.
      */
@@ -917,6 +1408,7 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
     public void resetInternalStateStructureOnly() {
         nodeToSubstructure.clear();
         structureNodes.clear();
+        invariants.clear();
         currentStructureRoot = null;
     }
 
@@ -936,6 +1428,19 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
      */
 
     protected Set<Link> buildAndUpdateLinks(MirrorNode root, Properties props, int simTime, StructureNode.StructureType structureType) {
+        long start = MetricsRegistry.start();
+        try {
+            return reconcileLinks(root, simTime, structureType);
+        } finally {
+            MetricsRegistry.stop(start, MetricsRegistry.STRATEGY_PREFIX, this, MetricsRegistry.OP_RECONCILE);
+        }
+    }
+
+    /**
+     * Eigentlicher Link-Abgleich von {@link #buildAndUpdateLinks}; getrennt, damit die Zeitmessung alle
+     * Rückgabepfade erfasst.
+     */
+    private Set<Link> reconcileLinks(MirrorNode root, int simTime, StructureNode.StructureType structureType) {
         // Robustheit: Wenn keine Root-Struktur vorhanden ist, kann nichts aufgebaut werden
         if (root == null) {
             return new HashSet<>();
@@ -953,14 +1458,20 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
                 .toList();
 
         Set<Link> allLinks = new HashSet<>();
-        // Erstelle Links zwischen allen Paaren von Knoten
+        // Nur Paare prüfen, die geplant oder bereits verbunden sind; alle übrigen Paare bleiben unverändert.
+        // Die Paare werden in derselben Reihenfolge wie beim Vergleich aller Paare abgearbeitet.
+        Map<MirrorNode, Set<StructureNode>> children = new HashMap<>();
+        for (MirrorNode node : nodeList) {
+            children.put(node, node.getChildren());
+        }
+        Map<MirrorNode, SortedSet<MirrorNode>> candidates = candidatePairs(nodeList, children);
         for (MirrorNode node1 : nodeList) {
-            for (MirrorNode node2 : nodeList) {
+            for (MirrorNode node2 : candidates.getOrDefault(node1, Collections.emptySortedSet())) {
                 //self connect is forbidden
                 if (node1.equals(node2)) continue;
 
-                boolean node12_connect = node1.getChildren().contains(node2);
-                boolean node21_connect = node2.getChildren().contains(node1);
+                boolean node12_connect = children.get(node1).contains(node2);
+                boolean node21_connect = children.get(node2).contains(node1);
 
                 if ((node1.getMirror().isAlreadyConnected(node2.getMirror()) && !node2.getMirror().isAlreadyConnected(node1.getMirror())) ||
                         (!node1.getMirror().isAlreadyConnected(node2.getMirror()) && node2.getMirror().isAlreadyConnected(node1.getMirror()))) {
@@ -971,18 +1482,10 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
                 if (!node1.getMirror().isAlreadyConnected(node2.getMirror()) && !node2.getMirror().isAlreadyConnected(node1.getMirror())) {
                     //Mirror nicht verbunden, sollte er per Plan verbunden sein → Link erstellen
                     if (node12_connect) {
-                        Link link = new Link(IDGenerator.getInstance().getNextID(), node1.getMirror(), node2.getMirror(),
-                                simTime, props);
-                        node1.getMirror().addLink(link);
-                        node2.getMirror().addLink(link);
-                        allLinks.add(link);
+                        allLinks.add(network.openLink(node1.getMirror(), node2.getMirror(), simTime));
                     } else {
                         if (node21_connect) {
-                            Link link = new Link(IDGenerator.getInstance().getNextID(), node2.getMirror(), node1.getMirror(),
-                                    simTime, props);
-                            node2.getMirror().addLink(link);
-                            node1.getMirror().addLink(link);
-                            allLinks.add(link);
+                                allLinks.add(network.openLink(node2.getMirror(), node1.getMirror(), simTime));
                         }
                     }
                 } else {
@@ -1008,18 +1511,18 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
         // ===== PHASE 3: MIRROR-SHUTDOWN - unverbundene Mirrors sammeln und herunterfahren =====
 
         // 3.1. Mirrors prüfen die entkoppelten Knoten und herunterfahren, um Erkennung der neuen Wurzel zu ermöglichen
+        Set<Mirror> plannedMirrors = Collections.newSetFromMap(new IdentityHashMap<>());
+        nodeList.forEach(node -> plannedMirrors.add(node.getMirror()));
         network.getMirrors()
                 .stream()
-                .filter(mirror -> nodeList.stream().noneMatch(node -> node.getMirror() == mirror))
+                .filter(mirror -> !plannedMirrors.contains(mirror))
                 .forEach(mirror -> mirror.shutdown(simTime));
 
-        // alle Links müssen immer bekannt sein, um automatisch vom Netzwerk bereinigt zu werden (herunterfahren/crash)
-        if(network != null && network.getLinks() != null) {
-            network.getLinks().addAll(allLinks);
-        }
-
         // Validiere die erweiterte Struktur – bei Ungültigkeit nicht mehr hart abbrechen (robuster bei Reduktionen)
-        if(!validateTopology()){
+        long validationStart = MetricsRegistry.start();
+        boolean valid = fullValidation ? validateTopology() : checkStructureInvariants();
+        MetricsRegistry.stop(validationStart, MetricsRegistry.STRATEGY_PREFIX, this, MetricsRegistry.OP_VALIDATE);
+        if(!valid){
             // Früher: throw new IllegalStateException("The constructed topology is not valid!");
             // Jetzt: toleranter Umgang, damit Reduktionen auf kleine Spiegelzahlen nicht die Simulation sprengen
             return allLinks;
@@ -1029,6 +1532,41 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
     }
 
 
+    /**
+     * Ermittelt für den Link-Abgleich je Knoten die Partner, zu denen ein Link geplant ist (Kind oder Elternteil)
+     * oder deren Mirror bereits über einen Link verbunden ist. Die Beziehung ist symmetrisch, sodass jedes Paar wie
+     * beim Vergleich aller Paare aus beiden Richtungen geprüft wird, in aufsteigender ID-Reihenfolge.
+     * Aufwand O(Knoten + geplante Kanten + Links) statt O(Knoten²).
+     *
+     * @param nodeList Alle Knoten der Struktur
+     * @param children Die Kinder je Knoten
+     * @return Die zu prüfenden Partner je Knoten
+     */
+    private static Map<MirrorNode, SortedSet<MirrorNode>> candidatePairs(List<MirrorNode> nodeList,
+                                                                         Map<MirrorNode, Set<StructureNode>> children) {
+        Map<Mirror, List<MirrorNode>> nodesByMirror = new IdentityHashMap<>();
+        for (MirrorNode node : nodeList) {
+            nodesByMirror.computeIfAbsent(node.getMirror(), k -> new ArrayList<>(1)).add(node);
+        }
+        Map<MirrorNode, SortedSet<MirrorNode>> candidates = new HashMap<>();
+        BiConsumer<MirrorNode, MirrorNode> pair = (a, b) -> {
+            candidates.computeIfAbsent(a, k -> new TreeSet<>(Comparator.comparingInt(MirrorNode::getId))).add(b);
+            candidates.computeIfAbsent(b, k -> new TreeSet<>(Comparator.comparingInt(MirrorNode::getId))).add(a);
+        };
+        for (MirrorNode node : nodeList) {
+            for (StructureNode child : children.get(node)) {
+                if (child instanceof MirrorNode c && children.containsKey(c)) pair.accept(node, c);
+            }
+            for (Link link : node.getMirror().getLinks()) {
+                Mirror other = link.getSource() == node.getMirror() ? link.getTarget() : link.getSource();
+                for (MirrorNode o : nodesByMirror.getOrDefault(other, List.of())) {
+                    pair.accept(node, o);
+                }
+            }
+        }
+        return candidates;
+    }
+
     /**
      * Validiert, ob der gegebene Root-Node-Typ mit dem erwarteten StructureType kompatibel ist.
      * Wirft eine IllegalStateException bei Inkompatibilität.
@@ -1159,8 +1697,8 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
      * @return Neuer MirrorNode mit zugeordnetem Mirror oder null
      */
     protected MirrorNode getMirrorNodeFromIterator() {
-        if (network.getMirrorCursor().hasNextMirror()) {
-            Mirror mirror = network.getMirrorCursor().getNextMirror();
+        if (hasNextMirror()) {
+            Mirror mirror = nextMirror();
             MirrorNode node = createMirrorNodeForMirror(mirror);
             if (node != null) {
                 node.addNodeType(StructureNode.StructureType.MIRROR);
@@ -1172,6 +1710,60 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
         return null;
     }
 
+    /**
+     * Prüft, ob die Mirror-Quelle dieser Struktur weitere Mirrors liefert: die per {@link #assignMirrors(List)}
+     * zugeteilten Mirrors oder sonst der gemeinsame Mirror-Cursor des Netzwerks.
+     *
+     * @return true, wenn weitere Mirrors verfügbar sind
+     */
+    protected final boolean hasNextMirror() {
+        return assignedMirrors != null ? assignedMirrors.hasNext() : network.getMirrorCursor().hasNextMirror();
+    }
+
+    /**
+     * Gibt den nächsten Mirror der Mirror-Quelle dieser Struktur zurück (siehe {@link #hasNextMirror()}).
+     *
+     * @return Der nächste nutzbare Mirror oder null, wenn keiner verfügbar ist
+     */
+    protected final Mirror nextMirror() {
+        if (assignedMirrors != null) {
+            return assignedMirrors.hasNext() ? assignedMirrors.next() : null;
+        }
+        return network.getMirrorCursor().getNextMirror();
+    }
+
+    /**
+     * Teilt dieser Struktur eine feste Mirror-Teilmenge für den nächsten Aufbau zu, statt Mirrors aus dem
+     * gemeinsamen Mirror-Cursor zu ziehen. Strukturen mit disjunkten Teilmengen können so parallel geplant werden,
+     * siehe {@link SnowflakeTopologyStrategy#setParallelBuild(boolean)}.
+     *
+     * @param mirrors Die zugeteilten Mirrors in Aufbau-Reihenfolge oder {@code null}, um wieder den
+     *                Mirror-Cursor des Netzwerks zu verwenden
+     */
+    final void assignMirrors(List<Mirror> mirrors) {
+        assignedMirrors = mirrors != null ? mirrors.iterator() : null;
+        // Knoten-IDs vorab auf dem aufrufenden Thread reservieren, der IDGenerator ist nicht threadsicher
+        nextReservedId = mirrors != null ? IDGenerator.getInstance().reserveIDs(mirrors.size()) : 0;
+        reservedIdEnd = mirrors != null ? nextReservedId + mirrors.size() : 0;
+    }
+
+    /**
+     * Vergibt die ID eines neuen Knotens: aus dem bei {@link #assignMirrors(List)} reservierten Block, solange
+     * Mirrors zugeteilt sind, sonst vom {@link IDGenerator}.
+     *
+     * @return Eine eindeutige Knoten-ID
+     * @throws IllegalStateException wenn der reservierte Block erschöpft ist
+     */
+    protected final int nextNodeId() {
+        if (assignedMirrors == null) {
+            return IDGenerator.getInstance().getNextID();
+        }
+        if (nextReservedId == reservedIdEnd) {
+            throw new IllegalStateException("Reservierte Knoten-IDs erschöpft: ein Knoten je zugeteiltem Mirror");
+        }
+        return nextReservedId++;
+    }
+
     /**
      * Factory-Methode für strukturspezifische MirrorNode-Erstellung.
      * Kann von Subklassen überschrieben werden.
@@ -1180,7 +1772,7 @@ public abstract class BuildAsSubstructure extends TopologyStrategy {
      * @return Neuer strukturspezifischer MirrorNode
      */
     protected MirrorNode createMirrorNodeForMirror(Mirror mirror) {
-        return new MirrorNode(IDGenerator.getInstance().getNextID(), mirror);
+        return new MirrorNode(nextNodeId(), mirror);
     }
 
     /**
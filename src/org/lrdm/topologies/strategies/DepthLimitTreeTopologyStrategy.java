@@ -409,8 +409,8 @@ public class DepthLimitTreeTopologyStrategy extends TreeTopologyStrategy {
      * @return Neuer BalancedTreeMirrorNode oder null, wenn keine Mirrors verfügbar sind
      */
     protected DepthLimitedTreeMirrorNode getNodeFromIterator() {
-        if (network.getMirrorCursor().hasNextMirror()) {
-            Mirror mirror = network.getMirrorCursor().getNextMirror();
+        if (hasNextMirror()) {
+            Mirror mirror = nextMirror();
             MirrorNode node = createMirrorNodeForMirror(mirror);
 
             if (node != null) {
@@ -438,6 +438,18 @@ public class DepthLimitTreeTopologyStrategy extends TreeTopologyStrategy {
         return new DepthLimitedTreeMirrorNode(mirror.getID(), mirror, maxDepth);
     }
 
+    @Override
+    protected List<Object> getPlanParameters() {
+        return List.of(maxDepth, enableDepthOptimization, insertionStrategy);
+    }
+
+    @Override
+    public void applyConfiguration(List<Object> configuration) {
+        maxDepth = configurationValue(configuration, 3, 0, Integer.class);
+        enableDepthOptimization = configurationValue(configuration, 3, 1, Boolean.class);
+        insertionStrategy = configurationValue(configuration, 3, 2, DepthInsertionStrategy.class);
+    }
+
     /**
      * Format-Template für die String-Repräsentation der Strategie.
      */
@@ -6,6 +6,7 @@ import org.lrdm.effectors.*;
 import org.lrdm.topologies.node.FullyConnectedMirrorNode;
 import org.lrdm.topologies.node.MirrorNode;
 import org.lrdm.topologies.node.StructureNode;
+import org.lrdm.topologies.validators.TopologyInvariants;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -237,6 +238,11 @@ public class FullyConnectedTopology extends BuildAsSubstructure {
         return numMirrors * (numMirrors - 1) / 2;
     }
 
+    @Override
+    protected int getNumTargetLinks(int nodeCount) {
+        return calculateExpectedLinks(nodeCount);
+    }
+
     /**
      * Berechnet die erwartete Anzahl der Links, wenn die gegebene Aktion ausgeführt wird.
      * Behandelt drei verschiedene Action-Typen:
@@ -309,6 +315,16 @@ public class FullyConnectedTopology extends BuildAsSubstructure {
         return false;
     }
 
+    /**
+     * Jedes Knotenpaar ist in beide Richtungen verbunden, jeder Knoten hat also den Grad 2(n-1).
+     */
+    @Override
+    protected boolean checkStructureInvariants() {
+        TopologyInvariants invariants = getInvariants();
+        int nodeCount = invariants.getNodeCount();
+        return nodeCount > 1 && invariants.getNodeCountWithDegree(2 * (nodeCount - 1)) == nodeCount;
+    }
+
     /**
      * Factory-Methode für baum-spezifische MirrorNode-Erstellung.
      * Überschreibt BuildAsSubstructure für die TreeMirrorNode-Erstellung.
@@ -329,7 +345,7 @@ public class FullyConnectedTopology extends BuildAsSubstructure {
      */
     @Override
     protected FullyConnectedMirrorNode getMirrorNodeFromIterator() {
-        if (network.getMirrorCursor().hasNextMirror()) {
+        if (hasNextMirror()) {
             FullyConnectedMirrorNode node = (FullyConnectedMirrorNode) super.getMirrorNodeFromIterator();
             node.addNodeType(StructureNode.StructureType.FULLY_CONNECTED);
             return node;
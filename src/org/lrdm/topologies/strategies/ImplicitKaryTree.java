@@ -0,0 +1,316 @@
+package org.lrdm.topologies.strategies;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * Implizite Darstellung eines vollständigen k-nären Baums über Positionen statt Objekt-Verweisen.
+ * <p>
+ * Position 0 ist die Root, der Parent von Position i ist {@code (i-1)/k}, die Kinder von i sind
+ * {@code k*i+1} bis {@code k*i+k}. Die Form des Baums folgt damit allein aus Knotenzahl und Verzweigungsgrad:
+ * Jede Ebene ist voll, nur die unterste wird von links aufgefüllt. Gespeichert werden nur zwei {@code int}-Arrays:
+ * Position → ID und eine offen adressierte Hash-Tabelle, deren Slots die Position enthalten (der Schlüssel steht
+ * bereits im ersten Array). Pro Knoten also wenige Bytes, unabhängig von der Größe der IDs.
+ * <p>
+ * Einfügen hängt an der ersten freien Position an, Entfernen zieht den letzten Knoten auf die frei werdende
+ * Position nach – beides O(1). Tiefe, Teilbaumgröße und Pfad zur Root sind Arithmetik in O(log<sub>k</sub> n).
+ *
+ * @see BalancedTreeTopologyStrategy
+ */
+public final class ImplicitKaryTree {
+
+    /** Kennzeichnet eine fehlende Position bzw. einen fehlenden Parent. */
+    public static final int NONE = -1;
+
+    private int branching;
+    private int[] ids = new int[16];
+    /** Hash-Tabelle ID → Position mit linearer Sondierung; ein Slot enthält die Position oder {@link #NONE}. */
+    private int[] slots = emptySlots(32);
+    private int size;
+
+    /**
+     * @param branching Maximale Kinderzahl je Knoten, mindestens 1
+     */
+    public ImplicitKaryTree(int branching) {
+        this.branching = Math.max(1, branching);
+    }
+
+    // ===== ÄNDERUNGEN =====
+
+    /**
+     * Hängt einen Knoten an der ersten freien Position an.
+     *
+     * @param id Nicht-negative ID des Knotens
+     * @return Position des Knotens; sein Parent ist {@link #getParent(int)} dieser Position
+     * @throws IllegalArgumentException wenn die ID negativ oder bereits enthalten ist
+     */
+    int add(int id) {
+        if (id < 0) throw new IllegalArgumentException("Negative ID: " + id);
+        if (contains(id)) throw new IllegalArgumentException("ID bereits enthalten: " + id);
+        if (size == ids.length) {
+            ids = Arrays.copyOf(ids, size * 2);
+        }
+        if ((size + 1) * 2 > slots.length) {
+            growSlots();
+        }
+        ids[size] = id;
+        slots[slotOf(id)] = size;
+        return size++;
+    }
+
+    /**
+     * Entfernt den Knoten an der letzten Position. Er ist immer ein Blatt.
+     *
+     * @return ID des entfernten Knotens
+     * @throws NoSuchElementException wenn der Baum leer ist
+     */
+    int removeLast() {
+        if (size == 0) throw new NoSuchElementException("Der Baum ist leer.");
+        int id = ids[size - 1];
+        clearSlot(slotOf(id));
+        size--;
+        return id;
+    }
+
+    /**
+     * Entfernt einen beliebigen Knoten: Der Knoten an der letzten Position rückt auf dessen Position nach.
+     * Liegt die bisherige Position danach noch im Baum, steht dort der nachgerückte Knoten.
+     *
+     * @param id ID des zu entfernenden Knotens
+     * @return Bisherige Position des entfernten Knotens
+     * @throws NoSuchElementException wenn die ID nicht enthalten ist
+     */
+    int remove(int id) {
+        int position = getPosition(id);
+        if (position == NONE) throw new NoSuchElementException("ID nicht enthalten: " + id);
+        int last = removeLast();
+        if (last != id) {
+            clearSlot(slotOf(id));
+            ids[position] = last;
+            slots[slotOf(last)] = position;
+        }
+        return position;
+    }
+
+    /**
+     * Leert den Baum und setzt einen neuen Verzweigungsgrad.
+     *
+     * @param branching Maximale Kinderzahl je Knoten, mindestens 1
+     */
+    void clear(int branching) {
+        Arrays.fill(slots, NONE);
+        size = 0;
+        this.branching = Math.max(1, branching);
+    }
+
+    // ===== ABFRAGEN =====
+
+    /**
+     * @return Anzahl der Knoten
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true, wenn der Baum keine Knoten hat
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Maximale Kinderzahl je Knoten
+     */
+    public int getBranching() {
+        return branching;
+    }
+
+    /**
+     * @param id ID eines Knotens
+     * @return true, wenn der Knoten enthalten ist
+     */
+    public boolean contains(int id) {
+        return getPosition(id) != NONE;
+    }
+
+    /**
+     * @param position Position im Baum
+     * @return ID des Knotens an dieser Position
+     * @throws IndexOutOfBoundsException wenn die Position nicht belegt ist
+     */
+    public int getId(int position) {
+        return ids[checkPosition(position)];
+    }
+
+    /**
+     * @param id ID eines Knotens
+     * @return Position des Knotens oder {@link #NONE}
+     */
+    public int getPosition(int id) {
+        return slots[slotOf(id)];
+    }
+
+    /**
+     * @param position Position im Baum
+     * @return Position des Parents oder {@link #NONE} für die Root
+     */
+    public int getParent(int position) {
+        return checkPosition(position) == 0 ? NONE : (position - 1) / branching;
+    }
+
+    /**
+     * @param position Position im Baum
+     * @return Position des ersten Kindes; die Kinder belegen die folgenden {@link #getChildCount(int)} Positionen
+     */
+    public int getFirstChild(int position) {
+        return checkPosition(position) * branching + 1;
+    }
+
+    /**
+     * @param position Position im Baum
+     * @return Anzahl der Kinder zwischen 0 und {@link #getBranching()}
+     */
+    public int getChildCount(int position) {
+        long first = (long) checkPosition(position) * branching + 1;
+        return (int) Math.max(0, Math.min(branching, size - first));
+    }
+
+    /**
+     * @param position Position im Baum
+     * @return true, wenn der Knoten keine Kinder hat
+     */
+    public boolean isLeaf(int position) {
+        return getChildCount(position) == 0;
+    }
+
+    /**
+     * @param position Position im Baum
+     * @return Tiefe des Knotens, 0 für die Root
+     */
+    public int getDepth(int position) {
+        checkPosition(position);
+        int depth = 0;
+        long levelStart = 0;
+        long levelWidth = 1;
+        while (levelStart + levelWidth <= position) {
+            levelStart += levelWidth;
+            levelWidth *= branching;
+            depth++;
+        }
+        return depth;
+    }
+
+    /**
+     * @return Tiefe des tiefsten Knotens, {@link #NONE} für einen leeren Baum
+     */
+    public int getHeight() {
+        return size == 0 ? NONE : getDepth(size - 1);
+    }
+
+    /**
+     * @param position Position im Baum
+     * @return Anzahl der Knoten im Teilbaum des Knotens, einschließlich ihm selbst
+     */
+    public int getSubtreeSize(int position) {
+        checkPosition(position);
+        int count = 0;
+        long low = position;
+        long high = position;
+        // Der Teilbaum belegt auf jeder Ebene einen zusammenhängenden Positionsbereich
+        while (low < size) {
+            count += (int) (Math.min(high, size - 1L) - low + 1);
+            low = low * branching + 1;
+            high = high * branching + branching;
+        }
+        return count;
+    }
+
+    /**
+     * @param position Position im Baum
+     * @return Positionen von der Root bis einschließlich dieses Knotens
+     */
+    public int[] getPathFromRoot(int position) {
+        int[] path = new int[getDepth(position) + 1];
+        for (int i = path.length - 1, p = position; i >= 0; i--, p = (p - 1) / branching) {
+            path[i] = p;
+        }
+        return path;
+    }
+
+    /**
+     * @param ancestor   Position des möglichen Vorfahren
+     * @param descendant Position des möglichen Nachfahren
+     * @return true, wenn {@code ancestor} auf dem Pfad von der Root zu {@code descendant} liegt
+     */
+    public boolean isAncestor(int ancestor, int descendant) {
+        checkPosition(ancestor);
+        int p = checkPosition(descendant);
+        while (p > ancestor) {
+            p = (p - 1) / branching;
+        }
+        return p == ancestor;
+    }
+
+    private int checkPosition(int position) {
+        return Objects.checkIndex(position, size);
+    }
+
+    // ===== HASH-TABELLE ID → POSITION =====
+
+    private static int[] emptySlots(int capacity) {
+        int[] empty = new int[capacity];
+        Arrays.fill(empty, NONE);
+        return empty;
+    }
+
+    private static int hash(int id) {
+        int h = id * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * @return Slot, der die Position der ID enthält, oder der freie Slot, an dem die Sondierung endet
+     */
+    private int slotOf(int id) {
+        int mask = slots.length - 1;
+        for (int slot = hash(id) & mask; ; slot = (slot + 1) & mask) {
+            int position = slots[slot];
+            if (position == NONE || ids[position] == id) return slot;
+        }
+    }
+
+    /**
+     * Leert einen Slot und schiebt nachfolgende Einträge derselben Sondierungskette zurück, damit keine Lücke
+     * die Suche nach ihnen abbricht.
+     */
+    private void clearSlot(int slot) {
+        int mask = slots.length - 1;
+        int free = slot;
+        for (int next = (slot + 1) & mask; slots[next] != NONE; next = (next + 1) & mask) {
+            int home = hash(ids[slots[next]]) & mask;
+            // Nur verschieben, wenn der freie Slot zwischen Heimat-Slot und aktuellem Slot liegt
+            if (((next - home) & mask) >= ((next - free) & mask)) {
+                slots[free] = slots[next];
+                free = next;
+            }
+        }
+        slots[free] = NONE;
+    }
+
+    /**
+     * Verdoppelt die Tabelle, sodass sie höchstens zur Hälfte belegt ist.
+     */
+    private void growSlots() {
+        slots = emptySlots(slots.length * 2);
+        for (int position = 0; position < size; position++) {
+            slots[slotOf(ids[position])] = position;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ImplicitKaryTree[k=" + branching + ", size=" + size + "]";
+    }
+}
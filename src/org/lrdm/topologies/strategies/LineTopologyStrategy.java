@@ -5,6 +5,7 @@ import org.lrdm.Mirror;
 import org.lrdm.Network;
 import org.lrdm.effectors.*;
 import org.lrdm.topologies.node.*;
+import org.lrdm.topologies.validators.TopologyInvariants;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -165,6 +166,16 @@ public class LineTopologyStrategy extends BuildAsSubstructure {
         return isLineIntact();
     }
 
+    /**
+     * Eine Linie ist ein Baum, in dem kein Knoten mehr als zwei Nachbarn hat, also genau zwei Endpunkte.
+     */
+    @Override
+    protected boolean checkStructureInvariants() {
+        TopologyInvariants invariants = getInvariants();
+        if (invariants.getNodeCount() == 1) return true;
+        return invariants.getNodeCount() >= minLineSize && invariants.isTree() && invariants.getMaxDegree() <= 2;
+    }
+
     /**
      * Factory-Methode für Linien-spezifische MirrorNode-Erstellung.
      * Überschreibt BuildAsSubstructure für die LineMirrorNode-Erstellung.
@@ -177,6 +188,25 @@ public class LineTopologyStrategy extends BuildAsSubstructure {
         return new LineMirrorNode(mirror.getID(), mirror);
     }
 
+    /**
+     * Ohne Linien-Erweiterung darf ein gespeicherter größerer Plan nicht übernommen werden.
+     */
+    @Override
+    protected boolean isPlanCacheable() {
+        return allowLineExpansion;
+    }
+
+    @Override
+    protected List<Object> getPlanParameters() {
+        return List.of(minLineSize, allowLineExpansion);
+    }
+
+    @Override
+    public void applyConfiguration(List<Object> configuration) {
+        minLineSize = configurationValue(configuration, 2, 0, Integer.class);
+        allowLineExpansion = configurationValue(configuration, 2, 1, Boolean.class);
+    }
+
     // ===== FEHLENDE TOPOLOGY STRATEGY METHODEN =====
 
     /**
@@ -438,7 +468,7 @@ public class LineTopologyStrategy extends BuildAsSubstructure {
      */
     @Override
     protected LineMirrorNode getMirrorNodeFromIterator() {
-        if (network.getMirrorCursor().hasNextMirror()) {
+        if (hasNextMirror()) {
             LineMirrorNode node = (LineMirrorNode) super.getMirrorNodeFromIterator();
             node.addNodeType(StructureNode.StructureType.LINE);
             return node;
@@ -0,0 +1,197 @@
+package org.lrdm.topologies.strategies;
+
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.Network;
+import org.lrdm.topologies.node.MirrorNode;
+import org.lrdm.topologies.node.StructureNode;
+
+import java.util.*;
+
+/**
+ * Plant rollierende, churn-begrenzte Topologie-Migrationen.
+ * <p>
+ * Statt den Übergang zur Zieltopologie in einem Schritt auszuführen (siehe
+ * {@link TopologyStrategy#migrateNetwork}), wird das Link-Delta in {@link MigrationStage}s
+ * zerlegt, die jeweils höchstens {@code maxOpensPerStage} Links öffnen und
+ * {@code maxClosesPerStage} Links schließen. Die Stufen werden vom Effector über
+ * aufeinanderfolgende Simulationsschritte ausgeführt.
+ * <p>
+ * **Invariante**: Nach jeder Stufe sind alle nutzbaren Mirrors über nicht geschlossene Links
+ * vom Root-Mirror aus erreichbar. Geschlossen werden je Stufe nur Links außerhalb eines Spannwalds der
+ * verbleibenden Verbindungen, der einmal pro Stufe in O(Mirrors + Links) bestimmt wird;
+ * da der Zielplan zusammenhängend ist, sind spätestens nach allen Öffnungen alle Schließungen zulässig.
+ * Geöffnete Links werden erst nach ihrer Aktivierungszeit aktiv; über den Effector ausgeführt, wartet daher jede
+ * Schließung, deren Ersatz noch nicht aktiv ist, auf einen späteren Tick (siehe
+ * {@link MigrationStage#applyWhenReplaced(Network, int)}), sodass auch die aktiven Links alle Mirrors verbinden.
+ * <p>
+ * **Bandbreite**: Ohne explizite Grenzen wird die Stufengröße so gewählt, dass neu geöffnete Links
+ * höchstens {@link #DEFAULT_BANDWIDTH_SHARE} der Ziel-Link-Kapazität ausmachen, auf die
+ * {@code Network#collectMetrics} die Bandbreite normiert.
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+public final class MigrationPlanner {
+
+    /** Anteil der Ziel-Links, der pro Stufe höchstens neu geöffnet bzw. geschlossen wird (Bandbreitenziel 40 %). */
+    public static final double DEFAULT_BANDWIDTH_SHARE = 0.4;
+
+    private MigrationPlanner() {
+    }
+
+    /**
+     * Berechnet die Stufengröße, mit der eine Migration unter dem gegebenen Bandbreitenanteil bleibt.
+     *
+     * @param n      Das Netzwerk
+     * @param target Die (bereits geplante) Zieltopologie
+     * @param share  erlaubter Anteil der Ziel-Links pro Stufe (0..1)
+     * @return maximale Anzahl Link-Änderungen je Art pro Stufe, mindestens 1
+     */
+    public static int bandwidthBoundedStageSize(Network n, TopologyStrategy target, double share) {
+        return Math.max(1, (int) Math.floor(share * target.getNumTargetLinks(n)));
+    }
+
+    /**
+     * Plant die Migration des Netzwerks in die Zieltopologie. Die Zieltopologie übernimmt dabei
+     * alle nutzbaren Mirrors in ihre MirrorNode-Struktur; Links und Mirror-Zustände bleiben unverändert.
+     *
+     * @param n                 Das Netzwerk
+     * @param target            Die Zieltopologie
+     * @param maxOpensPerStage  maximale Anzahl zu öffnender Links pro Stufe; {@code <= 0} für die Bandbreitengrenze
+     * @param maxClosesPerStage maximale Anzahl zu schließender Links pro Stufe; {@code <= 0} für die Bandbreitengrenze
+     * @return geordnete Liste nicht leerer Stufen; leer, wenn kein Link-Delta besteht
+     */
+    public static List<MigrationStage> plan(Network n, BuildAsSubstructure target, int maxOpensPerStage, int maxClosesPerStage) {
+        MirrorNode structureRoot = target.planStructureInPlace(n);
+        if (structureRoot == null) {
+            return List.of();
+        }
+        int stageSize = bandwidthBoundedStageSize(n, target, DEFAULT_BANDWIDTH_SHARE);
+        int maxOpens = maxOpensPerStage > 0 ? maxOpensPerStage : stageSize;
+        int maxCloses = maxClosesPerStage > 0 ? maxClosesPerStage : stageSize;
+
+        // ===== SOLL: geplante Mirror-Paare aus der MirrorNode-Struktur =====
+        Map<Long, MigrationStage.Opening> planned = new LinkedHashMap<>();
+        Set<MirrorNode> nodes = new HashSet<>();
+        for (StructureNode node : structureRoot.getAllNodesInStructure(target.getCurrentStructureType(), structureRoot)) {
+            if (node instanceof MirrorNode mirrorNode && mirrorNode.getMirror() != null) {
+                nodes.add(mirrorNode);
+            }
+        }
+        nodes.stream().sorted(Comparator.comparingInt(MirrorNode::getId)).forEach(node -> {
+            for (StructureNode child : node.getChildren()) {
+                if (child instanceof MirrorNode childNode && nodes.contains(childNode)) {
+                    planned.putIfAbsent(pairKey(node.getMirror(), childNode.getMirror()),
+                            new MigrationStage.Opening(node.getMirror(), childNode.getMirror()));
+                }
+            }
+        });
+
+        // ===== IST: nicht geschlossene Links zwischen nutzbaren Mirrors =====
+        List<Mirror> usable = n.getMirrorCursor().getNonStopMirrors();
+        Map<Mirror, Integer> index = new HashMap<>();
+        usable.forEach(m -> index.putIfAbsent(m, index.size()));
+        Set<Long> existing = new HashSet<>();
+        List<int[]> kept = new ArrayList<>();
+        List<Link> closes = new ArrayList<>();
+        n.getLinks().stream()
+                .filter(l -> l.getState() != Link.State.CLOSED)
+                .filter(l -> index.containsKey(l.getSource()) && index.containsKey(l.getTarget()))
+                .sorted(Comparator.comparingInt(Link::getID))
+                .forEach(l -> {
+                    long key = pairKey(l.getSource(), l.getTarget());
+                    existing.add(key);
+                    if (planned.containsKey(key)) {
+                        kept.add(new int[]{index.get(l.getSource()), index.get(l.getTarget())});
+                    } else {
+                        closes.add(l);
+                    }
+                });
+        Deque<MigrationStage.Opening> opens = new ArrayDeque<>();
+        planned.forEach((key, opening) -> {
+            if (!existing.contains(key)) opens.add(opening);
+        });
+
+        // ===== STUFEN BILDEN =====
+        List<MigrationStage> stages = new ArrayList<>();
+        List<Link> remaining = closes;
+        while (!opens.isEmpty() || !remaining.isEmpty()) {
+            List<MigrationStage.Opening> stageOpens = new ArrayList<>();
+            while (!opens.isEmpty() && stageOpens.size() < maxOpens) {
+                MigrationStage.Opening o = opens.poll();
+                Integer from = index.get(o.source());
+                Integer to = index.get(o.target());
+                if (from != null && to != null) kept.add(new int[]{from, to});
+                stageOpens.add(o);
+            }
+            List<Link> stageCloses = closableLinks(index, kept, remaining, maxCloses);
+            if (stageOpens.isEmpty() && stageCloses.isEmpty()) {
+                // Kein Fortschritt möglich (Zielplan selbst nicht zusammenhängend): Rest in einer Stufe schließen
+                stageCloses = remaining;
+            }
+            Set<Link> closed = Collections.newSetFromMap(new IdentityHashMap<>());
+            closed.addAll(stageCloses);
+            remaining = remaining.stream().filter(l -> !closed.contains(l)).toList();
+            stages.add(new MigrationStage(stages.size(), stageOpens, stageCloses));
+        }
+        return stages;
+    }
+
+    /**
+     * Bestimmt die Links, die in einer Stufe gemeinsam geschlossen werden dürfen, in O(Mirrors + Links).
+     * <p>
+     * Ein Spannwald wird zuerst aus den verbleibenden Links gebildet, danach aus den Schließ-Kandidaten in
+     * umgekehrter Reihenfolge. Kandidaten außerhalb des Waldes schließen nur Zyklen; selbst alle zusammen
+     * entfernt, trennen sie keine Komponente. Damit bleibt jeder Mirror, der vor der Stufe vom Root-Mirror aus
+     * erreichbar war, auch danach erreichbar.
+     *
+     * @param index     Index je nutzbarem Mirror
+     * @param kept      Verbindungen, die bestehen bleiben, als Index-Paare
+     * @param closes    Schließ-Kandidaten, bevorzugte zuerst
+     * @param maxCloses maximale Anzahl zu schließender Links
+     * @return die ersten höchstens {@code maxCloses} Kandidaten, die keinen Mirror abtrennen
+     */
+    private static List<Link> closableLinks(Map<Mirror, Integer> index, List<int[]> kept, List<Link> closes,
+                                            int maxCloses) {
+        int[] parent = new int[index.size()];
+        for (int i = 0; i < parent.length; i++) parent[i] = i;
+        for (int[] edge : kept) {
+            union(parent, edge[0], edge[1]);
+        }
+        boolean[] needed = new boolean[closes.size()];
+        for (int i = closes.size() - 1; i >= 0; i--) {
+            Link l = closes.get(i);
+            needed[i] = union(parent, index.get(l.getSource()), index.get(l.getTarget()));
+        }
+        List<Link> closable = new ArrayList<>();
+        for (int i = 0; i < closes.size() && closable.size() < maxCloses; i++) {
+            if (!needed[i]) closable.add(closes.get(i));
+        }
+        return closable;
+    }
+
+    static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+
+    /**
+     * @return {@code true}, wenn die Kante zwei bisher getrennte Komponenten verbindet
+     */
+    static boolean union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA == rootB) return false;
+        parent[rootA] = rootB;
+        return true;
+    }
+
+    private static long pairKey(Mirror a, Mirror b) {
+        int lo = Math.min(a.getID(), b.getID());
+        int hi = Math.max(a.getID(), b.getID());
+        return ((long) lo << 32) | (hi & 0xffffffffL);
+    }
+}
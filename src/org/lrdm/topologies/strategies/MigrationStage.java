@@ -0,0 +1,120 @@
+package org.lrdm.topologies.strategies;
+
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.Network;
+
+import java.util.*;
+
+/**
+ * Eine Stufe einer rollierenden Topologie-Migration (siehe {@link MigrationPlanner}).
+ * Enthält eine begrenzte Anzahl zu öffnender und zu schließender Links, die in einem
+ * einzigen Simulationsschritt ausgeführt werden.
+ *
+ * @param index  Position der Stufe im Migrationsplan (0-basiert)
+ * @param opens  zu öffnende Verbindungen
+ * @param closes zu schließende Links
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+public record MigrationStage(int index, List<Opening> opens, List<Link> closes) {
+
+    /**
+     * Eine geplante, noch nicht existierende Verbindung zwischen zwei Mirrors.
+     *
+     * @param source Quell-Mirror des neuen Links
+     * @param target Ziel-Mirror des neuen Links
+     */
+    public record Opening(Mirror source, Mirror target) {
+    }
+
+    public MigrationStage {
+        opens = List.copyOf(opens);
+        closes = List.copyOf(closes);
+    }
+
+    /**
+     * @return {@code true}, wenn die Stufe weder Links öffnet noch schließt
+     */
+    public boolean isEmpty() {
+        return opens.isEmpty() && closes.isEmpty();
+    }
+
+    /**
+     * Führt die Stufe auf dem Netzwerk aus. Öffnungen zu nicht mehr nutzbaren oder bereits
+     * verbundenen Mirrors sowie bereits geschlossene Links werden übersprungen, sodass zwischenzeitliche
+     * Ausfälle den restlichen Plan nicht ungültig machen.
+     *
+     * @param n       Das Netzwerk
+     * @param simTime Aktuelle Simulationszeit
+     * @return tatsächlich geöffnete und geschlossene Links
+     */
+    public Set<Link> apply(Network n, int simTime) {
+        Set<Link> changed = open(n, simTime);
+        for (Link l : closes) {
+            if (l.getState() != Link.State.CLOSED) {
+                l.shutdown();
+                changed.add(l);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Führt die Stufe wie {@link #apply(Network, int)} aus, schließt aber keinen aktiven Link, solange der Ersatz
+     * für ihn geöffnet, aber noch nicht aktiv ist: Frisch geöffnete Links tragen erst nach ihrer Aktivierungszeit
+     * Daten. Wie beim Planen werden die Schließungen über einen Spannwald in O(Mirrors + Links) geprüft. Gibt es im
+     * Netzwerk keinen Ersatz, wird trotzdem geschlossen, damit die Migration endet.
+     *
+     * @param n       Das Netzwerk
+     * @param simTime Aktuelle Simulationszeit
+     * @return Stufe mit den zurückgestellten Schließungen; leer, wenn keine warten muss
+     */
+    public MigrationStage applyWhenReplaced(Network n, int simTime) {
+        open(n, simTime);
+        List<Link> pending = closes.stream().filter(l -> l.getState() != Link.State.CLOSED).toList();
+        Map<Mirror, Integer> index = new HashMap<>();
+        n.getMirrorCursor().getNonStopMirrors().forEach(m -> index.putIfAbsent(m, index.size()));
+        Set<Link> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        candidates.addAll(pending);
+
+        // Verbindungen ohne die Schließ-Kandidaten: über aktive Links und über alle nicht geschlossenen Links
+        int[] active = new int[index.size()];
+        int[] open = new int[index.size()];
+        for (int i = 0; i < active.length; i++) active[i] = open[i] = i;
+        for (Link l : n.getLinks()) {
+            Integer from = index.get(l.getSource());
+            Integer to = index.get(l.getTarget());
+            if (l.getState() == Link.State.CLOSED || candidates.contains(l) || from == null || to == null) continue;
+            if (l.isActive()) MigrationPlanner.union(active, from, to);
+            MigrationPlanner.union(open, from, to);
+        }
+        boolean[] waiting = new boolean[pending.size()];
+        for (int i = pending.size() - 1; i >= 0; i--) {
+            Link l = pending.get(i);
+            Integer from = index.get(l.getSource());
+            Integer to = index.get(l.getTarget());
+            // inaktive Links tragen keine Verbindung, aktive auf einem Zyklus sind entbehrlich
+            if (!l.isActive() || from == null || to == null || !MigrationPlanner.union(active, from, to)) continue;
+            waiting[i] = MigrationPlanner.find(open, from) == MigrationPlanner.find(open, to);
+        }
+        List<Link> deferred = new ArrayList<>();
+        for (int i = 0; i < pending.size(); i++) {
+            if (waiting[i]) deferred.add(pending.get(i));
+            else pending.get(i).shutdown();
+        }
+        return new MigrationStage(index(), List.of(), deferred);
+    }
+
+    private Set<Link> open(Network n, int simTime) {
+        Set<Link> changed = new HashSet<>();
+        for (Opening o : opens) {
+            if (!o.source().isUsableForNetwork() || !o.target().isUsableForNetwork()
+                    || o.source().isAlreadyConnected(o.target())) {
+                continue;
+            }
+            Link link = n.openLink(o.source(), o.target(), simTime);
+            changed.add(link);
+        }
+        return changed;
+    }
+}
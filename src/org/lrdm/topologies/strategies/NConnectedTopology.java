@@ -7,6 +7,7 @@ import org.lrdm.effectors.*;
 import org.lrdm.topologies.node.MirrorNode;
 import org.lrdm.topologies.node.NConnectedMirrorNode;
 import org.lrdm.topologies.node.StructureNode;
+import org.lrdm.topologies.validators.TopologyInvariants;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -128,6 +129,10 @@ public class NConnectedTopology extends BuildAsSubstructure {
     /**
      * Fügt neue Knoten zur bestehenden N-Connected-Struktur hinzu.
      * Neue Knoten werden mit den letzten N bestehenden Knoten bidirektional verbunden.
+     * <p>
+     * Bleibt die Anzahl der Verbindungen je Knoten gleich, werden nur die umlaufenden Kanten der letzten Knoten
+     * und die neuen Knoten verkabelt, ansonsten wird der Ring vollständig neu aufgebaut. Ist der Ring in eine
+     * umgebende Struktur eingegliedert, behalten alle Kanten deren Typen und Heads.
      *
      * @param nodesToAdd Set der hinzuzufügenden Mirrors
      * @return Tatsächliche Anzahl der hinzugefügten Knoten
@@ -146,9 +151,24 @@ public class NConnectedTopology extends BuildAsSubstructure {
             return 0;
         }
 
-        // Sammle zu entfernende Knoten (höchste IDs zuerst, aber nie die Root)
+        Embedding embedding = embeddingOf(allNodes);
         int addedNodes = 0;
 
+        if (canRewireInPlace(allNodes, allNodes.size() + nodesToAdd.size())) {
+            int oldSize = allNodes.size();
+            for (int i = 0; i < nodesToAdd.size(); i++) {
+                NConnectedMirrorNode node = getMirrorNodeFromIterator();
+                if (node == null) break;
+                embedding.nodeTypes().forEach(node::addNodeType);
+                allNodes.add(node);
+                addedNodes++;
+            }
+            rewireTail(allNodes, oldSize, embedding);
+            return addedNodes;
+        }
+
+        // Sammle zu entfernende Knoten (höchste IDs zuerst, aber nie die Root)
+
         // Entferne die Knoten mit höchsten IDs
         for (int i = allNodes.size() - 1; i >= 0; i--) {
             NConnectedMirrorNode existingNode = allNodes.get(i);
@@ -164,6 +184,7 @@ public class NConnectedTopology extends BuildAsSubstructure {
 
         allNodes.sort(Comparator.comparingInt(MirrorNode::getId));
         buildNConnectedStructure(allNodes);
+        restoreEmbedding(allNodes, embedding);
 
         return addedNodes;
     }
@@ -201,6 +222,24 @@ public class NConnectedTopology extends BuildAsSubstructure {
 
         // Sammle zu entfernende Knoten (höchste IDs zuerst, aber nie die Root)
         Set<MirrorNode> removedNodes = new HashSet<>();
+        Embedding embedding = embeddingOf(allNodes);
+
+        if (canRewireInPlace(allNodes, allNodes.size() - actualNodesToRemove)) {
+            int remaining = allNodes.size() - actualNodesToRemove;
+            int headId = getCurrentStructureRoot().getId();
+            for (NConnectedMirrorNode nodeToRemove : allNodes.subList(remaining, allNodes.size())) {
+                for (StructureNode child : nodeToRemove.getChildren(StructureNode.StructureType.N_CONNECTED, headId)) {
+                    nodeToRemove.removeChild(child);
+                }
+                nodeToRemove.setParent(null);
+                removeFromStructureNodes(nodeToRemove);
+                removedNodes.add(nodeToRemove);
+            }
+            // Kanten der verbleibenden Knoten auf entfernte Knoten werden beim Neuverkabeln des Endes gelöst
+            rewireTail(new ArrayList<>(allNodes.subList(0, remaining)), remaining, embedding);
+            return removedNodes;
+        }
+
         List<NConnectedMirrorNode> remainingNodes = new ArrayList<>();
 
         // Entferne die Knoten mit höchsten IDs
@@ -220,10 +259,122 @@ public class NConnectedTopology extends BuildAsSubstructure {
         }
 
         buildNConnectedStructure(remainingNodes);
+        restoreEmbedding(remainingNodes, embedding);
 
         return removedNodes;
     }
 
+    /**
+     * Typen und Heads, unter denen eine umgebende Struktur (z.B. eine Schneeflocke) den Ring eingegliedert hat.
+     * Für einen eigenständigen Ring enthalten die Heads nur den eigenen Typ.
+     */
+    private record Embedding(Set<StructureNode.StructureType> nodeTypes,
+                             Map<StructureNode.StructureType, Integer> headIds) {
+        boolean isEmbedded() {
+            return headIds.size() > 1;
+        }
+    }
+
+    /**
+     * Liest die Einbettung an der Kante von der Root zu ihrem Nachfolger ab.
+     *
+     * @param ring Alle Knoten aufsteigend nach ID, beginnend mit der Root
+     */
+    private Embedding embeddingOf(List<NConnectedMirrorNode> ring) {
+        int headId = getCurrentStructureRoot().getId();
+        StructureNode.ChildRecord rootRecord = ring.size() > 1 ? ring.get(0).findChildRecordById(ring.get(1).getId()) : null;
+        if (rootRecord == null || !Objects.equals(rootRecord.headIds().get(StructureNode.StructureType.N_CONNECTED), headId)) {
+            return new Embedding(Set.of(), Map.of(StructureNode.StructureType.N_CONNECTED, headId));
+        }
+        return new Embedding(new HashSet<>(ring.get(1).getNodeTypes()), new HashMap<>(rootRecord.headIds()));
+    }
+
+    /**
+     * Setzt nach einem vollständigen Neuaufbau die Typen und Heads der umgebenden Struktur wieder ein.
+     */
+    private void restoreEmbedding(List<NConnectedMirrorNode> ring, Embedding embedding) {
+        if (!embedding.isEmbedded() || getCurrentStructureRoot() == null) {
+            return;
+        }
+        int headId = getCurrentStructureRoot().getId();
+        for (NConnectedMirrorNode node : ring) {
+            embedding.nodeTypes().forEach(node::addNodeType);
+        }
+        for (NConnectedMirrorNode node : ring) {
+            node.updateChildRecordMergeStructureHead(embedding.headIds(),
+                    node.getChildren(StructureNode.StructureType.N_CONNECTED, headId));
+        }
+    }
+
+    /**
+     * Prüft, ob eine Größenänderung am Ende der ID-Reihenfolge ohne vollständigen Neuaufbau möglich ist: Die Root ist
+     * der Knoten mit der kleinsten ID und die Anzahl der Verbindungen je Knoten ist vor und nach der Änderung gleich.
+     *
+     * @param ring Alle Knoten aufsteigend nach ID
+     * @param newSize Anzahl der Knoten nach der Änderung
+     */
+    private boolean canRewireInPlace(List<NConnectedMirrorNode> ring, int newSize) {
+        if (ring.size() < 2 || newSize < 2 || ring.get(0) != getCurrentStructureRoot()) {
+            return false;
+        }
+        int shifts = possibleTargetLinks(ring.size());
+        return shifts == possibleTargetLinks(newSize) && ring.get(0).getChildren(
+                StructureNode.StructureType.N_CONNECTED, ring.get(0).getId()).size() == shifts;
+    }
+
+    private int possibleTargetLinks(int numNodes) {
+        return min(network.getNumTargetLinksPerMirror(), numNodes) - 1;
+    }
+
+    /**
+     * Verkabelt nur die Knoten, deren Kanten sich durch Anfügen oder Entfernen am Ende der ID-Reihenfolge ändern:
+     * die letzten Knoten vor {@code firstChanged}, deren Kanten umlaufen, und alle Knoten ab {@code firstChanged}.
+     * Das Ergebnis entspricht dem vollständigen Aufbau durch {@link #buildNConnectedStructure(List)}, der Aufwand
+     * hängt aber nur von der Änderung und der Anzahl der Verbindungen je Knoten ab.
+     *
+     * @param ring Alle Knoten nach der Änderung aufsteigend nach ID, beginnend mit der Root
+     * @param firstChanged Index des ersten neuen Knotens bzw. die neue Größe beim Entfernen
+     * @param embedding Typen und Heads einer umgebenden Struktur
+     */
+    private void rewireTail(List<NConnectedMirrorNode> ring, int firstChanged, Embedding embedding) {
+        int size = ring.size();
+        int shifts = possibleTargetLinks(size);
+        int headId = ring.get(0).getId();
+        int firstSource = Math.max(0, firstChanged - shifts);
+
+        for (int i = firstSource; i < size; i++) {
+            NConnectedMirrorNode node = ring.get(i);
+            Set<StructureNode> targets = new LinkedHashSet<>();
+            for (int shift = 1; shift <= shifts; shift++) {
+                targets.add(ring.get((i + shift) % size));
+            }
+            for (StructureNode child : node.getChildren(StructureNode.StructureType.N_CONNECTED, headId)) {
+                if (!targets.contains(child)) {
+                    node.removeChild(child);
+                }
+            }
+            Set<StructureNode> added = new HashSet<>();
+            for (StructureNode target : targets) {
+                if (!node.getChildren().contains(target)) {
+                    node.addChild(target, Set.of(StructureNode.StructureType.N_CONNECTED),
+                            Map.of(StructureNode.StructureType.N_CONNECTED, headId));
+                    added.add(target);
+                }
+            }
+            if (embedding.isEmbedded()) {
+                node.updateChildRecordMergeStructureHead(embedding.headIds(), added);
+            }
+        }
+
+        // Eltern wie beim vollständigen Aufbau: Vorgänger in ID-Reihenfolge, die Root hat keinen
+        for (int i = 0; i < Math.min(shifts, size); i++) {
+            ring.get(i).setParent(i == 0 ? null : ring.get(i - 1));
+        }
+        for (int i = Math.max(1, firstSource); i < size; i++) {
+            ring.get(i).setParent(ring.get(i - 1));
+        }
+    }
+
     /**
      * Entfernt einen Knoten und alle Verbindungen aus der N-Connected-Struktur.
      * Die Hilfsmethode für removeNodesFromStructure.
@@ -276,6 +427,11 @@ public class NConnectedTopology extends BuildAsSubstructure {
         return calculateNConnectedLinks(numMirrors, n.getNumTargetLinksPerMirror());
     }
 
+    @Override
+    protected int getNumTargetLinks(int nodeCount) {
+        return network == null ? 0 : calculateNConnectedLinks(nodeCount, network.getNumTargetLinksPerMirror());
+    }
+
 
     /**
      * Berechnet die erwartete Anzahl der Links, wenn die gegebene Aktion ausgeführt wird.
@@ -340,7 +496,7 @@ public class NConnectedTopology extends BuildAsSubstructure {
      */
     @Override
     protected NConnectedMirrorNode getMirrorNodeFromIterator() {
-        if (network.getMirrorCursor().hasNextMirror()) {
+        if (hasNextMirror()) {
             NConnectedMirrorNode node = (NConnectedMirrorNode) super.getMirrorNodeFromIterator();
             node.addNodeType(StructureNode.StructureType.N_CONNECTED);
 
@@ -429,4 +585,18 @@ public class NConnectedTopology extends BuildAsSubstructure {
         }
         return false;
     }
+
+    /**
+     * Jeder Knoten ist mit seinen {@code shifts} Nachfolgern im Ring verbunden und wird von ebenso vielen
+     * Vorgängern erreicht: zusammenhängend, n * shifts Kanten und überall der Grad 2 * shifts.
+     */
+    @Override
+    protected boolean checkStructureInvariants() {
+        TopologyInvariants invariants = getInvariants();
+        int nodeCount = invariants.getNodeCount();
+        if (nodeCount == 0 || network == null) return false;
+        int shifts = possibleTargetLinks(nodeCount);
+        return invariants.isConnected() && invariants.getEdgeCount() == nodeCount * shifts
+                && invariants.getNodeCountWithDegree(2 * shifts) == nodeCount;
+    }
 }
\ No newline at end of file
@@ -14,6 +14,7 @@ import org.lrdm.util.IDGenerator;
 
 import java.util.*;
 import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 /**
  * Schneeflocken-Topologie-Strategie mit hierarchischer Multi-Topologie-Architektur.
@@ -43,16 +44,73 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
     ) {
     }
 
+    /**
+     * Mirror-Verteilung in geschlossener Form: {@code ringMirrors} Mirrors bilden den Ring, jeder
+     * {@code ringBridgeGap}-te Ring-Index hostet eine externe Struktur. Jede externe Struktur erhält
+     * {@code baseExternalMirrors} Mirrors, die ersten {@code extraExternalMirrors} Hosts in Ring-Reihenfolge einen
+     * weiteren.
+     */
     public record MirrorDistributionResult(
             int ringMirrors,
-            List<Integer> externalStructureMirrors
+            int ringBridgeGap,
+            int baseExternalMirrors,
+            int extraExternalMirrors
     ) {
+        /**
+         * @return Anzahl der Ring-Indizes, die eine externe Struktur hosten
+         */
+        public int hostCount() {
+            return (ringMirrors + ringBridgeGap - 1) / ringBridgeGap;
+        }
+
+        /**
+         * @param ringIndex Index eines Ring-Knotens in ID-Reihenfolge
+         * @return Mirror-Anzahl der dort gehosteten externen Struktur, 0, wenn der Index keine hostet
+         */
+        public int externalMirrorsAt(int ringIndex) {
+            if (ringIndex < 0 || ringIndex >= ringMirrors || ringIndex % ringBridgeGap != 0) {
+                return 0;
+            }
+            return baseExternalMirrors + (ringIndex / ringBridgeGap < extraExternalMirrors ? 1 : 0);
+        }
+
+        /**
+         * @return Mirror-Anzahl der externen Struktur je Ring-Index als unveränderliche Sicht
+         */
+        public List<Integer> externalStructureMirrors() {
+            return new AbstractList<>() {
+                @Override
+                public Integer get(int index) {
+                    Objects.checkIndex(index, ringMirrors);
+                    return externalMirrorsAt(index);
+                }
+
+                @Override
+                public int size() {
+                    return ringMirrors;
+                }
+            };
+        }
+    }
+
+    /**
+     * Geplante externe Struktur: Host-Knoten auf dem Ring, Substruktur und ihre Mirror-Anzahl.
+     */
+    private record ExternalBuild(MirrorNode host, BuildAsSubstructure substructure, int nodeCount) {
     }
 
     SnowflakeProperties snowflakeProperties;
     NConnectedTopology internNConnectedTopologie = new NConnectedTopology();
     SubstructureFactory substructureFactory;
     List<StructureNode.StructureType> substructureRotation;
+    private boolean parallelBuild;
+    /** Ob Substruktur-Fabrik und Rotation die des Standardaufbaus sind; nur dann ist die Konfiguration exportierbar. */
+    private final boolean defaultSubstructures;
+    /** Knotenanzahl je eingegliederter Substruktur; Grundlage der zwischengespeicherten Link-Anzahl. */
+    private final Map<BuildAsSubstructure, Integer> substructureSizes = new HashMap<>();
+    private int cachedTargetLinks;
+    /** Links pro Mirror, für die {@link #cachedTargetLinks} gilt; -1, solange sie neu summiert werden muss. */
+    private int cachedTargetLinksPerMirror = -1;
 
     // ===== SCHNEEFLOCKEN-PARAMETER =====
     //PLANNED: private static final int RING_BRIDGE_GAP_ON_RING = 3; // Modulo für Bridge-Positionen
@@ -60,6 +118,7 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
     //PLANNED: private static final int RING_BRIDGE_LENGTH = 2; // Länge der Ring-zu-Ring-Brücken
     //PLANNED: private static final int MAX_RING_LAYERS = 3; // Maximale Anzahl Ring-Schichten/Ring im Ring
     private static final int MINIMAL_RING_SIZE = 3; // STATIC: Minimale Anzahl Mirrors pro Ring
+    static final int PARALLEL_BUILD_MIN_MIRRORS = 1024; // Ab so vielen externen Mirrors wird parallel geplant
     //USED in MirrorDistribution: private static final int EXTERN_TREE_MAX_DEPTH = 2; // Maximale Tiefe externer Bäume
     //PLANNED: private static final int BRIDGE_TO_EXTERN_LENGTH = 1; // Länge der Brücken zu externen Strukturen
     //USED in MirrorDistribution: private static final double EXTERN_STRUCTURE_RATIO = 0.4; // Anteil für externe Strukturen
@@ -95,6 +154,7 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
         this.snowflakeProperties = snowflakeProperties;
         this.substructureFactory = subFac;
         this.substructureRotation = rotation1;
+        this.defaultSubstructures = true;
     }
 
     public SnowflakeTopologyStrategy(SnowflakeProperties snowflakeProperties, SubstructureFactory substructureFactory,
@@ -103,55 +163,52 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
         this.snowflakeProperties = snowflakeProperties;
         this.substructureFactory = substructureFactory;
         this.substructureRotation = rotation;
+        this.defaultSubstructures = false;
     }
 
-    private MirrorDistributionResult calculateSnowflakeDistribution(int totalMirrors, SnowflakeProperties snowflakeProperties) {
+    /**
+     * Schaltet den parallelen Aufbau der externen Substrukturen ein oder aus.
+     * <p>
+     * Im parallelen Modus erhält jede externe Struktur vorab eine disjunkte Mirror-Teilmenge in genau der
+     * Reihenfolge, in der der sequentielle Aufbau die Mirrors aus dem Cursor ziehen würde, und einen eigenen Block
+     * von Knoten-IDs (siehe {@link BuildAsSubstructure#nextNodeId()}). Die Strukturen werden
+     * dann im Fork-Join-Pool geplant und anschließend in Ring-Reihenfolge eingegliedert, sodass das Ergebnis
+     * unabhängig von der Thread-Verteilung dem sequentiellen Aufbau gleicht. Unterhalb von
+     * {@value #PARALLEL_BUILD_MIN_MIRRORS} externen Mirrors wird weiterhin sequentiell gebaut.
+     *
+     * @param parallelBuild true, um externe Substrukturen parallel zu planen
+     */
+    public void setParallelBuild(boolean parallelBuild) {
+        this.parallelBuild = parallelBuild;
+    }
+
+    /**
+     * @return true, wenn externe Substrukturen parallel geplant werden
+     */
+    public boolean isParallelBuild() {
+        return parallelBuild;
+    }
+
+    /**
+     * Berechnet die Mirror-Verteilung in O(1).
+     * <p>
+     * Jede der {@code h} externen Strukturen erhält zunächst {@code externalMirrors * gap / ringMirrors} Mirrors,
+     * höchstens aber so viele, dass alle {@code h} in die {@code totalMirrors - ringMirrors} übrigen Mirrors passen.
+     * Der Rest wird reihum auf die Hosts in Ring-Reihenfolge verteilt.
+     */
+    static MirrorDistributionResult calculateSnowflakeDistribution(int totalMirrors, SnowflakeProperties snowflakeProperties) {
+        int gap = snowflakeProperties.ringBridgeGap;
         int ringMirrors = (int) (totalMirrors * (1 - snowflakeProperties.externalStructureRatio));
         int externalMirrors = (int) (totalMirrors * snowflakeProperties.externalStructureRatio);
         int restMirrors = totalMirrors - ringMirrors;
-        int externalEachTreeNumMirrors = (externalMirrors * snowflakeProperties.ringBridgeGap) / ringMirrors;
-
-        boolean externalMirrorCalculationDone = false;
-        List<Integer> externalStructureMirrorsDone = List.of();
-        int count;
-
-        while (!externalMirrorCalculationDone) {
-            count = 0;
-            List<Integer> externalStructureMirrors = new ArrayList<>(Collections.nCopies(ringMirrors, 0));
-            for (int i = 0; i < ringMirrors; i++) {
-                if (count % snowflakeProperties.ringBridgeGap == 0) {
-                    externalStructureMirrors.set(i, externalEachTreeNumMirrors);
-                    restMirrors -= externalEachTreeNumMirrors;
-                }
-                count++;
-            }
+        int externalEachTreeNumMirrors = (externalMirrors * gap) / ringMirrors;
 
-            if (restMirrors < 0) {
-                externalEachTreeNumMirrors--;
-                restMirrors = totalMirrors - ringMirrors;
-            } else {
-                externalMirrorCalculationDone = true;
-                externalStructureMirrorsDone = externalStructureMirrors;
-            }
-        }
-
-        count = 0;
         assert ringMirrors > 0 && externalMirrors > 0;
-        while (restMirrors > 0) {
-            // Index immer in Ring-Größe halten
-            int idx = count % ringMirrors;
-
-            // Fill external structures on the ring
-            if (idx % snowflakeProperties.ringBridgeGap == 0) {
-                externalStructureMirrorsDone.set(idx, externalStructureMirrorsDone.get(idx) + 1);
-                restMirrors--;
-            }
+        int hosts = (ringMirrors + gap - 1) / gap;
+        int base = Math.min(externalEachTreeNumMirrors, restMirrors / hosts);
+        int remaining = restMirrors - hosts * base;
 
-            // Einfache zyklische Inkrementierung
-            count++;
-        }
-
-        return new MirrorDistributionResult(ringMirrors, externalStructureMirrorsDone);
+        return new MirrorDistributionResult(ringMirrors, gap, base + remaining / hosts, remaining % hosts);
     }
 
     /**
@@ -179,6 +236,15 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
         internNConnectedTopologie.initializeInternalState(n);
     }
 
+    /**
+     * Setzt die Struktur zurück und verwirft die zwischengespeicherte Link-Anzahl.
+     */
+    @Override
+    public void resetInternalStateStructureOnly() {
+        super.resetInternalStateStructureOnly();
+        clearTargetLinkCache();
+    }
+
     /**
      * **PLANUNGSEBENE**: Erstellt die hierarchische Schneeflocken-Struktur.
      * Verwendet andere TopologyStrategy-Klassen als Bausteine.
@@ -194,6 +260,7 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
 
         // Berechne Mirror-Verteilung
         MirrorDistributionResult snowflakeResult = calculateSnowflakeDistribution(totalNodes, snowflakeProperties);
+        clearTargetLinkCache();
 
         // **SCHRITT 1**: Erstelle zentralen Ring und füge ihn in die Snowflake hinzu
         MirrorNode nConNodeRoot = internNConnectedTopologie.buildStructure(snowflakeResult.ringMirrors);
@@ -201,6 +268,7 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
         connectToStructureNodes(
                 nConNodeRoot,
                 internNConnectedTopologie);
+        recordSubstructureSize(internNConnectedTopologie);
         // **SCHRITT 2**: Erstelle im Wechsel gehostete Strukturen an einer host node
         List<MirrorNode> allNConNodes = internNConnectedTopologie.getAllStructureNodes().stream()
                 .sorted(Comparator.comparingInt(MirrorNode::getId))
@@ -209,18 +277,24 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
         int externStructureTypeIndex = 0;
         int ringSize = snowflakeResult.ringMirrors;
         int limit = Math.min(allNConNodes.size(), ringSize);
+        List<ExternalBuild> externalBuilds = new ArrayList<>();
         for (int i = 0; i < limit; i++) {
             MirrorNode nConNode = allNConNodes.get(i);
-            int nodeCount = snowflakeResult.externalStructureMirrors.get(i);
+            int nodeCount = snowflakeResult.externalMirrorsAt(i);
             if (i % snowflakeProperties.ringBridgeGap == 0 && nodeCount > 0) {
-                // build and interlink substructure with estimated mirrors
+                // Substrukturen nacheinander erzeugen, damit ihre IDs nicht von der Thread-Verteilung abhängen
                 BuildAsSubstructure localBuild = substructureFactory.createCycledAndInit(externStructureTypeIndex, substructureRotation, network);
                 externStructureTypeIndex++;
-                localBuild.buildStructure(nodeCount);
-                // Füge externe Struktur auch in die Snowflake für alle Strukturen und MirrorNode hierarchisch hinzu
-                connectToStructureNodes(nConNode, localBuild);
+                externalBuilds.add(new ExternalBuild(nConNode, localBuild, nodeCount));
             }
         }
+        // build substructures with estimated mirrors
+        buildExternalStructures(externalBuilds);
+        // Deterministisches Zusammenführen: externe Strukturen in Ring-Reihenfolge in die Snowflake eingliedern
+        for (ExternalBuild externalBuild : externalBuilds) {
+            connectToStructureNodes(externalBuild.host(), externalBuild.substructure());
+            recordSubstructureSize(externalBuild.substructure());
+        }
 
         return nConNodeRoot;
 
@@ -245,249 +319,370 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
          */
     }
 
+    /**
+     * Plant die externen Substrukturen; parallel, wenn {@link #setParallelBuild(boolean) eingeschaltet} und die
+     * Schneeflocke groß genug ist. Die externen Strukturen sind bis zum Eingliedern unabhängig voneinander.
+     */
+    private void buildExternalStructures(List<ExternalBuild> externalBuilds) {
+        int externalMirrors = externalBuilds.stream().mapToInt(ExternalBuild::nodeCount).sum();
+        if (!parallelBuild || externalBuilds.size() < 2 || externalMirrors < PARALLEL_BUILD_MIN_MIRRORS) {
+            externalBuilds.forEach(b -> b.substructure().buildStructure(b.nodeCount()));
+            return;
+        }
+        try {
+            // Disjunkte Teilmengen in der Reihenfolge zuteilen, in der der sequentielle Aufbau den Cursor abliefe
+            for (ExternalBuild externalBuild : externalBuilds) {
+                List<Mirror> subset = new ArrayList<>(externalBuild.nodeCount());
+                while (subset.size() < externalBuild.nodeCount() && network.getMirrorCursor().hasNextMirror()) {
+                    Mirror m = network.getMirrorCursor().getNextMirror();
+                    if (m != null) subset.add(m);
+                }
+                // Zuteilen reserviert auch die Knoten-IDs, daher auf diesem Thread und in Ring-Reihenfolge
+                externalBuild.substructure().assignMirrors(subset);
+            }
+            // Planung im gemeinsamen Fork-Join-Pool; jede Aufgabe berührt nur ihre Substruktur und ihre Mirrors
+            IntStream.range(0, externalBuilds.size()).parallel().forEach(i ->
+                    externalBuilds.get(i).substructure().buildStructure(externalBuilds.get(i).nodeCount()));
+        } finally {
+            externalBuilds.forEach(b -> b.substructure().assignMirrors(null));
+        }
+    }
+
     /**
      * **PLANUNGSEBENE**: Fügt neue Knoten zur Schneeflocken-Struktur hinzu.
-     * Delegiert an die entsprechenden Substrukturen über BuildAsSubstructure.nodeToSubstructure.
+     * Die neuen Mirrors werden wie bei den übrigen Strategien in Cursor-Reihenfolge gezogen und über
+     * {@link #resizeInPlace(int, int, List)} nur in die Teile eingebaut, deren Größe sich ändert.
      */
     @Override
     protected int addNodesToStructure(Set<Mirror> nodesToAdd) {
-        // Alle Strukturen finden und ausgliedern, dann Ring neu bauen und wieder eingliedern
-        // mit gleichzeitigem Anpassen des Hinzufügens und Löschens von nodes, zusätzliche port Strukturen hinten anfügen
         if (nodesToAdd.isEmpty() || getCurrentStructureRoot() == null) {
             return 0;
         }
-        int actuallyAdded = 0;
 
         validateParameters();
-        // **SCHRITT 1**: Ermittle derzeitige Anzahl der Knoten und Ports
-
-        // Berechne Mirror-Verteilung
         int oldTotalNodes = getAllStructureNodes().size();
         int totalNodes = oldTotalNodes + nodesToAdd.size();
-        MirrorDistributionResult oldSnowflakeResult = calculateSnowflakeDistribution(oldTotalNodes, snowflakeProperties);
-        MirrorDistributionResult snowflakeResult = calculateSnowflakeDistribution(totalNodes, snowflakeProperties);
-
         if (totalNodes < getMinimumRequiredMirrors()) {
             throw new IllegalArgumentException(
                     "Insufficient mirrors for snowflake: " + totalNodes + " < " + getMinimumRequiredMirrors()
             );
         }
 
-        // **SCHRITT 2**: Port Strukturen aus Ring herauslösen und speichern
-
-        // Der Ring ist nach ID sortiert, daher ist auch die Reihenfolge der Substrukturen nach ID sortierbar
-        List<SubstructureTuple> disconnectedSubstructures = disconnectAllStructuresFromRing();
+        List<Mirror> newMirrors = new ArrayList<>(nodesToAdd.size());
+        while (newMirrors.size() < nodesToAdd.size() && hasNextMirror()) {
+            Mirror m = nextMirror();
+            if (m != null) newMirrors.add(m);
+        }
+        int drawn = newMirrors.size();
+        resizeInPlace(oldTotalNodes, totalNodes, newMirrors);
 
-        // **SCHRITT 3**: Ring unter neuen Mirrors erstellen, dabei jede Struktur einzeln updaten und wieder eingliedern
+        // nicht eingebaute neue Mirrors bleiben ungeplant und werden beim Link-Abgleich heruntergefahren
+        return drawn - newMirrors.size();
+    }
 
-        // Ring selbst ausgliedern
-        if(this.getNodeToSubstructureMapping().containsValue(internNConnectedTopologie)){
-            internNConnectedTopologie.setCurrentStructureRoot(
-                    disconnectFromStructureNodes(getCurrentStructureRoot(), internNConnectedTopologie)
-            );
+    /**
+     * **PLANUNGSEBENE**: Entfernt Knoten aus der Schneeflocken-Struktur.
+     * Schrumpft über {@link #resizeInPlace(int, int, List)} nur die betroffenen externen Strukturen und das
+     * Ring-Ende; freigewordene Mirrors füllen zuerst wachsende Strukturen auf.
+     */
+    @Override
+    protected Set<MirrorNode> removeNodesFromStructure(int nodesToRemove) {
+        if (nodesToRemove <= 0 || getCurrentStructureRoot() == null) {
+            return new HashSet<>();
         }
 
-        // Ring update und structureNodes updaten
-        int ringDiff = snowflakeResult.ringMirrors - oldSnowflakeResult.ringMirrors;
-        if (ringDiff > 0) {
-            Set<Mirror> newNodes = nodeSubset(nodesToAdd, ringDiff);
-            internNConnectedTopologie.addNodesToStructure(newNodes);
-            actuallyAdded += newNodes.size();
-        }
-        if (ringDiff < 0) {
-            internNConnectedTopologie.removeNodesFromStructure(Math.abs(ringDiff));
+        validateParameters();
+        int oldTotalNodes = getAllStructureNodes().size();
+        int totalNodes = oldTotalNodes - nodesToRemove;
+        if (totalNodes < getMinimumRequiredMirrors()) {
+            throw new IllegalArgumentException(
+                    "Insufficient mirrors for snowflake: " + totalNodes + " < " + getMinimumRequiredMirrors()
+            );
         }
 
-        // Ring nach Update wieder eingliedern
-        connectToStructureNodes(
-                internNConnectedTopologie.getCurrentStructureRoot(),
-                internNConnectedTopologie);
-
-        // ermittle alle StructureNodes im Ring
-        // only get existing nodes from ring and analyze connected external structures by disconnecting them
-        List<MirrorNode> existingRingNodes = internNConnectedTopologie.getAllStructureNodes().stream()
-                .sorted(Comparator.comparing(MirrorNode::getId))
-                .toList();
+        return resizeInPlace(oldTotalNodes, totalNodes, new ArrayList<>());
+    }
 
-        // External Structure update
-        int externStructureTypeIndex = 0;
-        for (int i = 0; i < snowflakeResult.ringMirrors; i++) {
-            int newNodeCount = snowflakeResult.externalStructureMirrors.get(i);
-            if (newNodeCount == 0) {
+    /**
+     * Passt die Schneeflocke lokal an eine neue Gesamtgröße an, ohne die übrigen Strukturen vom Ring zu lösen.
+     * <p>
+     * Der Ring ist nach ID sortiert und wächst bzw. schrumpft nur an seinem Ende, daher behalten alle bestehenden
+     * Ring-Knoten ihren Index und ihre externen Strukturen. Verglichen mit der alten Mirror-Verteilung werden nur
+     * <ol>
+     *   <li>externe Strukturen, deren Größe sich ändert oder deren Host entfällt, einzeln aus- und wieder
+     *   eingegliedert,</li>
+     *   <li>das Ring-Ende in-place verkabelt (siehe {@link NConnectedTopology}),</li>
+     *   <li>neue externe Strukturen an neuen Host-Indizes angebaut.</li>
+     * </ol>
+     * Mirrors aus schrumpfenden oder entfallenden Strukturen werden vor neuen Mirrors für wachsende Strukturen
+     * wiederverwendet, statt sie herunterzufahren und zu ersetzen. Unveränderte Strukturen und ihre Brücken-Links
+     * bleiben unberührt.
+     *
+     * @param oldTotalNodes Aktuelle Anzahl der Knoten
+     * @param totalNodes Angestrebte Anzahl der Knoten
+     * @param newMirrors Neue Mirrors aufsteigend nach ID; eingebaute Mirrors werden aus der Liste entfernt
+     * @return Entfernte Knoten, deren Mirrors nicht wiederverwendet wurden
+     */
+    private Set<MirrorNode> resizeInPlace(int oldTotalNodes, int totalNodes, List<Mirror> newMirrors) {
+        MirrorDistributionResult oldSnowflakeResult = calculateSnowflakeDistribution(oldTotalNodes, snowflakeProperties);
+        MirrorDistributionResult snowflakeResult = calculateSnowflakeDistribution(totalNodes, snowflakeProperties);
+        int gap = snowflakeProperties.ringBridgeGap;
+
+        List<MirrorNode> ringNodes = sortedRingNodes();
+        Map<Integer, SubstructureTuple> externals = externalStructuresByRingIndex(ringNodes);
+        List<MirrorNode> released = new ArrayList<>();
+
+        // **SCHRITT 1**: Nur geänderte externe Strukturen ausgliedern; schrumpfende und entfallende freigeben
+        Map<Integer, Integer> growing = new TreeMap<>();
+        for (Map.Entry<Integer, SubstructureTuple> entry : externals.entrySet()) {
+            int i = entry.getKey();
+            int target = snowflakeResult.externalMirrorsAt(i);
+            if (i < oldSnowflakeResult.ringMirrors() && target == oldSnowflakeResult.externalMirrorsAt(i)) {
                 continue;
             }
-            // **SCHRITT 4**: Füge neue nodes zu Port strukturen hinzu und/oder erstelle neue Port strukturen
-            // Sind die Muster aus der alten kleinen Liste verbraucht oder die kürzere Liste zu ende, Wechsel auf Generieren
-            if (i > oldSnowflakeResult.ringMirrors || disconnectedSubstructures.isEmpty()) {
-                // Index übersteigt alte Ring-Struktur: neue externe Strukturen erstellen und eingliedern
-                if (i % snowflakeProperties.ringBridgeGap == 0 && newNodeCount > 0) {
-                    MirrorNode current = existingRingNodes.get(i);
-
-                    BuildAsSubstructure localBuild = substructureFactory.createCycledAndInit(externStructureTypeIndex, substructureRotation, network);
-                    externStructureTypeIndex++;
-                    localBuild.initializeInternalState(network);
-
-                    localBuild.buildStructure(newNodeCount);
-                    // Externe Struktur eingliedern
-                    connectToStructureNodes(
-                            current,
-                            localBuild);
-                    actuallyAdded += newNodeCount;
-                }
+            BuildAsSubstructure substructure = entry.getValue().substructure();
+            disconnectFromStructureNodes(entry.getValue().node(), substructure);
+            int size = substructure.getAllStructureNodes().size();
+            if (target == 0) {
+                released.addAll(substructure.getAllStructureNodes());
+                forgetSubstructureSize(substructure);
+            } else if (target > size) {
+                growing.put(i, target - size);
             } else {
-                // Wenn Muster aktiv wird, nehme erste nicht verbundene Struktur aus der Liste, update und eingliedern
-                if (i % snowflakeProperties.ringBridgeGap == 0 && newNodeCount > 0) {
-                    MirrorNode current = existingRingNodes.get(i);
-                    SubstructureTuple strucTup = disconnectedSubstructures.stream().findFirst().orElse(null);
-                    disconnectedSubstructures.remove(strucTup);
-
-                    int externNodesDiff = newNodeCount - oldSnowflakeResult.externalStructureMirrors.get(i);
-                    if (externNodesDiff > 0) {
-                        Set<Mirror> newNodes = nodeSubset(nodesToAdd, externNodesDiff);
-                        strucTup.substructure().addNodesToStructure(newNodes);
-                        actuallyAdded += newNodes.size();
-                    }
-                    if (externNodesDiff < 0) {
-                        Set<MirrorNode> reuse = strucTup.substructure().removeNodesFromStructure(Math.abs(externNodesDiff));
-                        Set<Mirror> extractedMirrors = new HashSet<>();
-                        for(MirrorNode m : reuse){
-                            extractedMirrors.add(m.getMirror());
-                        }
-                        extractedMirrors.forEach(m -> m.shutdown(network.getCurrentTimeStep()+1));
-                        nodesToAdd.addAll(network.getMirrorCursor().createMirrors(extractedMirrors.size(), network.getCurrentTimeStep()+1));
-                    }
+                released.addAll(substructure.removeNodesFromStructure(size - target));
+                connectToStructureNodes(ringNodes.get(i), substructure);
+                recordSubstructureSize(substructure);
+            }
+        }
 
-                    // Externe Struktur wieder eingliedern
-                    connectToStructureNodes(
-                            current,
-                            strucTup.substructure());
-                    disconnectedSubstructures.remove(strucTup);
-                    externStructureTypeIndex++;
+        // **SCHRITT 2**: Ring nur an seinem Ende verändern
+        int ringDiff = snowflakeResult.ringMirrors() - ringNodes.size();
+        if (ringDiff > 0) {
+            List<Mirror> ringMirrors = take(newMirrors, ringDiff);
+            internNConnectedTopologie.assignMirrors(ringMirrors);
+            try {
+                internNConnectedTopologie.addNodesToStructure(new HashSet<>(ringMirrors));
+            } finally {
+                internNConnectedTopologie.assignMirrors(null);
+            }
+            adoptStructureNodes(internNConnectedTopologie.getAllStructureNodes());
+            ringNodes = sortedRingNodes();
+        }
+        if (ringDiff < 0) {
+            Set<MirrorNode> removedRingNodes = internNConnectedTopologie.removeNodesFromStructure(-ringDiff);
+            removedRingNodes.forEach(this::removeFromStructureNodes);
+            released.addAll(removedRingNodes);
+            ringNodes = sortedRingNodes();
+        }
+        recordSubstructureSize(internNConnectedTopologie);
+
+        // **SCHRITT 3**: Wachsende Strukturen auffüllen und neue Host-Indizes bestücken, freigegebene Mirrors zuerst
+        Map<Mirror, MirrorNode> releasedByMirror = new IdentityHashMap<>();
+        released.forEach(node -> releasedByMirror.put(node.getMirror(), node));
+        List<Mirror> pool = new ArrayList<>(releasedByMirror.keySet());
+        pool.sort(Comparator.comparingInt(Mirror::getID));
+        pool.addAll(newMirrors);
+        newMirrors.clear();
+
+        int limit = Math.min(snowflakeResult.ringMirrors(), ringNodes.size());
+        for (int i = 0; i < limit; i += gap) {
+            int target = snowflakeResult.externalMirrorsAt(i);
+            MirrorNode host = ringNodes.get(i);
+            if (growing.containsKey(i)) {
+                BuildAsSubstructure substructure = externals.get(i).substructure();
+                List<Mirror> mirrors = take(pool, growing.get(i));
+                substructure.assignMirrors(mirrors);
+                try {
+                    substructure.addNodesToStructure(new HashSet<>(mirrors));
+                } finally {
+                    substructure.assignMirrors(null);
+                }
+                connectToStructureNodes(host, substructure);
+                recordSubstructureSize(substructure);
+            } else if (!externals.containsKey(i) && target > 0 && !pool.isEmpty()) {
+                BuildAsSubstructure localBuild = substructureFactory.createCycledAndInit(i / gap, substructureRotation, network);
+                List<Mirror> mirrors = take(pool, target);
+                localBuild.assignMirrors(mirrors);
+                try {
+                    localBuild.buildStructure(mirrors.size());
+                } finally {
+                    localBuild.assignMirrors(null);
+                }
+                if (localBuild.getCurrentStructureRoot() != null) {
+                    connectToStructureNodes(host, localBuild);
+                    recordSubstructureSize(localBuild);
+                } else {
+                    pool.addAll(0, mirrors);
                 }
             }
         }
 
-        return actuallyAdded;
+        // Nicht verbrauchte neue Mirrors an den Aufrufer zurückgeben, nicht wiederverwendete Knoten sind entfernt
+        Set<MirrorNode> removed = new HashSet<>();
+        for (Mirror m : pool) {
+            MirrorNode node = releasedByMirror.get(m);
+            if (node != null) {
+                removed.add(node);
+            } else {
+                newMirrors.add(m);
+            }
+        }
+        return removed;
     }
 
-    private List<SubstructureTuple> disconnectAllStructuresFromRing() {
-        List<SubstructureTuple> connectedStructures =
-                new ArrayList<>(getAllSubstructureTuples().stream()
-                        .sorted(Comparator.comparingInt(SubstructureTuple::getNodeId)).toList());
-
-        List<SubstructureTuple> disconnectedSubstructures = new ArrayList<>();
+    /**
+     * @return Die Knoten des zentralen Rings aufsteigend nach ID, also in Index-Reihenfolge der Verteilung
+     */
+    private List<MirrorNode> sortedRingNodes() {
+        return internNConnectedTopologie.getAllStructureNodes().stream()
+                .sorted(Comparator.comparingInt(MirrorNode::getId))
+                .toList();
+    }
 
-        for (SubstructureTuple substructureTuple : connectedStructures) {
-            // Disconnect entfernt auch alle StructureNodes von unserer Struktur
-            MirrorNode disconnectedRoot = disconnectFromStructureNodes(substructureTuple.node(), substructureTuple.substructure());
-            // ring is managed separately from external structures, so we can add them to the snowflake
-            if (disconnectedRoot == null) {
-                disconnectedSubstructures.add(substructureTuple);
-            }
-            if (substructureTuple.substructure() == internNConnectedTopologie) {
-                continue;
+    /**
+     * Ordnet jede eingegliederte externe Struktur dem Ring-Index ihres Hosts zu.
+     */
+    private Map<Integer, SubstructureTuple> externalStructuresByRingIndex(List<MirrorNode> ringNodes) {
+        Map<MirrorNode, Integer> ringIndex = new HashMap<>();
+        for (int i = 0; i < ringNodes.size(); i++) {
+            ringIndex.put(ringNodes.get(i), i);
+        }
+        Map<Integer, SubstructureTuple> externals = new TreeMap<>();
+        for (SubstructureTuple tuple : getAllSubstructureTuples()) {
+            if (tuple.substructure() == internNConnectedTopologie) continue;
+            Integer i = ringIndex.get(tuple.node().getParent());
+            if (i != null) {
+                externals.put(i, tuple);
             }
-            disconnectedSubstructures.add(new SubstructureTuple(disconnectedRoot, substructureTuple.substructure()));
         }
-        connectedStructures.clear();
+        return externals;
+    }
 
-        return disconnectedSubstructures;
+    // ===== ZWISCHENGESPEICHERTE LINK-ANZAHL =====
+
+    /**
+     * Vergisst alle Substruktur-Größen, etwa vor einem Neuaufbau.
+     */
+    private void clearTargetLinkCache() {
+        substructureSizes.clear();
+        cachedTargetLinks = 0;
+        cachedTargetLinksPerMirror = -1;
     }
 
-    private Set<Mirror> nodeSubset(Set<Mirror> inputSubset, int take) {
-        Set<Mirror> newNodes = new HashSet<>();
-        for (int i = 0; i < take; i++) {
-            Mirror m = inputSubset.stream().findFirst().orElse(null);
-            newNodes.add(m);
-            inputSubset.remove(m);
+    /**
+     * Übernimmt die aktuelle Größe einer eingegliederten Substruktur und passt die Link-Anzahl um die Differenz an.
+     */
+    private void recordSubstructureSize(BuildAsSubstructure substructure) {
+        int nodeCount = substructure.getAllStructureNodes().size();
+        Integer previous = substructureSizes.put(substructure, nodeCount);
+        if (cachedTargetLinksPerMirror >= 0) {
+            cachedTargetLinks += substructureTargetLinks(substructure, nodeCount)
+                    - (previous == null ? 0 : substructureTargetLinks(substructure, previous));
         }
-        return newNodes;
     }
 
     /**
-     * **PLANUNGSEBENE**: Entfernt Knoten aus der Schneeflocken-Struktur.
-     * Entfernt zuerst aus externen Bäumen, dann aus äußeren Ringen.
+     * Entfernt eine ausgegliederte Substruktur aus der Link-Anzahl.
      */
-    @Override
-    protected Set<MirrorNode> removeNodesFromStructure(int nodesToRemove) {
-        if (nodesToRemove <= 0 || getCurrentStructureRoot() == null) {
-            return new HashSet<>();
+    private void forgetSubstructureSize(BuildAsSubstructure substructure) {
+        Integer previous = substructureSizes.remove(substructure);
+        if (previous != null && cachedTargetLinksPerMirror >= 0) {
+            cachedTargetLinks -= substructureTargetLinks(substructure, previous);
         }
-        Set<MirrorNode> actuallyRemoved = new HashSet<>();
-
-        validateParameters();
-        // **SCHRITT 1**: Ermittle derzeitige Anzahl der Knoten und Ports
+    }
 
-        // Berechne Mirror-Verteilung
-        int oldTotalNodes = getAllStructureNodes().size();
-        int totalNodes = oldTotalNodes - nodesToRemove;
-        MirrorDistributionResult oldSnowflakeResult = calculateSnowflakeDistribution(oldTotalNodes, snowflakeProperties);
-        MirrorDistributionResult snowflakeResult = calculateSnowflakeDistribution(totalNodes, snowflakeProperties);
+    /**
+     * Links einer Substruktur mit gegebener Größe; externe Strukturen zählen ihre Brücke zum Ring mit.
+     */
+    private int substructureTargetLinks(BuildAsSubstructure substructure, int nodeCount) {
+        int links = substructure.getNumTargetLinks(nodeCount);
+        return substructure == internNConnectedTopologie ? links : links + 1;
+    }
 
-        if (totalNodes < getMinimumRequiredMirrors()) {
-            throw new IllegalArgumentException(
-                    "Insufficient mirrors for snowflake: " + totalNodes + " < " + getMinimumRequiredMirrors()
-            );
+    /**
+     * Die Ring-Links hängen von den Links pro Mirror ab; ändern diese sich, wird einmal über alle Substrukturen
+     * summiert, sonst ist die zwischengespeicherte Summe aktuell.
+     */
+    private int cachedTargetLinks(int linksPerMirror) {
+        if (substructureSizes.isEmpty() && getCurrentStructureRoot() != null) {
+            // z. B. nach einem importierten Plan: Größen einmalig aus der Knoten-Zuordnung übernehmen
+            new HashSet<>(getNodeToSubstructureMapping().values()).stream()
+                    .filter(substructure -> substructure != this)
+                    .forEach(substructure -> substructureSizes.put(substructure,
+                            substructure.getAllStructureNodes().size()));
+            cachedTargetLinksPerMirror = -1;
         }
-
-        // **SCHRITT 2**: Vergleiche derzeitige Struktur und dokumentiere die Menge an ports.
-        // Der Ring ist nach ID sortiert, daher ist auch die Reihenfolge der Substrukturen nach ID sortierbar
-        List<SubstructureTuple> disconnectedSubstructures = disconnectAllStructuresFromRing();
-
-        // **SCHRITT 3**: Schrumpfe den Ring und entferne Port Strukturen bei Bedarf, updates an bestehende Strukturen
-
-        // Ring selbst ausgliedern
-        if(this.getNodeToSubstructureMapping().containsValue(internNConnectedTopologie)){
-            disconnectFromStructureNodes(internNConnectedTopologie.getCurrentStructureRoot(), internNConnectedTopologie);
+        if (cachedTargetLinksPerMirror != linksPerMirror) {
+            int total = 0;
+            for (Map.Entry<BuildAsSubstructure, Integer> entry : substructureSizes.entrySet()) {
+                total += substructureTargetLinks(entry.getKey(), entry.getValue());
+            }
+            cachedTargetLinks = total;
+            cachedTargetLinksPerMirror = linksPerMirror;
         }
+        return cachedTargetLinks;
+    }
 
-        // Ring update und structureNodes updaten
-        int ringDiff = snowflakeResult.ringMirrors - oldSnowflakeResult.ringMirrors;
-        if (ringDiff < 0) {
-            actuallyRemoved.addAll(internNConnectedTopologie.removeNodesFromStructure(Math.abs(ringDiff)));
-        }
+    /**
+     * Entnimmt bis zu {@code count} Mirrors vom Anfang der Liste.
+     */
+    private static List<Mirror> take(List<Mirror> mirrors, int count) {
+        List<Mirror> head = mirrors.subList(0, Math.min(count, mirrors.size()));
+        List<Mirror> taken = new ArrayList<>(head);
+        head.clear();
+        return taken;
+    }
 
-        // Ring nach Update wieder eingliedern
-        connectToStructureNodes(
-                internNConnectedTopologie.getCurrentStructureRoot(),
-                internNConnectedTopologie);
+    /**
+     * Konfiguration aus Mirror-Verteilung und Bauweise. Eine eigene Substruktur-Fabrik oder Rotation lässt sich
+     * nicht exportieren.
+     *
+     * @return Verteilungsparameter und Parallel-Schalter oder {@code null} bei eigener Substruktur-Fabrik
+     */
+    @Override
+    public List<Object> getConfiguration() {
+        if (!defaultSubstructures) return null;
+        return List.of(snowflakeProperties.externalStructureRatio(), snowflakeProperties.ringBridgeGap(), parallelBuild);
+    }
 
-        // **SCHRITT 4**: Externe Strukturen am Ring neu ausrichten
-        // ermittle alle StructureNodes im Ring
-        // only get existing nodes from ring and analyze connected external structures by disconnecting them
-        List<MirrorNode> existingRingNodes = internNConnectedTopologie.getAllStructureNodes().stream()
-                .sorted(Comparator.comparing(MirrorNode::getId))
-                .toList();
+    @Override
+    public void applyConfiguration(List<Object> configuration) {
+        snowflakeProperties = new SnowflakeProperties(
+                configurationValue(configuration, 3, 0, Double.class),
+                configurationValue(configuration, 3, 1, Integer.class));
+        parallelBuild = configurationValue(configuration, 3, 2, Boolean.class);
+    }
 
-        // External Structure update
-        for (int i = 0; i < snowflakeResult.ringMirrors; i++) {
-            int newNodeCount = snowflakeResult.externalStructureMirrors.get(i);
-            // **SCHRITT 4**: Entferne geplante node Strukutren wenn das Muster aktiv wird
-            if (i % snowflakeProperties.ringBridgeGap == 0) {
-                MirrorNode current = existingRingNodes.get(i);
-                SubstructureTuple strucTup = disconnectedSubstructures.stream().findFirst().orElse(null);
-                assert strucTup != null;
-                disconnectedSubstructures.remove(strucTup);
-
-                int externNodesDiff = newNodeCount - oldSnowflakeResult.externalStructureMirrors.get(i);
-                if (externNodesDiff < 0) {
-                    actuallyRemoved.addAll(strucTup.substructure().removeNodesFromStructure(Math.abs(externNodesDiff)));
-                }
+    /**
+     * Snowflake-Pläne bestehen aus Ring und externen Substrukturen und werden nicht gecacht.
+     */
+    @Override
+    protected boolean isPlanCacheable() {
+        return false;
+    }
 
-                // Externe Struktur wieder eingliedern
-                connectToStructureNodes(
-                        current,
-                        strucTup.substructure());
-                disconnectedSubstructures.remove(strucTup);
-            }
-        }
+    /**
+     * Die Schneeflocke verfolgt keine eigenen Invarianten, sie setzt sich vollständig aus Substrukturen zusammen.
+     */
+    @Override
+    protected boolean isTrackingInvariants() {
+        return false;
+    }
 
-        // Lösche alle übrigen überflüssigen externen Strukturen, da sie nicht mehr benötigt oder geupdated werden
-        for (SubstructureTuple subTup : disconnectedSubstructures) {
-            actuallyRemoved.addAll(subTup.substructure().getAllStructureNodes());
+    /**
+     * Gültig, wenn die Invarianten des Rings und aller eingegliederten externen Strukturen erfüllt sind.
+     */
+    @Override
+    protected boolean checkStructureInvariants() {
+        if (substructureSizes.isEmpty()) {
+            return validateTopology();
         }
-
-        return actuallyRemoved;
+        for (BuildAsSubstructure substructure : substructureSizes.keySet()) {
+            if (!substructure.checkStructureInvariants()) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
@@ -513,21 +708,13 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
 
     /**
      * Berechnet die Gesamt-Link-Anzahl für die Schneeflocken-Struktur.
-     * Summiert Links aus allen Substrukturen.
+     * Summiert die Links des Rings und jeder externen Struktur samt Brücke, jeweils nach ihrer eigenen Größe.
+     * Die Summe wird bei jeder Strukturänderung nachgeführt, der Aufruf je Tick ist daher konstant.
      */
     @Override
     public int getNumTargetLinks(Network n) {
         if (n == null) return 0;
-
-        int totalLinks = 0;
-
-        // Summiere Links aus allen Substrukturen
-        // take all substructures and the ring into account
-        for (BuildAsSubstructure substructure : getNodeToSubstructureMapping().values()) {
-            totalLinks += substructure.getNumTargetLinks(n);
-        }
-
-        return totalLinks;
+        return cachedTargetLinks(n.getNumTargetLinksPerMirror());
     }
 
     /**
@@ -577,7 +764,7 @@ public class SnowflakeTopologyStrategy extends BuildAsSubstructure {
                                 network,
                                 IDGenerator.getInstance().getNextID(),
                                 mirrorChange.getTime(),
-                                newSnowflakeEstimateResult.externalStructureMirrors().get(i)
+                                newSnowflakeEstimateResult.externalMirrorsAt(i)
                         );
                         outlinks += subStructure.getPredictedNumTargetLinks(subMirrorChange);
                     }
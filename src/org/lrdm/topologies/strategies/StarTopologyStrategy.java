@@ -10,6 +10,7 @@ import org.lrdm.effectors.TopologyChange;
 import org.lrdm.topologies.node.MirrorNode;
 import org.lrdm.topologies.node.StarMirrorNode;
 import org.lrdm.topologies.node.StructureNode;
+import org.lrdm.topologies.validators.TopologyInvariants;
 
 import java.util.*;
 
@@ -67,7 +68,7 @@ public class StarTopologyStrategy extends BuildAsSubstructure {
         // Erstelle Blätter für den Stern
         List<StarMirrorNode> leaves = new ArrayList<>();
         for (int i = 1; i < totalNodes; i++) {
-            if (!network.getMirrorCursor().hasNextMirror()) break;
+            if (!hasNextMirror()) break;
             StarMirrorNode leaf = getMirrorNodeFromIterator();
             leaves.add(leaf);
             addToStructureNodes(leaf);
@@ -147,6 +148,17 @@ public class StarTopologyStrategy extends BuildAsSubstructure {
         return isStarIntact();
     }
 
+    /**
+     * Ein Stern ist ein Baum, in dem genau ein Zentrum mit allen übrigen Knoten verbunden ist.
+     */
+    @Override
+    protected boolean checkStructureInvariants() {
+        TopologyInvariants invariants = getInvariants();
+        int nodeCount = invariants.getNodeCount();
+        return nodeCount >= Math.max(1, minStarSize) && invariants.isTree()
+                && (nodeCount <= 2 || invariants.getNodeCountWithDegree(nodeCount - 1) == 1);
+    }
+
     /**
      * Factory-Methode für Stern-spezifische MirrorNode-Erstellung.
      * Überschreibt BuildAsSubstructure für die StarMirrorNode-Erstellung.
@@ -159,6 +171,16 @@ public class StarTopologyStrategy extends BuildAsSubstructure {
         return new StarMirrorNode(mirror.getID(), mirror);
     }
 
+    @Override
+    protected List<Object> getPlanParameters() {
+        return List.of(minStarSize);
+    }
+
+    @Override
+    public void applyConfiguration(List<Object> configuration) {
+        minStarSize = configurationValue(configuration, 1, 0, Integer.class);
+    }
+
     // ===== TOPOLOGY STRATEGY METHODEN =====
 
     /**
@@ -174,6 +196,11 @@ public class StarTopologyStrategy extends BuildAsSubstructure {
         return calculateExpectedLinks(n.getNumMirrors());
     }
 
+    @Override
+    protected int getNumTargetLinks(int nodeCount) {
+        return calculateExpectedLinks(nodeCount);
+    }
+
     /**
      * Berechnet die erwartete Anzahl der Links, wenn die gegebene Aktion ausgeführt wird.
      * Stern-spezifische Implementierung basierend auf den drei Action-Typen.
@@ -322,7 +349,7 @@ public class StarTopologyStrategy extends BuildAsSubstructure {
      */
     @Override
     protected StarMirrorNode getMirrorNodeFromIterator() {
-        if (network.getMirrorCursor().hasNextMirror()) {
+        if (hasNextMirror()) {
             StarMirrorNode node = (StarMirrorNode) super.getMirrorNodeFromIterator();
             node.addNodeType(StructureNode.StructureType.STAR);
             return node;
@@ -0,0 +1,162 @@
+package org.lrdm.topologies.strategies;
+
+import org.lrdm.topologies.node.StructureNode.StructureType;
+
+import java.util.*;
+
+/**
+ * Abstrakte, mirror-unabhängige Form eines StructureNode-Plans.
+ * <p>
+ * Knoten werden über ihren Index adressiert: Index 0 ist der Root, alle weiteren Knoten folgen
+ * aufsteigend nach Mirror-ID. Gespeichert werden Eltern- und Kind-Index-Arrays sowie die
+ * Kanten-Annotationen (Strukturtypen, Head-Indizes), Knotentypen, Head-Status und Kind-Limits,
+ * sodass {@link BuildAsSubstructure} den Plan ohne erneute Planung auf konkrete Mirrors abbilden kann.
+ *
+ * @param parent      Eltern-Index je Knoten, {@code -1} für keinen Elternknoten
+ * @param children    Kind-Indizes je Knoten
+ * @param edgeTypes   Strukturtypen je Kind-Kante (parallel zu {@code children})
+ * @param edgeHeads   Head-Index je Strukturtyp und Kind-Kante (parallel zu {@code children})
+ * @param nodeTypes   Knotentypen je Knoten
+ * @param headTypes   Strukturtypen, für die der Knoten Head ist
+ * @param maxChildren maximale Kinderanzahl je Knoten
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ * @see TopologyPlanCache
+ */
+public record TopologyPlan(int[] parent,
+                           int[][] children,
+                           List<List<Set<StructureType>>> edgeTypes,
+                           List<List<Map<StructureType, Integer>>> edgeHeads,
+                           List<Set<StructureType>> nodeTypes,
+                           List<Set<StructureType>> headTypes,
+                           int[] maxChildren) {
+
+    /**
+     * Übernimmt tiefe, unveränderliche Kopien aller Komponenten, sodass ein gecachter Plan weder über
+     * die übergebenen noch über die zurückgegebenen Arrays und Listen verändert werden kann.
+     */
+    public TopologyPlan {
+        parent = parent.clone();
+        children = Arrays.stream(children).map(int[]::clone).toArray(int[][]::new);
+        edgeTypes = edgeTypes.stream().map(edges -> edges.stream().map(Set::copyOf).toList()).toList();
+        edgeHeads = edgeHeads.stream().map(edges -> edges.stream().map(Map::copyOf).toList()).toList();
+        nodeTypes = nodeTypes.stream().map(Set::copyOf).toList();
+        headTypes = headTypes.stream().map(Set::copyOf).toList();
+        maxChildren = maxChildren.clone();
+    }
+
+    /**
+     * @return Kopie der Eltern-Indizes
+     */
+    @Override
+    public int[] parent() {
+        return parent.clone();
+    }
+
+    /**
+     * @return tiefe Kopie der Kind-Indizes
+     */
+    @Override
+    public int[][] children() {
+        return Arrays.stream(children).map(int[]::clone).toArray(int[][]::new);
+    }
+
+    /**
+     * @return Kopie der Kind-Limits
+     */
+    @Override
+    public int[] maxChildren() {
+        return maxChildren.clone();
+    }
+
+    /**
+     * @param node Index des Knotens
+     * @return Eltern-Index des Knotens, {@code -1} für keinen Elternknoten
+     */
+    public int parent(int node) {
+        return parent[node];
+    }
+
+    /**
+     * @param node Index des Knotens
+     * @return Kopie der Kind-Indizes des Knotens
+     */
+    public int[] children(int node) {
+        return children[node].clone();
+    }
+
+    /**
+     * @param node Index des Knotens
+     * @return Anzahl der Kinder des Knotens
+     */
+    public int childCount(int node) {
+        return children[node].length;
+    }
+
+    /**
+     * @param node  Index des Knotens
+     * @param child Position des Kindes, zwischen 0 und {@link #childCount(int)}
+     * @return Index des Kindes
+     */
+    public int child(int node, int child) {
+        return children[node][child];
+    }
+
+    /**
+     * @param node Index des Knotens
+     * @return maximale Kinderanzahl des Knotens
+     */
+    public int maxChildren(int node) {
+        return maxChildren[node];
+    }
+
+    /**
+     * @return Anzahl der Knoten im Plan
+     */
+    public int size() {
+        return parent.length;
+    }
+
+    /**
+     * @return Anzahl der geplanten (gerichteten) Kind-Kanten
+     */
+    public int numEdges() {
+        int edges = 0;
+        for (int[] c : children) edges += c.length;
+        return edges;
+    }
+
+    /**
+     * Vergleicht die Array-Komponenten nach Inhalt statt nach Identität.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TopologyPlan other)) return false;
+        return Arrays.equals(parent, other.parent)
+                && Arrays.deepEquals(children, other.children)
+                && edgeTypes.equals(other.edgeTypes)
+                && edgeHeads.equals(other.edgeHeads)
+                && nodeTypes.equals(other.nodeTypes)
+                && headTypes.equals(other.headTypes)
+                && Arrays.equals(maxChildren, other.maxChildren);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(edgeTypes, edgeHeads, nodeTypes, headTypes);
+        result = 31 * result + Arrays.hashCode(parent);
+        result = 31 * result + Arrays.deepHashCode(children);
+        return 31 * result + Arrays.hashCode(maxChildren);
+    }
+
+    @Override
+    public String toString() {
+        return "TopologyPlan[parent=" + Arrays.toString(parent)
+                + ", children=" + Arrays.deepToString(children)
+                + ", edgeTypes=" + edgeTypes
+                + ", edgeHeads=" + edgeHeads
+                + ", nodeTypes=" + nodeTypes
+                + ", headTypes=" + headTypes
+                + ", maxChildren=" + Arrays.toString(maxChildren) + "]";
+    }
+}
@@ -0,0 +1,91 @@
+package org.lrdm.topologies.strategies;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LRU-Cache für {@link TopologyPlan}s einer Strategie.
+ * <p>
+ * Schlüssel ist (Strategietyp, Strategieparameter, Knotenanzahl, Links pro Mirror). Oszilliert die
+ * Mirror-Anzahl zwischen wenigen Werten, wird der Plan für bekannte Größen nur noch auf die
+ * konkreten Mirrors abgebildet, anstatt ihn über {@code buildStructure}, {@code addNodesToStructure}
+ * bzw. {@code removeNodesFromStructure} neu zu berechnen.
+ *
+ * @author Benjamin-Elias Probst <benjamineliasprobst@gmail.com>
+ */
+public class TopologyPlanCache {
+
+    /** Standardanzahl gespeicherter Pläne pro Strategie. */
+    public static final int DEFAULT_CAPACITY = 32;
+
+    /**
+     * Cache-Schlüssel eines Plans.
+     *
+     * @param strategyType   Klasse der Strategie
+     * @param parameters     planungsrelevante Strategieparameter
+     * @param nodeCount      Anzahl der Knoten
+     * @param linksPerMirror Ziel-Links pro Mirror des Netzwerks
+     */
+    public record Key(Class<?> strategyType, List<Object> parameters, int nodeCount, int linksPerMirror) {
+        public Key {
+            parameters = List.copyOf(parameters);
+        }
+    }
+
+    private final Map<Key, TopologyPlan> plans;
+    private int hits;
+    private int misses;
+
+    public TopologyPlanCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TopologyPlanCache(int capacity) {
+        this.plans = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, TopologyPlan> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /**
+     * @param key Schlüssel
+     * @return gespeicherter Plan oder {@code null}
+     */
+    public TopologyPlan get(Key key) {
+        TopologyPlan plan = plans.get(key);
+        if (plan != null) hits++;
+        else misses++;
+        return plan;
+    }
+
+    public void put(Key key, TopologyPlan plan) {
+        if (plan != null && plan.size() == key.nodeCount()) {
+            plans.put(key, plan);
+        }
+    }
+
+    public boolean contains(Key key) {
+        return plans.containsKey(key);
+    }
+
+    public int size() {
+        return plans.size();
+    }
+
+    public int getHits() {
+        return hits;
+    }
+
+    public int getMisses() {
+        return misses;
+    }
+
+    public void clear() {
+        plans.clear();
+        hits = 0;
+        misses = 0;
+    }
+}
@@ -58,6 +58,21 @@ public abstract class TopologyStrategy {
         return existingLinks.stream().filter(Link::isActive).collect(Collectors.toSet());
     }
 
+    /**
+     * Migrates the running network in place to this topology.
+     * In contrast to {@link #restartNetwork(Network, Properties, int)} the usable mirrors (and their replicated data)
+     * are kept; only the difference between the current and the planned links is opened respectively closed.
+     * Strategies without an own migration fall back to a full restart.
+     *
+     * @param n       the {@link Network}
+     * @param props   {@link Properties} of the simulation
+     * @param simTime current simulation time
+     * @return the links opened or closed by the migration
+     */
+    public Set<Link> migrateNetwork(Network n, Properties props, int simTime) {
+        return restartNetwork(n, props, simTime);
+    }
+
     public abstract void handleAddNewMirrors(Network n, int newMirrors, Properties props, int simTime);
 
     /**
@@ -98,5 +113,27 @@ public abstract class TopologyStrategy {
      */
     public abstract int getPredictedNumTargetLinks(Action a);
 
+    /**
+     * Returns the configuration of this strategy, e.g. for a checkpoint. A strategy created by its no-argument
+     * constructor and given this configuration via {@link #applyConfiguration(List)} plans like this one.
+     *
+     * @return the configuration values or {@code null} if the strategy cannot be recreated that way
+     */
+    public List<Object> getConfiguration() {
+        return null;
+    }
+
+    /**
+     * Takes over a configuration exported by {@link #getConfiguration()}.
+     *
+     * @param configuration the configuration values
+     * @throws IllegalArgumentException if the values do not fit this strategy
+     */
+    public void applyConfiguration(List<Object> configuration) {
+        if (!configuration.isEmpty()) {
+            throw new IllegalArgumentException(getClass().getSimpleName() + " takes no configuration: " + configuration);
+        }
+    }
+
     public abstract String toString();
 }
@@ -5,6 +5,7 @@ import org.lrdm.effectors.TargetLinkChange;
 import org.lrdm.topologies.node.TreeMirrorNode;
 import org.lrdm.topologies.node.MirrorNode;
 import org.lrdm.topologies.node.StructureNode;
+import org.lrdm.topologies.validators.TopologyInvariants;
 import org.lrdm.Mirror;
 import org.lrdm.Network;
 import org.lrdm.effectors.Action;
@@ -203,6 +204,16 @@ public class TreeTopologyStrategy extends BuildAsSubstructure {
         return root.isValidStructure();
     }
 
+    /**
+     * Ein Baum ist zusammenhängend und hat genau n-1 Kanten. Tiefen- und Balance-Vorgaben abgeleiteter Bäume prüft
+     * nur die volle Validierung {@link #validateTopology()}.
+     */
+    @Override
+    protected boolean checkStructureInvariants() {
+        TopologyInvariants invariants = getInvariants();
+        return invariants.getNodeCount() == 0 || invariants.isTree();
+    }
+
     // ===== TOPOLOGY STRATEGY INTERFACE IMPLEMENTATION =====
 
     /**
@@ -349,7 +360,7 @@ public class TreeTopologyStrategy extends BuildAsSubstructure {
      * @return Neuer MirrorNode mit zugeordnetem Mirror oder null
      */
     protected TreeMirrorNode getMirrorNodeFromIterator() {
-        if (network.getMirrorCursor().hasNextMirror()) {
+        if (hasNextMirror()) {
             TreeMirrorNode node = (TreeMirrorNode) super.getMirrorNodeFromIterator();
             node.addNodeType(StructureNode.StructureType.TREE);
             return node;
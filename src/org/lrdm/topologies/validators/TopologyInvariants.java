@@ -0,0 +1,332 @@
+package org.lrdm.topologies.validators;
+
+import org.lrdm.topologies.node.StructureNode;
+
+import java.util.*;
+
+/**
+ * Inkrementell gepflegte Invarianten einer Struktur: Knoten- und Kantenanzahl, Grad je Knoten, Grad-Verteilung,
+ * Zusammenhangskomponenten (Union-Find) und damit, ob die Struktur einen Zyklus enthält.
+ * <p>
+ * Gezählt werden die Kind-Kanten zwischen Mitgliedern, unabhängig von ihren Typen und Head-IDs; Selbstkanten werden
+ * ignoriert. Die Instanz meldet sich als {@link StructureNode.ChildEdgeObserver} an jedem Mitglied an und folgt so
+ * jeder eingefügten oder entfernten Kante, ohne die Struktur zu traversieren. Kanten von Mitgliedern zu fremden
+ * Knoten (etwa Brücken zu externen Strukturen) merkt sie sich, damit sie zählen, sobald beide Enden Mitglied sind.
+ * <p>
+ * Abfragen sind O(1). Union-Find kann keine Kanten entfernen: Solange die Struktur ein Wald ist, bleibt die
+ * Komponentenzahl trotzdem exakt, da jede entfernte Kante genau eine Komponente teilt. Das Union-Find ist danach
+ * veraltet; Einfügen baut es nie neu auf. Eine Kante zu einem bis dahin isolierten Mitglied verbindet weiterhin
+ * genau zwei Komponenten, jede andere macht die Komponentenzahl unbekannt. Erst die nächste Komponenten-Abfrage
+ * baut das Union-Find dann einmal in O(Knoten + Kanten) neu auf, gezählt in {@link #getRebuildCount()}.
+ */
+public class TopologyInvariants implements StructureNode.ChildEdgeObserver {
+
+    /**
+     * Gerichtete Kind-Kante.
+     */
+    private record Edge(StructureNode parent, StructureNode child) {
+        StructureNode other(StructureNode node) {
+            return parent.equals(node) ? child : parent;
+        }
+    }
+
+    /** Grad je Mitglied; die Schlüssel sind die Mitglieder. */
+    private final Map<StructureNode, Integer> degrees = new HashMap<>();
+    /** Anzahl der Mitglieder je Grad. */
+    private final TreeMap<Integer, Integer> degreeCounts = new TreeMap<>();
+    /** Bekannte Kanten mit mindestens einem Mitglied als Endpunkt, je Endpunkt. */
+    private final Map<StructureNode, Set<Edge>> incidentEdges = new HashMap<>();
+    /** Union-Find über die Mitglieder: Verweis auf den Vorgänger, Repräsentanten zeigen auf sich selbst. */
+    private final Map<StructureNode, StructureNode> unionFind = new HashMap<>();
+
+    private int edges;
+    private int components;
+    private boolean componentsExact = true;
+    private boolean unionFindStale;
+    private int rebuilds;
+
+    // ===== MITGLIEDSCHAFT =====
+
+    /**
+     * Nimmt einen Knoten in die Struktur auf. Bestehende Kanten zu Mitgliedern werden mitgezählt.
+     *
+     * @param node Der Knoten (ignoriert, wenn {@code null} oder bereits Mitglied)
+     */
+    public void addNode(StructureNode node) {
+        if (node == null || degrees.containsKey(node)) return;
+
+        degrees.put(node, 0);
+        changeDegreeCount(0, 1);
+        components++;
+        if (!unionFindStale) {
+            unionFind.put(node, node);
+        }
+        node.addChildEdgeObserver(this);
+
+        // Bereits gemerkte Kanten von Mitgliedern zu diesem Knoten zählen jetzt
+        Set<Edge> known = incidentEdges.get(node);
+        if (known != null) {
+            for (Edge edge : List.copyOf(known)) {
+                countEdge(edge);
+            }
+        }
+        // Ausgehende Kanten stehen in den Kind-Records des Knotens
+        for (StructureNode child : node.getChildren()) {
+            childEdgeAdded(node, child);
+        }
+    }
+
+    /**
+     * Entfernt einen Knoten aus der Struktur samt seiner Kanten zu Mitgliedern. Die Kanten selbst bleiben bestehen
+     * und werden als Kanten zu einem fremden Knoten weiter verfolgt.
+     *
+     * @param node Der Knoten (ignoriert, wenn kein Mitglied)
+     */
+    public void removeNode(StructureNode node) {
+        if (node == null || !degrees.containsKey(node)) return;
+
+        Set<Edge> known = incidentEdges.get(node);
+        if (known != null) {
+            for (Edge edge : List.copyOf(known)) {
+                StructureNode other = edge.other(node);
+                if (degrees.containsKey(other)) {
+                    uncountEdge(edge);
+                } else {
+                    known.remove(edge);
+                    forgetEdge(other, edge);
+                }
+            }
+            if (known.isEmpty()) {
+                incidentEdges.remove(node);
+            }
+        }
+
+        node.removeChildEdgeObserver(this);
+        changeDegreeCount(degrees.remove(node), -1);
+        // Der Knoten ist jetzt isoliert und bildet eine eigene Komponente
+        components--;
+        unionFindStale = true;
+    }
+
+    /**
+     * Entfernt alle Mitglieder und meldet sich von ihnen ab.
+     */
+    public void clear() {
+        degrees.keySet().forEach(node -> node.removeChildEdgeObserver(this));
+        degrees.clear();
+        degreeCounts.clear();
+        incidentEdges.clear();
+        unionFind.clear();
+        edges = 0;
+        components = 0;
+        componentsExact = true;
+        unionFindStale = false;
+    }
+
+    // ===== KANTEN-EREIGNISSE =====
+
+    @Override
+    public void childEdgeAdded(StructureNode parent, StructureNode child) {
+        if (parent.equals(child)) return;
+        boolean parentMember = degrees.containsKey(parent);
+        boolean childMember = degrees.containsKey(child);
+        if (!parentMember && !childMember) return;
+
+        Edge edge = new Edge(parent, child);
+        if (!incidentEdges.computeIfAbsent(parent, k -> new HashSet<>()).add(edge)) return;
+        incidentEdges.computeIfAbsent(child, k -> new HashSet<>()).add(edge);
+        if (parentMember && childMember) {
+            countEdge(edge);
+        }
+    }
+
+    @Override
+    public void childEdgeRemoved(StructureNode parent, StructureNode child) {
+        Edge edge = new Edge(parent, child);
+        Set<Edge> parentEdges = incidentEdges.get(parent);
+        if (parentEdges == null || !parentEdges.remove(edge)) return;
+        if (parentEdges.isEmpty()) {
+            incidentEdges.remove(parent);
+        }
+        forgetEdge(child, edge);
+        if (degrees.containsKey(parent) && degrees.containsKey(child)) {
+            uncountEdge(edge);
+        }
+    }
+
+    private void forgetEdge(StructureNode node, Edge edge) {
+        Set<Edge> nodeEdges = incidentEdges.get(node);
+        if (nodeEdges != null && nodeEdges.remove(edge) && nodeEdges.isEmpty()) {
+            incidentEdges.remove(node);
+        }
+    }
+
+    private void countEdge(Edge edge) {
+        boolean joinsIsolated = degrees.get(edge.parent()) == 0 || degrees.get(edge.child()) == 0;
+        edges++;
+        changeDegree(edge.parent(), 1);
+        changeDegree(edge.child(), 1);
+        if (!unionFindStale) {
+            if (union(edge.parent(), edge.child())) {
+                components--;
+            }
+        } else if (joinsIsolated) {
+            // Ein isoliertes Mitglied ist eine eigene Komponente, die Kante verbindet also genau zwei
+            components--;
+        } else {
+            // Ohne aktuelles Union-Find ist offen, ob die Kante zwei Komponenten verbindet
+            componentsExact = false;
+        }
+    }
+
+    private void uncountEdge(Edge edge) {
+        // In einem Wald teilt jede Kante eine Komponente, sonst ist die neue Anzahl ohne Traversierung unbekannt
+        if (componentsExact && edges - degrees.size() + components == 0) {
+            components++;
+        } else {
+            componentsExact = false;
+        }
+        edges--;
+        changeDegree(edge.parent(), -1);
+        changeDegree(edge.child(), -1);
+        unionFindStale = true;
+    }
+
+    private void changeDegree(StructureNode node, int delta) {
+        int degree = degrees.get(node);
+        changeDegreeCount(degree, -1);
+        changeDegreeCount(degree + delta, 1);
+        degrees.put(node, degree + delta);
+    }
+
+    private void changeDegreeCount(int degree, int delta) {
+        degreeCounts.merge(degree, delta, (a, b) -> a + b == 0 ? null : a + b);
+    }
+
+    // ===== UNION-FIND =====
+
+    private StructureNode find(StructureNode node) {
+        StructureNode current = node;
+        StructureNode parent = unionFind.get(current);
+        while (parent != current) {
+            // Pfadhalbierung
+            StructureNode grandParent = unionFind.get(parent);
+            unionFind.put(current, grandParent);
+            current = grandParent;
+            parent = unionFind.get(current);
+        }
+        return current;
+    }
+
+    private boolean union(StructureNode a, StructureNode b) {
+        StructureNode rootA = find(a);
+        StructureNode rootB = find(b);
+        if (rootA == rootB) return false;
+        unionFind.put(rootA, rootB);
+        return true;
+    }
+
+    private void rebuildUnionFind() {
+        rebuilds++;
+        unionFind.clear();
+        degrees.keySet().forEach(node -> unionFind.put(node, node));
+        components = degrees.size();
+        for (StructureNode node : degrees.keySet()) {
+            Set<Edge> nodeEdges = incidentEdges.get(node);
+            if (nodeEdges == null) continue;
+            for (Edge edge : nodeEdges) {
+                // jede Kante einmal, von ihrem Eltern-Knoten aus
+                if (edge.parent().equals(node) && degrees.containsKey(edge.child()) && union(node, edge.child())) {
+                    components--;
+                }
+            }
+        }
+        componentsExact = true;
+        unionFindStale = false;
+    }
+
+    // ===== ABFRAGEN =====
+
+    /**
+     * @param node Der Knoten
+     * @return true, wenn der Knoten Mitglied der Struktur ist
+     */
+    public boolean contains(StructureNode node) {
+        return degrees.containsKey(node);
+    }
+
+    /**
+     * @return Anzahl der Mitglieder
+     */
+    public int getNodeCount() {
+        return degrees.size();
+    }
+
+    /**
+     * @return Anzahl der Kanten zwischen Mitgliedern
+     */
+    public int getEdgeCount() {
+        return edges;
+    }
+
+    /**
+     * @param node Ein Mitglied
+     * @return Anzahl seiner Kanten zu Mitgliedern, 0 für fremde Knoten
+     */
+    public int getDegree(StructureNode node) {
+        return degrees.getOrDefault(node, 0);
+    }
+
+    /**
+     * @return Größter Grad eines Mitglieds, 0 ohne Mitglieder
+     */
+    public int getMaxDegree() {
+        return degreeCounts.isEmpty() ? 0 : degreeCounts.lastKey();
+    }
+
+    /**
+     * @param degree Der Grad
+     * @return Anzahl der Mitglieder mit genau diesem Grad
+     */
+    public int getNodeCountWithDegree(int degree) {
+        return degreeCounts.getOrDefault(degree, 0);
+    }
+
+    /**
+     * @return Anzahl der Zusammenhangskomponenten
+     */
+    public int getComponentCount() {
+        if (!componentsExact) {
+            rebuildUnionFind();
+        }
+        return components;
+    }
+
+    /**
+     * @return Anzahl der bisherigen Neuaufbauten des Union-Finds
+     */
+    public int getRebuildCount() {
+        return rebuilds;
+    }
+
+    /**
+     * @return true, wenn die Struktur Mitglieder hat und zusammenhängend ist
+     */
+    public boolean isConnected() {
+        return !degrees.isEmpty() && getComponentCount() == 1;
+    }
+
+    /**
+     * @return true, wenn die Kanten mindestens einen Zyklus schließen (zyklomatische Zahl größer 0)
+     */
+    public boolean hasCycle() {
+        return edges - degrees.size() + getComponentCount() > 0;
+    }
+
+    /**
+     * @return true, wenn die Struktur ein Baum ist: zusammenhängend mit genau n-1 Kanten
+     */
+    public boolean isTree() {
+        return isConnected() && edges == degrees.size() - 1;
+    }
+}
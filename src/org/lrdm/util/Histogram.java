@@ -0,0 +1,116 @@
+package org.lrdm.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * # Histogram
+ *
+ * Records durations in nanoseconds into power-of-two buckets, so recording is constant-time and allocation-free.
+ * Count, sum, minimum and maximum are exact; percentiles are approximated by the upper bound of the bucket
+ * they fall into, i.e., they are off by less than a factor of two.
+ *
+ * @apiNote Instances are created by the {@link MetricsRegistry}; recording is thread-safe.
+ */
+public final class Histogram {
+    private static final int BUCKETS = Long.SIZE;
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong min = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong max = new AtomicLong(Long.MIN_VALUE);
+
+    Histogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @return the name under which this histogram is registered
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**Records one duration.
+     *
+     * @param nanos the duration in nanoseconds, negative values are recorded as 0
+     */
+    public void record(long nanos) {
+        long value = Math.max(0, nanos);
+        buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(value) - (value == 0 ? 0 : 1));
+        count.increment();
+        sum.add(value);
+        min.accumulateAndGet(value, Math::min);
+        max.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * @return number of recorded durations
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return sum of all recorded durations in nanoseconds
+     */
+    public long getTotalNanos() {
+        return sum.sum();
+    }
+
+    /**
+     * @return the shortest recorded duration, 0 if nothing was recorded
+     */
+    public long getMin() {
+        return getCount() == 0 ? 0 : min.get();
+    }
+
+    /**
+     * @return the longest recorded duration, 0 if nothing was recorded
+     */
+    public long getMax() {
+        return getCount() == 0 ? 0 : max.get();
+    }
+
+    /**
+     * @return the mean duration in nanoseconds, 0 if nothing was recorded
+     */
+    public double getMean() {
+        long c = getCount();
+        return c == 0 ? 0 : (double) getTotalNanos() / c;
+    }
+
+    /**
+     * @param quantile the quantile in [0, 1], e.g., 0.99
+     * @return upper bound of the bucket containing the quantile, capped at {@link #getMax()}
+     */
+    public long getPercentile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("quantile must be in [0, 1]: " + quantile);
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += buckets.get(i);
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) {
+                long upper = i >= BUCKETS - 2 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upper, getMax());
+            }
+        }
+        return getMax();
+    }
+
+    void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        count.reset();
+        sum.reset();
+        min.set(Long.MAX_VALUE);
+        max.set(Long.MIN_VALUE);
+    }
+}
@@ -22,5 +22,34 @@ public class IDGenerator {
 	public int getNextID() {
         return currentID++;
 	}
+
+	/**Returns the ID that will be handed out next without consuming it.
+	 *
+	 * @return the next ID
+	 */
+	public int peekNextID() {
+		return currentID;
+	}
+
+	/**Reserves a contiguous block of IDs, e.g., for work that runs on other threads and must not use the
+	 * generator itself.
+	 *
+	 * @param count the number of IDs to reserve
+	 * @return the first reserved ID; the block ends before {@code first + count}
+	 */
+	public int reserveIDs(int count) {
+		int first = currentID;
+		currentID += count;
+		return first;
+	}
+
+	/**Makes sure that no ID below the given one is handed out anymore, e.g., after restoring a checkpoint.
+	 * Never moves the generator backwards.
+	 *
+	 * @param nextID the lowest ID that may be handed out next
+	 */
+	public void advanceTo(int nextID) {
+		if (nextID > currentID) currentID = nextID;
+	}
 	
 }
@@ -0,0 +1,217 @@
+package org.lrdm.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * # Metrics registry
+ *
+ * Session-wide registry of timing {@link Histogram}s and counters used to instrument the simulator: the phases of
+ * {@link org.lrdm.Network#timeStep(int)}, the operations of the topology strategies and every probe. Like the
+ * {@link IDGenerator}, it is realized as singleton.
+ *
+ * Instrumentation is disabled by default. It can be enabled with the system property {@code lrdm.metrics=true},
+ * the {@code metrics} key of the simulation properties (see {@link org.lrdm.TimedRDMSim}) or
+ * {@link #setEnabled(boolean)}. Instrumented code uses the following pattern:
+ * <pre>{@code
+ * long start = MetricsRegistry.start();
+ * doWork();
+ * MetricsRegistry.stop(start, MetricsRegistry.TICK_HANDLE_LINKS);
+ * }</pre>
+ *
+ * @apiNote Names are dot-separated, e.g., {@code tick.handleLinks} or {@code strategy.StarTopologyStrategy.build}.
+ * @implNote When disabled, {@link #start()} returns 0 without reading the clock and {@link #stop(long, String)}
+ * as well as {@link #count(String)} return after a single field read, so the instrumentation costs a predictable
+ * branch per call site. Lookups and name concatenation only happen when enabled.
+ */
+public final class MetricsRegistry {
+    /** Phase: mirror lifecycle handling. */
+    public static final String TICK_HANDLE_MIRRORS = "tick.handleMirrors";
+    /** Phase: link lifecycle handling. */
+    public static final String TICK_HANDLE_LINKS = "tick.handleLinks";
+    /** Phase: application of scheduled actions by the effector. */
+    public static final String TICK_EFFECTOR = "tick.effector";
+    /** Phase: probe updates, in total. */
+    public static final String TICK_PROBES = "tick.probes";
+    /** Phase: collection of the bandwidth, active link and time-to-write metrics. */
+    public static final String TICK_COLLECT_METRICS = "tick.collectMetrics";
+    /** Prefix of the per-probe timers, followed by the simple class name of the probe. */
+    public static final String PROBE_PREFIX = "probe.";
+    /** Prefix of the per-strategy timers, followed by the simple class name of the strategy and the operation. */
+    public static final String STRATEGY_PREFIX = "strategy.";
+    /** Strategy operation: initial build of the network. */
+    public static final String OP_BUILD = ".build";
+    /** Strategy operation: rebuild after a change of topology or links per mirror. */
+    public static final String OP_REBUILD = ".rebuild";
+    /** Strategy operation: adding mirrors. */
+    public static final String OP_ADD = ".add";
+    /** Strategy operation: removing mirrors. */
+    public static final String OP_REMOVE = ".remove";
+    /** Strategy operation: validating the planned structure. */
+    public static final String OP_VALIDATE = ".validate";
+    /** Strategy operation: reconciling the links of the network with the planned structure. */
+    public static final String OP_RECONCILE = ".reconcile";
+    /** Counter: links created. */
+    public static final String LINKS_CREATED = "links.created";
+    /** Counter: links removed from the network after being closed or losing an endpoint. */
+    public static final String LINKS_CLOSED = "links.closed";
+    /** Counter: mirror crashes. */
+    public static final String MIRRORS_CRASHED = "mirrors.crashed";
+
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    private static volatile boolean enabled = Boolean.getBoolean("lrdm.metrics");
+
+    private final Map<String, Histogram> histograms = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @return true if instrumentation is recorded
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @param enable whether instrumentation shall be recorded from now on; recorded values are kept
+     */
+    public static void setEnabled(boolean enable) {
+        enabled = enable;
+    }
+
+    /**
+     * @return the current {@link System#nanoTime()} if enabled, else 0
+     */
+    public static long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**Records the time since {@code start} in the named histogram.
+     *
+     * @param start the value returned by {@link #start()}; 0 records nothing
+     * @param name the histogram
+     */
+    public static void stop(long start, String name) {
+        if (start != 0L) {
+            INSTANCE.histogram(name).record(System.nanoTime() - start);
+        }
+    }
+
+    /**Records the time since {@code start} for an operation of a strategy or probe.
+     *
+     * @param start the value returned by {@link #start()}; 0 records nothing
+     * @param prefix {@link #STRATEGY_PREFIX} or {@link #PROBE_PREFIX}
+     * @param owner the instrumented object, its simple class name becomes part of the name
+     * @param operation one of the {@code OP_} constants, empty for probes
+     */
+    public static void stop(long start, String prefix, Object owner, String operation) {
+        if (start != 0L) {
+            long nanos = System.nanoTime() - start;
+            INSTANCE.histogram(prefix + owner.getClass().getSimpleName() + operation).record(nanos);
+        }
+    }
+
+    /**Increments the named counter by one.
+     *
+     * @param name the counter
+     */
+    public static void count(String name) {
+        count(name, 1);
+    }
+
+    /**Increments the named counter.
+     *
+     * @param name the counter
+     * @param delta the increment
+     */
+    public static void count(String name, long delta) {
+        if (enabled && delta != 0) {
+            INSTANCE.counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+        }
+    }
+
+    /**
+     * @param name the histogram
+     * @return the histogram, created if not yet present
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, Histogram::new);
+    }
+
+    /**
+     * @param name the histogram
+     * @return the histogram or null if nothing was recorded under this name
+     */
+    public Histogram getHistogram(String name) {
+        return histograms.get(name);
+    }
+
+    /**
+     * @param name the counter
+     * @return the value of the counter, 0 if never incremented
+     */
+    public long getCounter(String name) {
+        LongAdder counter = counters.get(name);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * @return all histograms sorted by name
+     */
+    public SortedMap<String, Histogram> getHistograms() {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(histograms));
+    }
+
+    /**
+     * @return a snapshot of all counters sorted by name
+     */
+    public SortedMap<String, Long> getCounters() {
+        SortedMap<String, Long> snapshot = new TreeMap<>();
+        counters.forEach((name, value) -> snapshot.put(name, value.sum()));
+        return Collections.unmodifiableSortedMap(snapshot);
+    }
+
+    /**Clears all recorded values; histograms and counters keep their registration.
+     */
+    public void reset() {
+        histograms.values().forEach(Histogram::reset);
+        counters.values().forEach(LongAdder::reset);
+    }
+
+    /**Writes a table of all histograms (in microseconds) and counters.
+     *
+     * @param out the target, e.g., {@link System#out} or a {@link StringBuilder}
+     */
+    public void dump(Appendable out) {
+        try {
+            out.append(String.format(Locale.ROOT, "%-48s %10s %12s %10s %10s %10s %10s%n",
+                    "timer", "count", "total_ms", "mean_us", "p50_us", "p99_us", "max_us"));
+            for (Map.Entry<String, Histogram> e : getHistograms().entrySet()) {
+                Histogram h = e.getValue();
+                if (h.getCount() == 0) continue;
+                out.append(String.format(Locale.ROOT, "%-48s %10d %12.3f %10.1f %10.1f %10.1f %10.1f%n",
+                        e.getKey(), h.getCount(), h.getTotalNanos() / 1e6, h.getMean() / 1e3,
+                        h.getPercentile(0.5) / 1e3, h.getPercentile(0.99) / 1e3, h.getMax() / 1e3));
+            }
+            out.append(String.format(Locale.ROOT, "%n%-48s %10s%n", "counter", "value"));
+            for (Map.Entry<String, Long> e : getCounters().entrySet()) {
+                out.append(String.format(Locale.ROOT, "%-48s %10d%n", e.getKey(), e.getValue()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package org.lrdm.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * # MultiResolutionSeries
+ *
+ * Append-only time series that keeps rollups at several resolutions, so that a chart of an arbitrarily long run can
+ * be drawn at constant cost. Level 0 holds the raw points; every further level aggregates
+ * {@link #FACTOR} buckets of the level below into one bucket with minimum, maximum and mean (1, 10, 100, 1000, ...
+ * points per bucket). Levels are added as the series grows, so the coarsest level never has more than
+ * {@link #MAX_BUCKETS} buckets.
+ *
+ * {@link #downsample(int)} picks the finest level with at most {@link #MAX_BUCKETS} buckets, takes the minimum and
+ * the maximum of each bucket as candidates and reduces them with largest-triangle-three-buckets
+ * ({@link #largestTriangleThreeBuckets(double[], double[], int, int)}). Because extremes of every bucket are
+ * candidates and LTTB prefers points far off the trend, single-tick spikes remain visible at any zoom level.
+ *
+ * @apiNote Points must be appended with non-decreasing x. Not thread-safe.
+ * @implNote Appending costs O(number of levels), i.e., O(log n); downsampling costs O({@link #MAX_BUCKETS})
+ * regardless of the length of the series.
+ */
+public final class MultiResolutionSeries {
+    /** Number of buckets of one level that are aggregated into one bucket of the next level. */
+    public static final int FACTOR = 10;
+    /** Maximum number of buckets of the level used for downsampling. */
+    public static final int MAX_BUCKETS = 2048;
+
+    /** Buckets of one resolution; level 0 only stores the points, as minimum, maximum and mean are the value. */
+    private static final class Level {
+        final int width;
+        int size;
+        int[] minX = new int[64];
+        int[] min = new int[64];
+        int[] maxX;
+        int[] max;
+        long[] sum;
+        int[] count;
+
+        Level(int width) {
+            this.width = width;
+            if (width > 1) {
+                maxX = new int[64];
+                max = new int[64];
+                sum = new long[64];
+                count = new int[64];
+            }
+        }
+
+        int maxXOf(int b) {
+            return width == 1 ? minX[b] : maxX[b];
+        }
+
+        int maxOf(int b) {
+            return width == 1 ? min[b] : max[b];
+        }
+
+        long sumOf(int b) {
+            return width == 1 ? min[b] : sum[b];
+        }
+
+        int countOf(int b) {
+            return width == 1 ? 1 : count[b];
+        }
+
+        void add(int x, int y) {
+            add(x, y, x, y, y, 1);
+        }
+
+        /** Merges a point or a bucket of the level below into the last bucket or starts a new one. */
+        void add(int lowX, int low, int highX, int high, long total, int points) {
+            int last = size - 1;
+            if (width > 1 && last >= 0 && count[last] < width) {
+                if (low < min[last]) {
+                    min[last] = low;
+                    minX[last] = lowX;
+                }
+                if (high > max[last]) {
+                    max[last] = high;
+                    maxX[last] = highX;
+                }
+                sum[last] += total;
+                count[last] += points;
+                return;
+            }
+            if (size == minX.length) {
+                int capacity = size * 2;
+                minX = Arrays.copyOf(minX, capacity);
+                min = Arrays.copyOf(min, capacity);
+                if (width > 1) {
+                    maxX = Arrays.copyOf(maxX, capacity);
+                    max = Arrays.copyOf(max, capacity);
+                    sum = Arrays.copyOf(sum, capacity);
+                    count = Arrays.copyOf(count, capacity);
+                }
+            }
+            minX[size] = lowX;
+            min[size] = low;
+            if (width > 1) {
+                maxX[size] = highX;
+                max[size] = high;
+                sum[size] = total;
+                count[size] = points;
+            }
+            size++;
+        }
+
+        /** Builds the next coarser level from this one. */
+        Level rollup() {
+            Level next = new Level(width * FACTOR);
+            for (int b = 0; b < size; b++) {
+                next.add(minX[b], min[b], maxXOf(b), maxOf(b), sumOf(b), countOf(b));
+            }
+            return next;
+        }
+    }
+
+    private final List<Level> levels = new ArrayList<>();
+
+    public MultiResolutionSeries() {
+        clear();
+    }
+
+    /**Appends a point.
+     *
+     * @param x the x value, e.g., the time step
+     * @param y the value
+     */
+    public void add(int x, int y) {
+        for (Level level : levels) {
+            level.add(x, y);
+        }
+        Level top = levels.get(levels.size() - 1);
+        if (top.size > MAX_BUCKETS) {
+            levels.add(top.rollup());
+        }
+    }
+
+    /**Removes all points.
+     */
+    public void clear() {
+        levels.clear();
+        levels.add(new Level(1));
+    }
+
+    /**
+     * @return number of appended points
+     */
+    public int size() {
+        return levels.get(0).size;
+    }
+
+    /**
+     * @return true if no point was appended
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return the x value of the first point
+     * @throws IllegalStateException if the series is empty
+     */
+    public int getFirstX() {
+        return points().minX[0];
+    }
+
+    /**
+     * @return the x value of the last point
+     * @throws IllegalStateException if the series is empty
+     */
+    public int getLastX() {
+        Level raw = points();
+        return raw.minX[raw.size - 1];
+    }
+
+    private Level points() {
+        Level raw = levels.get(0);
+        if (raw.size == 0) throw new IllegalStateException("The series is empty.");
+        return raw;
+    }
+
+    /**
+     * @return number of resolution levels, at least 1
+     */
+    public int getLevels() {
+        return levels.size();
+    }
+
+    /**
+     * @param level the level, 0 for the raw points
+     * @return number of points aggregated per bucket of the level
+     */
+    public int getBucketWidth(int level) {
+        return levels.get(level).width;
+    }
+
+    /**
+     * @param level the level, 0 for the raw points
+     * @return number of buckets of the level; the last one may be incomplete
+     */
+    public int getBucketCount(int level) {
+        return levels.get(level).size;
+    }
+
+    /**
+     * @param level the level
+     * @param bucket the bucket
+     * @return the smallest value of the bucket
+     */
+    public int getMin(int level, int bucket) {
+        return levels.get(level).min[bucket];
+    }
+
+    /**
+     * @param level the level
+     * @param bucket the bucket
+     * @return the largest value of the bucket
+     */
+    public int getMax(int level, int bucket) {
+        return levels.get(level).maxOf(bucket);
+    }
+
+    /**
+     * @param level the level
+     * @param bucket the bucket
+     * @return the mean of the values of the bucket
+     */
+    public double getMean(int level, int bucket) {
+        Level l = levels.get(level);
+        return (double) l.sumOf(bucket) / l.countOf(bucket);
+    }
+
+    /**Reduces the series to at most the given number of points for display.
+     *
+     * @param maxPoints maximum number of points, at least 3
+     * @return x values in the first row, y values in the second row
+     */
+    public double[][] downsample(int maxPoints) {
+        if (maxPoints < 3) throw new IllegalArgumentException("At least 3 points are needed.");
+        int index = 0;
+        while (levels.get(index).size > MAX_BUCKETS) index++;
+        Level level = levels.get(index);
+
+        double[] x = new double[level.width == 1 ? level.size : level.size * 2 + 1];
+        double[] y = new double[x.length];
+        int n = 0;
+        for (int b = 0; b < level.size; b++) {
+            if (level.width == 1 || level.minX[b] == level.maxX[b]) {
+                // a single point or a flat bucket
+                x[n] = level.minX[b];
+                y[n++] = level.min[b];
+            } else if (level.minX[b] < level.maxX[b]) {
+                x[n] = level.minX[b];
+                y[n++] = level.min[b];
+                x[n] = level.maxX[b];
+                y[n++] = level.max[b];
+            } else {
+                x[n] = level.maxX[b];
+                y[n++] = level.max[b];
+                x[n] = level.minX[b];
+                y[n++] = level.min[b];
+            }
+        }
+        Level raw = levels.get(0);
+        if (n > 0 && x[n - 1] < raw.minX[raw.size - 1]) {
+            // the chart ends at the latest point, even if it is no extreme of its bucket
+            x[n] = raw.minX[raw.size - 1];
+            y[n++] = raw.min[raw.size - 1];
+        }
+        if (n <= maxPoints) {
+            return new double[][]{Arrays.copyOf(x, n), Arrays.copyOf(y, n)};
+        }
+        return largestTriangleThreeBuckets(x, y, n, maxPoints);
+    }
+
+    /**Downsamples points with the largest-triangle-three-buckets algorithm (Steinarsson, 2013): keeps the first and
+     * the last point and from each of the {@code threshold - 2} buckets in between the point that forms the largest
+     * triangle with the point kept before and the average of the next bucket.
+     *
+     * @param x x values, non-decreasing
+     * @param y y values
+     * @param n number of points to use from the arrays
+     * @param threshold number of points to keep, at least 3
+     * @return x values in the first row, y values in the second row
+     */
+    public static double[][] largestTriangleThreeBuckets(double[] x, double[] y, int n, int threshold) {
+        if (threshold >= n || threshold < 3) {
+            return new double[][]{Arrays.copyOf(x, n), Arrays.copyOf(y, n)};
+        }
+        double[] outX = new double[threshold];
+        double[] outY = new double[threshold];
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        outX[0] = x[0];
+        outY[0] = y[0];
+        for (int i = 0; i < threshold - 2; i++) {
+            int nextStart = (int) Math.floor((i + 1) * every) + 1;
+            int nextEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = nextStart; j < nextEnd; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+            int nextSize = nextEnd - nextStart;
+            avgX /= nextSize;
+            avgY /= nextSize;
+
+            int start = (int) Math.floor(i * every) + 1;
+            int end = (int) Math.floor((i + 1) * every) + 1;
+            double maxArea = -1;
+            int chosen = start;
+            for (int j = start; j < end; j++) {
+                double area = Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = j;
+                }
+            }
+            outX[i + 1] = x[chosen];
+            outY[i + 1] = y[chosen];
+            a = chosen;
+        }
+        outX[threshold - 1] = x[n - 1];
+        outY[threshold - 1] = y[n - 1];
+        return new double[][]{outX, outY};
+    }
+}
@@ -1,4 +1,6 @@
 /**
- * Package for utility classes. Currently contains the {@link org.lrdm.util.IDGenerator}.
+ * Package for utility classes. Currently contains the {@link org.lrdm.util.IDGenerator} and the
+ * {@link org.lrdm.util.MetricsRegistry} with its {@link org.lrdm.util.Histogram}s for instrumenting runs, as well as
+ * the {@link org.lrdm.util.MultiResolutionSeries} used to chart long runs.
  */
-package org.lrdm.util;
\ No newline at end of file
+package org.lrdm.util;
@@ -0,0 +1,134 @@
+package org.lrdm;
+
+import org.graphstream.graph.Edge;
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lrdm.effectors.Effector;
+import org.lrdm.topologies.strategies.BuildAsSubstructure;
+import org.lrdm.topologies.strategies.SnowflakeTopologyStrategy;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("Aggregierte Ansicht nach Substrukturen")
+class ClusteredGraphUpdaterTest {
+    private static final String config = "resources/sim-test-snowflake.conf";
+    private Network network;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        network = new Network(new SnowflakeTopologyStrategy(), 60, 2, 30, props);
+        Effector effector = new Effector(network);
+        network.setEffector(effector);
+        effector.setMirrors(75, 10);
+    }
+
+    private Map<Integer, Integer> substructures() {
+        return ((BuildAsSubstructure) network.getTopologyStrategy()).getSubstructureIdsByMirror();
+    }
+
+    private static Set<String> bundle(String a, String b) {
+        return Set.of(a, b);
+    }
+
+    /** Expected super-nodes and bundles computed from the network itself. */
+    private void assertGraphMatchesNetwork(Graph graph, ClusteredGraphUpdater updater, Set<Integer> expanded,
+                                           String context) {
+        Map<Integer, Integer> substructures = substructures();
+        Map<Integer, Long> sizes = network.getMirrors().stream().collect(Collectors.groupingBy(
+                m -> substructures.getOrDefault(m.getID(), ClusteredGraphUpdater.UNASSIGNED), Collectors.counting()));
+        assertEquals(sizes.keySet(), updater.getSubstructures(), context);
+        sizes.forEach((s, n) -> assertEquals(n.intValue(), updater.getNumMirrors(s), context));
+
+        Set<String> expectedNodes = new HashSet<>();
+        for (Mirror m : network.getMirrors()) {
+            expectedNodes.add(nodeOf(m, substructures, expanded));
+        }
+        assertEquals(expectedNodes, graph.nodes().map(Node::getId).collect(Collectors.toSet()), context);
+
+        Map<Set<String>, Integer> expectedBundles = new HashMap<>();
+        for (Link l : network.getLinks()) {
+            if (l.getState() == Link.State.CLOSED) continue;
+            String a = nodeOf(l.getSource(), substructures, expanded);
+            String b = nodeOf(l.getTarget(), substructures, expanded);
+            if (!a.equals(b)) expectedBundles.merge(bundle(a, b), 1, Integer::sum);
+        }
+        Map<Set<String>, Integer> bundles = graph.edges().collect(Collectors.toMap(
+                e -> bundle(e.getSourceNode().getId(), e.getTargetNode().getId()), ClusteredGraphUpdaterTest::links));
+        assertEquals(expectedBundles, bundles, context);
+    }
+
+    private static String nodeOf(Mirror m, Map<Integer, Integer> substructures, Set<Integer> expanded) {
+        int s = substructures.getOrDefault(m.getID(), ClusteredGraphUpdater.UNASSIGNED);
+        return expanded.contains(s) ? ClusteredGraphUpdater.mirrorNodeId(m.getID())
+                : ClusteredGraphUpdater.clusterNodeId(s);
+    }
+
+    private static int links(Edge e) {
+        Object label = e.getAttribute("ui.label");
+        return label == null ? 1 : ((Number) label).intValue();
+    }
+
+    @Test
+    @DisplayName("Jeder Mirror gehört zu genau einer Substruktur der Schneeflocke")
+    void everyMirrorHasSubstructure() {
+        Map<Integer, Integer> substructures = substructures();
+        assertEquals(network.getMirrors().stream().map(Mirror::getID).collect(Collectors.toSet()),
+                substructures.keySet());
+        assertTrue(new HashSet<>(substructures.values()).size() > 1);
+    }
+
+    @Test
+    @DisplayName("Super-Knoten und Link-Bündel folgen dem Netzwerk über zusammengefasste Ticks")
+    void superNodesFollowNetwork() {
+        Graph graph = new SingleGraph("test");
+        ClusteredGraphUpdater updater = new ClusteredGraphUpdater(graph);
+        FrameExchange exchange = new FrameExchange(true);
+
+        for (int t = 0; t <= 30; t++) {
+            if (t > 0) network.timeStep(t - 1);
+            exchange.publish(network, t);
+            if (t % 3 != 0) continue;
+            FrameExchange.Frame frame = exchange.poll();
+            if (frame.substructures() != null) updater.setSubstructures(frame.substructures());
+            frame.changes().drainTo(updater);
+            assertGraphMatchesNetwork(graph, updater, Set.of(), "Tick " + t);
+        }
+        assertTrue(graph.getNodeCount() < network.getNumMirrors());
+    }
+
+    @Test
+    @DisplayName("Eine Substruktur lässt sich aufklappen und wieder zuklappen")
+    void expandAndCollapse() {
+        Graph graph = new SingleGraph("test");
+        ClusteredGraphUpdater updater = new ClusteredGraphUpdater(graph);
+        NetworkChangeTracker tracker = new NetworkChangeTracker();
+        updater.setSubstructures(substructures());
+        tracker.poll(network, updater);
+
+        int substructure = substructures().values().iterator().next();
+        updater.toggle(ClusteredGraphUpdater.clusterNodeId(substructure));
+        assertGraphMatchesNetwork(graph, updater, Set.of(substructure), "aufgeklappt");
+
+        network.timeStep(0);
+        tracker.poll(network, updater);
+        assertGraphMatchesNetwork(graph, updater, Set.of(substructure), "aufgeklappt nach Tick");
+
+        int mirror = substructures().entrySet().stream().filter(e -> e.getValue() == substructure)
+                .map(Map.Entry::getKey).findFirst().orElseThrow();
+        updater.toggle(ClusteredGraphUpdater.mirrorNodeId(mirror));
+        assertGraphMatchesNetwork(graph, updater, Set.of(), "zugeklappt");
+    }
+}
@@ -0,0 +1,176 @@
+package org.lrdm;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.lrdm.effectors.*;
+import org.lrdm.topologies.strategies.*;
+import org.lrdm.util.MetricsRegistry;
+
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests für die zeitgeordnete Aktions-Warteschlange des {@link Effector}
+ * und das Zusammenführen gleichzeitiger Aktionen zu einem {@link AdaptationBatch}.
+ */
+@DisplayName("Effector Tests")
+class EffectorTest {
+
+    private Network network;
+    private Effector effector;
+
+    @BeforeEach
+    void setUp() {
+        Properties props = new Properties();
+        props.setProperty("max_bandwidth", "1000");
+        props.setProperty("startup_time_min", "10");
+        props.setProperty("startup_time_max", "20");
+        props.setProperty("ready_time_min", "5");
+        props.setProperty("ready_time_max", "15");
+        props.setProperty("link_activation_time_min", "2");
+        props.setProperty("link_activation_time_max", "8");
+        props.setProperty("fault_probability", "0.0");
+        props.setProperty("stop_time_min", "1");
+        props.setProperty("stop_time_max", "5");
+
+        network = new Network(new FullyConnectedTopology(), 10, 3, 1024, props);
+        effector = new Effector(network);
+        network.setEffector(effector);
+    }
+
+    @Nested
+    @DisplayName("Warteschlange")
+    class QueueTests {
+
+        @Test
+        @DisplayName("Mehrere Aktionen im selben Tick bleiben erhalten")
+        void keepsAllActionsOfSameTick() {
+            Action a1 = effector.setMirrors(12, 5);
+            Action a2 = effector.setMirrors(14, 5);
+            Action a3 = effector.setTargetLinksPerMirror(4, 5);
+
+            assertEquals(List.of(a1, a2, a3), effector.getActionsAt(5));
+        }
+
+        @Test
+        @DisplayName("Ausstehende Aktionen sind nach Zeit sortiert")
+        void pendingActionsAreTimeOrdered() {
+            Action late = effector.setMirrors(12, 20);
+            Action early = effector.setMirrors(8, 3);
+            Action mid = effector.setTargetLinksPerMirror(2, 10);
+
+            assertEquals(List.of(early, mid, late), effector.getPendingActions());
+        }
+
+        @Test
+        @DisplayName("removeAction entfernt genau die übergebene Aktion")
+        void removeActionByIdentity() {
+            Action a1 = effector.setMirrors(12, 5);
+            Action a2 = effector.setMirrors(14, 5);
+
+            effector.removeAction(a1);
+
+            assertEquals(List.of(a2), effector.getActionsAt(5));
+            effector.removeAction(a2);
+            assertTrue(effector.getActionsAt(5).isEmpty());
+            assertTrue(effector.getPendingActions().isEmpty());
+        }
+
+        @Test
+        @DisplayName("timeStep verbraucht fällige Aktionen")
+        void timeStepConsumesDueActions() {
+            effector.setMirrors(10, 1);
+            Action future = effector.setMirrors(10, 7);
+
+            effector.timeStep(1);
+
+            assertTrue(effector.getActionsAt(1).isEmpty());
+            assertEquals(List.of(future), effector.getPendingActions());
+        }
+    }
+
+    @Nested
+    @DisplayName("AdaptationBatch")
+    class BatchTests {
+
+        @Test
+        @DisplayName("Letzter Wert je Aktionstyp gewinnt")
+        void lastValuePerTypeWins() {
+            TopologyStrategy star = new StarTopologyStrategy();
+            effector.setMirrors(12, 5);
+            effector.setStrategy(new LineTopologyStrategy(), 5);
+            effector.setMirrors(15, 5);
+            effector.setStrategy(star, 5);
+
+            AdaptationBatch batch = effector.planBatch(5);
+
+            assertEquals(4, batch.getActions().size());
+            assertEquals(15, batch.getNewMirrors());
+            assertSame(star, batch.getNewTopology());
+            assertFalse(batch.hasTargetLinkChange());
+            assertTrue(batch.requiresRebuild());
+        }
+
+        @Test
+        @DisplayName("Reine Mirror-Änderung benötigt keinen Neuaufbau")
+        void mirrorOnlyBatchNeedsNoRebuild() {
+            effector.setMirrors(12, 5);
+
+            AdaptationBatch batch = effector.planBatch(5);
+
+            assertTrue(batch.hasMirrorChange());
+            assertFalse(batch.requiresRebuild());
+        }
+
+        @Test
+        @DisplayName("Leerer Tick ergibt leeren Batch")
+        void emptyTickYieldsEmptyBatch() {
+            assertTrue(effector.planBatch(3).isEmpty());
+        }
+
+        @Test
+        @DisplayName("Kombinierter Batch wird in einem Schritt angewendet")
+        void combinedBatchIsApplied() {
+            TopologyStrategy line = new LineTopologyStrategy();
+            effector.setStrategy(line, 1);
+            effector.setTargetLinksPerMirror(2, 1);
+            effector.setMirrors(12, 1);
+
+            effector.timeStep(1);
+
+            assertSame(line, network.getTopologyStrategy());
+            assertEquals(2, network.getNumTargetLinksPerMirror());
+            assertEquals(12, network.getNumTargetMirrors());
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {14, 6})
+        @DisplayName("Topologie- und Mirror-Änderung kosten einen Neuaufbau und einen Link-Abgleich")
+        void combinedBatchReconcilesOnce(int mirrors) {
+            MetricsRegistry registry = MetricsRegistry.getInstance();
+            MetricsRegistry.setEnabled(true);
+            registry.reset();
+            try {
+                effector.setStrategy(new LineTopologyStrategy(), 1);
+                effector.setMirrors(mirrors, 1);
+                effector.timeStep(1);
+
+                String line = MetricsRegistry.STRATEGY_PREFIX + "LineTopologyStrategy";
+                assertEquals(1, registry.getHistogram(line + MetricsRegistry.OP_REBUILD).getCount());
+                assertEquals(1, registry.getHistogram(line + MetricsRegistry.OP_RECONCILE).getCount());
+                assertNull(registry.getHistogram(line + MetricsRegistry.OP_ADD));
+                assertNull(registry.getHistogram(line + MetricsRegistry.OP_REMOVE));
+                assertEquals(mirrors, network.getNumTargetMirrors());
+                assertEquals(mirrors, network.getMirrorCursor().getNumUsableMirrors());
+                assertEquals(mirrors - 1, network.getLinks().stream().filter(l -> l.getState() != Link.State.CLOSED
+                        && l.getSource().isUsableForNetwork() && l.getTarget().isUsableForNetwork()).count());
+            } finally {
+                MetricsRegistry.setEnabled(false);
+                registry.reset();
+            }
+        }
+    }
+}
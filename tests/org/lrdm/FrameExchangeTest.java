@@ -0,0 +1,148 @@
+package org.lrdm;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lrdm.effectors.Effector;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+import org.lrdm.topologies.strategies.StarTopologyStrategy;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("Übergabe der Frames an den Render-Thread")
+class FrameExchangeTest {
+    private static final String config = "resources/sim-test-1.conf";
+    private Network network;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        network = new Network(new BalancedTreeTopologyStrategy(), 12, 2, 30, props);
+        Effector effector = new Effector(network);
+        network.setEffector(effector);
+        effector.setMirrors(18, 15);
+        effector.setStrategy(new StarTopologyStrategy(), 35);
+        effector.setMirrors(7, 55);
+    }
+
+    /** Rebuilds the graph from coalesced changes only. */
+    private static final class Model implements NetworkChangeTracker.Listener {
+        final Map<Integer, Mirror.State> mirrors = new HashMap<>();
+        final Map<Integer, Link.State> links = new HashMap<>();
+
+        @Override
+        public void mirrorAdded(int id, Mirror.State state) {
+            assertNull(mirrors.put(id, state));
+        }
+
+        @Override
+        public void mirrorStateChanged(int id, Mirror.State state) {
+            assertNotNull(mirrors.put(id, state));
+        }
+
+        @Override
+        public void mirrorRemoved(int id) {
+            assertNotNull(mirrors.remove(id));
+        }
+
+        @Override
+        public void linkAdded(int id, int source, int target, Link.State state) {
+            assertTrue(mirrors.containsKey(source) && mirrors.containsKey(target));
+            assertNull(links.put(id, state));
+        }
+
+        @Override
+        public void linkStateChanged(int id, Link.State state) {
+            assertNotNull(links.put(id, state));
+        }
+
+        @Override
+        public void linkRemoved(int id) {
+            assertNotNull(links.remove(id));
+        }
+    }
+
+    @Test
+    @DisplayName("Zusammengefasste Ticks ergeben denselben Graphen und alle Messpunkte")
+    void coalescedFramesReproduceNetwork() {
+        FrameExchange exchange = new FrameExchange();
+        Model model = new Model();
+        List<Integer> ticks = new ArrayList<>();
+        List<Integer> bandwidth = new ArrayList<>();
+
+        for (int t = 0; t <= 70; t++) {
+            if (t > 0) network.timeStep(t - 1);
+            exchange.publish(network, t);
+            // render only every 7th tick, as a slow renderer would
+            if (t % 7 != 0) continue;
+            FrameExchange.Frame frame = exchange.poll();
+            assertNotNull(frame);
+            assertEquals(t, frame.tick());
+            assertFalse(frame.restart());
+            frame.changes().drainTo(model);
+            for (int i = 0; i < frame.points(); i++) {
+                ticks.add(frame.ticks()[i]);
+                bandwidth.add(frame.bandwidth()[i]);
+            }
+
+            assertEquals(network.getMirrors().stream().collect(Collectors.toMap(Mirror::getID, Mirror::getState)),
+                    model.mirrors, "Tick " + t);
+            assertEquals(network.getLinks().stream().filter(l -> l.getState() != Link.State.CLOSED)
+                    .collect(Collectors.toMap(Link::getID, Link::getState)), model.links, "Tick " + t);
+        }
+        assertNull(exchange.poll());
+        assertEquals(71, exchange.getPublished());
+        assertEquals(11, exchange.getFrames());
+        assertEquals(new ArrayList<>(network.getBandwidthHistory().keySet()), ticks);
+        assertEquals(new ArrayList<>(network.getBandwidthHistory().values()), bandwidth);
+    }
+
+    @Test
+    @DisplayName("Ein zurückgesetzter Verlauf startet die Diagramme neu")
+    void rewoundHistoryRestartsCharts() {
+        FrameExchange exchange = new FrameExchange();
+        for (int t = 0; t < 10; t++) network.timeStep(t);
+        exchange.publish(network, 10);
+        assertEquals(10, exchange.poll().points());
+
+        network.getBandwidthHistory().clear();
+        network.getActiveLinksHistory().clear();
+        network.getTtwHistory().clear();
+        for (int t = 0; t < 3; t++) network.timeStep(t);
+        exchange.publish(network, 3);
+        FrameExchange.Frame frame = exchange.poll();
+        assertTrue(frame.restart());
+        assertArrayEquals(new int[]{0, 1, 2}, frame.ticks());
+    }
+
+    @Test
+    @DisplayName("Der Render-Thread wartet auf die nächste Veröffentlichung")
+    void awaitBlocksUntilPublished() throws Exception {
+        FrameExchange exchange = new FrameExchange();
+        List<FrameExchange.Frame> rendered = Collections.synchronizedList(new ArrayList<>());
+        Thread renderer = new Thread(() -> {
+            try {
+                rendered.add(exchange.await());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        renderer.start();
+        TimeUnit.MILLISECONDS.sleep(50);
+        assertTrue(rendered.isEmpty());
+
+        exchange.publish(network, 0);
+        renderer.join(1000);
+        assertEquals(1, rendered.size());
+        assertFalse(rendered.get(0).changes().isEmpty());
+    }
+}
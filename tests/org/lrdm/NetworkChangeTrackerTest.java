@@ -0,0 +1,160 @@
+package org.lrdm;
+
+import org.graphstream.graph.Graph;
+import org.graphstream.graph.Node;
+import org.graphstream.graph.implementations.SingleGraph;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.lrdm.effectors.Effector;
+import org.lrdm.probes.EventTraceProbe;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+import org.lrdm.topologies.strategies.StarTopologyStrategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("Änderungs-Feed für die Visualisierung")
+class NetworkChangeTrackerTest {
+    private static final String config = "resources/sim-test-1.conf";
+    private Network network;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        network = new Network(new BalancedTreeTopologyStrategy(), 12, 2, 30, props);
+        Effector effector = new Effector(network);
+        network.setEffector(effector);
+        effector.setMirrors(18, 15);
+        effector.setStrategy(new StarTopologyStrategy(), 35);
+        effector.setMirrors(7, 55);
+    }
+
+    /** Rebuilds the tracked state from the reported changes only. */
+    private static final class Model implements NetworkChangeTracker.Listener {
+        final Map<Integer, Mirror.State> mirrors = new HashMap<>();
+        final Map<Integer, Link.State> links = new HashMap<>();
+        /** Coalesced changes may report a state that ends up unchanged. */
+        final boolean strict;
+
+        Model(boolean strict) {
+            this.strict = strict;
+        }
+
+        @Override
+        public void mirrorAdded(int id, Mirror.State state) {
+            assertNull(mirrors.put(id, state));
+        }
+
+        @Override
+        public void mirrorStateChanged(int id, Mirror.State state) {
+            Mirror.State before = mirrors.put(id, state);
+            assertNotNull(before);
+            if (strict) assertNotEquals(state, before);
+        }
+
+        @Override
+        public void mirrorRemoved(int id) {
+            assertNotNull(mirrors.remove(id));
+        }
+
+        @Override
+        public void linkAdded(int id, int source, int target, Link.State state) {
+            assertNull(links.put(id, state));
+        }
+
+        @Override
+        public void linkStateChanged(int id, Link.State state) {
+            Link.State before = links.put(id, state);
+            assertNotNull(before);
+            if (strict) assertNotEquals(state, before);
+        }
+
+        @Override
+        public void linkRemoved(int id) {
+            assertNotNull(links.remove(id));
+        }
+    }
+
+    @Test
+    @DisplayName("Die gemeldeten Änderungen ergeben in jedem Tick den Zustand des Netzwerks")
+    void changesReproduceNetworkState() {
+        NetworkChangeTracker tracker = new NetworkChangeTracker();
+        Model model = new Model(true);
+        assertTrue(tracker.poll(network, model) > 0);
+        assertEquals(0, tracker.poll(network, model));
+
+        for (int t = 1; t <= 70; t++) {
+            network.timeStep(t);
+            tracker.poll(network, model);
+            assertEquals(network.getMirrors().stream().collect(Collectors.toMap(Mirror::getID, Mirror::getState)),
+                    model.mirrors, "Tick " + t);
+            assertEquals(network.getLinks().stream().filter(l -> l.getState() != Link.State.CLOSED)
+                    .collect(Collectors.toMap(Link::getID, Link::getState)), model.links, "Tick " + t);
+        }
+    }
+
+    @Test
+    @DisplayName("Der Graph enthält in jedem Tick genau die Mirrors und offenen Links")
+    void graphFollowsNetwork() {
+        Graph graph = new SingleGraph("test");
+        GraphUpdater updater = new GraphUpdater(graph);
+        NetworkChangeTracker tracker = new NetworkChangeTracker();
+        tracker.poll(network, updater);
+
+        for (int t = 1; t <= 70; t++) {
+            network.timeStep(t);
+            tracker.poll(network, updater);
+
+            Map<String, String> expectedNodes = network.getMirrors().stream().collect(Collectors.toMap(
+                    m -> String.valueOf(m.getID()), m -> GraphUpdater.uiClassOf(m.getState())));
+            Map<String, String> nodes = graph.nodes().collect(Collectors.toMap(Node::getId,
+                    n -> (String) n.getAttribute(GraphUpdater.UI_CLASS)));
+            assertEquals(expectedNodes, nodes, "Tick " + t);
+
+            Set<Set<String>> expectedEdges = network.getLinks().stream()
+                    .filter(l -> l.getState() != Link.State.CLOSED)
+                    .map(l -> Set.of(String.valueOf(l.getSource().getID()), String.valueOf(l.getTarget().getID())))
+                    .collect(Collectors.toSet());
+            Set<Set<String>> edges = graph.edges()
+                    .map(e -> Set.of(e.getSourceNode().getId(), e.getTargetNode().getId()))
+                    .collect(Collectors.toSet());
+            assertEquals(expectedEdges, edges, "Tick " + t);
+            assertEquals(expectedEdges.size(), graph.getEdgeCount(), "Tick " + t);
+        }
+    }
+
+    @Test
+    @DisplayName("Auch die Änderungen eines Replays werden gemeldet, einschließlich Rücksprüngen")
+    void followsReplay(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("run.lrdt");
+        try (EventTraceProbe probe = new EventTraceProbe(network, file)) {
+            network.registerProbe(probe);
+            for (int t = 1; t <= 70; t++) network.timeStep(t);
+        }
+
+        try (TraceReplay replay = new TraceReplay(file, null)) {
+            NetworkChangeTracker tracker = new NetworkChangeTracker();
+            Model model = new Model(true);
+            tracker.poll(replay.getNetwork(), model);
+            for (int target : new int[]{20, 60, 10, 70}) {
+                replay.seek(target);
+                tracker.poll(replay.getNetwork(), model);
+                assertEquals(replay.getNetwork().getMirrors().stream()
+                        .collect(Collectors.toMap(Mirror::getID, Mirror::getState)), model.mirrors, "Tick " + target);
+                assertEquals(replay.getNetwork().getLinks().stream()
+                        .collect(Collectors.toMap(Link::getID, Link::getState)), model.links, "Tick " + target);
+            }
+            assertEquals(0, tracker.poll(replay.getNetwork(), model));
+        }
+    }
+}
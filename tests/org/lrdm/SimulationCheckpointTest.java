@@ -0,0 +1,249 @@
+package org.lrdm;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.lrdm.effectors.Action;
+import org.lrdm.effectors.Effector;
+import org.lrdm.effectors.MigrationStageChange;
+import org.lrdm.effectors.TopologyChange;
+import org.lrdm.topologies.node.StructureNode;
+import org.lrdm.topologies.strategies.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("Binäre Checkpoints der Simulation")
+class SimulationCheckpointTest {
+    private static final String config = "resources/sim-test-1.conf";
+
+    @TempDir
+    Path dir;
+
+    private Network network;
+    private Effector effector;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        network = new Network(new BalancedTreeTopologyStrategy(), 15, 2, 30, props);
+        effector = new Effector(network);
+        network.setEffector(effector);
+        for (int t = 1; t <= 25; t++) {
+            network.timeStep(t);
+        }
+    }
+
+    private static Map<Integer, Link.State> linkStates(Network n) {
+        return n.getLinks().stream().collect(Collectors.toMap(Link::getID, Link::getState));
+    }
+
+    @Test
+    @DisplayName("Mirrors, Links und Historien überstehen den Round-Trip")
+    void roundTripRestoresState() throws IOException {
+        Path file = dir.resolve("sim.ckpt");
+        SimulationCheckpoint.save(network, file);
+
+        Network restored = SimulationCheckpoint.restore(file);
+
+        assertEquals(network.getCurrentTimeStep(), restored.getCurrentTimeStep());
+        assertEquals(network.getNumTargetLinksPerMirror(), restored.getNumTargetLinksPerMirror());
+        assertEquals(network.getMirrors().stream().map(Mirror::getID).toList(),
+                restored.getMirrors().stream().map(Mirror::getID).toList());
+        for (int i = 0; i < network.getNumMirrors(); i++) {
+            Mirror a = network.getMirrors().get(i);
+            Mirror b = restored.getMirrors().get(i);
+            assertEquals(a.getState(), b.getState());
+            assertEquals(a.isRoot(), b.isRoot());
+            assertEquals(a.getStartupTime(), b.getStartupTime());
+            assertEquals(a.getLinks().size(), b.getLinks().size());
+        }
+        assertEquals(linkStates(network), linkStates(restored));
+        assertEquals(network.getBandwidthHistory(), restored.getBandwidthHistory());
+        assertEquals(network.getActiveLinksHistory(), restored.getActiveLinksHistory());
+        assertEquals(network.getTtwHistory(), restored.getTtwHistory());
+    }
+
+    @Test
+    @DisplayName("Die StructureNode-Struktur der Strategie wird wiederhergestellt")
+    void restoresStructure() throws IOException {
+        Path file = dir.resolve("plan.ckpt");
+        SimulationCheckpoint.save(network, file);
+
+        BalancedTreeTopologyStrategy strategy = new BalancedTreeTopologyStrategy();
+        Network restored = SimulationCheckpoint.restore(file, strategy);
+
+        BuildAsSubstructure original = (BuildAsSubstructure) network.getTopologyStrategy();
+        assertSame(strategy, restored.getTopologyStrategy());
+        assertEquals(original.getAllStructureNodes().size(), strategy.getAllStructureNodes().size());
+        assertEquals(original.getNumTargetLinks(network), strategy.getNumTargetLinks(restored));
+    }
+
+    @Test
+    @DisplayName("Ein falscher Strategietyp wird abgelehnt")
+    void rejectsWrongStrategy() throws IOException {
+        Path file = dir.resolve("wrong.ckpt");
+        SimulationCheckpoint.save(network, file);
+
+        assertThrows(IOException.class, () -> SimulationCheckpoint.restore(file, new StarTopologyStrategy()));
+    }
+
+    @Test
+    @DisplayName("Fremde Dateien werden abgelehnt")
+    void rejectsForeignFile() throws IOException {
+        Path file = dir.resolve("foreign.ckpt");
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8});
+
+        assertThrows(IOException.class, () -> SimulationCheckpoint.restore(file));
+    }
+
+    @Test
+    @DisplayName("Ausstehende Effector-Aktionen werden mit ihren IDs wiederhergestellt")
+    void restoresPendingActions() throws IOException {
+        effector.setMirrors(20, 40);
+        effector.setTargetLinksPerMirror(3, 45);
+        effector.setStrategyRolling(new LineTopologyStrategy(), 26, 1, 1);
+        network.timeStep(26);
+        assertTrue(effector.getPendingActions().stream().anyMatch(MigrationStageChange.class::isInstance));
+
+        Path file = dir.resolve("actions.ckpt");
+        SimulationCheckpoint.save(network, file);
+        Network restored = SimulationCheckpoint.restore(file);
+
+        List<Action> expected = effector.getPendingActions();
+        List<Action> actual = restored.getEffector().getPendingActions();
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getTime(), actual.get(i).getTime());
+        }
+    }
+
+    @Test
+    @DisplayName("Die wiederhergestellte Simulation läuft weiter")
+    void restoredNetworkContinues() throws IOException {
+        effector.setMirrors(20, 30);
+        Path file = dir.resolve("continue.ckpt");
+        SimulationCheckpoint.save(network, file);
+        Network restored = SimulationCheckpoint.restore(file);
+
+        Set<Integer> usedIds = restored.getLinks().stream().map(Link::getID).collect(Collectors.toSet());
+        for (int t = 26; t <= 50; t++) {
+            restored.timeStep(t);
+        }
+
+        assertEquals(20, restored.getNumTargetMirrors());
+        assertEquals(20, restored.getMirrors().stream().filter(Mirror::isUsableForNetwork).count());
+        assertTrue(restored.getLinks().stream()
+                .filter(l -> !usedIds.contains(l.getID()))
+                .allMatch(l -> l.getID() >= Collections.max(usedIds)));
+    }
+
+    @Test
+    @DisplayName("Die Konfiguration der Strategien wird mitgesichert")
+    void restoresStrategyConfiguration() throws IOException {
+        Network configured = new Network(new DepthLimitTreeTopologyStrategy(4, false), 15, 2, 30, network.getProps());
+        configured.setEffector(new Effector(configured));
+        configured.getEffector().setStrategy(new LineTopologyStrategy(5, false), 40);
+
+        Path file = dir.resolve("config.ckpt");
+        SimulationCheckpoint.save(configured, file);
+        Network restored = SimulationCheckpoint.restore(file);
+
+        assertEquals(List.of(4, false, DepthInsertionStrategy.DEPTH_FIRST),
+                restored.getTopologyStrategy().getConfiguration());
+        TopologyChange pending = (TopologyChange) restored.getEffector().getPendingActions().get(0);
+        assertEquals(List.of(5, false), pending.getNewTopology().getConfiguration());
+    }
+
+    @Test
+    @DisplayName("Nicht wiederherstellbare Strategien werden beim Sichern abgelehnt")
+    void rejectsUnrestorableStrategies() {
+        effector.setStrategy(new LineTopologyStrategy() {
+        }, 40);
+        assertThrows(IOException.class, () -> SimulationCheckpoint.save(network, dir.resolve("anonymous.ckpt")));
+
+        effector.removeAction(effector.getPendingActions().get(0));
+        effector.setStrategy(new SnowflakeTopologyStrategy(
+                new SnowflakeTopologyStrategy.SnowflakeProperties(0.5, 2),
+                SubstructureFactory.fromSuppliers(Map.of(StructureNode.StructureType.LINE, LineTopologyStrategy::new)),
+                List.of(StructureNode.StructureType.LINE)), 40);
+        assertThrows(IOException.class, () -> SimulationCheckpoint.save(network, dir.resolve("factory.ckpt")));
+    }
+
+    @Test
+    @DisplayName("Schneeflocken ohne exportierbaren Plan werden neu geplant")
+    void restoresSnowflakeWithoutPlan() throws IOException {
+        SnowflakeTopologyStrategy original = new SnowflakeTopologyStrategy();
+        Network snowflake = new Network(original, 30, 2, 30, network.getProps());
+        snowflake.setEffector(new Effector(snowflake));
+        for (int t = 1; t <= 25; t++) {
+            snowflake.timeStep(t);
+        }
+
+        Path file = dir.resolve("snowflake.ckpt");
+        SimulationCheckpoint.save(snowflake, file);
+        Network restored = SimulationCheckpoint.restore(file);
+
+        BuildAsSubstructure strategy = (BuildAsSubstructure) restored.getTopologyStrategy();
+        assertEquals(original.getAllStructureNodes().size(), strategy.getAllStructureNodes().size());
+        assertEquals(original.getNumTargetLinks(snowflake), strategy.getNumTargetLinks(restored));
+        assertEquals(linkStates(snowflake), linkStates(restored));
+
+        restored.timeStep(26);
+        assertEquals(linkStates(snowflake).keySet(), linkStates(restored).keySet());
+    }
+
+    @Test
+    @DisplayName("Beschädigte Dateien führen immer zu einer IOException")
+    void corruptFilesFailWithIOException() throws IOException {
+        Path file = dir.resolve("corrupt.ckpt");
+        SimulationCheckpoint.save(network, file);
+        byte[] valid = Files.readAllBytes(file);
+
+        for (int pos = 8; pos < valid.length; pos += Math.max(1, valid.length / 200)) {
+            byte[] corrupt = valid.clone();
+            corrupt[pos] = (byte) 0xFF;
+            Files.write(file, corrupt);
+            try {
+                SimulationCheckpoint.restore(file);
+            } catch (IOException expected) {
+                // beschädigte Stelle erkannt
+            } catch (RuntimeException | OutOfMemoryError e) {
+                fail("Byte " + pos + ": " + e);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("100.000 Mirrors werden deutlich unter einer Sekunde wiederhergestellt")
+    void restoresLargeNetworkQuickly() throws IOException {
+        Network large = new Network(new BalancedTreeTopologyStrategy(), 100_000, 2, 30, network.getProps());
+        Path file = dir.resolve("large.ckpt");
+        SimulationCheckpoint.save(large, file);
+        // ein Durchlauf zum Aufwärmen des JIT, gemessen wird der zweite
+        SimulationCheckpoint.restore(file);
+
+        // CPU-Zeit des Threads, damit GC-Pausen und JIT der Test-JVM die Messung nicht verfälschen
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        long start = threads.getCurrentThreadCpuTime();
+        Network restored = SimulationCheckpoint.restore(file);
+        long duration = threads.getCurrentThreadCpuTime() - start;
+
+        assertEquals(100_000, restored.getNumMirrors());
+        assertTrue(duration < 1_000_000_000L, "Wiederherstellung dauerte " + duration / 1_000_000 + " ms");
+    }
+}
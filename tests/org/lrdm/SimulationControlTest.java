@@ -0,0 +1,173 @@
+package org.lrdm;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lrdm.effectors.Action;
+import org.lrdm.effectors.Effector;
+import org.lrdm.effectors.MirrorChange;
+import org.lrdm.effectors.TopologyChange;
+import org.lrdm.topologies.strategies.FullyConnectedTopology;
+import org.lrdm.topologies.strategies.StarTopologyStrategy;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.RuntimeMBeanException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Steuerung einer laufenden Simulation über JMX")
+class SimulationControlTest {
+    private Network network;
+    private Effector effector;
+    private SimulationControl control;
+
+    @BeforeEach
+    void setUp() {
+        Properties props = new Properties();
+        props.setProperty("max_bandwidth", "1000");
+        props.setProperty("startup_time_min", "1");
+        props.setProperty("startup_time_max", "2");
+        props.setProperty("ready_time_min", "1");
+        props.setProperty("ready_time_max", "2");
+        props.setProperty("link_activation_time_min", "1");
+        props.setProperty("link_activation_time_max", "2");
+        props.setProperty("fault_probability", "0.0");
+        props.setProperty("stop_time_min", "1");
+        props.setProperty("stop_time_max", "2");
+
+        network = new Network(new FullyConnectedTopology(), 6, 3, 30, props);
+        effector = new Effector(network);
+        network.setEffector(effector);
+        control = new SimulationControl(network, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        control.close();
+    }
+
+    private void step(int t) {
+        control.beforeStep(t);
+        network.timeStep(t);
+        control.afterStep(t);
+    }
+
+    @Test
+    @DisplayName("Nebenläufig eingereichte Aktionen erreichen den Effector erst vor dem nächsten Schritt")
+    void submissionsAreAppliedOnSimulationThread() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        for (int c = 0; c < 4; c++) {
+            clients.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                for (int i = 0; i < 50; i++) {
+                    control.scheduleMirrors(8, 5);
+                }
+            });
+        }
+        start.countDown();
+        clients.shutdown();
+        assertTrue(clients.awaitTermination(10, TimeUnit.SECONDS));
+
+        assertEquals(200, control.getQueuedSubmissions());
+        assertTrue(effector.getPendingActions().isEmpty());
+
+        control.beforeStep(0);
+        assertEquals(0, control.getQueuedSubmissions());
+        List<Action> pending = effector.getPendingActions();
+        assertEquals(200, pending.size());
+        assertTrue(pending.stream().allMatch(a -> a instanceof MirrorChange && a.getTime() == 5));
+    }
+
+    @Test
+    @DisplayName("Aktionen für vergangene Schritte werden im nächsten Schritt angewendet")
+    void pastTicksAreAppliedNext() {
+        for (int t = 0; t < 3; t++) step(t);
+        control.scheduleMirrors(9, 1);
+        control.scheduleStrategy("StarTopologyStrategy", -1);
+
+        step(3);
+        assertEquals(9, network.getNumTargetMirrors());
+        assertInstanceOf(StarTopologyStrategy.class, network.getTopologyStrategy());
+        assertEquals("StarTopologyStrategy", control.getTopologyStrategy());
+        assertEquals(3, control.getTick());
+        assertEquals(0, control.getPendingActions().length);
+
+        control.scheduleTargetLinksPerMirror(2, 6);
+        step(4);
+        assertEquals(1, control.getPendingActions().length);
+        assertTrue(control.getPendingActions()[0].startsWith("TargetLinkChange"));
+    }
+
+    @Test
+    @DisplayName("Attribute und Operationen sind über den MBean-Server erreichbar")
+    void registeredWithPlatformMBeanServer() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = control.register();
+        assertTrue(server.isRegistered(name));
+
+        step(0);
+        step(1);
+        assertEquals(1, server.getAttribute(name, "Tick"));
+        assertEquals(network.getNumReadyMirrors(), server.getAttribute(name, "NumReadyMirrors"));
+        assertEquals(network.getNumActiveLinks(), server.getAttribute(name, "NumActiveLinks"));
+        assertEquals("FullyConnectedTopology", server.getAttribute(name, "TopologyStrategy"));
+        assertTrue((Double) server.getAttribute(name, "TickRate") > 0);
+
+        server.invoke(name, "scheduleStrategy", new Object[]{"org.lrdm.topologies.strategies.StarTopologyStrategy", 4},
+                new String[]{String.class.getName(), int.class.getName()});
+        RuntimeMBeanException unknown = assertThrows(RuntimeMBeanException.class, () -> server.invoke(name,
+                "scheduleStrategy", new Object[]{"NoSuchTopology", 4},
+                new String[]{String.class.getName(), int.class.getName()}));
+        assertInstanceOf(IllegalArgumentException.class, unknown.getCause());
+        assertEquals(1, control.getQueuedSubmissions());
+
+        control.beforeStep(2);
+        assertInstanceOf(TopologyChange.class, effector.getActionsAt(4).get(0));
+
+        control.close();
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    @DisplayName("Eine pausierte Simulation wartet bis zur Fortsetzung")
+    void pauseBlocksUntilResumed() throws Exception {
+        control.pause();
+        assertTrue(control.isPaused());
+        CountDownLatch stepped = new CountDownLatch(1);
+        Thread simulation = new Thread(() -> {
+            control.beforeStep(0);
+            stepped.countDown();
+        });
+        simulation.start();
+
+        assertFalse(stepped.await(200, TimeUnit.MILLISECONDS));
+        control.resume();
+        assertTrue(stepped.await(5, TimeUnit.SECONDS));
+        simulation.join();
+        assertFalse(control.isPaused());
+    }
+
+    @Test
+    @DisplayName("Die Schrittverzögerung bremst die Simulation")
+    void stepDelayPacesSteps() {
+        control.setStepDelayMillis(50);
+        long start = System.nanoTime();
+        for (int t = 0; t < 4; t++) step(t);
+        assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 150);
+        assertThrows(IllegalArgumentException.class, () -> control.setStepDelayMillis(-1));
+    }
+}
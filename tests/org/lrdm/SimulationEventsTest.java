@@ -0,0 +1,119 @@
+package org.lrdm;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.lrdm.effectors.Effector;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+import org.lrdm.topologies.strategies.StarTopologyStrategy;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("JFR-Events des Simulators")
+class SimulationEventsTest {
+    private static final String config = "resources/sim-test-1.conf";
+
+    @TempDir
+    Path dir;
+
+    private List<RecordedEvent> record(boolean withSettings) throws Exception {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        Path file = dir.resolve("run.jfr");
+        try (Recording recording = withSettings ? new Recording(lrdmSettings()) : new Recording()) {
+            recording.start();
+            Network network = new Network(new BalancedTreeTopologyStrategy(), 10, 2, 30, props);
+            Effector effector = new Effector(network);
+            network.setEffector(effector);
+            effector.setMirrors(14, 5);
+            effector.setStrategy(new StarTopologyStrategy(), 10);
+            for (int t = 1; t <= 20; t++) {
+                network.timeStep(t);
+            }
+            network.getMirrors().get(0).crash(21);
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().startsWith("org.lrdm."))
+                .toList();
+    }
+
+    private static Configuration lrdmSettings() throws IOException, java.text.ParseException {
+        try (Reader reader = new InputStreamReader(Files.newInputStream(Path.of("resources/lrdm.jfc")),
+                StandardCharsets.UTF_8)) {
+            return Configuration.create(reader);
+        }
+    }
+
+    private static Map<String, List<RecordedEvent>> byType(List<RecordedEvent> events) {
+        return events.stream().collect(Collectors.groupingBy(e -> e.getEventType().getName()));
+    }
+
+    @Test
+    @DisplayName("Mit lrdm.jfc werden Ticks, Umbauten, Aktionen, Crashes und Zustandswechsel aufgezeichnet")
+    void recordsAllEventTypes() throws Exception {
+        Map<String, List<RecordedEvent>> events = byType(record(true));
+
+        assertEquals(20, events.get("org.lrdm.Tick").size());
+        Map<String, RecordedEvent> rebuilds = events.get("org.lrdm.TopologyRebuild").stream()
+                .collect(Collectors.toMap(e -> e.getString("operation"), Function.identity(), (a, b) -> a));
+        assertEquals("BalancedTreeTopologyStrategy", rebuilds.get("build").getString("strategy"));
+        assertTrue(rebuilds.get("build").getInt("linksAdded") > 0);
+        assertEquals(14, rebuilds.get("add").getInt("nodeCount"));
+        RecordedEvent rebuild = rebuilds.get("rebuild");
+        assertEquals("StarTopologyStrategy", rebuild.getString("strategy"));
+        assertEquals(10, rebuild.getInt("tick"));
+        assertTrue(rebuild.getInt("linksAdded") > 0 && rebuild.getInt("linksRemoved") > 0);
+
+        assertEquals(List.of(5, 10), events.get("org.lrdm.ActionApplication").stream()
+                .map(e -> e.getInt("tick")).toList());
+        assertEquals(1, events.get("org.lrdm.MirrorCrash").size());
+        assertEquals(21, events.get("org.lrdm.MirrorCrash").get(0).getInt("tick"));
+        assertTrue(events.get("org.lrdm.MirrorStateTransition").stream()
+                .anyMatch(e -> "UP".equals(e.getString("to"))));
+        assertTrue(events.get("org.lrdm.LinkStateTransition").stream()
+                .anyMatch(e -> "ACTIVE".equals(e.getString("to"))));
+    }
+
+    @Test
+    @DisplayName("Zustandswechsel ohne bekannten Tick tragen den laufenden Tick")
+    void transitionsCarryTheTickInProgress() throws Exception {
+        Map<String, List<RecordedEvent>> events = byType(record(true));
+
+        List<RecordedEvent> closed = events.get("org.lrdm.LinkStateTransition").stream()
+                .filter(e -> "CLOSED".equals(e.getString("to"))).toList();
+        assertFalse(closed.isEmpty());
+        assertTrue(closed.stream().allMatch(e -> e.getInt("tick") >= 1 && e.getInt("tick") <= 20));
+        assertTrue(events.get("org.lrdm.MirrorStateTransition").stream().allMatch(e -> e.getInt("tick") >= 0));
+    }
+
+    @Test
+    @DisplayName("Ohne Einstellungen bleiben die häufigen Zustandswechsel ausgeschaltet")
+    void transitionsDisabledByDefault() throws Exception {
+        Map<String, List<RecordedEvent>> events = byType(record(false));
+
+        assertEquals(20, events.get("org.lrdm.Tick").size());
+        assertFalse(events.containsKey("org.lrdm.MirrorStateTransition"));
+        assertFalse(events.containsKey("org.lrdm.LinkStateTransition"));
+    }
+}
@@ -0,0 +1,226 @@
+package org.lrdm;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.lrdm.effectors.Effector;
+import org.lrdm.probes.EventTraceProbe;
+import org.lrdm.probes.MetricsExportProbe;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+import org.lrdm.topologies.strategies.StarTopologyStrategy;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("Wiedergabe aufgezeichneter Traces")
+class TraceReplayTest {
+    private static final String config = "resources/sim-test-1.conf";
+    private static final int TICKS = 80;
+
+    @TempDir
+    Path dir;
+
+    private Path tracePath;
+    private Path metricsPath;
+    private final Map<Integer, Map<Integer, Mirror.State>> mirrorsPerTick = new HashMap<>();
+    private final Map<Integer, Map<Integer, Link.State>> linksPerTick = new HashMap<>();
+    private Network network;
+
+    @BeforeEach
+    void record() throws IOException {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        network = new Network(new BalancedTreeTopologyStrategy(), 12, 2, 30, props);
+        Effector effector = new Effector(network);
+        network.setEffector(effector);
+        effector.setMirrors(18, 20);
+        effector.setStrategy(new StarTopologyStrategy(), 40);
+        effector.setMirrors(8, 60);
+
+        tracePath = dir.resolve("run.lrdt");
+        metricsPath = dir.resolve("run.bin");
+        try (EventTraceProbe trace = new EventTraceProbe(network, tracePath, 64);
+             MetricsExportProbe metrics = new MetricsExportProbe(network, metricsPath, MetricsExportProbe.Format.BINARY)) {
+            network.registerProbe(trace);
+            network.registerProbe(metrics);
+            // the trace starts with the network as it was when the probe was created
+            snapshot(0);
+            for (int t = 1; t <= TICKS; t++) {
+                network.timeStep(t);
+                snapshot(t);
+            }
+        }
+    }
+
+    private void snapshot(int t) {
+        mirrorsPerTick.put(t, network.getMirrors().stream()
+                .filter(m -> m.getState() != Mirror.State.STOPPED)
+                .collect(Collectors.toMap(Mirror::getID, Mirror::getState)));
+        linksPerTick.put(t, network.getLinks().stream()
+                .filter(l -> l.getState() != Link.State.CLOSED)
+                .filter(l -> l.getSource().getState() != Mirror.State.STOPPED
+                        && l.getTarget().getState() != Mirror.State.STOPPED)
+                .collect(Collectors.toMap(Link::getID, Link::getState)));
+    }
+
+    private static Map<Integer, Mirror.State> mirrors(Network n) {
+        return n.getMirrors().stream().collect(Collectors.toMap(Mirror::getID, Mirror::getState));
+    }
+
+    private static Map<Integer, Link.State> links(Network n) {
+        return n.getLinks().stream().collect(Collectors.toMap(Link::getID, Link::getState));
+    }
+
+    @Nested
+    @DisplayName("TraceReplay")
+    class Replay {
+
+        @Test
+        @DisplayName("Jeder Tick entspricht dem aufgezeichneten Zustand")
+        void everyTickMatchesRecording() throws IOException {
+            try (TraceReplay replay = new TraceReplay(tracePath, metricsPath)) {
+                assertEquals(0, replay.getFirstTick());
+                assertEquals(TICKS, replay.getLastTick());
+                while (replay.step()) {
+                    int t = replay.getTick();
+                    assertEquals(mirrorsPerTick.get(t), mirrors(replay.getNetwork()), "Tick " + t);
+                    assertEquals(linksPerTick.get(t), links(replay.getNetwork()), "Tick " + t);
+                }
+                assertEquals(network.getBandwidthHistory(), replay.getNetwork().getBandwidthHistory());
+                assertEquals(network.getTtwHistory(), replay.getNetwork().getTtwHistory());
+            }
+        }
+
+        @Test
+        @DisplayName("Rückwärts- und Vorwärtssprünge liefern denselben Zustand")
+        void seekIsPathIndependent() throws IOException {
+            try (TraceReplay replay = new TraceReplay(tracePath, null)) {
+                replay.seek(70);
+                replay.seek(25);
+                assertEquals(mirrorsPerTick.get(25), mirrors(replay.getNetwork()));
+                assertEquals(linksPerTick.get(25), links(replay.getNetwork()));
+                replay.seek(55);
+                assertEquals(mirrorsPerTick.get(55), mirrors(replay.getNetwork()));
+                assertTrue(replay.getNetwork().getBandwidthHistory().isEmpty());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("TraceReplayPlayer")
+    class Player {
+
+        private final List<Long> rendered = new CopyOnWriteArrayList<>();
+        private final VisualizationStrategy recorder = new VisualizationStrategy() {
+            @Override
+            public void init(Network network) {
+                rendered.add(-1L);
+            }
+
+            @Override
+            public void updateGraph(Network network, long timeStep) {
+                rendered.add(timeStep);
+            }
+        };
+
+        @Test
+        @DisplayName("Schnellvorlauf erreicht das Ende ohne jeden Tick zu rendern")
+        void fastForwardSkipsFrames() throws Exception {
+            try (TraceReplay replay = new TraceReplay(tracePath, metricsPath);
+                 TraceReplayPlayer player = new TraceReplayPlayer(replay, recorder)) {
+                CountDownLatch end = new CountDownLatch(1);
+                player.setFrameListener(t -> {
+                    if (t == TICKS) end.countDown();
+                });
+                player.setSpeed(1000);
+                player.start();
+                player.play();
+
+                assertTrue(end.await(5, TimeUnit.SECONDS));
+                assertEquals(-1L, rendered.get(0));
+                assertTrue(rendered.size() - 1 < TICKS);
+                List<Long> ticks = rendered.subList(1, rendered.size());
+                for (int i = 1; i < ticks.size(); i++) {
+                    assertTrue(ticks.get(i) > ticks.get(i - 1));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Nach einer Pause läuft die Wiedergabe ohne Sprung weiter")
+        void resumeDoesNotJump() throws Exception {
+            try (TraceReplay replay = new TraceReplay(tracePath, metricsPath);
+                 TraceReplayPlayer player = new TraceReplayPlayer(replay, recorder)) {
+                CountDownLatch started = new CountDownLatch(1);
+                player.setFrameListener(t -> started.countDown());
+                player.setSpeed(10);
+                player.start();
+                player.play();
+                assertTrue(started.await(5, TimeUnit.SECONDS));
+
+                player.pause();
+                // ohne Korrektur entspräche die Pause zehn Ticks
+                Thread.sleep(1000);
+                int pausedAt = player.getRenderedTick();
+                CountDownLatch resumed = new CountDownLatch(1);
+                List<Integer> afterResume = new CopyOnWriteArrayList<>();
+                player.setFrameListener(t -> {
+                    afterResume.add(t);
+                    resumed.countDown();
+                });
+                player.play();
+
+                assertTrue(resumed.await(5, TimeUnit.SECONDS));
+                assertTrue(afterResume.get(0) <= pausedAt + 2, pausedAt + " -> " + afterResume.get(0));
+
+                player.pause();
+                CountDownLatch sought = new CountDownLatch(1);
+                player.setFrameListener(t -> sought.countDown());
+                player.seek(10);
+                assertTrue(sought.await(5, TimeUnit.SECONDS));
+                Thread.sleep(1000);
+                afterResume.clear();
+                CountDownLatch resumedAfterSeek = new CountDownLatch(1);
+                player.setFrameListener(t -> {
+                    afterResume.add(t);
+                    resumedAfterSeek.countDown();
+                });
+                player.play();
+
+                assertTrue(resumedAfterSeek.await(5, TimeUnit.SECONDS));
+                assertTrue(afterResume.get(0) <= 12, "10 -> " + afterResume.get(0));
+            }
+        }
+
+        @Test
+        @DisplayName("Scrubben im Pausenzustand rendert nur den zuletzt angeforderten Tick")
+        void scrubWhilePaused() throws Exception {
+            try (TraceReplay replay = new TraceReplay(tracePath, metricsPath);
+                 TraceReplayPlayer player = new TraceReplayPlayer(replay, recorder)) {
+                CountDownLatch done = new CountDownLatch(1);
+                player.setFrameListener(t -> {
+                    if (t == 30) done.countDown();
+                });
+                player.start();
+                player.seek(30);
+
+                assertTrue(done.await(5, TimeUnit.SECONDS));
+                assertFalse(player.isPlaying());
+                assertEquals(30, player.getRenderedTick());
+                assertEquals(30L, rendered.get(rendered.size() - 1));
+            }
+        }
+    }
+}
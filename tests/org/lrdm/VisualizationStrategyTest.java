@@ -0,0 +1,40 @@
+package org.lrdm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.awt.GraphicsEnvironment;
+import java.io.IOException;
+import java.util.ServiceLoader;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@DisplayName("Laden der Visualisierung")
+class VisualizationStrategyTest {
+
+    @Test
+    @DisplayName("Die GraphStream-Visualisierung ist als Service registriert")
+    void graphVisualizationIsRegistered() {
+        assertTrue(ServiceLoader.load(VisualizationStrategy.class).stream()
+                .anyMatch(p -> p.type() == GraphVisualization.class));
+    }
+
+    @Test
+    @DisplayName("Ohne Bildschirm wird keine Visualisierung geladen")
+    void noVisualizationWithoutDisplay() {
+        assumeTrue(GraphicsEnvironment.isHeadless());
+        assertTrue(VisualizationStrategy.load().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Ohne Bildschirm läuft der Simulator automatisch headless")
+    void simulatorFallsBackToHeadless() throws IOException {
+        assumeTrue(GraphicsEnvironment.isHeadless());
+        TestProperties.loadProperties("resources/sim-test-short.conf");
+        TimedRDMSim sim = new TimedRDMSim("resources/sim-test-short.conf");
+        sim.initialize(null);
+        assertDoesNotThrow(() -> sim.runStep(0));
+        assertTrue(sim.getMirrorProbe().getNumMirrors() > 0);
+    }
+}
@@ -0,0 +1,162 @@
+package org.lrdm.probes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.Network;
+import org.lrdm.effectors.Effector;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("Spaltenorientierter Event-Trace")
+class EventTraceTest {
+    private static final String config = "resources/sim-test-1.conf";
+
+    @TempDir
+    Path dir;
+
+    private Properties props;
+    private Network network;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+    }
+
+    private Path record(Properties props, int ticks, int blockSize) throws IOException {
+        network = new Network(new BalancedTreeTopologyStrategy(), 12, 2, 30, props);
+        Effector effector = new Effector(network);
+        network.setEffector(effector);
+        effector.setMirrors(6, 30);
+        Path file = dir.resolve("trace-" + blockSize + ".lrdt");
+        try (EventTraceProbe probe = new EventTraceProbe(network, file, blockSize)) {
+            network.registerProbe(probe);
+            for (int t = 1; t <= ticks; t++) {
+                network.timeStep(t);
+            }
+        }
+        return file;
+    }
+
+    @Test
+    @DisplayName("Mirror-Zustände werden in Lebenszyklus-Reihenfolge aufgezeichnet")
+    void mirrorLifecycleInOrder() throws IOException {
+        Path file = record(props, 60, EventTraceProbe.DEFAULT_BLOCK_SIZE);
+        try (EventTraceReader reader = EventTraceReader.open(file)) {
+            List<int[]> events = new ArrayList<>();
+            int rootId = network.getMirrors().stream().filter(Mirror::isRoot).findFirst().orElseThrow().getID();
+            reader.scan(EventTrace.Filter.all().mirror(rootId), (tick, kind, id, from, to, source, target) -> events.add(new int[]{tick, from, to}));
+
+            assertFalse(events.isEmpty());
+            assertEquals(EventTrace.NO_STATE, events.get(0)[1]);
+            for (int i = 1; i < events.size(); i++) {
+                assertTrue(events.get(i)[0] > events.get(i - 1)[0]);
+                assertEquals(events.get(i - 1)[2], events.get(i)[1]);
+                assertTrue(events.get(i)[2] > events.get(i)[1]);
+            }
+            assertTrue(reader.count(EventTrace.Filter.all().state(Mirror.State.STOPPED)) >= 6);
+            assertTrue(reader.count(EventTrace.Filter.all().state(Link.State.ACTIVE)) > 0);
+        }
+    }
+
+    @Test
+    @DisplayName("Zeitfenster überspringen ganze Blöcke und liefern dieselben Ereignisse")
+    void timeRangeMatchesAcrossBlockSizes() throws IOException {
+        Path small = record(props, 60, 8);
+        try (EventTraceReader reader = EventTraceReader.open(small)) {
+            assertTrue(reader.getNumBlocks() > 1);
+            long all = reader.count(EventTrace.Filter.all());
+            assertEquals(reader.getNumEvents(), all);
+
+            long early = reader.count(EventTrace.Filter.all().between(Integer.MIN_VALUE, 29));
+            long late = reader.count(EventTrace.Filter.all().between(30, Integer.MAX_VALUE));
+            assertEquals(all, early + late);
+
+            List<Integer> ticks = new ArrayList<>();
+            reader.scan(EventTrace.Filter.all().between(30, 35), (tick, kind, id, from, to, source, target) -> ticks.add(tick));
+            assertTrue(ticks.stream().allMatch(t -> t >= 30 && t <= 35));
+        }
+    }
+
+    @Test
+    @DisplayName("Abstürze werden als eigene Ereignisse erfasst")
+    void crashesAreRecorded() throws IOException {
+        props.setProperty("fault_probability", "0.2");
+        Path file = record(props, 40, EventTraceProbe.DEFAULT_BLOCK_SIZE);
+        try (EventTraceReader reader = EventTraceReader.open(file)) {
+            List<Integer> targets = new ArrayList<>();
+            reader.scan(EventTrace.Filter.all().kind(EventTrace.Kind.MIRROR_CRASH),
+                    (tick, kind, id, from, to, source, target) -> targets.add(to));
+
+            assertFalse(targets.isEmpty());
+            // nach einem Absturz sind die Daten in jedem Fall verloren
+            assertTrue(targets.stream().noneMatch(to -> to == Mirror.State.HASDATA.ordinal()));
+        }
+    }
+
+    @Test
+    @DisplayName("Jeder Mirror bildet eine lückenlose Kette von Zuständen, auch über Abstürze hinweg")
+    void everyMirrorHasAGaplessChain() throws IOException {
+        props.setProperty("fault_probability", "0.1");
+        Path file = record(props, 50, 16);
+        try (EventTraceReader reader = EventTraceReader.open(file)) {
+            Map<Integer, Integer> lastState = new HashMap<>();
+            reader.scan(EventTrace.Filter.all(), (tick, kind, id, from, to, source, target) -> {
+                if (kind == EventTrace.Kind.LINK_STATE) return;
+                assertEquals(lastState.getOrDefault(id, EventTrace.NO_STATE), from, "Mirror " + id);
+                lastState.put(id, to);
+            });
+
+            for (Mirror m : network.getMirrors()) {
+                assertEquals(m.getState().ordinal(), lastState.get(m.getID()), "Mirror " + m.getID());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Nur Ereignisse des beobachteten Netzes werden aufgezeichnet")
+    void ignoresOtherNetworks() throws IOException {
+        Network observed = new Network(new BalancedTreeTopologyStrategy(), 5, 2, 30, props);
+        observed.setEffector(new Effector(observed));
+        Network other = new Network(new BalancedTreeTopologyStrategy(), 5, 2, 30, props);
+        other.setEffector(new Effector(other));
+
+        try (EventTraceProbe probe = new EventTraceProbe(observed, dir.resolve("own.lrdt"))) {
+            long initial = probe.getNumEvents();
+            assertEquals(observed.getMirrors().size() + observed.getLinks().size(), initial);
+            for (int t = 1; t <= 20; t++) {
+                other.timeStep(t);
+            }
+            assertEquals(initial, probe.getNumEvents());
+
+            observed.timeStep(1);
+            assertTrue(probe.getNumEvents() > initial);
+        }
+    }
+
+    @Test
+    @DisplayName("Fremde Dateien werden abgelehnt")
+    void rejectsForeignFile() throws IOException {
+        Path file = dir.resolve("foreign.lrdt");
+        Files.write(file, new byte[16]);
+
+        assertThrows(IOException.class, () -> EventTraceReader.open(file));
+    }
+}
@@ -0,0 +1,122 @@
+package org.lrdm.probes;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lrdm.Network;
+import org.lrdm.effectors.Effector;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+import org.lrdm.util.MetricsRegistry;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("HTTP-Endpunkt für Live-Metriken")
+class MetricsEndpointTest {
+    private static final String config = "resources/sim-test-1.conf";
+    private final HttpClient client = HttpClient.newHttpClient();
+    private Network network;
+    private SnapshotPublisher publisher;
+    private MetricsEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        network = new Network(new BalancedTreeTopologyStrategy(), 10, 2, 30, props);
+        network.setEffector(new Effector(network));
+        publisher = new SnapshotPublisher(network, SnapshotPublisher.Overflow.BLOCK, 16);
+        network.registerProbe(publisher);
+        endpoint = new MetricsEndpoint(publisher, 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.close();
+        publisher.close();
+        MetricsRegistry.setEnabled(false);
+        MetricsRegistry.getInstance().reset();
+    }
+
+    /** Runs the ticks and waits until the endpoint received the last one on its subscriber thread. */
+    private void run(int ticks) throws InterruptedException {
+        for (int t = 0; t < ticks; t++) network.timeStep(t);
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (endpoint.getPublishedTick() != ticks - 1) {
+            assertTrue(System.nanoTime() < deadline, "Tick " + (ticks - 1) + " not received");
+            Thread.sleep(5);
+        }
+    }
+
+    private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        return client.send(HttpRequest.newBuilder(URI.create("http://localhost:" + endpoint.getPort() + path))
+                .GET().build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    @DisplayName("Vor dem ersten Tick gibt es noch keine Metriken")
+    void unavailableBeforeFirstTick() throws Exception {
+        assertEquals(503, get("/metrics").statusCode());
+        assertEquals(404, get("/metrics/other").statusCode());
+        HttpResponse<String> post = client.send(HttpRequest.newBuilder(
+                        URI.create("http://localhost:" + endpoint.getPort() + "/metrics"))
+                .POST(HttpRequest.BodyPublishers.noBody()).build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(405, post.statusCode());
+    }
+
+    @Test
+    @DisplayName("Prometheus-Format enthält Tick, Zustände und Phasenzeiten")
+    void prometheusText() throws Exception {
+        MetricsRegistry.setEnabled(true);
+        run(5);
+
+        HttpResponse<String> response = get("/metrics");
+        assertEquals(200, response.statusCode());
+        assertEquals(MetricsEndpoint.PROMETHEUS_CONTENT_TYPE,
+                response.headers().firstValue("Content-Type").orElseThrow());
+        String body = response.body();
+        assertTrue(body.contains("# TYPE lrdm_tick gauge\nlrdm_tick 4\n"), body);
+        assertTrue(body.contains("lrdm_mirrors{state=\"ready\"}"), body);
+        assertTrue(body.contains("lrdm_links{state=\"active\"}"), body);
+        assertTrue(body.contains("lrdm_bandwidth " + network.getBandwidthHistory().get(4) + "\n"), body);
+        assertTrue(body.contains("lrdm_timer_seconds_count{name=\"" + MetricsRegistry.TICK_EFFECTOR + "\"} 5\n"),
+                body);
+        for (String line : body.split("\n")) {
+            assertTrue(line.startsWith("#") || line.matches("[a-z_]+(\\{[^}]*})? [-0-9.E]+"), line);
+        }
+    }
+
+    @Test
+    @DisplayName("JSON enthält die Verläufe der letzten Ticks")
+    void jsonSnapshot() throws Exception {
+        run(3);
+
+        HttpResponse<String> response = get("/metrics.json");
+        assertEquals(200, response.statusCode());
+        String body = response.body();
+        assertTrue(body.startsWith("{\"tick\":2,"), body);
+        assertTrue(body.contains("\"history\":{\"ticks\":[0, 1, 2]"), body);
+        assertTrue(body.contains("\"strategy\":\"BalancedTreeTopologyStrategy\""), body);
+        assertTrue(body.endsWith("}}"), body);
+    }
+
+    @Test
+    @DisplayName("Die Verläufe sind auf die letzten Ticks begrenzt")
+    void historyIsBounded() throws Exception {
+        run(MetricsEndpoint.HISTORY + 5);
+
+        String body = get("/metrics.json").body();
+        assertTrue(body.contains("\"ticks\":[5, 6, 7,"), body.substring(0, Math.min(300, body.length())));
+        assertTrue(body.contains(", " + (MetricsEndpoint.HISTORY + 4) + "],\"bandwidth\""));
+    }
+}
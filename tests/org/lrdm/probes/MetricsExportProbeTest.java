@@ -0,0 +1,172 @@
+package org.lrdm.probes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.Network;
+import org.lrdm.effectors.Effector;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("Streaming-Export der Metriken")
+class MetricsExportProbeTest {
+    private static final String config = "resources/sim-test-1.conf";
+
+    @TempDir
+    Path dir;
+
+    private Network network;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        network = new Network(new BalancedTreeTopologyStrategy(), 10, 2, 30, props);
+        network.setEffector(new Effector(network));
+    }
+
+    @Test
+    @DisplayName("CSV enthält Kopfzeile und eine Zeile pro Schritt")
+    void csvHasOneLinePerStep() throws IOException {
+        Path file = dir.resolve("metrics.csv");
+        try (MetricsExportProbe probe = new MetricsExportProbe(network, file, MetricsExportProbe.Format.CSV)) {
+            network.registerProbe(probe);
+            for (int t = 1; t <= 50; t++) {
+                network.timeStep(t);
+            }
+        }
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(String.join(",", MetricsExportProbe.COLUMNS), lines.get(0));
+        assertEquals(51, lines.size());
+        String[] last = lines.get(50).split(",");
+        assertEquals("50", last[0]);
+        assertEquals(network.getBandwidthHistory().get(50), Integer.parseInt(last[1]));
+        assertEquals(network.getTtwHistory().get(50), Integer.parseInt(last[3]));
+    }
+
+    @Test
+    @DisplayName("Binärformat zählt Mirrors und Links je Zustand")
+    void binaryCountsStates() throws IOException {
+        Path file = dir.resolve("metrics.bin");
+        int mirrorStates = Mirror.State.values().length;
+        long hasData;
+        long active;
+        try (MetricsExportProbe probe = new MetricsExportProbe(network, file, MetricsExportProbe.Format.BINARY)) {
+            network.registerProbe(probe);
+            for (int t = 1; t <= 30; t++) {
+                network.timeStep(t);
+            }
+            hasData = network.getMirrors().stream().filter(m -> m.getState() == Mirror.State.HASDATA).count();
+            active = network.getLinks().stream().filter(l -> l.getState() == Link.State.ACTIVE).count();
+        }
+
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertEquals(MetricsExportProbe.BINARY_MAGIC, in.getInt());
+        assertEquals(MetricsExportProbe.BINARY_VERSION, in.getInt());
+        int columns = in.getInt();
+        assertEquals(MetricsExportProbe.COLUMNS.length, columns);
+        assertEquals(30L * columns * Integer.BYTES, in.remaining());
+
+        in.position(in.position() + 29 * columns * Integer.BYTES);
+        int[] last = new int[columns];
+        for (int i = 0; i < columns; i++) last[i] = in.getInt();
+        assertEquals(30, last[0]);
+        assertEquals(hasData, last[4 + Mirror.State.HASDATA.ordinal()]);
+        assertEquals(active, last[4 + mirrorStates + Link.State.ACTIVE.ordinal()]);
+    }
+
+    @Test
+    @DisplayName("Kleine Puffer werden mehrfach an den Writer übergeben, ohne Datensätze zu verlieren")
+    void smallBuffersRotate() throws IOException {
+        Path file = dir.resolve("rotate.csv");
+        MetricsExportProbe probe = new MetricsExportProbe(network, file, MetricsExportProbe.Format.CSV, 512);
+        network.registerProbe(probe);
+        for (int t = 1; t <= 200; t++) {
+            network.timeStep(t);
+        }
+        probe.close();
+
+        assertEquals(200, probe.getWrittenRecords());
+        assertEquals(0, probe.getDroppedRecords());
+        assertEquals(201, Files.readAllLines(file).size());
+    }
+
+    @Test
+    @DisplayName("Ein Schreibfehler stoppt den Writer und wird beim nächsten Schritt und beim Schließen gemeldet")
+    void writeFailureIsSurfaced() throws IOException {
+        FailingChannel channel = new FailingChannel(2048);
+        MetricsExportProbe probe = new MetricsExportProbe(network, channel, MetricsExportProbe.Format.CSV, 512,
+                "metrics-export-test");
+        network.registerProbe(probe);
+
+        int[] steps = {0};
+        UncheckedIOException failure = assertThrows(UncheckedIOException.class, () -> {
+            for (int t = 1; t <= 10_000; t++) {
+                steps[0] = t;
+                network.timeStep(t);
+                Thread.sleep(1);
+            }
+        });
+        assertSame(channel.error, failure.getCause());
+        int attempts = channel.attempts;
+
+        for (int t = steps[0] + 1; t <= steps[0] + 20; t++) {
+            network.timeStep(t);
+        }
+        IOException onClose = assertThrows(IOException.class, probe::close);
+        assertSame(channel.error, onClose);
+
+        assertEquals(attempts, channel.attempts, "der Writer schreibt nach dem Fehler nicht weiter");
+        assertEquals(steps[0] + 20, probe.getWrittenRecords() + probe.getDroppedRecords());
+        assertFalse(channel.isOpen());
+    }
+
+    /** Accepts a fixed number of bytes and fails every write afterwards. */
+    private static final class FailingChannel implements WritableByteChannel {
+        private final IOException error = new IOException("disk full");
+        private int capacity;
+        private volatile int attempts;
+        private volatile boolean open = true;
+
+        FailingChannel(int capacity) {
+            this.capacity = capacity;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            attempts++;
+            if (src.remaining() > capacity) throw error;
+            capacity -= src.remaining();
+            int written = src.remaining();
+            src.position(src.limit());
+            return written;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return open;
+        }
+
+        @Override
+        public void close() {
+            open = false;
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package org.lrdm.probes;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.Network;
+import org.lrdm.effectors.Effector;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("SnapshotPublisher")
+class SnapshotPublisherTest {
+    private static final String config = "resources/sim-test-1.conf";
+    private Network network;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        network = new Network(new BalancedTreeTopologyStrategy(), 12, 2, 30, props);
+        Effector effector = new Effector(network);
+        network.setEffector(effector);
+        effector.setMirrors(18, 15);
+    }
+
+    @Test
+    @DisplayName("Mit BLOCK erhält ein Abonnent jeden Tick mit den Werten des Netzwerks")
+    void blockingDeliversEveryTick() throws Exception {
+        Map<Integer, List<Integer>> expected = new HashMap<>();
+        List<NetworkSnapshot> received = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> done;
+        try (SnapshotPublisher publisher = new SnapshotPublisher(network, SnapshotPublisher.Overflow.BLOCK, 4)) {
+            network.registerProbe(publisher);
+            done = publisher.consume(received::add);
+            for (int t = 1; t <= 40; t++) {
+                network.timeStep(t);
+                int active = (int) network.getLinks().stream().filter(l -> l.getState() == Link.State.ACTIVE).count();
+                int ready = (int) network.getMirrors().stream().filter(m -> m.getState() == Mirror.State.READY).count();
+                expected.put(t, List.of(network.getNumMirrors(), ready, network.getLinks().size(), active,
+                        network.getBandwidthHistory().get(t), network.getTtwHistory().get(t)));
+            }
+            assertEquals(0, publisher.getDroppedSnapshots());
+        }
+        done.get(5, TimeUnit.SECONDS);
+
+        assertEquals(40, received.size());
+        for (int i = 0; i < received.size(); i++) {
+            NetworkSnapshot s = received.get(i);
+            assertEquals(i + 1, s.getTick());
+            assertEquals(expected.get(s.getTick()), List.of(s.getNumMirrors(), s.getNumMirrors(Mirror.State.READY),
+                    s.getNumLinks(), s.getNumActiveLinks(), s.getBandwidth(), s.getTimeToWrite()), "Tick " + s.getTick());
+            assertEquals("BalancedTreeTopologyStrategy", s.getStrategy());
+        }
+    }
+
+    @Test
+    @DisplayName("Mit DROP wartet die Simulation nicht auf einen langsamen Abonnenten")
+    void droppingNeverBlocksSimulation() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> ticks = new CopyOnWriteArrayList<>();
+        try (SnapshotPublisher publisher = new SnapshotPublisher(network, SnapshotPublisher.Overflow.DROP, 2)) {
+            network.registerProbe(publisher);
+            publisher.subscribe(new Flow.Subscriber<>() {
+                private Flow.Subscription subscription;
+
+                @Override
+                public void onSubscribe(Flow.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onNext(NetworkSnapshot item) {
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    ticks.add(item.getTick());
+                    subscription.request(1);
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                }
+
+                @Override
+                public void onComplete() {
+                }
+            });
+
+            for (int t = 1; t <= 50; t++) {
+                network.timeStep(t);
+            }
+            assertTrue(publisher.getDroppedSnapshots() > 0);
+            release.countDown();
+        }
+
+        assertFalse(ticks.isEmpty());
+        assertTrue(ticks.size() < 50);
+        for (int i = 1; i < ticks.size(); i++) {
+            assertTrue(ticks.get(i) > ticks.get(i - 1));
+        }
+    }
+
+    @Test
+    @DisplayName("SnapshotLogger zählt übersprungene Ticks")
+    void loggerCountsSkippedTicks() {
+        SnapshotLogger logger = new SnapshotLogger();
+        List<Long> requested = new ArrayList<>();
+        logger.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+                requested.add(n);
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        for (int t : new int[]{1, 2, 5, 6, 9}) {
+            logger.onNext(NetworkSnapshot.of(network, t));
+        }
+
+        assertEquals(4, logger.getSkippedTicks());
+        assertEquals(6, requested.size());
+    }
+
+    @Test
+    @DisplayName("Ohne Abonnenten wird kein Snapshot erstellt oder verworfen")
+    void noSubscribersNoWork() {
+        try (SnapshotPublisher publisher = new SnapshotPublisher(network)) {
+            network.registerProbe(publisher);
+            for (int t = 1; t <= 5; t++) network.timeStep(t);
+            assertEquals(0, publisher.getNumberOfSubscribers());
+            assertEquals(0, publisher.getDroppedSnapshots());
+        }
+    }
+}
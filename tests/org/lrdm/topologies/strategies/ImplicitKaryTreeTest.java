@@ -0,0 +1,161 @@
+package org.lrdm.topologies.strategies;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Impliziter k-närer Baum")
+class ImplicitKaryTreeTest {
+
+    private static ImplicitKaryTree treeWith(int branching, int size) {
+        ImplicitKaryTree tree = new ImplicitKaryTree(branching);
+        for (int i = 0; i < size; i++) {
+            tree.add(100 + i);
+        }
+        return tree;
+    }
+
+    @Nested
+    @DisplayName("Arithmetische Abfragen")
+    class QueryTests {
+
+        @Test
+        @DisplayName("Parent, Kinder und Tiefe folgen aus der Position")
+        void parentAndChildren() {
+            ImplicitKaryTree tree = treeWith(3, 11);
+
+            assertEquals(ImplicitKaryTree.NONE, tree.getParent(0));
+            assertEquals(0, tree.getParent(3));
+            assertEquals(1, tree.getParent(4));
+            assertEquals(3, tree.getParent(10));
+            assertEquals(4, tree.getFirstChild(1));
+            assertEquals(3, tree.getChildCount(0));
+            assertEquals(1, tree.getChildCount(3));
+            assertTrue(tree.isLeaf(4));
+            assertEquals(0, tree.getDepth(0));
+            assertEquals(1, tree.getDepth(3));
+            assertEquals(2, tree.getDepth(4));
+            assertEquals(2, tree.getDepth(10));
+            assertEquals(2, tree.getHeight());
+        }
+
+        @Test
+        @DisplayName("Teilbaumgröße und Pfad zur Root")
+        void subtreeAndPath() {
+            ImplicitKaryTree tree = treeWith(2, 10);
+
+            assertEquals(10, tree.getSubtreeSize(0));
+            assertEquals(6, tree.getSubtreeSize(1));
+            assertEquals(3, tree.getSubtreeSize(2));
+            assertEquals(3, tree.getSubtreeSize(3));
+            assertEquals(1, tree.getSubtreeSize(9));
+            assertArrayEquals(new int[]{0, 1, 4, 9}, tree.getPathFromRoot(9));
+            assertTrue(tree.isAncestor(1, 9));
+            assertFalse(tree.isAncestor(2, 9));
+        }
+
+        @ParameterizedTest
+        @ValueSource(ints = {1, 2, 3, 5})
+        @DisplayName("Abfragen stimmen mit einer Zählung über die Parent-Beziehung überein")
+        void matchesParentRelation(int branching) {
+            ImplicitKaryTree tree = treeWith(branching, 60);
+            int[] children = new int[tree.size()];
+            int[] subtree = new int[tree.size()];
+            for (int p = tree.size() - 1; p > 0; p--) {
+                children[tree.getParent(p)]++;
+                subtree[p]++;
+                subtree[tree.getParent(p)] += subtree[p];
+            }
+            subtree[0]++;
+
+            for (int p = 0; p < tree.size(); p++) {
+                assertEquals(children[p], tree.getChildCount(p), "Kinder von " + p);
+                assertEquals(subtree[p], tree.getSubtreeSize(p), "Teilbaum von " + p);
+                assertEquals(tree.getPathFromRoot(p).length - 1, tree.getDepth(p), "Tiefe von " + p);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Einfügen und Entfernen")
+    class ChangeTests {
+
+        @Test
+        @DisplayName("IDs und Positionen bleiben zueinander konsistent")
+        void addAndRemoveLast() {
+            ImplicitKaryTree tree = treeWith(2, 5);
+            assertEquals(4, tree.getPosition(104));
+            assertEquals(104, tree.removeLast());
+            assertFalse(tree.contains(104));
+            assertEquals(4, tree.add(7));
+            assertEquals(7, tree.getId(4));
+            assertThrows(IllegalArgumentException.class, () -> tree.add(7));
+            assertThrows(IllegalArgumentException.class, () -> tree.add(-1));
+            assertThrows(IndexOutOfBoundsException.class, () -> tree.getId(5));
+        }
+
+        @Test
+        @DisplayName("Entfernen zieht den letzten Knoten auf die freie Position nach")
+        void removeSwapsTail() {
+            ImplicitKaryTree tree = treeWith(2, 6);
+
+            assertEquals(1, tree.remove(101));
+            assertEquals(5, tree.size());
+            assertEquals(105, tree.getId(1));
+            assertEquals(1, tree.getPosition(105));
+            assertEquals(ImplicitKaryTree.NONE, tree.getPosition(101));
+
+            assertEquals(4, tree.remove(104));
+            assertEquals(4, tree.size());
+            assertThrows(NoSuchElementException.class, () -> tree.remove(104));
+        }
+
+        @Test
+        @DisplayName("Leeren setzt einen neuen Verzweigungsgrad")
+        void clearResets() {
+            ImplicitKaryTree tree = treeWith(2, 4);
+            tree.clear(4);
+
+            assertTrue(tree.isEmpty());
+            assertEquals(4, tree.getBranching());
+            assertEquals(ImplicitKaryTree.NONE, tree.getHeight());
+            assertFalse(tree.contains(100));
+            assertThrows(NoSuchElementException.class, tree::removeLast);
+        }
+
+        @Test
+        @DisplayName("Zufällige Änderungen mit großen IDs stimmen mit einer Liste überein")
+        void randomChangesMatchList() {
+            ImplicitKaryTree tree = new ImplicitKaryTree(3);
+            List<Integer> expected = new ArrayList<>();
+            Random random = new Random(11);
+            for (int step = 0; step < 5000; step++) {
+                int id = random.nextInt(400) * 1_000_003;
+                if (expected.contains(id)) {
+                    int position = expected.indexOf(id);
+                    assertEquals(position, tree.remove(id));
+                    int last = expected.remove(expected.size() - 1);
+                    if (last != id) expected.set(position, last);
+                } else {
+                    assertEquals(expected.size(), tree.add(id));
+                    expected.add(id);
+                }
+            }
+            assertEquals(expected.size(), tree.size());
+            for (int position = 0; position < expected.size(); position++) {
+                assertEquals(expected.get(position), tree.getId(position));
+                assertEquals(position, tree.getPosition(expected.get(position)));
+            }
+            assertFalse(tree.contains(1));
+        }
+    }
+}
@@ -0,0 +1,221 @@
+package org.lrdm.topologies.strategies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.Network;
+import org.lrdm.effectors.Effector;
+import org.lrdm.effectors.MigrationStageChange;
+
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("Rollierende Migrationspläne")
+class MigrationPlannerTest {
+    private static final String config = "resources/sim-test-1.conf";
+
+    private Network network;
+    private Effector effector;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        network = new Network(new LineTopologyStrategy(), 12, 2, 30, props);
+        effector = new Effector(network);
+        network.setEffector(effector);
+        for (int t = 1; t <= 30; t++) {
+            network.timeStep(t);
+        }
+    }
+
+    private boolean rootReachesAllMirrors() {
+        return reachableFromRoot(false).size() == network.getNumMirrors();
+    }
+
+    /** Vom Root-Mirror erreichbare Mirrors über nicht geschlossene bzw. nur über aktive Links. */
+    private Set<Mirror> reachableFromRoot(boolean activeOnly) {
+        Map<Mirror, Set<Mirror>> adjacency = new HashMap<>();
+        for (Link l : network.getLinks()) {
+            if (l.getState() == Link.State.CLOSED || activeOnly && !l.isActive()) continue;
+            adjacency.computeIfAbsent(l.getSource(), k -> new HashSet<>()).add(l.getTarget());
+            adjacency.computeIfAbsent(l.getTarget(), k -> new HashSet<>()).add(l.getSource());
+        }
+        Mirror root = network.getMirrors().stream().filter(Mirror::isRoot).findFirst().orElseThrow();
+        Set<Mirror> visited = new HashSet<>(List.of(root));
+        Deque<Mirror> stack = new ArrayDeque<>(visited);
+        while (!stack.isEmpty()) {
+            for (Mirror next : adjacency.getOrDefault(stack.pop(), Set.of())) {
+                if (visited.add(next)) stack.push(next);
+            }
+        }
+        return visited;
+    }
+
+    /** Führt Ticks aus, bis keine Stufe mehr aussteht, und gibt den letzten Tick zurück. */
+    private int runPendingStages(int from) {
+        int t = from;
+        while (!effector.getPendingActions().isEmpty()) {
+            assertTrue(t < from + 200, "Migration endet nicht");
+            network.timeStep(t);
+            assertTrue(rootReachesAllMirrors(), "Tick " + t);
+            t++;
+        }
+        return t - 1;
+    }
+
+    @Test
+    @DisplayName("Jede Stufe hält die Churn-Grenzen ein")
+    void stagesRespectBounds() {
+        List<MigrationStage> stages = MigrationPlanner.plan(network, new StarTopologyStrategy(), 2, 3);
+
+        assertTrue(stages.size() > 1);
+        for (MigrationStage stage : stages) {
+            assertFalse(stage.isEmpty());
+            assertTrue(stage.opens().size() <= 2);
+            assertTrue(stage.closes().size() <= 3);
+        }
+    }
+
+    @Test
+    @DisplayName("Root bleibt nach jeder Stufe erreichbar und das Ziel wird erreicht")
+    void rootStaysReachable() {
+        StarTopologyStrategy star = new StarTopologyStrategy();
+        List<MigrationStage> stages = MigrationPlanner.plan(network, star, 1, 1);
+
+        int t = 31;
+        for (MigrationStage stage : stages) {
+            stage.apply(network, t++);
+            assertTrue(rootReachesAllMirrors(), "Stufe " + stage.index());
+        }
+        long open = network.getLinks().stream().filter(l -> l.getState() != Link.State.CLOSED).count();
+        assertEquals(star.getNumTargetLinks(network), open);
+    }
+
+    @Test
+    @DisplayName("Ohne Link-Delta entstehen keine Stufen")
+    void noDeltaNoStages() {
+        assertTrue(MigrationPlanner.plan(network, new LineTopologyStrategy(), 1, 1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Der Effector führt die Stufen in aufeinanderfolgenden Ticks aus")
+    void effectorRunsStagesOverTicks() {
+        StarTopologyStrategy star = new StarTopologyStrategy();
+        effector.setStrategyRolling(star, 31, 1, 1);
+
+        network.timeStep(31);
+
+        assertSame(star, network.getTopologyStrategy());
+        List<Integer> stageTicks = effector.getPendingActions().stream()
+                .filter(MigrationStageChange.class::isInstance)
+                .map(a -> a.getTime())
+                .distinct()
+                .toList();
+        assertFalse(stageTicks.isEmpty());
+        // zurückgestellte Schließungen der ersten Stufe teilen sich den Tick mit der zweiten
+        for (int i = 0; i < stageTicks.size(); i++) {
+            assertEquals(32 + i, stageTicks.get(i));
+        }
+
+        runPendingStages(32);
+        assertEquals(star.getNumTargetLinks(network),
+                network.getLinks().stream().filter(l -> l.getState() != Link.State.CLOSED).count());
+    }
+
+    @Test
+    @DisplayName("Eine neue Topologie während der Migration verwirft die restlichen Stufen")
+    void secondChangeCancelsPendingStages() {
+        effector.setStrategyRolling(new StarTopologyStrategy(), 31, 1, 1);
+        network.timeStep(31);
+        int last = effector.getPendingActions().stream()
+                .filter(MigrationStageChange.class::isInstance)
+                .mapToInt(a -> a.getTime())
+                .max().orElseThrow();
+        assertTrue(last > 33);
+
+        LineTopologyStrategy line = new LineTopologyStrategy();
+        effector.setStrategy(line, 33);
+        network.timeStep(32);
+        network.timeStep(33);
+        Set<Link> migrated = openLinks();
+        for (int t = 34; t <= last + 1; t++) {
+            network.timeStep(t);
+        }
+
+        assertSame(line, network.getTopologyStrategy());
+        assertTrue(effector.getPendingActions().isEmpty());
+        assertEquals(migrated, openLinks());
+        assertEquals(line.getNumTargetLinks(network), migrated.size());
+        assertTrue(rootReachesAllMirrors());
+    }
+
+    private Set<Link> openLinks() {
+        Set<Link> open = Collections.newSetFromMap(new IdentityHashMap<>());
+        network.getLinks().stream().filter(l -> l.getState() != Link.State.CLOSED).forEach(open::add);
+        return open;
+    }
+
+    @Test
+    @DisplayName("Ein aktiver Link wird erst geschlossen, wenn sein Ersatz aktiv ist")
+    void closesWaitForActiveReplacement() {
+        StarTopologyStrategy star = new StarTopologyStrategy();
+        Set<Mirror> reachable = reachableFromRoot(true);
+        assertEquals(network.getNumMirrors(), reachable.size());
+        effector.setStrategyRolling(star, 31, 2, 2);
+
+        int t = 31;
+        do {
+            network.timeStep(t++);
+            Set<Mirror> now = reachableFromRoot(true);
+            assertTrue(now.containsAll(reachable), "Tick " + (t - 1));
+            reachable = now;
+        } while (!effector.getPendingActions().isEmpty() && t < 231);
+
+        assertTrue(effector.getPendingActions().isEmpty());
+        assertEquals(star.getNumTargetLinks(network),
+                network.getLinks().stream().filter(l -> l.getState() != Link.State.CLOSED).count());
+    }
+
+    @Test
+    @DisplayName("Gemeinsam geschlossene Links einer Stufe trennen keinen Mirror ab")
+    void jointClosesKeepRootReachable() {
+        StarTopologyStrategy star = new StarTopologyStrategy();
+        List<MigrationStage> stages = MigrationPlanner.plan(network, star, 1, 100);
+
+        assertTrue(stages.size() > 1);
+        int t = 31;
+        for (MigrationStage stage : stages) {
+            stage.apply(network, t++);
+            assertTrue(rootReachesAllMirrors(), "Stufe " + stage.index());
+        }
+    }
+
+    @Test
+    @DisplayName("Eine Mirror-Änderung im selben Tick hebt die Stufung nicht auf")
+    void mirrorChangeKeepsStaging() {
+        StarTopologyStrategy star = new StarTopologyStrategy();
+        effector.setStrategyRolling(star, 31, 1, 1);
+        effector.setMirrors(16, 31);
+
+        network.timeStep(31);
+
+        assertSame(star, network.getTopologyStrategy());
+        assertEquals(16, network.getNumMirrors());
+        List<Integer> stageTicks = effector.getPendingActions().stream()
+                .filter(MigrationStageChange.class::isInstance)
+                .map(a -> a.getTime())
+                .toList();
+        assertTrue(stageTicks.size() > 1);
+        runPendingStages(32);
+        assertEquals(star.getNumTargetLinks(network),
+                network.getLinks().stream().filter(l -> l.getState() != Link.State.CLOSED).count());
+    }
+}
@@ -12,8 +12,19 @@ import org.lrdm.effectors.Action;
 import org.lrdm.effectors.TopologyChange;
 import org.lrdm.probes.LinkProbe;
 import org.lrdm.probes.MirrorProbe;
+import org.lrdm.topologies.node.MirrorNode;
+import org.lrdm.topologies.node.StarMirrorNode;
+import org.lrdm.topologies.node.StructureNode;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.lrdm.TestProperties.loadProperties;
@@ -494,4 +505,328 @@ class SnowflakeTest {
                     "Link-Berechnung sollte effizient sein: " + duration + "ns");
         }
     }
-}
\ No newline at end of file
+
+    // ===== PARALLELER AUFBAU =====
+
+    @Nested
+    @DisplayName("Paralleler Aufbau")
+    class ParallelBuildTests {
+
+        private Network createSnowflakeNetwork(int mirrors, boolean parallel) {
+            SnowflakeTopologyStrategy strategy = new SnowflakeTopologyStrategy();
+            strategy.setParallelBuild(parallel);
+            return new Network(strategy, mirrors, 2, 30, getProps());
+        }
+
+        /** Links als Paare von Mirror-Positionen, unabhängig von den global vergebenen IDs. */
+        private Set<List<Integer>> normalizedLinks(Network network) {
+            int base = network.getMirrors().stream().mapToInt(Mirror::getID).min().orElse(0);
+            return network.getLinks().stream()
+                    .map(l -> List.of(l.getSource().getID() - base, l.getTarget().getID() - base))
+                    .collect(Collectors.toSet());
+        }
+
+        /** Mirror-Positionen gruppiert nach Substruktur, unabhängig von den Substruktur-IDs. */
+        private Set<Set<Integer>> normalizedSubstructures(Network network) {
+            int base = network.getMirrors().stream().mapToInt(Mirror::getID).min().orElse(0);
+            Map<Integer, Integer> ids = ((BuildAsSubstructure) network.getTopologyStrategy()).getSubstructureIdsByMirror();
+            return ids.entrySet().stream()
+                    .collect(Collectors.groupingBy(Map.Entry::getValue,
+                            Collectors.mapping(e -> e.getKey() - base, Collectors.toSet())))
+                    .values().stream().collect(Collectors.toSet());
+        }
+
+        @Test
+        @DisplayName("Paralleler Aufbau ergibt dieselbe Schneeflocke wie der sequentielle")
+        void parallelBuildMatchesSequentialBuild() {
+            int mirrors = 4 * SnowflakeTopologyStrategy.PARALLEL_BUILD_MIN_MIRRORS;
+            Network sequential = createSnowflakeNetwork(mirrors, false);
+            Network parallel = createSnowflakeNetwork(mirrors, true);
+
+            assertTrue(((SnowflakeTopologyStrategy) parallel.getTopologyStrategy()).isParallelBuild());
+            assertEquals(sequential.getNumLinks(), parallel.getNumLinks());
+            assertEquals(normalizedLinks(sequential), normalizedLinks(parallel));
+            assertEquals(normalizedSubstructures(sequential), normalizedSubstructures(parallel));
+            assertEquals(mirrors, parallel.getNumMirrors());
+        }
+
+        @Test
+        @DisplayName("Knoten-IDs aus dem IDGenerator bleiben bei parallelem Aufbau eindeutig")
+        void parallelBuildHandsOutUniqueNodeIds() {
+            // Stern-Substrukturen, deren Knoten-IDs nicht aus den Mirror-IDs, sondern aus dem IDGenerator stammen
+            SubstructureFactory factory = SubstructureFactory.fromSuppliers(Map.of(
+                    StructureNode.StructureType.STAR, () -> new StarTopologyStrategy() {
+                        @Override
+                        protected MirrorNode createMirrorNodeForMirror(Mirror mirror) {
+                            return new StarMirrorNode(nextNodeId(), mirror);
+                        }
+                    }));
+            SnowflakeTopologyStrategy strategy = new SnowflakeTopologyStrategy(
+                    new SnowflakeTopologyStrategy.SnowflakeProperties(0.5, 2), factory,
+                    List.of(StructureNode.StructureType.STAR));
+            strategy.setParallelBuild(true);
+            int mirrors = 4 * SnowflakeTopologyStrategy.PARALLEL_BUILD_MIN_MIRRORS;
+            Network network = new Network(strategy, mirrors, 2, 30, getProps());
+
+            List<Integer> ids = factory.getCreated().stream()
+                    .flatMap(s -> s.getAllStructureNodes().stream())
+                    .map(MirrorNode::getId)
+                    .toList();
+            assertTrue(factory.getCreated().size() > 1);
+            assertEquals(ids.size(), new HashSet<>(ids).size(), "Doppelte Knoten-IDs");
+            // Jede Substruktur erhält einen zusammenhängenden Block, in Ring-Reihenfolge und unabhängig vom Scheduling
+            int previousMax = Integer.MIN_VALUE;
+            for (BuildAsSubstructure substructure : factory.getCreated()) {
+                IntSummaryStatistics block = substructure.getAllStructureNodes().stream()
+                        .mapToInt(MirrorNode::getId).summaryStatistics();
+                assertEquals(block.getCount() - 1, block.getMax() - block.getMin());
+                assertTrue(block.getMin() > previousMax);
+                previousMax = block.getMax();
+            }
+            assertEquals(mirrors, network.getNumMirrors());
+        }
+
+        @Test
+        @DisplayName("Kleine Schneeflocken werden auch im parallelen Modus gebaut")
+        void smallSnowflakeInParallelMode() {
+            Network sequential = createSnowflakeNetwork(40, false);
+            Network parallel = createSnowflakeNetwork(40, true);
+            assertEquals(normalizedLinks(sequential), normalizedLinks(parallel));
+        }
+    }
+
+    // ===== LOKALE GRÖSSENÄNDERUNG =====
+
+    @Nested
+    @DisplayName("Lokale Größenänderung")
+    class LocalResizeTests {
+
+        private Network network;
+        private SnowflakeTopologyStrategy strategy;
+
+        @BeforeEach
+        void createNetwork() {
+            strategy = new SnowflakeTopologyStrategy();
+            network = new Network(strategy, 200, 3, 30, getProps());
+        }
+
+        private Set<Link> openLinks() {
+            return network.getLinks().stream()
+                    .filter(l -> l.getState() != Link.State.CLOSED)
+                    .collect(Collectors.toSet());
+        }
+
+        private Set<Set<Integer>> linkPairs(Set<Link> links) {
+            return links.stream()
+                    .map(l -> Set.of(l.getSource().getID(), l.getTarget().getID()))
+                    .collect(Collectors.toSet());
+        }
+
+        /** Der Ring ist die Substruktur des Mirrors mit der kleinsten ID. */
+        private List<Integer> ringMirrors() {
+            Map<Integer, Integer> ids = strategy.getSubstructureIdsByMirror();
+            int ring = ids.get(ids.keySet().stream().min(Integer::compare).orElseThrow());
+            return ids.entrySet().stream()
+                    .filter(e -> e.getValue() == ring)
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .toList();
+        }
+
+        private void assertRingMatchesFullBuild() {
+            List<Integer> ring = ringMirrors();
+            int shifts = Math.min(network.getNumTargetLinksPerMirror(), ring.size()) - 1;
+            Set<Set<Integer>> expected = new HashSet<>();
+            for (int i = 0; i < ring.size(); i++) {
+                for (int shift = 1; shift <= shifts; shift++) {
+                    expected.add(Set.of(ring.get(i), ring.get((i + shift) % ring.size())));
+                }
+            }
+            Set<Integer> ringSet = Set.copyOf(ring);
+            Set<Set<Integer>> actual = linkPairs(openLinks()).stream()
+                    .filter(ringSet::containsAll)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, actual);
+        }
+
+        private void assertEveryUsableMirrorPlanned(int expected) {
+            Set<Integer> planned = strategy.getSubstructureIdsByMirror().keySet();
+            Set<Integer> usable = network.getMirrors().stream()
+                    .filter(Mirror::isUsableForNetwork)
+                    .map(Mirror::getID)
+                    .collect(Collectors.toSet());
+            assertEquals(expected, usable.size());
+            assertEquals(usable, planned);
+        }
+
+        @Test
+        @DisplayName("Wenige neue Mirrors lassen die übrigen Links und Zuordnungen unverändert")
+        void addTouchesOnlyAffectedParts() {
+            Set<Set<Integer>> before = linkPairs(openLinks());
+            Map<Integer, Integer> substructuresBefore = strategy.getSubstructureIdsByMirror();
+
+            strategy.handleAddNewMirrors(network, 3, getProps(), 1);
+
+            assertEveryUsableMirrorPlanned(203);
+            Set<Set<Integer>> after = linkPairs(openLinks());
+            Set<Set<Integer>> closed = new HashSet<>(before);
+            closed.removeAll(after);
+            assertTrue(closed.size() <= network.getNumTargetLinksPerMirror(),
+                    "Nur umlaufende Ring-Kanten dürfen entfallen: " + closed);
+            Map<Integer, Integer> substructuresAfter = strategy.getSubstructureIdsByMirror();
+            substructuresBefore.forEach((mirror, substructure) ->
+                    assertEquals(substructure, substructuresAfter.get(mirror), "Mirror " + mirror));
+            assertRingMatchesFullBuild();
+        }
+
+        @Test
+        @DisplayName("Wachsen und Schrumpfen in mehreren Schritten hält Ring und Mirror-Anzahl konsistent")
+        void repeatedResizeKeepsStructure() {
+            int mirrors = 200;
+            int[] changes = {1, 7, -1, 13, -9, -20, 2};
+            for (int t = 0; t < changes.length; t++) {
+                int change = changes[t];
+                if (change > 0) {
+                    strategy.handleAddNewMirrors(network, change, getProps(), t + 1);
+                } else {
+                    strategy.handleRemoveMirrors(network, -change, getProps(), t + 1);
+                }
+                mirrors += change;
+                assertEveryUsableMirrorPlanned(mirrors);
+                assertRingMatchesFullBuild();
+                assertEquals(mirrors, strategy.getAllStructureNodes().size());
+            }
+        }
+
+        @Test
+        @DisplayName("Mirrors schrumpfender Strukturen werden beim Wachsen wiederverwendet")
+        void addReusesReleasedMirrors() {
+            strategy = new SnowflakeTopologyStrategy();
+            network = new Network(strategy, 61, 2, 30, getProps());
+
+            // 62 Mirrors verteilen sich auf mehr Ring-Knoten, sodass einzelne externe Strukturen schrumpfen
+            strategy.handleAddNewMirrors(network, 1, getProps(), 1);
+
+            assertEquals(62, network.getMirrors().size(), "Es dürfen keine Ersatz-Mirrors entstehen");
+            assertEveryUsableMirrorPlanned(62);
+            assertRingMatchesFullBuild();
+        }
+
+        @Test
+        @DisplayName("Entfernte Mirrors werden ohne Ersatz-Mirrors heruntergefahren")
+        void removeShutsDownWithoutReplacement() {
+            int before = network.getMirrors().size();
+            strategy.handleRemoveMirrors(network, 5, getProps(), 1);
+
+            assertEquals(before, network.getMirrors().size(), "Es dürfen keine Ersatz-Mirrors entstehen");
+            assertEquals(5, network.getMirrors().stream().filter(m -> !m.isUsableForNetwork()).count());
+            assertEveryUsableMirrorPlanned(195);
+        }
+    }
+
+    // ===== VERTEILUNG UND LINK-CACHE TESTS =====
+
+    @Nested
+    @DisplayName("Verteilung und Link-Cache Tests")
+    class DistributionAndLinkCacheTests {
+
+        /** Die frühere iterative Verteilung als Referenz. */
+        private List<Integer> iterativeDistribution(int totalMirrors, double ratio, int gap) {
+            int ringMirrors = (int) (totalMirrors * (1 - ratio));
+            int externalMirrors = (int) (totalMirrors * ratio);
+            int restMirrors = totalMirrors - ringMirrors;
+            int each = (externalMirrors * gap) / ringMirrors;
+            List<Integer> result;
+            while (true) {
+                result = new ArrayList<>(Collections.nCopies(ringMirrors, 0));
+                int rest = restMirrors;
+                for (int i = 0; i < ringMirrors; i += gap) {
+                    result.set(i, each);
+                    rest -= each;
+                }
+                if (rest >= 0) {
+                    restMirrors = rest;
+                    break;
+                }
+                each--;
+            }
+            for (int count = 0; restMirrors > 0; count++) {
+                int idx = count % ringMirrors;
+                if (idx % gap == 0) {
+                    result.set(idx, result.get(idx) + 1);
+                    restMirrors--;
+                }
+            }
+            return result;
+        }
+
+        /** Link-Anzahl von Grund auf: jede Substruktur einmal, externe Strukturen mit ihrer Brücke zum Ring. */
+        private int targetLinksFromScratch(SnowflakeTopologyStrategy strategy) {
+            int links = 0;
+            for (BuildAsSubstructure substructure : new HashSet<>(strategy.getNodeToSubstructureMapping().values())) {
+                links += substructure.getNumTargetLinks(substructure.getAllStructureNodes().size());
+                if (substructure != strategy.internNConnectedTopologie) links++;
+            }
+            return links;
+        }
+
+        @Test
+        @DisplayName("Geschlossene Verteilung entspricht der iterativen Verteilung")
+        void closedFormMatchesIterativeDistribution() {
+            for (double ratio : new double[]{0.2, 0.3, 0.4, 0.5}) {
+                for (int gap = 1; gap <= 5; gap++) {
+                    for (int total = 5; total <= 1500; total += total < 100 ? 1 : 37) {
+                        int ringMirrors = (int) (total * (1 - ratio));
+                        if ((int) (total * ratio) == 0 || ringMirrors == 0) continue;
+                        SnowflakeTopologyStrategy.MirrorDistributionResult result = SnowflakeTopologyStrategy
+                                .calculateSnowflakeDistribution(total,
+                                        new SnowflakeTopologyStrategy.SnowflakeProperties(ratio, gap));
+                        String context = "total=" + total + ", ratio=" + ratio + ", gap=" + gap;
+                        assertEquals(ringMirrors, result.ringMirrors(), context);
+                        assertEquals(iterativeDistribution(total, ratio, gap), result.externalStructureMirrors(),
+                                context);
+                        assertEquals(total - ringMirrors,
+                                result.externalStructureMirrors().stream().mapToInt(Integer::intValue).sum(), context);
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Zwischengespeicherte Link-Anzahl folgt Größen- und Link-Änderungen")
+        void cachedTargetLinksFollowChanges() {
+            SnowflakeTopologyStrategy strategy = new SnowflakeTopologyStrategy();
+            Network network = new Network(strategy, 120, 3, 30, getProps());
+            assertEquals(targetLinksFromScratch(strategy), strategy.getNumTargetLinks(network));
+
+            int[] changes = {1, 9, -4, 25, -30};
+            for (int t = 0; t < changes.length; t++) {
+                if (changes[t] > 0) {
+                    strategy.handleAddNewMirrors(network, changes[t], getProps(), t + 1);
+                } else {
+                    strategy.handleRemoveMirrors(network, -changes[t], getProps(), t + 1);
+                }
+                assertEquals(targetLinksFromScratch(strategy), strategy.getNumTargetLinks(network), "Schritt " + t);
+            }
+
+            // Ring-Links hängen von den Links pro Mirror ab
+            int before = strategy.getNumTargetLinks(network);
+            network.setNumTargetedLinksPerMirror(5, 0);
+            assertEquals(targetLinksFromScratch(strategy), strategy.getNumTargetLinks(network));
+            assertTrue(strategy.getNumTargetLinks(network) > before);
+        }
+
+        @Test
+        @DisplayName("Jede Substruktur wird genau einmal gezählt")
+        void eachSubstructureCountedOnce() {
+            SnowflakeTopologyStrategy strategy = new SnowflakeTopologyStrategy();
+            Network network = new Network(strategy, 60, 2, 30, getProps());
+
+            // Pro Knoten gezählte Substrukturen ergäben ein Vielfaches der Mirror-Anzahl
+            int links = strategy.getNumTargetLinks(network);
+            assertEquals(targetLinksFromScratch(strategy), links);
+            assertTrue(links <= network.getNumMirrors() * network.getNumTargetLinksPerMirror(),
+                    "Zu viele Ziel-Links: " + links);
+        }
+    }
+}
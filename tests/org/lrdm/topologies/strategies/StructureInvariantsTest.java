@@ -0,0 +1,129 @@
+package org.lrdm.topologies.strategies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.lrdm.Network;
+import org.lrdm.topologies.node.MirrorNode;
+import org.lrdm.topologies.validators.TopologyInvariants;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("Inkrementelle Invarianten der Strategien")
+class StructureInvariantsTest {
+    private static final String config = "resources/sim-test-snowflake.conf";
+    private static final int[] CHANGES = {1, 5, -3, 7, -10, 2, -1};
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+    }
+
+    private static Network createNetwork(Class<?> strategy, int linksPerMirror) throws Exception {
+        return new Network((TopologyStrategy) strategy.getConstructor().newInstance(), 30, linksPerMirror, 30,
+                getProps());
+    }
+
+    /** Strategien mit eigenen Invarianten; die Schneeflocke befragt ihre Substrukturen. */
+    private static Set<BuildAsSubstructure> trackedStructures(BuildAsSubstructure strategy) {
+        if (!(strategy instanceof SnowflakeTopologyStrategy)) return Set.of(strategy);
+        Set<BuildAsSubstructure> structures = new HashSet<>(strategy.getNodeToSubstructureMapping().values());
+        structures.remove(strategy);
+        return structures;
+    }
+
+    private static void assertMatchesFreshCount(BuildAsSubstructure structure, String context) {
+        TopologyInvariants tracked = structure.getInvariants();
+        TopologyInvariants fresh = new TopologyInvariants();
+        structure.getAllStructureNodes().forEach(fresh::addNode);
+        try {
+            assertEquals(fresh.getNodeCount(), tracked.getNodeCount(), context);
+            assertEquals(fresh.getEdgeCount(), tracked.getEdgeCount(), context);
+            assertEquals(fresh.getComponentCount(), tracked.getComponentCount(), context);
+            assertEquals(fresh.getMaxDegree(), tracked.getMaxDegree(), context);
+            assertEquals(fresh.hasCycle(), tracked.hasCycle(), context);
+        } finally {
+            fresh.clear();
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = {FullyConnectedTopology.class, NConnectedTopology.class, StarTopologyStrategy.class,
+            LineTopologyStrategy.class, BalancedTreeTopologyStrategy.class, DepthLimitTreeTopologyStrategy.class,
+            SnowflakeTopologyStrategy.class})
+    @DisplayName("Invarianten folgen Wachsen und Schrumpfen und stimmen mit einer Neuzählung überein")
+    void invariantsFollowResize(Class<?> strategyClass) throws Exception {
+        for (int linksPerMirror : new int[]{2, 3}) {
+            Network network = createNetwork(strategyClass, linksPerMirror);
+            BuildAsSubstructure strategy = (BuildAsSubstructure) network.getTopologyStrategy();
+            for (int t = 0; t <= CHANGES.length; t++) {
+                if (t > 0) {
+                    int change = CHANGES[t - 1];
+                    if (change > 0) {
+                        strategy.handleAddNewMirrors(network, change, getProps(), t);
+                    } else {
+                        strategy.handleRemoveMirrors(network, -change, getProps(), t);
+                    }
+                }
+                String context = strategyClass.getSimpleName() + ", L=" + linksPerMirror + ", Schritt " + t;
+                for (BuildAsSubstructure structure : trackedStructures(strategy)) {
+                    assertMatchesFreshCount(structure, context);
+                }
+                // Die Invarianten prüfen die Form; Tiefen- oder Balance-Vorgaben prüft nur die volle Validierung
+                assertTrue(strategy.checkStructureInvariants(), context);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Die Schneeflocke verfolgt keine eigenen Knoten")
+    void snowflakeDelegatesToSubstructures() throws Exception {
+        Network network = createNetwork(SnowflakeTopologyStrategy.class, 2);
+        BuildAsSubstructure strategy = (BuildAsSubstructure) network.getTopologyStrategy();
+
+        assertEquals(0, strategy.getInvariants().getNodeCount());
+        assertTrue(trackedStructures(strategy).size() > 1);
+        assertEquals(network.getNumMirrors(), trackedStructures(strategy).stream()
+                .mapToInt(s -> s.getInvariants().getNodeCount()).sum());
+    }
+
+    @Test
+    @DisplayName("Ungültige Strukturen fallen ohne volle Validierung auf")
+    void brokenStructureDetected() throws Exception {
+        Network network = createNetwork(LineTopologyStrategy.class, 2);
+        BuildAsSubstructure strategy = (BuildAsSubstructure) network.getTopologyStrategy();
+        MirrorNode inner = strategy.getAllStructureNodes().stream()
+                .filter(n -> n.getParent() != null && !n.getChildren().isEmpty())
+                .findFirst().orElseThrow();
+
+        inner.getParent().removeChild(inner);
+        assertEquals(2, strategy.getInvariants().getComponentCount());
+        assertFalse(strategy.checkStructureInvariants());
+    }
+
+    @Test
+    @DisplayName("Volle Validierung lässt sich zur Fehlersuche einschalten")
+    void fullValidationOptIn() throws Exception {
+        boolean before = BuildAsSubstructure.isFullValidation();
+        try {
+            BuildAsSubstructure.setFullValidation(true);
+            Network network = createNetwork(StarTopologyStrategy.class, 2);
+            BuildAsSubstructure strategy = (BuildAsSubstructure) network.getTopologyStrategy();
+            strategy.handleAddNewMirrors(network, 3, getProps(), 1);
+
+            assertTrue(BuildAsSubstructure.isFullValidation());
+            assertTrue(strategy.validateTopology());
+            assertTrue(strategy.checkStructureInvariants());
+        } finally {
+            BuildAsSubstructure.setFullValidation(before);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.lrdm.topologies.strategies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.lrdm.Link;
+import org.lrdm.Mirror;
+import org.lrdm.Network;
+import org.lrdm.effectors.Effector;
+
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("In-Place Topologie-Migration")
+class TopologyMigrationTest {
+    private static final String config = "resources/sim-test-1.conf";
+
+    private Network network;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        Properties props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+        network = new Network(new LineTopologyStrategy(), 10, 2, 30, props);
+        network.setEffector(new Effector(network));
+        for (int t = 1; t <= 30; t++) {
+            network.timeStep(t);
+        }
+    }
+
+    private Set<Link> activeLinks() {
+        Set<Link> active = new HashSet<>();
+        for (Link l : network.getLinks()) {
+            if (l.getState() != Link.State.CLOSED) active.add(l);
+        }
+        return active;
+    }
+
+    @Test
+    @DisplayName("Strategiewechsel übernimmt laufende Mirrors samt Daten")
+    void switchKeepsRunningMirrors() {
+        List<Mirror> before = List.copyOf(network.getMirrors());
+        long withDataBefore = before.stream().filter(m -> m.getState() == Mirror.State.HASDATA).count();
+
+        network.setTopologyStrategy(new StarTopologyStrategy(), 31);
+
+        assertEquals(before, network.getMirrors());
+        assertTrue(network.getMirrors().stream().allMatch(Mirror::isUsableForNetwork));
+        assertEquals(withDataBefore,
+                network.getMirrors().stream().filter(m -> m.getState() == Mirror.State.HASDATA).count());
+    }
+
+    @Test
+    @DisplayName("Strategiewechsel öffnet und schließt nur das Link-Delta")
+    void switchOnlyTouchesLinkDelta() {
+        Set<Link> linksBefore = activeLinks();
+
+        network.setTopologyStrategy(new StarTopologyStrategy(), 31);
+
+        Set<Link> linksAfter = activeLinks();
+        Set<Link> kept = new HashSet<>(linksBefore);
+        kept.retainAll(linksAfter);
+
+        // Linie und Stern teilen sich mindestens die Kante Root - erster Nachfolger
+        assertFalse(kept.isEmpty());
+        assertTrue(kept.stream().allMatch(l -> l.getState() == Link.State.ACTIVE));
+        assertEquals(network.getTopologyStrategy().getNumTargetLinks(network), linksAfter.size());
+    }
+
+    @Test
+    @DisplayName("Migration auf gleiche Topologie ändert keine Links")
+    void migrationToSameTopologyIsNoOp() {
+        Set<Link> linksBefore = activeLinks();
+
+        Set<Link> delta = network.getTopologyStrategy().migrateNetwork(network, network.getProps(), 31);
+
+        assertTrue(delta.isEmpty());
+        assertEquals(linksBefore, activeLinks());
+    }
+}
@@ -0,0 +1,146 @@
+package org.lrdm.topologies.strategies;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.lrdm.Link;
+import org.lrdm.Network;
+import org.lrdm.effectors.Effector;
+import org.lrdm.topologies.node.StructureNode.StructureType;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("Plan-Cache für wiederholte Größenänderungen")
+class TopologyPlanCacheTest {
+    private static final String config = "resources/sim-test-1.conf";
+
+    private Properties props;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        loadProperties(config);
+        props = (Properties) getProps().clone();
+        props.setProperty("fault_probability", "0.0");
+    }
+
+    private Network createNetwork(BuildAsSubstructure strategy, int mirrors) {
+        Network network = new Network(strategy, mirrors, 2, 30, props);
+        network.setEffector(new Effector(network));
+        for (int t = 1; t <= 20; t++) {
+            network.timeStep(t);
+        }
+        return network;
+    }
+
+    private long openLinks(Network network) {
+        return network.getLinks().stream().filter(l -> l.getState() != Link.State.CLOSED).count();
+    }
+
+    @Test
+    @DisplayName("Oszillierende Größen werden nach dem ersten Durchlauf aus dem Cache bedient")
+    void oscillationHitsCache() {
+        LineTopologyStrategy line = new LineTopologyStrategy();
+        Network network = createNetwork(line, 10);
+        TopologyPlanCache cache = line.getPlanCache();
+        assertEquals(1, cache.size());
+
+        network.setNumMirrors(14, 21);
+        int hitsAfterGrowth = cache.getHits();
+        network.setNumMirrors(10, 22);
+        network.setNumMirrors(14, 23);
+        network.setNumMirrors(10, 24);
+
+        assertTrue(cache.getHits() >= hitsAfterGrowth + 3);
+        assertTrue(line.isLineIntact());
+        assertEquals(9, openLinks(network));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"line", "star", "tree", "balanced"})
+    @DisplayName("Wiederhergestellte Pläne entsprechen neu geplanten Strukturen")
+    void restoredPlanMatchesFreshPlan(String type) {
+        BuildAsSubstructure cached = create(type);
+        Network network = createNetwork(cached, 12);
+        network.setNumMirrors(8, 21);
+        network.setNumMirrors(12, 22);
+        // abgeschaltete Mirrors vollständig stoppen lassen
+        for (int t = 23; t <= 32; t++) {
+            network.timeStep(t);
+        }
+
+        BuildAsSubstructure fresh = create(type);
+        Network reference = createNetwork(fresh, 12);
+
+        assertTrue(cached.getPlanCache().getHits() > 0);
+        assertEquals(fresh.getNumTargetLinks(reference), cached.getNumTargetLinks(network));
+        assertEquals(openLinks(reference), openLinks(network));
+        assertEquals(12, cached.getAllStructureNodes().size());
+    }
+
+    @Test
+    @DisplayName("Andere Links pro Mirror ergeben einen anderen Schlüssel")
+    void keyContainsLinksPerMirror() {
+        TopologyPlanCache.Key k2 = new TopologyPlanCache.Key(TreeTopologyStrategy.class, List.of(), 10, 2);
+        TopologyPlanCache.Key k3 = new TopologyPlanCache.Key(TreeTopologyStrategy.class, List.of(), 10, 3);
+        assertNotEquals(k2, k3);
+    }
+
+    private static TopologyPlan twoNodePlan(int[] parent, int[][] children) {
+        return new TopologyPlan(parent, children,
+                List.of(List.of(Set.of(StructureType.LINE)), List.of()),
+                List.of(List.of(Map.of(StructureType.LINE, 0)), List.of()),
+                List.of(Set.of(StructureType.LINE), Set.of(StructureType.LINE)),
+                List.of(Set.of(StructureType.LINE), Set.of()),
+                new int[]{1, 1});
+    }
+
+    @Test
+    @DisplayName("Pläne vergleichen Arrays nach Inhalt und sind gegen Änderungen geschützt")
+    void planIsValueObject() {
+        int[] parent = {-1, 0};
+        int[][] children = {{1}, {}};
+        TopologyPlan plan = twoNodePlan(parent, children);
+        TopologyPlan same = twoNodePlan(new int[]{-1, 0}, new int[][]{{1}, {}});
+
+        assertEquals(same, plan);
+        assertEquals(same.hashCode(), plan.hashCode());
+        assertTrue(plan.toString().contains("[[1], []]"));
+
+        parent[1] = -1;
+        children[0][0] = 0;
+        plan.parent()[1] = -1;
+        plan.children()[0][0] = 0;
+        plan.children(0)[0] = 0;
+        plan.maxChildren()[0] = 5;
+        assertEquals(0, plan.parent(1));
+        assertArrayEquals(new int[]{1}, plan.children(0));
+        assertEquals(1, plan.maxChildren(0));
+        assertEquals(same, plan);
+        assertThrows(UnsupportedOperationException.class, () -> plan.nodeTypes().get(0).clear());
+    }
+
+    @Test
+    @DisplayName("Snowflake-Pläne werden nicht gecacht")
+    void snowflakeIsNotCached() {
+        assertFalse(new SnowflakeTopologyStrategy().isPlanCacheable());
+    }
+
+    private BuildAsSubstructure create(String type) {
+        return switch (type) {
+            case "line" -> new LineTopologyStrategy();
+            case "star" -> new StarTopologyStrategy();
+            case "tree" -> new TreeTopologyStrategy();
+            default -> new BalancedTreeTopologyStrategy();
+        };
+    }
+}
@@ -12,6 +12,7 @@ import org.lrdm.effectors.Action;
 import org.lrdm.effectors.TopologyChange;
 import org.lrdm.probes.LinkProbe;
 import org.lrdm.probes.MirrorProbe;
+import org.lrdm.topologies.node.MirrorNode;
 
 import java.io.IOException;
 
@@ -262,6 +263,37 @@ class TreeTopologyTest {
             assertTrue(strategy.getMaxAllowedBalanceDeviation() >= 0.1,
                     "Negative Balance-Abweichung sollte auf Minimum korrigiert werden");
         }
+
+        @Test
+        @DisplayName("Der Baum bleibt beim Wachsen und Schrumpfen in Heap-Anordnung")
+        void testHeapLayoutFollowsResize() {
+            Network network = createBalancedTreeNetwork(20);
+            BalancedTreeTopologyStrategy strategy = (BalancedTreeTopologyStrategy) network.getTopologyStrategy();
+
+            // 25 und 20 wiederholen sich: Der gespeicherte Plan wird übernommen und die Anordnung neu abgeleitet
+            int[] changes = {5, -5, 1, -8, 12};
+            for (int t = 1; t <= changes.length; t++) {
+                int change = changes[t - 1];
+                int before = strategy.getLayout().size();
+                int lastId = strategy.getLayout().getId(before - 1);
+                if (change > 0) {
+                    strategy.handleAddNewMirrors(network, change, getProps(), t);
+                } else {
+                    strategy.handleRemoveMirrors(network, -change, getProps(), t);
+                }
+
+                ImplicitKaryTree layout = strategy.getLayout();
+                assertEquals(before + change, layout.size(), "Schritt " + t);
+                assertEquals(layout.size(), strategy.getAllStructureNodes().size(), "Schritt " + t);
+                assertEquals(change < 0, !layout.contains(lastId), "Entfernt wird vom Ende, Schritt " + t);
+                for (int p = 1; p < layout.size(); p++) {
+                    MirrorNode node = strategy.findStructureNodeById(layout.getId(p));
+                    assertEquals(layout.getId(layout.getParent(p)), node.getParent().getId(),
+                            "Parent von Position " + p + ", Schritt " + t);
+                }
+                assertTrue(strategy.validateTopology(), "Schritt " + t);
+            }
+        }
     }
 
     // ===== DEPTH LIMIT TREE TOPOLOGY STRATEGY TESTS =====
@@ -0,0 +1,214 @@
+package org.lrdm.topologies.validators;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.lrdm.topologies.node.StructureNode;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Inkrementelle Struktur-Invarianten")
+class TopologyInvariantsTest {
+
+    private List<StructureNode> nodes;
+    private TopologyInvariants invariants;
+
+    @BeforeEach
+    void setUp() {
+        nodes = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            nodes.add(new StructureNode(i));
+        }
+        invariants = new TopologyInvariants();
+    }
+
+    private StructureNode node(int i) {
+        return nodes.get(i);
+    }
+
+    /** Invarianten von Grund auf: dieselben Knoten in einer neuen Instanz. */
+    private void assertMatchesFreshCount() {
+        TopologyInvariants fresh = new TopologyInvariants();
+        nodes.stream().filter(invariants::contains).forEach(fresh::addNode);
+        assertEquals(fresh.getNodeCount(), invariants.getNodeCount());
+        assertEquals(fresh.getEdgeCount(), invariants.getEdgeCount());
+        assertEquals(fresh.getComponentCount(), invariants.getComponentCount());
+        assertEquals(fresh.getMaxDegree(), invariants.getMaxDegree());
+        assertEquals(fresh.hasCycle(), invariants.hasCycle());
+        for (StructureNode n : nodes) {
+            assertEquals(fresh.getDegree(n), invariants.getDegree(n), "Grad von " + n.getId());
+        }
+        fresh.clear();
+    }
+
+    @Nested
+    @DisplayName("Kanten zwischen Mitgliedern")
+    class EdgeTests {
+
+        @BeforeEach
+        void addMembers() {
+            for (int i = 0; i < 5; i++) {
+                invariants.addNode(node(i));
+            }
+        }
+
+        @Test
+        @DisplayName("Ein aufgebauter Baum hat n-1 Kanten und keinen Zyklus")
+        void buildTree() {
+            assertEquals(5, invariants.getComponentCount());
+            node(0).addChild(node(1));
+            node(0).addChild(node(2));
+            node(1).addChild(node(3));
+            node(1).addChild(node(4));
+
+            assertEquals(4, invariants.getEdgeCount());
+            assertTrue(invariants.isTree());
+            assertFalse(invariants.hasCycle());
+            assertEquals(3, invariants.getDegree(node(1)));
+            assertEquals(3, invariants.getMaxDegree());
+            assertEquals(3, invariants.getNodeCountWithDegree(1));
+        }
+
+        @Test
+        @DisplayName("Eine schließende Kante wird als Zyklus erkannt")
+        void closeCycle() {
+            for (int i = 0; i < 4; i++) {
+                node(i).addChild(node(i + 1));
+            }
+            assertTrue(invariants.isTree());
+            node(4).addChild(node(0));
+
+            assertTrue(invariants.hasCycle());
+            assertTrue(invariants.isConnected());
+            assertFalse(invariants.isTree());
+            assertEquals(5, invariants.getNodeCountWithDegree(2));
+        }
+
+        @Test
+        @DisplayName("Entfernte Kanten teilen Wälder und lösen Zyklen auf")
+        void removeEdges() {
+            for (int i = 0; i < 4; i++) {
+                node(i).addChild(node(i + 1));
+            }
+            node(1).removeChild(node(2));
+            assertEquals(2, invariants.getComponentCount());
+            assertEquals(3, invariants.getEdgeCount());
+
+            node(1).addChild(node(2));
+            node(4).addChild(node(0));
+            node(2).removeChild(node(3), Set.of(StructureNode.StructureType.DEFAULT));
+            assertFalse(invariants.hasCycle());
+            assertTrue(invariants.isTree());
+            assertMatchesFreshCount();
+        }
+
+        @Test
+        @DisplayName("Mitglieder auf beiden Enden melden eine Kante nur einmal")
+        void observerNotifiedOnce() {
+            node(0).addChild(node(1));
+            node(0).addChild(node(1));
+            assertEquals(1, invariants.getEdgeCount());
+            assertEquals(1, invariants.getDegree(node(0)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Mitgliedschaft")
+    class MembershipTests {
+
+        @Test
+        @DisplayName("Kanten zu fremden Knoten zählen erst, wenn beide Enden Mitglied sind")
+        void boundaryEdges() {
+            invariants.addNode(node(0));
+            invariants.addNode(node(1));
+            node(0).addChild(node(1));
+            node(0).addChild(node(5));
+            node(6).addChild(node(1));
+            assertEquals(1, invariants.getEdgeCount());
+
+            invariants.addNode(node(5));
+            invariants.addNode(node(6));
+            assertEquals(3, invariants.getEdgeCount());
+            assertTrue(invariants.isTree());
+
+            invariants.removeNode(node(0));
+            assertEquals(1, invariants.getEdgeCount());
+            assertEquals(2, invariants.getComponentCount());
+
+            invariants.addNode(node(0));
+            assertEquals(3, invariants.getEdgeCount());
+            assertMatchesFreshCount();
+        }
+
+        @Test
+        @DisplayName("Einfügen nach Entfernen baut das Union-Find nicht neu auf, erst die nächste Abfrage einmal")
+        void rebuildOnlyOnQuery() {
+            for (int i = 0; i < 5; i++) {
+                invariants.addNode(node(i));
+            }
+            for (int i = 0; i < 4; i++) {
+                node(i).addChild(node(i + 1));
+            }
+            for (int i = 5; i < 8; i++) {
+                invariants.removeNode(node(i - 1));
+                invariants.addNode(node(i));
+                node(i - 2).addChild(node(i));
+                invariants.addNode(node(i - 1));
+            }
+            assertEquals(0, invariants.getRebuildCount());
+            assertTrue(invariants.isTree());
+            assertEquals(0, invariants.getRebuildCount());
+
+            node(1).addChild(node(5));
+            node(2).removeChild(node(3));
+            node(3).addChild(node(7));
+            assertEquals(0, invariants.getRebuildCount());
+            assertEquals(invariants.getComponentCount(), invariants.getComponentCount());
+            assertFalse(invariants.isTree());
+            assertTrue(invariants.hasCycle());
+            assertEquals(1, invariants.getRebuildCount());
+            assertMatchesFreshCount();
+        }
+
+        @Test
+        @DisplayName("Nach clear werden keine Kanten mehr verfolgt")
+        void clearUnregisters() {
+            invariants.addNode(node(0));
+            invariants.addNode(node(1));
+            invariants.clear();
+            node(0).addChild(node(1));
+
+            assertEquals(0, invariants.getNodeCount());
+            assertEquals(0, invariants.getEdgeCount());
+            assertFalse(invariants.isConnected());
+        }
+
+        @Test
+        @DisplayName("Zufällige Änderungen stimmen mit einer Neuzählung überein")
+        void randomChangesMatchFreshCount() {
+            Random random = new Random(7);
+            for (int step = 0; step < 2000; step++) {
+                StructureNode a = node(random.nextInt(nodes.size()));
+                StructureNode b = node(random.nextInt(nodes.size()));
+                switch (random.nextInt(5)) {
+                    case 0 -> invariants.addNode(a);
+                    case 1 -> invariants.removeNode(a);
+                    case 2 -> a.removeChild(b);
+                    default -> {
+                        if (a != b) a.addChild(b);
+                    }
+                }
+                if (step % 50 == 0) {
+                    assertMatchesFreshCount();
+                }
+            }
+            assertMatchesFreshCount();
+        }
+    }
+}
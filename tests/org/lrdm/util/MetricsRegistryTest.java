@@ -0,0 +1,124 @@
+package org.lrdm.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.lrdm.Network;
+import org.lrdm.effectors.Effector;
+import org.lrdm.probes.LinkProbe;
+import org.lrdm.topologies.strategies.BalancedTreeTopologyStrategy;
+
+import java.io.IOException;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.lrdm.TestProperties.getProps;
+import static org.lrdm.TestProperties.loadProperties;
+
+@DisplayName("MetricsRegistry und Histogram")
+class MetricsRegistryTest {
+    private static final String config = "resources/sim-test-1.conf";
+    private final MetricsRegistry registry = MetricsRegistry.getInstance();
+
+    @BeforeEach
+    void setUp() {
+        registry.reset();
+    }
+
+    @AfterEach
+    void tearDown() {
+        MetricsRegistry.setEnabled(false);
+        registry.reset();
+    }
+
+    @Nested
+    @DisplayName("Histogram")
+    class HistogramTests {
+
+        @Test
+        @DisplayName("Anzahl, Summe und Extremwerte sind exakt, Perzentile liegen im Bucket")
+        void statistics() {
+            Histogram h = registry.histogram("test.histogram");
+            for (long v = 1; v <= 1000; v++) h.record(v * 1000);
+
+            assertEquals(1000, h.getCount());
+            assertEquals(500_500_000L, h.getTotalNanos());
+            assertEquals(1000, h.getMin());
+            assertEquals(1_000_000, h.getMax());
+            assertEquals(500_500, h.getMean(), 1e-9);
+            long p50 = h.getPercentile(0.5);
+            assertTrue(p50 >= 500_000 && p50 < 1_000_000, "p50=" + p50);
+            assertEquals(1_000_000, h.getPercentile(1.0));
+            assertThrows(IllegalArgumentException.class, () -> h.getPercentile(1.5));
+        }
+
+        @Test
+        @DisplayName("Ein leeres Histogramm liefert Nullen")
+        void empty() {
+            Histogram h = registry.histogram("test.empty");
+            assertEquals(0, h.getMin());
+            assertEquals(0, h.getMax());
+            assertEquals(0, h.getPercentile(0.99));
+        }
+    }
+
+    @Nested
+    @DisplayName("Instrumentierung des Netzwerks")
+    class NetworkInstrumentation {
+
+        private Network createNetwork() throws IOException {
+            loadProperties(config);
+            Properties props = (Properties) getProps().clone();
+            props.setProperty("fault_probability", "0.0");
+            Network network = new Network(new BalancedTreeTopologyStrategy(), 10, 2, 30, props);
+            network.setEffector(new Effector(network));
+            network.registerProbe(new LinkProbe(network));
+            return network;
+        }
+
+        @Test
+        @DisplayName("Deaktiviert wird nichts aufgezeichnet")
+        void disabledRecordsNothing() throws IOException {
+            MetricsRegistry.setEnabled(false);
+            Network network = createNetwork();
+            for (int t = 1; t <= 5; t++) network.timeStep(t);
+
+            assertEquals(0L, MetricsRegistry.start());
+            assertTrue(registry.getHistograms().values().stream().allMatch(h -> h.getCount() == 0));
+            assertTrue(registry.getCounters().values().stream().allMatch(c -> c == 0));
+        }
+
+        @Test
+        @DisplayName("Aktiviert werden Phasen, Strategie-Operationen, Probes und Zähler erfasst")
+        void enabledRecordsPhasesAndCounters() throws IOException {
+            MetricsRegistry.setEnabled(true);
+            Network network = createNetwork();
+            network.getEffector().setMirrors(14, 10);
+            network.getEffector().setMirrors(6, 20);
+            for (int t = 1; t <= 30; t++) network.timeStep(t);
+
+            for (String phase : new String[]{MetricsRegistry.TICK_HANDLE_MIRRORS, MetricsRegistry.TICK_HANDLE_LINKS,
+                    MetricsRegistry.TICK_EFFECTOR, MetricsRegistry.TICK_PROBES, MetricsRegistry.TICK_COLLECT_METRICS}) {
+                assertEquals(30, registry.getHistogram(phase).getCount(), phase);
+            }
+            assertEquals(30, registry.getHistogram("probe.LinkProbe").getCount());
+            String strategy = MetricsRegistry.STRATEGY_PREFIX + "BalancedTreeTopologyStrategy";
+            assertEquals(1, registry.getHistogram(strategy + MetricsRegistry.OP_BUILD).getCount());
+            assertEquals(1, registry.getHistogram(strategy + MetricsRegistry.OP_ADD).getCount());
+            assertEquals(1, registry.getHistogram(strategy + MetricsRegistry.OP_REMOVE).getCount());
+            assertTrue(registry.getHistogram(strategy + MetricsRegistry.OP_RECONCILE).getCount() >= 3);
+            assertTrue(registry.getHistogram(strategy + MetricsRegistry.OP_VALIDATE).getCount() >= 1);
+
+            assertTrue(registry.getCounter(MetricsRegistry.LINKS_CREATED) >= network.getLinks().size());
+            assertTrue(registry.getCounter(MetricsRegistry.LINKS_CLOSED) > 0);
+            assertEquals(0, registry.getCounter(MetricsRegistry.MIRRORS_CRASHED));
+
+            StringBuilder dump = new StringBuilder();
+            registry.dump(dump);
+            assertTrue(dump.toString().contains(MetricsRegistry.TICK_HANDLE_LINKS));
+            assertTrue(dump.toString().contains(MetricsRegistry.LINKS_CREATED));
+        }
+    }
+}
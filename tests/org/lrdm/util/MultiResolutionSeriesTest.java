@@ -0,0 +1,123 @@
+package org.lrdm.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Mehrstufige Zeitreihe für Diagramme")
+class MultiResolutionSeriesTest {
+
+    @Nested
+    @DisplayName("Rollups")
+    class Rollups {
+
+        @Test
+        @DisplayName("Eine Million Ticks ergeben Stufen mit 1/10/100/1000 Ticks pro Bucket")
+        void levelsGrowWithSeries() {
+            MultiResolutionSeries series = new MultiResolutionSeries();
+            for (int t = 0; t < 1_000_000; t++) {
+                series.add(t, t % 100);
+            }
+            assertEquals(1_000_000, series.size());
+            assertEquals(4, series.getLevels());
+            assertArrayEquals(new int[]{1, 10, 100, 1000},
+                    new int[]{series.getBucketWidth(0), series.getBucketWidth(1), series.getBucketWidth(2),
+                            series.getBucketWidth(3)});
+            assertEquals(1000, series.getBucketCount(3));
+            assertTrue(series.getBucketCount(series.getLevels() - 1) <= MultiResolutionSeries.MAX_BUCKETS);
+            assertEquals(0, series.getFirstX());
+            assertEquals(999_999, series.getLastX());
+        }
+
+        @Test
+        @DisplayName("Minimum, Maximum und Mittelwert entsprechen den Rohdaten")
+        void bucketsAggregateRawPoints() {
+            MultiResolutionSeries series = new MultiResolutionSeries();
+            Random random = new Random(42);
+            int[] values = new int[50_000];
+            for (int t = 0; t < values.length; t++) {
+                values[t] = random.nextInt(1000);
+                series.add(t, values[t]);
+            }
+            for (int level = 1; level < series.getLevels(); level++) {
+                int width = series.getBucketWidth(level);
+                for (int b = 0; b < series.getBucketCount(level); b++) {
+                    int[] bucket = Arrays.copyOfRange(values, b * width, Math.min(values.length, (b + 1) * width));
+                    assertEquals(Arrays.stream(bucket).min().orElseThrow(), series.getMin(level, b));
+                    assertEquals(Arrays.stream(bucket).max().orElseThrow(), series.getMax(level, b));
+                    assertEquals(Arrays.stream(bucket).average().orElseThrow(), series.getMean(level, b), 1e-9);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Leeren setzt die Zeitreihe zurück")
+        void clearResets() {
+            MultiResolutionSeries series = new MultiResolutionSeries();
+            for (int t = 0; t < 5000; t++) series.add(t, t);
+            series.clear();
+            assertTrue(series.isEmpty());
+            assertEquals(1, series.getLevels());
+            assertThrows(IllegalStateException.class, series::getFirstX);
+        }
+    }
+
+    @Nested
+    @DisplayName("Downsampling")
+    class Downsampling {
+
+        @Test
+        @DisplayName("Kurze Zeitreihen werden unverändert gezeichnet")
+        void shortSeriesIsNotReduced() {
+            MultiResolutionSeries series = new MultiResolutionSeries();
+            for (int t = 0; t < 100; t++) series.add(t, 2 * t);
+            double[][] points = series.downsample(1000);
+            assertEquals(100, points[0].length);
+            assertEquals(99, points[0][99]);
+            assertEquals(198, points[1][99]);
+        }
+
+        @Test
+        @DisplayName("Einzelne Ausreißer bleiben auch bei einer Million Ticks sichtbar")
+        void spikesArePreserved() {
+            MultiResolutionSeries series = new MultiResolutionSeries();
+            for (int t = 0; t < 1_000_000; t++) {
+                int y = 50;
+                if (t == 123_456) y = 0;
+                if (t == 777_777) y = 100;
+                series.add(t, y);
+            }
+            double[][] points = series.downsample(1000);
+            assertTrue(points[0].length <= 1000);
+            assertEquals(0, points[0][0]);
+            assertEquals(999_999, points[0][points[0].length - 1]);
+            assertTrue(Arrays.stream(points[1]).anyMatch(y -> y == 100));
+            assertTrue(Arrays.stream(points[1]).anyMatch(y -> y == 0));
+            for (int i = 1; i < points[0].length; i++) {
+                assertTrue(points[0][i - 1] <= points[0][i]);
+            }
+        }
+
+        @Test
+        @DisplayName("LTTB behält Anfang, Ende und die Spitze")
+        void largestTriangleThreeBuckets() {
+            double[] x = new double[101];
+            double[] y = new double[101];
+            for (int i = 0; i <= 100; i++) {
+                x[i] = i;
+                y[i] = i == 40 ? 10 : 0;
+            }
+            double[][] points = MultiResolutionSeries.largestTriangleThreeBuckets(x, y, x.length, 10);
+            assertEquals(10, points[0].length);
+            assertEquals(0, points[0][0]);
+            assertEquals(100, points[0][9]);
+            assertTrue(Arrays.stream(points[1]).anyMatch(v -> v == 10));
+            assertThrows(IllegalArgumentException.class, () -> new MultiResolutionSeries().downsample(2));
+        }
+    }
+}